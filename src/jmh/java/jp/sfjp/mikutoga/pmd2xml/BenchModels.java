@@ -0,0 +1,366 @@
+/*
+ * benchmark model factory
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
+import jp.sfjp.mikutoga.pmd.model.ListUtil;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdExporter;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdLoader;
+import jp.sfjp.mikutoga.pmd.model.xml.PmdXmlExporter;
+import jp.sfjp.mikutoga.pmd.model.xml.XmlModelFileType;
+
+/**
+ * ベンチマーク用モデルデータの調達。
+ *
+ * <p>同梱テストデータのPMDを基に、
+ * 頂点と面を複製して任意の規模に拡大したモデルを合成する。
+ */
+final class BenchModels {
+
+    /** PMDの頂点インデックス(符号無し16bit)で表せる最大頂点数。 */
+    static final int MAX_VERTEX = 0xffff;
+
+    private static final float SHIFT_X = 0.5f;
+
+    private static final String ERRMSG_SCALE =
+            "invalid scale : {0}";
+    private static final String ERRMSG_TOOMANY =
+            "too many vertices : {0} (max {1})";
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private BenchModels(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * リソースをバイト列として読み込む。
+     *
+     * @param resource リソース名
+     * @return バイト列
+     * @throws IOException 入力エラー
+     */
+    static byte[] readResource(String resource) throws IOException{
+        InputStream is = BenchModels.class.getResourceAsStream(resource);
+        if(is == null) throw new IOException(resource);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try{
+            byte[] buf = new byte[4096];
+            for(;;){
+                int size = is.read(buf);
+                if(size < 0) break;
+                bos.write(buf, 0, size);
+            }
+        }finally{
+            is.close();
+        }
+
+        return bos.toByteArray();
+    }
+
+    /**
+     * PMDバイト列からモデルを読み込む。
+     *
+     * @param pmd PMDバイト列
+     * @return モデル
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットエラー
+     */
+    static PmdModel loadPmd(byte[] pmd)
+            throws IOException, MmdFormatException{
+        PmdLoader loader = new PmdLoader();
+        PmdModel model = loader.load(new ByteArrayInputStream(pmd));
+        return model;
+    }
+
+    /**
+     * モデルの頂点と面を複製し規模を拡大する。
+     *
+     * <p>複製された頂点は元頂点をX軸方向にずらした位置に置かれ、
+     * 複製された面は元の面と同じ材質に属する。
+     *
+     * <p>拡大後の頂点数は{@link #MAX_VERTEX}を超えてはならない。
+     * 超えた頂点はPMD出力時に正しく参照できない。
+     *
+     * @param model モデル
+     * @param scale 拡大倍率。1なら何もしない。
+     * @throws IllegalArgumentException 倍率が1未満、
+     *     もしくは拡大後の頂点数が上限を超える
+     */
+    static void scale(PmdModel model, int scale)
+            throws IllegalArgumentException{
+        List<Vertex> vertexList = model.getVertexList();
+        List<Surface> surfaceList = model.getSurfaceList();
+        VertexStore store = model.getVertexStore();
+
+        if(scale < 1){
+            String errMsg = MessageFormat.format(ERRMSG_SCALE, scale);
+            throw new IllegalArgumentException(errMsg);
+        }
+
+        long total = (long) vertexList.size() * scale;
+        if(total > MAX_VERTEX){
+            String errMsg = MessageFormat.format(ERRMSG_TOOMANY,
+                    Long.toString(total), Integer.toString(MAX_VERTEX) );
+            throw new IllegalArgumentException(errMsg);
+        }
+
+        List<Vertex> baseVertexList = new ArrayList<>(vertexList);
+        store.ensureCapacity(store.size() + baseVertexList.size() * scale);
+
+        Map<Vertex, Vertex> vertexMap = new HashMap<>();
+        for(int copy = 1; copy < scale; copy++){
+            float shift = SHIFT_X * copy;
+
+            vertexMap.clear();
+            for(Vertex base : baseVertexList){
+                Vertex vertex = copyVertex(base, store, shift);
+                vertexList.add(vertex);
+                vertexMap.put(base, vertex);
+            }
+
+            for(Material material : model.getMaterialList()){
+                List<Surface> materialSurfaces = material.getSurfaceList();
+                int baseSurfaces = materialSurfaces.size() / copy;
+                for(int idx = 0; idx < baseSurfaces; idx++){
+                    Surface base = materialSurfaces.get(idx);
+                    Surface surface = new Surface();
+                    surface.setTriangle(vertexMap.get(base.getVertex1()),
+                                        vertexMap.get(base.getVertex2()),
+                                        vertexMap.get(base.getVertex3()) );
+                    materialSurfaces.add(surface);
+                    surfaceList.add(surface);
+                }
+            }
+        }
+
+        ListUtil.assignIndexedSerial(vertexList);
+        ListUtil.assignIndexedSerial(surfaceList);
+
+        return;
+    }
+
+    /**
+     * 頂点を複製する。
+     *
+     * @param base 元頂点
+     * @param store 複製先格納庫
+     * @param shift X軸方向のずれ
+     * @return 複製した頂点
+     */
+    private static Vertex copyVertex(Vertex base,
+                                     VertexStore store,
+                                     float shift ){
+        VertexStore src = base.getVertexStore();
+        int slot = base.getStoreSlot();
+
+        Vertex result = new Vertex(store);
+        result.setPosition(src.getXpos(slot) + shift,
+                           src.getYpos(slot),
+                           src.getZpos(slot) );
+        result.setNormal(src.getXNormal(slot),
+                         src.getYNormal(slot),
+                         src.getZNormal(slot) );
+        result.setUVPosition(src.getUVal(slot), src.getVVal(slot));
+        result.setBonePair(src.getBoneA(slot), src.getBoneB(slot));
+        result.setWeightA(src.getWeightA(slot));
+        result.setEdgeAppearance(src.getEdgeAppearance(slot));
+
+        return result;
+    }
+
+    /**
+     * モデルをPMDバイト列に変換する。
+     *
+     * @param model モデル
+     * @return PMDバイト列
+     * @throws IOException 出力エラー
+     * @throws IllegalPmdDataException 不正なモデル
+     */
+    static byte[] toPmd(PmdModel model)
+            throws IOException, IllegalPmdDataException{
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PmdExporter exporter = new PmdExporter(bos);
+        exporter.dumpPmdModel(model);
+        exporter.close();
+        return bos.toByteArray();
+    }
+
+    /**
+     * モデルをXMLバイト列(UTF-8)に変換する。
+     *
+     * @param model モデル
+     * @return XMLバイト列
+     * @throws IOException 出力エラー
+     * @throws IllegalPmdDataException 不正なモデル
+     */
+    static byte[] toXml(PmdModel model)
+            throws IOException, IllegalPmdDataException{
+        StringBuilder text = new StringBuilder();
+
+        PmdXmlExporter exporter = new PmdXmlExporter();
+        exporter.setXmlFileType(XmlModelFileType.XML_130128);
+        exporter.setNewLine("\n");
+        exporter.putPmdXml(model, text);
+
+        return text.toString().getBytes("UTF-8");
+    }
+
+
+    /**
+     * 出力を捨てるバイトストリーム。
+     */
+    static final class NullOutputStream extends OutputStream {
+
+        private long count = 0L;
+
+        /**
+         * コンストラクタ。
+         */
+        NullOutputStream(){
+            super();
+            return;
+        }
+
+        /**
+         * 書き込まれたバイト数を返す。
+         *
+         * @return バイト数
+         */
+        long getCount(){
+            return this.count;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param b {@inheritDoc}
+         */
+        @Override
+        public void write(int b){
+            this.count++;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param buf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(byte[] buf, int off, int len){
+            this.count += len;
+            return;
+        }
+
+    }
+
+    /**
+     * 出力を捨てる文字ストリーム。
+     */
+    static final class NullWriter extends Writer {
+
+        private long count = 0L;
+
+        /**
+         * コンストラクタ。
+         */
+        NullWriter(){
+            super();
+            return;
+        }
+
+        /**
+         * 書き込まれた文字数を返す。
+         *
+         * @return 文字数
+         */
+        long getCount(){
+            return this.count;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param cbuf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(char[] cbuf, int off, int len){
+            this.count += len;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param str {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         */
+        @Override
+        public void write(String str, int off, int len){
+            this.count += len;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param ch {@inheritDoc}
+         */
+        @Override
+        public void write(int ch){
+            this.count++;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush(){
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close(){
+            return;
+        }
+
+    }
+
+}
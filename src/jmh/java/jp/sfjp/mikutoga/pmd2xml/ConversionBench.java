@@ -0,0 +1,206 @@
+/*
+ * conversion benchmark
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdExporter;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdLoader;
+import jp.sfjp.mikutoga.pmd.model.xml.PmdXmlExporter;
+import jp.sfjp.mikutoga.pmd.model.xml.XmlModelFileType;
+import jp.sfjp.mikutoga.pmd.model.xml.XmlPmdLoader;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * PMD/XML各変換方向のベンチマーク。
+ *
+ * <p>モデル規模は同梱テストデータの複製倍率で指定する。
+ * アロケーション量は{@code -prof gc}で計測する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBench {
+
+    /** 基となる同梱テストデータ。 */
+    @Param({
+        "/testdata/pmd130128/material/material.pmd",
+        "/testdata/pmd130128/i18n/i18n.pmd",
+    })
+    public String resource;
+
+    /**
+     * 頂点と面の複製倍率。
+     *
+     * <p>3頂点のテストデータに対し、
+     * 拡大後の頂点数がPMDの上限65535を超えない範囲に留める。
+     */
+    @Param({"1", "1000", "20000"})
+    public int scale;
+
+
+    private PmdModel model;
+    private byte[] pmdImage;
+    private byte[] xmlImage;
+    private XMLReader xmlReader;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public ConversionBench(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 入力データを用意する。
+     *
+     * @throws Exception 準備失敗
+     */
+    @Setup(Level.Trial)
+    public void setup() throws Exception{
+        byte[] base = BenchModels.readResource(this.resource);
+        PmdModel scaled = BenchModels.loadPmd(base);
+        BenchModels.scale(scaled, this.scale);
+
+        this.pmdImage = BenchModels.toPmd(scaled);
+        this.xmlImage = BenchModels.toXml(scaled);
+        this.model = BenchModels.loadPmd(this.pmdImage);
+
+        this.xmlReader = XmlInputUtil.buildReader(ModelFileType.XML_AUTO);
+
+        return;
+    }
+
+    /**
+     * PMD読み込み。
+     *
+     * @return モデル
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットエラー
+     */
+    @Benchmark
+    public PmdModel loadPmd() throws IOException, MmdFormatException{
+        PmdLoader loader = new PmdLoader();
+        PmdModel result =
+                loader.load(new ByteArrayInputStream(this.pmdImage));
+        return result;
+    }
+
+    /**
+     * PMD書き出し。
+     *
+     * @return 出力バイト数
+     * @throws IOException 出力エラー
+     * @throws IllegalPmdDataException 不正なモデル
+     */
+    @Benchmark
+    public long dumpPmd() throws IOException, IllegalPmdDataException{
+        BenchModels.NullOutputStream os = new BenchModels.NullOutputStream();
+        PmdExporter exporter = new PmdExporter(os);
+        exporter.dumpPmdModel(this.model);
+        exporter.close();
+        return os.getCount();
+    }
+
+    /**
+     * XML書き出し。
+     *
+     * @return 出力文字数
+     * @throws IOException 出力エラー
+     */
+    @Benchmark
+    public long putPmdXml() throws IOException{
+        BenchModels.NullWriter writer = new BenchModels.NullWriter();
+        PmdXmlExporter exporter = new PmdXmlExporter();
+        exporter.setXmlFileType(XmlModelFileType.XML_130128);
+        exporter.setNewLine("\n");
+        exporter.putPmdXml(this.model, writer);
+        return writer.getCount();
+    }
+
+    /**
+     * XML読み込み。
+     *
+     * @return モデル
+     * @throws IOException 入力エラー
+     * @throws SAXException XMLエラー
+     * @throws TogaXmlException XMLエラー
+     */
+    @Benchmark
+    public PmdModel parseXml()
+            throws IOException, SAXException, TogaXmlException{
+        XmlPmdLoader loader = new XmlPmdLoader(this.xmlReader);
+        InputSource source =
+                new InputSource(new ByteArrayInputStream(this.xmlImage));
+        PmdModel result = loader.parse(source);
+        return result;
+    }
+
+    /**
+     * PMDからXMLへのコマンド相当の変換。
+     *
+     * @return 出力バイト数
+     * @throws Exception 変換エラー
+     */
+    @Benchmark
+    public long convertPmd2Xml() throws Exception{
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.PMD);
+        converter.setOutType(ModelFileType.XML_130128);
+        converter.setNewline("\n");
+
+        BenchModels.NullOutputStream os = new BenchModels.NullOutputStream();
+        converter.convert(new ByteArrayInputStream(this.pmdImage), os);
+
+        return os.getCount();
+    }
+
+    /**
+     * XMLからPMDへのコマンド相当の変換。
+     *
+     * @return 出力バイト数
+     * @throws Exception 変換エラー
+     */
+    @Benchmark
+    public long convertXml2Pmd() throws Exception{
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+
+        BenchModels.NullOutputStream os = new BenchModels.NullOutputStream();
+        converter.convert(new ByteArrayInputStream(this.xmlImage), os);
+
+        return os.getCount();
+    }
+
+}
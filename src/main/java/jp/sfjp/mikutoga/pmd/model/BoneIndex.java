@@ -0,0 +1,370 @@
+/*
+ * bone hierarchy index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ボーン階層とボーングループ所属の索引。
+ *
+ * <p>ボーンはボーンリスト上の添字で識別される。
+ * 索引は生成時のボーンリストとボーングループリストから一度だけ構築され、
+ * 以後のモデルデータの変更は反映されない。
+ *
+ * <p>以下の情報を保持する。
+ * <ul>
+ * <li>親ボーンが子ボーンより先に現れるトポロジカル順のボーン並び
+ * <li>親ボーンから子ボーンへの隣接表(CSR形式)
+ * <li>ボーングループごとの所属ボーンのビット集合
+ * <li>ボーン名からボーンへのハッシュ表
+ * </ul>
+ *
+ * <p>親ボーンには{@link BoneInfo#getPrevBone()}が用いられる。
+ * ボーンリスト外のボーンを親に持つボーンは親無しとして扱われる。
+ * 親を辿ると循環に至るボーンはトポロジカル順の末尾に
+ * ボーンリスト順で並べられる。
+ *
+ * <p>構築の計算量は、ボーン数とボーングループ所属数の和、
+ * およびボーン数とボーングループ数の積を64で割った値に比例する。
+ */
+public final class BoneIndex {
+
+    private static final int NO_PARENT = -1;
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = (1 << WORD_SHIFT) - 1;
+
+
+    private final BoneInfo[] bones;
+    private final Map<BoneInfo, Integer> indexMap;
+
+    private final int[] parents;
+    private final int[] childStart;
+    private final int[] children;
+    private final int[] topoOrder;
+
+    private final int groupNum;
+    private final int words;
+    private final long[] memberBits;
+    private final long[] groupedBits;
+
+    private final Map<String, BoneInfo> nameMap;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>ボーンリスト中のnullは索引に含まれない。
+     *
+     * @param boneList ボーンリスト
+     * @param groupList ボーングループリスト
+     */
+    public BoneIndex(List<BoneInfo> boneList, List<BoneGroup> groupList){
+        super();
+
+        List<BoneInfo> nonNull = new ArrayList<>(boneList.size());
+        for(BoneInfo bone : boneList){
+            if(bone != null) nonNull.add(bone);
+        }
+        int boneNum = nonNull.size();
+
+        this.bones = nonNull.toArray(new BoneInfo[boneNum]);
+        this.indexMap = new IdentityHashMap<>(boneNum);
+        this.nameMap = new HashMap<>();
+        for(int idx = 0; idx < boneNum; idx++){
+            BoneInfo bone = this.bones[idx];
+            this.indexMap.put(bone, idx);
+            String name = bone.getBoneName().getPrimaryText();
+            if(name != null) this.nameMap.putIfAbsent(name, bone);
+        }
+
+        this.parents = new int[boneNum];
+        this.childStart = new int[boneNum + 1];
+        this.children = new int[boneNum];
+        this.topoOrder = new int[boneNum];
+        buildHierarchy();
+
+        this.groupNum = groupList.size();
+        this.words = (boneNum + WORD_MASK) >>> WORD_SHIFT;
+        this.memberBits = new long[this.groupNum * this.words];
+        this.groupedBits = new long[this.words];
+        buildMembership(groupList);
+
+        return;
+    }
+
+
+    /**
+     * モデルデータのボーンとボーングループから索引を生成する。
+     *
+     * @param model モデルデータ
+     * @return 索引
+     */
+    public static BoneIndex build(PmdModel model){
+        BoneIndex result = new BoneIndex(model.getBoneList(),
+                                         model.getBoneGroupList() );
+        return result;
+    }
+
+    /**
+     * 親子関係の隣接表とトポロジカル順を構築する。
+     */
+    private void buildHierarchy(){
+        int boneNum = this.bones.length;
+
+        for(int idx = 0; idx < boneNum; idx++){
+            BoneInfo prev = this.bones[idx].getPrevBone();
+            int parent = NO_PARENT;
+            if(prev != null){
+                Integer found = this.indexMap.get(prev);
+                if(found != null) parent = found;
+            }
+            this.parents[idx] = parent;
+            if(parent != NO_PARENT) this.childStart[parent + 1]++;
+        }
+
+        for(int idx = 0; idx < boneNum; idx++){
+            this.childStart[idx + 1] += this.childStart[idx];
+        }
+
+        int[] fill = Arrays.copyOf(this.childStart, boneNum);
+        for(int idx = 0; idx < boneNum; idx++){
+            int parent = this.parents[idx];
+            if(parent == NO_PARENT) continue;
+            this.children[fill[parent]++] = idx;
+        }
+
+        boolean[] visited = new boolean[boneNum];
+        int tail = 0;
+        for(int idx = 0; idx < boneNum; idx++){
+            if(this.parents[idx] != NO_PARENT) continue;
+            this.topoOrder[tail++] = idx;
+            visited[idx] = true;
+        }
+
+        for(int head = 0; head < tail; head++){
+            int parent = this.topoOrder[head];
+            int end = this.childStart[parent + 1];
+            for(int pos = this.childStart[parent]; pos < end; pos++){
+                int child = this.children[pos];
+                this.topoOrder[tail++] = child;
+                visited[child] = true;
+            }
+        }
+
+        for(int idx = 0; idx < boneNum; idx++){
+            if(visited[idx]) continue;
+            this.topoOrder[tail++] = idx;
+        }
+        assert tail == boneNum;
+
+        return;
+    }
+
+    /**
+     * ボーングループ所属のビット集合を構築する。
+     *
+     * @param groupList ボーングループリスト
+     */
+    private void buildMembership(List<BoneGroup> groupList){
+        int groupIdx = 0;
+        for(BoneGroup group : groupList){
+            int base = groupIdx * this.words;
+            for(BoneInfo bone : group){
+                Integer found = this.indexMap.get(bone);
+                if(found == null) continue;
+                int boneIdx = found;
+                int word = boneIdx >>> WORD_SHIFT;
+                long bit = 1L << (boneIdx & WORD_MASK);
+                this.memberBits[base + word] |= bit;
+                this.groupedBits[word] |= bit;
+            }
+            groupIdx++;
+        }
+        return;
+    }
+
+    /**
+     * ボーン数を返す。
+     *
+     * @return ボーン数
+     */
+    public int getBoneCount(){
+        return this.bones.length;
+    }
+
+    /**
+     * ボーンを返す。
+     *
+     * @param boneIdx ボーン番号
+     * @return ボーン
+     * @throws IndexOutOfBoundsException 不正なボーン番号
+     */
+    public BoneInfo getBone(int boneIdx) throws IndexOutOfBoundsException{
+        return this.bones[boneIdx];
+    }
+
+    /**
+     * ボーンのボーン番号を返す。
+     *
+     * @param bone ボーン
+     * @return ボーン番号。索引に無いボーンなら負の値
+     */
+    public int indexOf(BoneInfo bone){
+        Integer found = this.indexMap.get(bone);
+        if(found == null) return NO_PARENT;
+        return found;
+    }
+
+    /**
+     * 名前からボーンを検索する。
+     *
+     * <p>同名のボーンが複数ある場合はボーンリスト上で先のボーンが返る。
+     *
+     * @param boneName ボーン名
+     * @return ボーン。見つからなければnull
+     */
+    public BoneInfo findBone(String boneName){
+        return this.nameMap.get(boneName);
+    }
+
+    /**
+     * 親ボーンのボーン番号を返す。
+     *
+     * @param boneIdx ボーン番号
+     * @return 親ボーンのボーン番号。親が無ければ負の値
+     * @throws IndexOutOfBoundsException 不正なボーン番号
+     */
+    public int getParentIndex(int boneIdx) throws IndexOutOfBoundsException{
+        return this.parents[boneIdx];
+    }
+
+    /**
+     * 子ボーンの数を返す。
+     *
+     * @param boneIdx ボーン番号
+     * @return 子ボーンの数
+     * @throws IndexOutOfBoundsException 不正なボーン番号
+     */
+    public int getChildCount(int boneIdx) throws IndexOutOfBoundsException{
+        checkBone(boneIdx);
+        int result = this.childStart[boneIdx + 1]
+                   - this.childStart[boneIdx];
+        return result;
+    }
+
+    /**
+     * 子ボーンのボーン番号を返す。
+     *
+     * <p>子ボーンはボーンリスト順に並ぶ。
+     *
+     * @param boneIdx ボーン番号
+     * @param nth 何番目の子ボーンか
+     * @return 子ボーンのボーン番号
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public int getChild(int boneIdx, int nth)
+            throws IndexOutOfBoundsException{
+        int count = getChildCount(boneIdx);
+        if(nth < 0 || count <= nth) throw new IndexOutOfBoundsException();
+        return this.children[this.childStart[boneIdx] + nth];
+    }
+
+    /**
+     * トポロジカル順で指定番目のボーン番号を返す。
+     *
+     * <p>親ボーンは常に子ボーンより先に現れる。
+     *
+     * @param nth 何番目か
+     * @return ボーン番号
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public int getTopologicalOrder(int nth) throws IndexOutOfBoundsException{
+        return this.topoOrder[nth];
+    }
+
+    /**
+     * ボーングループ数を返す。
+     *
+     * @return ボーングループ数
+     */
+    public int getGroupCount(){
+        return this.groupNum;
+    }
+
+    /**
+     * ボーンがボーングループに所属するか判定する。
+     *
+     * @param groupIdx ボーングループリスト上の添字
+     * @param boneIdx ボーン番号
+     * @return 所属していればtrue
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public boolean isMember(int groupIdx, int boneIdx)
+            throws IndexOutOfBoundsException{
+        checkBone(boneIdx);
+        if(groupIdx < 0 || this.groupNum <= groupIdx){
+            throw new IndexOutOfBoundsException();
+        }
+        int pos = groupIdx * this.words + (boneIdx >>> WORD_SHIFT);
+        long bit = 1L << (boneIdx & WORD_MASK);
+        boolean result = (this.memberBits[pos] & bit) != 0L;
+        return result;
+    }
+
+    /**
+     * ボーンがいずれかのボーングループに所属するか判定する。
+     *
+     * @param boneIdx ボーン番号
+     * @return 所属していればtrue
+     * @throws IndexOutOfBoundsException 不正なボーン番号
+     */
+    public boolean isGrouped(int boneIdx) throws IndexOutOfBoundsException{
+        checkBone(boneIdx);
+        long bit = 1L << (boneIdx & WORD_MASK);
+        boolean result =
+                (this.groupedBits[boneIdx >>> WORD_SHIFT] & bit) != 0L;
+        return result;
+    }
+
+    /**
+     * いずれのボーングループにも所属しないボーンのリストを返す。
+     *
+     * <p>ボーンはボーンリスト順に並ぶ。
+     *
+     * @return ボーンのリスト
+     */
+    public List<BoneInfo> getUngroupedBones(){
+        List<BoneInfo> result = new ArrayList<>();
+        int boneNum = this.bones.length;
+        for(int idx = 0; idx < boneNum; idx++){
+            if(isGrouped(idx)) continue;
+            result.add(this.bones[idx]);
+        }
+        return result;
+    }
+
+    /**
+     * ボーン番号を検査する。
+     *
+     * @param boneIdx ボーン番号
+     * @throws IndexOutOfBoundsException 不正なボーン番号
+     */
+    private void checkBone(int boneIdx) throws IndexOutOfBoundsException{
+        if(boneIdx < 0 || this.bones.length <= boneIdx){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * PMD model section
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+/**
+ * 変更追跡の単位となるモデルの部位。
+ *
+ * <p>各部位はPMDファイル上の1つ以上のセクションに対応する。
+ *
+ * @see PmdModel#markDirty(ModelSection)
+ */
+public enum ModelSection {
+
+    /** モデル名と説明。 */
+    BASIC,
+    /** 頂点。 */
+    VERTEX,
+    /** 面。 */
+    SURFACE,
+    /** 材質。 */
+    MATERIAL,
+    /** ボーン。 */
+    BONE,
+    /** IKチェーン。 */
+    IK,
+    /** モーフ。 */
+    MORPH,
+    /** モーフ表示順、ボーングループおよびその所属。 */
+    GROUP,
+    /** 英語名情報。 */
+    ENGLISH,
+    /** 共有トゥーンファイル名。 */
+    TOON,
+    /** 剛体。 */
+    RIGID,
+    /** ジョイント。 */
+    JOINT,
+    ;
+
+}
@@ -0,0 +1,527 @@
+/*
+ * packed morph store
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.math.MkPos3D;
+import jp.sfjp.mikutoga.pmd.MorphType;
+
+/**
+ * モーフ頂点情報の一括格納庫。
+ *
+ * <p>各モーフの頂点IDと変位量を、モーフ頂点ごとのオブジェクトではなく
+ * 全モーフ通しのプリミティブ配列に詰めて保持する。
+ * 各モーフの範囲は開始位置の配列で示される。
+ *
+ * <p>BASEモーフを構成する頂点の和集合は、
+ * モーフの追加に伴い頂点IDを添字とするビット集合として逐次更新される。
+ * BASEモーフ上の添字は頂点IDの昇順に振られ、
+ * ビット集合上の順位として求められる。
+ * ソートやハッシュ表、モーフ頂点の通し番号の書き換えを伴わない。
+ *
+ * <p>BASEモーフ上の頂点から、
+ * その頂点を動かすモーフへの逆引きも提供される。
+ *
+ * <p>変位量はPMDファイル同様float精度で保持される。
+ *
+ * @see PmdModel#mergeMorphVertex()
+ */
+public final class PackedMorphStore {
+
+    private static final int OFFSET_DIM = 3;
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = (1 << WORD_SHIFT) - 1;
+
+    private static final int DEF_MORPHS = 8;
+    private static final int DEF_VERTICES = 64;
+
+    private static final String ERRMSG_NEGID =
+            "negative vertex ID in morph";
+
+
+    private MorphPart[] parts = new MorphPart[DEF_MORPHS];
+    private int[] morphStart = new int[DEF_MORPHS + 1];
+    private int morphCount = 0;
+
+    private int[] vertexIds = new int[DEF_VERTICES];
+    private float[] offsets = new float[DEF_VERTICES * OFFSET_DIM];
+    private int total = 0;
+
+    private long[] unionBits = new long[1];
+    private Vertex[] vertexById = new Vertex[1 << WORD_SHIFT];
+    private int unionCount = 0;
+
+    private boolean indexed = false;
+    private int[] wordRank;
+    private int[] baseIds;
+    private int[] touchStart;
+    private int[] touchMorphs;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>空の格納庫を生成する。
+     */
+    public PackedMorphStore(){
+        super();
+        return;
+    }
+
+
+    /**
+     * モデルデータのモーフから格納庫を生成する。
+     *
+     * <p>モーフは種別順、各種別内ではリスト順に格納される。
+     * BASEモーフは格納されない。
+     *
+     * @param model モデルデータ
+     * @return 格納庫
+     * @throws IllegalArgumentException 頂点IDが負のモーフ頂点がある
+     */
+    public static PackedMorphStore build(PmdModel model)
+            throws IllegalArgumentException{
+        PackedMorphStore result = new PackedMorphStore();
+
+        Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
+        for(MorphType type : MorphType.values()){
+            if(type.isBase()) continue;
+            List<MorphPart> partList = morphMap.get(type);
+            if(partList == null) continue;
+            for(MorphPart part : partList){
+                result.addMorph(part);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 配列長を必要量以上に拡張する。
+     *
+     * @param current 現在の配列長
+     * @param required 必要量
+     * @return 新しい配列長
+     */
+    private static int grownLength(int current, int required){
+        int result = current;
+        while(result < required){
+            result *= 2;
+        }
+        return result;
+    }
+
+    /**
+     * モーフを追加する。
+     *
+     * <p>モーフ頂点の頂点IDには頂点の通し番号が用いられる。
+     * 追加後のモーフ頂点情報の変更は格納庫に反映されない。
+     *
+     * @param part モーフ
+     * @return 格納庫上のモーフ番号
+     * @throws IllegalArgumentException 頂点IDが負のモーフ頂点がある
+     */
+    public int addMorph(MorphPart part) throws IllegalArgumentException{
+        List<MorphVertex> morphVertexList = part.getMorphVertexList();
+        int vertexNum = morphVertexList.size();
+
+        for(MorphVertex morphVertex : morphVertexList){
+            int vertexId = morphVertex.getBaseVertex().getSerialNumber();
+            if(vertexId < 0){
+                throw new IllegalArgumentException(ERRMSG_NEGID);
+            }
+        }
+
+        ensureMorphCapacity(this.morphCount + 1);
+        ensureVertexCapacity(this.total + vertexNum);
+
+        int pos = this.total;
+        for(MorphVertex morphVertex : morphVertexList){
+            Vertex vertex = morphVertex.getBaseVertex();
+            int vertexId = vertex.getSerialNumber();
+            MkPos3D offset = morphVertex.getOffset();
+
+            this.vertexIds[pos] = vertexId;
+            int offPos = pos * OFFSET_DIM;
+            this.offsets[offPos    ] = (float) offset.getXpos();
+            this.offsets[offPos + 1] = (float) offset.getYpos();
+            this.offsets[offPos + 2] = (float) offset.getZpos();
+            pos++;
+
+            addUnion(vertexId, vertex);
+        }
+
+        int morphIdx = this.morphCount;
+        this.parts[morphIdx] = part;
+        this.morphStart[morphIdx + 1] = pos;
+        this.morphCount++;
+        this.total = pos;
+
+        this.indexed = false;
+
+        return morphIdx;
+    }
+
+    /**
+     * モーフ用配列の容量を確保する。
+     *
+     * @param required 必要なモーフ数
+     */
+    private void ensureMorphCapacity(int required){
+        int current = this.parts.length;
+        if(required <= current) return;
+
+        int newLength = grownLength(current, required);
+        this.parts = Arrays.copyOf(this.parts, newLength);
+        this.morphStart = Arrays.copyOf(this.morphStart, newLength + 1);
+
+        return;
+    }
+
+    /**
+     * モーフ頂点用配列の容量を確保する。
+     *
+     * @param required 必要なモーフ頂点数
+     */
+    private void ensureVertexCapacity(int required){
+        int current = this.vertexIds.length;
+        if(required <= current) return;
+
+        int newLength = grownLength(current, required);
+        this.vertexIds = Arrays.copyOf(this.vertexIds, newLength);
+        this.offsets = Arrays.copyOf(this.offsets, newLength * OFFSET_DIM);
+
+        return;
+    }
+
+    /**
+     * BASEモーフの和集合に頂点を加える。
+     *
+     * @param vertexId 頂点ID
+     * @param vertex 頂点
+     */
+    private void addUnion(int vertexId, Vertex vertex){
+        int word = vertexId >>> WORD_SHIFT;
+        if(word >= this.unionBits.length){
+            int newLength = grownLength(this.unionBits.length, word + 1);
+            this.unionBits = Arrays.copyOf(this.unionBits, newLength);
+            this.vertexById = Arrays.copyOf(this.vertexById,
+                                            newLength << WORD_SHIFT );
+        }
+
+        long bit = 1L << (vertexId & WORD_MASK);
+        if((this.unionBits[word] & bit) != 0L) return;
+
+        this.unionBits[word] |= bit;
+        this.vertexById[vertexId] = vertex;
+        this.unionCount++;
+
+        return;
+    }
+
+    /**
+     * 格納されたモーフ数を返す。
+     *
+     * @return モーフ数
+     */
+    public int getMorphCount(){
+        return this.morphCount;
+    }
+
+    /**
+     * モーフを返す。
+     *
+     * @param morphIdx モーフ番号
+     * @return モーフ
+     * @throws IndexOutOfBoundsException 不正なモーフ番号
+     */
+    public MorphPart getMorphPart(int morphIdx)
+            throws IndexOutOfBoundsException{
+        checkMorph(morphIdx);
+        return this.parts[morphIdx];
+    }
+
+    /**
+     * 全モーフのモーフ頂点数の和を返す。
+     *
+     * @return モーフ頂点数
+     */
+    public int getTotalMorphVertexCount(){
+        return this.total;
+    }
+
+    /**
+     * モーフのモーフ頂点数を返す。
+     *
+     * @param morphIdx モーフ番号
+     * @return モーフ頂点数
+     * @throws IndexOutOfBoundsException 不正なモーフ番号
+     */
+    public int getMorphVertexCount(int morphIdx)
+            throws IndexOutOfBoundsException{
+        checkMorph(morphIdx);
+        int result = this.morphStart[morphIdx + 1]
+                   - this.morphStart[morphIdx];
+        return result;
+    }
+
+    /**
+     * モーフ頂点の頂点IDを返す。
+     *
+     * @param morphIdx モーフ番号
+     * @param idx モーフ内の頂点番号
+     * @return 頂点ID
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public int getVertexId(int morphIdx, int idx)
+            throws IndexOutOfBoundsException{
+        int pos = getPosition(morphIdx, idx);
+        return this.vertexIds[pos];
+    }
+
+    /**
+     * モーフ頂点の変位量を返す。
+     *
+     * @param morphIdx モーフ番号
+     * @param idx モーフ内の頂点番号
+     * @param axis 軸番号。0:X 1:Y 2:Z
+     * @return 変位量
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public float getOffset(int morphIdx, int idx, int axis)
+            throws IndexOutOfBoundsException{
+        if(axis < 0 || OFFSET_DIM <= axis){
+            throw new IndexOutOfBoundsException();
+        }
+        int pos = getPosition(morphIdx, idx);
+        return this.offsets[pos * OFFSET_DIM + axis];
+    }
+
+    /**
+     * モーフ頂点のBASEモーフ上の添字を返す。
+     *
+     * @param morphIdx モーフ番号
+     * @param idx モーフ内の頂点番号
+     * @return BASEモーフ上の添字
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public int getBaseIndex(int morphIdx, int idx)
+            throws IndexOutOfBoundsException{
+        int vertexId = getVertexId(morphIdx, idx);
+        buildIndex();
+        int result = rank(vertexId);
+        return result;
+    }
+
+    /**
+     * BASEモーフの頂点数を返す。
+     *
+     * <p>全モーフで使われる頂点の重複を除いた数に等しい。
+     *
+     * @return 頂点数
+     */
+    public int getBaseVertexCount(){
+        return this.unionCount;
+    }
+
+    /**
+     * BASEモーフ上の頂点IDを返す。
+     *
+     * @param baseIdx BASEモーフ上の添字
+     * @return 頂点ID
+     * @throws IndexOutOfBoundsException 不正な添字
+     */
+    public int getBaseVertexId(int baseIdx)
+            throws IndexOutOfBoundsException{
+        checkBase(baseIdx);
+        buildIndex();
+        return this.baseIds[baseIdx];
+    }
+
+    /**
+     * BASEモーフ上の頂点を返す。
+     *
+     * <p>同じ頂点IDを持つ頂点が複数ある場合は初出の頂点が返る。
+     *
+     * @param baseIdx BASEモーフ上の添字
+     * @return 頂点
+     * @throws IndexOutOfBoundsException 不正な添字
+     */
+    public Vertex getBaseVertex(int baseIdx)
+            throws IndexOutOfBoundsException{
+        int vertexId = getBaseVertexId(baseIdx);
+        return this.vertexById[vertexId];
+    }
+
+    /**
+     * BASEモーフ上の頂点を動かすモーフの数を返す。
+     *
+     * @param baseIdx BASEモーフ上の添字
+     * @return モーフ数
+     * @throws IndexOutOfBoundsException 不正な添字
+     */
+    public int getTouchingMorphCount(int baseIdx)
+            throws IndexOutOfBoundsException{
+        checkBase(baseIdx);
+        buildIndex();
+        int result = this.touchStart[baseIdx + 1]
+                   - this.touchStart[baseIdx];
+        return result;
+    }
+
+    /**
+     * BASEモーフ上の頂点を動かすモーフのモーフ番号を返す。
+     *
+     * <p>モーフ番号は昇順に並ぶ。
+     *
+     * @param baseIdx BASEモーフ上の添字
+     * @param nth 何番目のモーフか
+     * @return モーフ番号
+     * @throws IndexOutOfBoundsException 不正な添字
+     */
+    public int getTouchingMorph(int baseIdx, int nth)
+            throws IndexOutOfBoundsException{
+        int count = getTouchingMorphCount(baseIdx);
+        if(nth < 0 || count <= nth) throw new IndexOutOfBoundsException();
+        return this.touchMorphs[this.touchStart[baseIdx] + nth];
+    }
+
+    /**
+     * モーフ番号を検査する。
+     *
+     * @param morphIdx モーフ番号
+     * @throws IndexOutOfBoundsException 不正なモーフ番号
+     */
+    private void checkMorph(int morphIdx) throws IndexOutOfBoundsException{
+        if(morphIdx < 0 || this.morphCount <= morphIdx){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * BASEモーフ上の添字を検査する。
+     *
+     * @param baseIdx BASEモーフ上の添字
+     * @throws IndexOutOfBoundsException 不正な添字
+     */
+    private void checkBase(int baseIdx) throws IndexOutOfBoundsException{
+        if(baseIdx < 0 || this.unionCount <= baseIdx){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * モーフ頂点の配列上の位置を返す。
+     *
+     * @param morphIdx モーフ番号
+     * @param idx モーフ内の頂点番号
+     * @return 配列上の位置
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    private int getPosition(int morphIdx, int idx)
+            throws IndexOutOfBoundsException{
+        int count = getMorphVertexCount(morphIdx);
+        if(idx < 0 || count <= idx) throw new IndexOutOfBoundsException();
+        return this.morphStart[morphIdx] + idx;
+    }
+
+    /**
+     * 和集合上での頂点IDの順位を返す。
+     *
+     * @param vertexId 頂点ID
+     * @return 順位
+     */
+    private int rank(int vertexId){
+        int word = vertexId >>> WORD_SHIFT;
+        long below = (1L << (vertexId & WORD_MASK)) - 1L;
+        int result = this.wordRank[word]
+                   + Long.bitCount(this.unionBits[word] & below);
+        return result;
+    }
+
+    /**
+     * BASEモーフ上の添字と逆引き表を必要なら構築する。
+     *
+     * <p>計算量は頂点IDの最大値とモーフ頂点数の和に比例する。
+     */
+    private void buildIndex(){
+        if(this.indexed) return;
+
+        int words = this.unionBits.length;
+        this.wordRank = new int[words];
+        this.baseIds = new int[this.unionCount];
+
+        int rankSum = 0;
+        for(int word = 0; word < words; word++){
+            this.wordRank[word] = rankSum;
+            long bits = this.unionBits[word];
+            while(bits != 0L){
+                int bitPos = Long.numberOfTrailingZeros(bits);
+                this.baseIds[rankSum++] = (word << WORD_SHIFT) | bitPos;
+                bits &= bits - 1L;
+            }
+        }
+        assert rankSum == this.unionCount;
+
+        buildTouchIndex();
+
+        this.indexed = true;
+
+        return;
+    }
+
+    /**
+     * BASEモーフ上の頂点からモーフへの逆引き表を構築する。
+     *
+     * <p>同一モーフ内で重複する頂点は一度だけ数えられる。
+     */
+    private void buildTouchIndex(){
+        int baseNum = this.unionCount;
+
+        int[] lastMorph = new int[baseNum];
+        Arrays.fill(lastMorph, -1);
+        int[] counts = new int[baseNum + 1];
+
+        for(int morphIdx = 0; morphIdx < this.morphCount; morphIdx++){
+            int end = this.morphStart[morphIdx + 1];
+            for(int pos = this.morphStart[morphIdx]; pos < end; pos++){
+                int baseIdx = rank(this.vertexIds[pos]);
+                if(lastMorph[baseIdx] == morphIdx) continue;
+                lastMorph[baseIdx] = morphIdx;
+                counts[baseIdx + 1]++;
+            }
+        }
+
+        for(int baseIdx = 0; baseIdx < baseNum; baseIdx++){
+            counts[baseIdx + 1] += counts[baseIdx];
+        }
+        this.touchStart = counts;
+
+        int[] fill = Arrays.copyOf(counts, baseNum);
+        this.touchMorphs = new int[counts[baseNum]];
+        Arrays.fill(lastMorph, -1);
+
+        for(int morphIdx = 0; morphIdx < this.morphCount; morphIdx++){
+            int end = this.morphStart[morphIdx + 1];
+            for(int pos = this.morphStart[morphIdx]; pos < end; pos++){
+                int baseIdx = rank(this.vertexIds[pos]);
+                if(lastMorph[baseIdx] == morphIdx) continue;
+                lastMorph[baseIdx] = morphIdx;
+                this.touchMorphs[fill[baseIdx]++] = morphIdx;
+            }
+        }
+
+        return;
+    }
+
+}
@@ -10,6 +10,7 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -23,12 +24,21 @@
 /**
  * PMDモデルファイル一式に相当するもの。
  * 様々な基本構造のリストの集合から構成される。
+ *
+ * <p>部位ごとに変更の有無が記録される。
+ * 生成直後および読み込み直後のモデルは全部位が変更済みとみなされる。
+ * 各リストや要素への変更は自動的には追跡されないため、
+ * 未変更の記録は呼び出し側の明示的な宣言としてのみ扱われる。
+ * 原本からの差分出力を望む呼び出し側は、
+ * 読み込み直後に{@link #markClean()}を呼び、
+ * 以後の編集を{@link #markDirty(ModelSection)}で通知しなければならない。
  */
 public class PmdModel {
 
     private final I18nText modelName = new I18nText();
     private final I18nText description = new I18nText();
 
+    private final VertexStore vertexStore = new VertexStore();
     private final List<Vertex> vertexList = new ArrayList<>();
     private final List<Surface> surfaceList = new ArrayList<>();
     private final List<Material> materialList = new LinkedList<>();
@@ -49,6 +59,11 @@ public class PmdModel {
 
     private ToonMap toonMap = new ToonMap();
 
+    private TriangleMesh triangleMesh = null;
+
+    private final Set<ModelSection> dirtySet =
+            EnumSet.allOf(ModelSection.class);
+
 
     /**
      * コンストラクタ。
@@ -96,6 +111,17 @@ public List<Vertex> getVertexList(){
         return this.vertexList;
     }
 
+    /**
+     * 頂点属性の格納庫を返す。
+     *
+     * <p>頂点リストに加える頂点はこの格納庫上に生成されることが望ましい。
+     *
+     * @return 頂点格納庫
+     */
+    public VertexStore getVertexStore(){
+        return this.vertexStore;
+    }
+
     /**
      * 面リストを返す。
      *
@@ -105,6 +131,40 @@ public List<Surface> getSurfaceList(){
         return this.surfaceList;
     }
 
+    /**
+     * 面の頂点IDを詰めたインデックスバッファを返す。
+     *
+     * <p>バッファはモデルが保持する。
+     * PMDファイルからの読み込みでは読み込み時に設定される。
+     * 未設定の場合、頂点、面もしくは材質が変更済みとして通知された場合、
+     * および材質ごとの面数もしくは頂点数が食い違う場合は、
+     * 材質の面リストから作り直される。
+     *
+     * @return インデックスバッファ
+     * @see TriangleMesh#matches(PmdModel)
+     */
+    public TriangleMesh getTriangleMesh(){
+        TriangleMesh mesh = this.triangleMesh;
+        if(mesh == null || ! mesh.matches(this)){
+            mesh = TriangleMesh.build(this);
+            this.triangleMesh = mesh;
+        }
+        return mesh;
+    }
+
+    /**
+     * 面の頂点IDを詰めたインデックスバッファを設定する。
+     *
+     * <p>読み込み処理など、材質の面リストと一致するバッファを
+     * 既に持つ場合に用いる。
+     *
+     * @param mesh インデックスバッファ。nullなら次回参照時に作り直される
+     */
+    public void setTriangleMesh(TriangleMesh mesh){
+        this.triangleMesh = mesh;
+        return;
+    }
+
     /**
      * 素材リストを返す。
      *
@@ -286,6 +346,7 @@ private List<MorphVertex> getUniqueMorphVertexList(
      * 通し番号は返されるモーフ頂点リストの添え字番号と一致する。
      *
      * @return モーフに使われるモーフ頂点のリスト
+     * @see PackedMorphStore
      */
     public List<MorphVertex> mergeMorphVertex(){
         List<MorphVertex> result;
@@ -317,92 +378,115 @@ public List<MorphVertex> mergeMorphVertex(){
     }
 
     /**
-     * 永続化可能な状態へトリミングする。
-     * 各種オブジェクトの通し番号が変化する可能性がある。
+     * 部位が変更済みか判定する。
+     *
+     * @param section 部位
+     * @return 変更済みならtrue
      */
-    public void trimming(){
-        List<Surface> trimmedSurfaceList = trimmingSurfaceList();
-        this.surfaceList.clear();
-        this.surfaceList.addAll(trimmedSurfaceList);
-
-        List<Vertex> trimmedVertexList = trimmingVertexList();
-        this.vertexList.clear();
-        this.vertexList.addAll(trimmedVertexList);
-
-        return;
+    public boolean isDirty(ModelSection section){
+        return this.dirtySet.contains(section);
     }
 
     /**
-     * 面リストをトリミングする。
-     * 所属マテリアル順に再配置し、通し番号を割り振り直す。
-     * 所属マテリアルの無い面はリストの末端に配置される。
-     * 面リスト中のnullは削除され詰められる。
+     * 部位を変更済みとして記録する。
+     *
+     * <p>要素の追加、削除、並べ替えを行った場合は、
+     * その要素を参照する部位も変更済みとしなければならない。
+     * 頂点、面もしくは材質が通知された場合、
+     * 保持する面のインデックスバッファは破棄される。
      *
-     * @return トリミングされた面リスト
+     * @param section 部位
+     * @throws NullPointerException 引数がnull
      */
-    private List<Surface> trimmingSurfaceList(){
-        Set<Surface> materialedSurfaceSet = new HashSet<>();
-        for(Material material : this.materialList){
-            if(material == null) continue;
-            for(Surface surface : material){
-                if(surface == null) continue;
-                materialedSurfaceSet.add(surface);
-            }
+    public void markDirty(ModelSection section) throws NullPointerException{
+        if(section == null) throw new NullPointerException();
+        this.dirtySet.add(section);
+
+        switch(section){
+        case VERTEX:
+        case SURFACE:
+        case MATERIAL:
+            this.triangleMesh = null;
+            break;
+        default:
+            break;
         }
 
-        materialedSurfaceSet.removeAll(this.surfaceList);
-
-        List<Surface> result = new ArrayList<>();
-        for(Surface surface : this.surfaceList){
-            if(surface == null) continue;
-            result.add(surface);
-        }
-
-        result.addAll(materialedSurfaceSet);
+        return;
+    }
 
-        int serialNum = 0;
-        for(Surface surface : result){
-            surface.setSerialNumber(serialNum);
-            serialNum++;
-        }
+    /**
+     * 全部位を変更済みとして記録する。
+     */
+    public void markAllDirty(){
+        this.dirtySet.addAll(EnumSet.allOf(ModelSection.class));
+        this.triangleMesh = null;
+        return;
+    }
 
-        return result;
+    /**
+     * 全部位を未変更として記録する。
+     *
+     * <p>ファイルからの読み込み直後など、
+     * モデルが読み込み元と一致する時点で呼び出し側が明示的に呼ぶ。
+     * 読み込み処理がこのメソッドを呼ぶことはない。
+     */
+    public void markClean(){
+        this.dirtySet.clear();
+        return;
     }
 
     /**
-     * 頂点リストをトリミングする。
-     * 通し番号を振り直す。
-     * 所属面の無い頂点はリストの末端に配置される。
-     * 頂点リスト中のnullは削除され詰められる。
+     * 永続化可能な状態へトリミングする。
+     * 各種オブジェクトの通し番号が変化する可能性がある。
      *
-     * @return トリミングされた頂点リスト
+     * <p>面リストおよび頂点リスト中のnullは削除され詰められる。
+     * マテリアルに属するが面リストに無い面は面リストの末端に、
+     * 面やモーフから参照されるが頂点リストに無い頂点は
+     * 頂点リストの末端に、それぞれ初出順に追加される。
+     * 面と頂点の通し番号はリスト上の添字に振り直される。
+     * 面もしくは頂点の並びが変化した場合、
+     * それらを参照する部位は変更済みとして記録される。
+     *
+     * <p>計算量は頂点数、面数およびモーフ頂点数の和に比例する。
      */
-    private List<Vertex> trimmingVertexList(){
-        Set<Vertex> surfacedVertexSet = new HashSet<>();
-        for(Surface surface : this.surfaceList){
-            if(surface == null) continue;
-            for(Vertex vertex : surface){
-                surfacedVertexSet.add(vertex);
+    public void trimming(){
+        SerialCompactor<Surface> surfaces =
+                new SerialCompactor<>(this.surfaceList);
+        for(Material material : this.materialList){
+            if(material == null) continue;
+            for(Surface surface : material.getSurfaceList()){
+                surfaces.add(surface);
             }
         }
-
-        surfacedVertexSet.removeAll(this.vertexList);
-
-        List<Vertex> result = new ArrayList<>();
-        for(Vertex vertex : this.vertexList){
-            if(vertex == null) continue;
-            result.add(vertex);
+        surfaces.applyTo(this.surfaceList);
+        if(surfaces.isChanged()){
+            markDirty(ModelSection.SURFACE);
         }
 
-        result.addAll(surfacedVertexSet);
-
-        int serialNum = 0;
-        for(Vertex vertex : result){
-            vertex.setSerialNumber(serialNum);
-            serialNum++;
+        SerialCompactor<Vertex> vertices =
+                new SerialCompactor<>(this.vertexList);
+        for(Surface surface : this.surfaceList){
+            vertices.add(surface.getVertex1());
+            vertices.add(surface.getVertex2());
+            vertices.add(surface.getVertex3());
+        }
+        for(List<MorphPart> partList : this.morphMap.values()){
+            if(partList == null) continue;
+            for(MorphPart part : partList){
+                for(MorphVertex morphVertex : part.getMorphVertexList()){
+                    vertices.add(morphVertex.getBaseVertex());
+                }
+            }
+        }
+        vertices.applyTo(this.vertexList);
+        if(vertices.isChanged()){
+            markDirty(ModelSection.VERTEX);
+            markDirty(ModelSection.SURFACE);
+            markDirty(ModelSection.MORPH);
         }
 
-        return result;
+        return;
     }
 
 }
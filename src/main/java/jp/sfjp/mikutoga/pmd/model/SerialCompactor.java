@@ -0,0 +1,111 @@
+/*
+ * serial-numbered list compactor
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通し番号を持つ要素のリストを詰め直す。
+ *
+ * <p>元リストの非null要素を出現順に並べた後、
+ * リスト外から参照される要素を初出順に追加する。
+ * 各要素の通し番号は詰め直されたリスト上の添字に振り直される。
+ *
+ * <p>追加済みか否かは通し番号を添字とした同一性比較で判定され、
+ * ハッシュ表や要素のボクシングを伴わない。
+ * 全体の計算量は元リストの要素数と参照数の和に比例する。
+ *
+ * @param <E> 要素の型
+ */
+final class SerialCompactor<E extends SerialNumbered> {
+
+    private final List<E> result;
+    private boolean changed = false;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>元リストのnull要素は除かれる。
+     * 元リストは変更されないが、要素の通し番号は振り直される。
+     *
+     * @param list 元リスト
+     */
+    SerialCompactor(List<? extends E> list){
+        super();
+
+        this.result = new ArrayList<>(list.size());
+        for(E elem : list){
+            if(elem == null){
+                this.changed = true;
+                continue;
+            }
+            if(elem.getSerialNumber() != this.result.size()){
+                this.changed = true;
+            }
+            elem.setSerialNumber(this.result.size());
+            this.result.add(elem);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 要素が詰め直し後のリストに含まれるか判定する。
+     *
+     * @param elem 要素
+     * @return 含まれていればtrue
+     */
+    private boolean contains(E elem){
+        int idx = elem.getSerialNumber();
+        if(idx < 0 || this.result.size() <= idx) return false;
+        boolean found = this.result.get(idx) == elem;
+        return found;
+    }
+
+    /**
+     * 参照される要素を追加する。
+     *
+     * <p>nullもしくは追加済みの要素は無視される。
+     *
+     * @param elem 要素
+     */
+    void add(E elem){
+        if(elem == null) return;
+        if(contains(elem)) return;
+
+        elem.setSerialNumber(this.result.size());
+        this.result.add(elem);
+        this.changed = true;
+
+        return;
+    }
+
+    /**
+     * 元リストの内容もしくは通し番号が変化したか判定する。
+     *
+     * @return 変化したならtrue
+     */
+    boolean isChanged(){
+        return this.changed;
+    }
+
+    /**
+     * 詰め直したリストの内容でリストを置き換える。
+     *
+     * @param list 置き換え対象のリスト
+     */
+    void applyTo(List<E> list){
+        list.clear();
+        list.addAll(this.result);
+        return;
+    }
+
+}
@@ -7,9 +7,8 @@
 
 package jp.sfjp.mikutoga.pmd.model;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * 3頂点の三角形からなる面情報。
@@ -114,18 +113,42 @@ public Vertex getVertex3(){
      * {@inheritDoc}
      * 頂点を返す反復子を生成する。
      * 反復子がnullを返す可能性もありうる。
+     * 反復子は要素の削除をサポートしない。
      *
      * @return {@inheritDoc}
      */
     @Override
     public Iterator<Vertex> iterator(){
-        List<Vertex> list = new ArrayList<>(TRIANGLE);
+        Iterator<Vertex> result = new Iterator<Vertex>(){
+            private int idx = 0;
+
+            @Override
+            public boolean hasNext(){
+                return this.idx < TRIANGLE;
+            }
+
+            @Override
+            public Vertex next(){
+                Vertex vertex;
+                switch(this.idx){
+                case 0:
+                    vertex = Surface.this.vertex1;
+                    break;
+                case 1:
+                    vertex = Surface.this.vertex2;
+                    break;
+                case 2:
+                    vertex = Surface.this.vertex3;
+                    break;
+                default:
+                    throw new NoSuchElementException();
+                }
+                this.idx++;
+                return vertex;
+            }
+        };
 
-        list.add(this.vertex1);
-        list.add(this.vertex2);
-        list.add(this.vertex3);
-
-        return list.iterator();
+        return result;
     }
 
     /**
@@ -0,0 +1,205 @@
+/*
+ * compact triangle mesh
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.List;
+
+/**
+ * 三角形面の頂点IDを詰めたインデックスバッファ。
+ *
+ * <p>全マテリアルの面をマテリアル順に並べ、
+ * 各面の3頂点IDを単一のint配列に連続して保持する。
+ * 各マテリアルに属する面の範囲は開始位置の表で示される。
+ *
+ * <p>面および頂点のオブジェクトを辿ることなく、
+ * 面番号と頂点番号のみで全ての面を走査できる。
+ * 走査に伴うオブジェクト生成は無い。
+ *
+ * <p>頂点IDには頂点の通し番号が用いられる。
+ * バッファはモデルが保持し、モデルの編集に合わせて作り直される。
+ *
+ * @see PmdModel#getTriangleMesh()
+ */
+public final class TriangleMesh {
+
+    private static final int TRIANGLE = 3;
+
+
+    private final int[] materialStart;
+    private final int[] indices;
+    private final int vertexCount;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>配列は複製されずにそのまま保持される。
+     *
+     * @param materialStart 各マテリアルの開始面番号。
+     *     末尾に総面数を加えた、マテリアル数+1の長さを持つ
+     * @param indices 頂点IDの並び。長さは総面数の3倍
+     * @param vertexCount 頂点数
+     * @throws IllegalArgumentException 配列長が食い違う
+     */
+    public TriangleMesh(int[] materialStart, int[] indices, int vertexCount)
+            throws IllegalArgumentException{
+        super();
+
+        if(materialStart.length < 1) throw new IllegalArgumentException();
+        int surfaceNum = materialStart[materialStart.length - 1];
+        if(surfaceNum * TRIANGLE != indices.length){
+            throw new IllegalArgumentException();
+        }
+
+        this.materialStart = materialStart;
+        this.indices = indices;
+        this.vertexCount = vertexCount;
+
+        return;
+    }
+
+
+    /**
+     * モデルデータのマテリアルからインデックスバッファを生成する。
+     *
+     * @param model モデルデータ
+     * @return インデックスバッファ
+     * @throws NullPointerException 頂点が未設定の面がある
+     */
+    public static TriangleMesh build(PmdModel model)
+            throws NullPointerException{
+        List<Material> materialList = model.getMaterialList();
+        int materialNum = materialList.size();
+
+        int[] start = new int[materialNum + 1];
+        int surfaceNum = 0;
+        int materialIdx = 0;
+        for(Material material : materialList){
+            start[materialIdx++] = surfaceNum;
+            surfaceNum += material.getSurfaceList().size();
+        }
+        start[materialNum] = surfaceNum;
+
+        int[] indices = new int[surfaceNum * TRIANGLE];
+        int pos = 0;
+        for(Material material : materialList){
+            for(Surface surface : material.getSurfaceList()){
+                indices[pos++] = surface.getVertex1().getSerialNumber();
+                indices[pos++] = surface.getVertex2().getSerialNumber();
+                indices[pos++] = surface.getVertex3().getSerialNumber();
+            }
+        }
+        assert pos == indices.length;
+
+        int vertexNum = model.getVertexList().size();
+        TriangleMesh result = new TriangleMesh(start, indices, vertexNum);
+        return result;
+    }
+
+    /**
+     * モデルデータとマテリアル数、マテリアルごとの面数、
+     * および頂点数が一致するか判定する。
+     *
+     * <p>面の頂点の差し替えなど、個数の変化しない編集は検出されない。
+     *
+     * @param model モデルデータ
+     * @return 一致すればtrue
+     */
+    public boolean matches(PmdModel model){
+        if(model.getVertexList().size() != this.vertexCount) return false;
+
+        List<Material> materialList = model.getMaterialList();
+        if(materialList.size() != getMaterialCount()) return false;
+
+        int materialIdx = 0;
+        for(Material material : materialList){
+            int size = material.getSurfaceList().size();
+            if(size != getMaterialSurfaceCount(materialIdx)) return false;
+            materialIdx++;
+        }
+
+        return true;
+    }
+
+    /**
+     * マテリアル数を返す。
+     *
+     * @return マテリアル数
+     */
+    public int getMaterialCount(){
+        return this.materialStart.length - 1;
+    }
+
+    /**
+     * 全マテリアルの面数の和を返す。
+     *
+     * @return 面数
+     */
+    public int getSurfaceCount(){
+        return this.indices.length / TRIANGLE;
+    }
+
+    /**
+     * マテリアルに属する先頭の面番号を返す。
+     *
+     * @param materialIdx マテリアル番号
+     * @return 面番号
+     * @throws IndexOutOfBoundsException 不正なマテリアル番号
+     */
+    public int getMaterialSurfaceStart(int materialIdx)
+            throws IndexOutOfBoundsException{
+        checkMaterial(materialIdx);
+        return this.materialStart[materialIdx];
+    }
+
+    /**
+     * マテリアルに属する面数を返す。
+     *
+     * @param materialIdx マテリアル番号
+     * @return 面数
+     * @throws IndexOutOfBoundsException 不正なマテリアル番号
+     */
+    public int getMaterialSurfaceCount(int materialIdx)
+            throws IndexOutOfBoundsException{
+        checkMaterial(materialIdx);
+        int result = this.materialStart[materialIdx + 1]
+                   - this.materialStart[materialIdx];
+        return result;
+    }
+
+    /**
+     * 面を構成する頂点の頂点IDを返す。
+     *
+     * @param surfaceNo 面番号
+     * @param corner 面内の頂点番号。0から2
+     * @return 頂点ID
+     * @throws IndexOutOfBoundsException 不正な番号
+     */
+    public int getSurfaceVertexId(int surfaceNo, int corner)
+            throws IndexOutOfBoundsException{
+        if(corner < 0 || TRIANGLE <= corner){
+            throw new IndexOutOfBoundsException();
+        }
+        return this.indices[surfaceNo * TRIANGLE + corner];
+    }
+
+    /**
+     * マテリアル番号を検査する。
+     *
+     * @param materialIdx マテリアル番号
+     * @throws IndexOutOfBoundsException 不正なマテリアル番号
+     */
+    private void checkMaterial(int materialIdx)
+            throws IndexOutOfBoundsException{
+        if(materialIdx < 0 || getMaterialCount() <= materialIdx){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+}
@@ -13,63 +13,142 @@
 
 /**
  * 頂点情報。
+ *
+ * <p>頂点の各属性は{@link VertexStore}上に格納され、
+ * このクラスは格納庫上の1スロットへのビューとして振る舞う。
+ * モデルに属する頂点は、モデルの格納庫から
+ * {@link VertexStore#newVertex()}で割り当てること。
  */
 public class Vertex implements SerialNumbered {
 
-    private static final int MIN_WEIGHT = 0;
     private static final int MAX_WEIGHT = 100;
-    private static final int BALANCED   = 50;
-
-
-    private final MkPos3D position = new MkPos3D();
-    private final MkVec3D normal = new MkVec3D();
-
-    private final MkPos2D uvPosition = new MkPos2D();
 
-    private BoneInfo boneA = null;
-    private BoneInfo boneB = null;
 
-    private int boneWeight = BALANCED;
-
-    private boolean edgeAppearance = true;
+    private final VertexStore store;
+    private final int slot;
 
     private int vertexSerialNo = -1;
 
 
     /**
      * コンストラクタ。
+     *
+     * <p>自身専用の格納庫を持つ頂点を生成する。
+     * 多数の頂点を生成する場合は共有の格納庫を用いること。
+     *
+     * @see VertexStore#newVertex()
      */
     public Vertex(){
+        this(new VertexStore(1));
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>格納庫上に新規スロットを割り当てる。
+     *
+     * @param store 頂点格納庫
+     * @throws NullPointerException 引数がnull
+     */
+    public Vertex(VertexStore store) throws NullPointerException{
         super();
+        this.store = store;
+        this.slot = store.allocSlot();
         return;
     }
 
 
+    /**
+     * 属性値を格納する頂点格納庫を返す。
+     *
+     * @return 頂点格納庫
+     */
+    public VertexStore getVertexStore(){
+        return this.store;
+    }
+
+    /**
+     * 頂点格納庫上のスロット番号を返す。
+     *
+     * @return スロット番号
+     */
+    public int getStoreSlot(){
+        return this.slot;
+    }
+
     /**
      * 頂点位置座標を返す。
      *
+     * <p>返される座標は頂点格納庫へのビューであり、
+     * 座標の変更は頂点に反映される。
+     *
      * @return 頂点の位置座標
+     * @see #setPosition(float, float, float)
      */
     public MkPos3D getPosition(){
-        return this.position;
+        return new PositionView(this.store, this.slot);
+    }
+
+    /**
+     * 頂点位置座標を設定する。
+     *
+     * @param xPos X座標
+     * @param yPos Y座標
+     * @param zPos Z座標
+     */
+    public void setPosition(float xPos, float yPos, float zPos){
+        this.store.setPosition(this.slot, xPos, yPos, zPos);
+        return;
     }
 
     /**
      * 法線ベクトルを返す。
      *
+     * <p>返されるベクトルは頂点格納庫へのビューであり、
+     * 成分の変更は頂点に反映される。
+     *
      * @return 法線ベクトル
+     * @see #setNormal(float, float, float)
      */
     public MkVec3D getNormal(){
-        return this.normal;
+        return new NormalView(this.store, this.slot);
+    }
+
+    /**
+     * 法線ベクトルを設定する。
+     *
+     * @param xVal X成分
+     * @param yVal Y成分
+     * @param zVal Z成分
+     */
+    public void setNormal(float xVal, float yVal, float zVal){
+        this.store.setNormal(this.slot, xVal, yVal, zVal);
+        return;
     }
 
     /**
      * UVマップ座標を返す。
      *
+     * <p>返される座標は頂点格納庫へのビューであり、
+     * 座標の変更は頂点に反映される。
+     *
      * @return UVマップ情報
+     * @see #setUVPosition(float, float)
      */
     public MkPos2D getUVPosition(){
-        return this.uvPosition;
+        return new UVView(this.store, this.slot);
+    }
+
+    /**
+     * UVマップ座標を設定する。
+     *
+     * @param uVal U座標
+     * @param vVal V座標
+     */
+    public void setUVPosition(float uVal, float vVal){
+        this.store.setUV(this.slot, uVal, vVal);
+        return;
     }
 
     /**
@@ -81,12 +160,7 @@ public MkPos2D getUVPosition(){
      */
     public void setBonePair(BoneInfo boneAArg, BoneInfo boneBArg)
             throws NullPointerException{
-        if(boneAArg == null || boneBArg == null)
-            throw new NullPointerException();
-
-        this.boneA = boneAArg;
-        this.boneB = boneBArg;
-
+        this.store.setBonePair(this.slot, boneAArg, boneBArg);
         return;
     }
 
@@ -96,7 +170,7 @@ public void setBonePair(BoneInfo boneAArg, BoneInfo boneBArg)
      * @return ボーンA
      */
     public BoneInfo getBoneA(){
-        return this.boneA;
+        return this.store.getBoneA(this.slot);
     }
 
     /**
@@ -105,7 +179,7 @@ public BoneInfo getBoneA(){
      * @return ボーンB
      */
     public BoneInfo getBoneB(){
-        return this.boneB;
+        return this.store.getBoneB(this.slot);
     }
 
     /**
@@ -115,11 +189,7 @@ public BoneInfo getBoneB(){
      * @throws IllegalArgumentException ウェイト値が範囲外
      */
     public void setWeightA(int weight) throws IllegalArgumentException{
-        if(    weight < MIN_WEIGHT
-            || MAX_WEIGHT < weight ){
-            throw new IllegalArgumentException();
-        }
-        this.boneWeight = weight;
+        this.store.setWeightA(this.slot, weight);
         return;
     }
 
@@ -140,7 +210,7 @@ public void setWeightB(int weight) throws IllegalArgumentException{
      * @return ウェイト値
      */
     public int getWeightA(){
-        return this.boneWeight;
+        return this.store.getWeightA(this.slot);
     }
 
     /**
@@ -149,7 +219,7 @@ public int getWeightA(){
      * @return ウェイト値
      */
     public int getWeightB(){
-        int result = MAX_WEIGHT - this.boneWeight;
+        int result = MAX_WEIGHT - getWeightA();
         return result;
     }
 
@@ -159,7 +229,7 @@ public int getWeightB(){
      * @return ウェイト率。0.0(影響小)-1.0(影響大)
      */
     public float getWeightRatioA(){
-        return ((float)this.boneWeight) / (float)MAX_WEIGHT;
+        return ((float)getWeightA()) / (float)MAX_WEIGHT;
     }
 
     /**
@@ -168,7 +238,7 @@ public float getWeightRatioA(){
      * @return ウェイト率。0.0(影響小)-1.0(影響大)
      */
     public float getWeightRatioB(){
-        return ((float)MAX_WEIGHT - (float)this.boneWeight)
+        return ((float)MAX_WEIGHT - (float)getWeightA())
                 / (float)MAX_WEIGHT;
     }
 
@@ -179,7 +249,7 @@ public float getWeightRatioB(){
      * @param show 表示するならtrue
      */
     public void setEdgeAppearance(boolean show){
-        this.edgeAppearance = show;
+        this.store.setEdgeAppearance(this.slot, show);
         return;
     }
 
@@ -190,7 +260,7 @@ public void setEdgeAppearance(boolean show){
      * @return 表示するならtrue
      */
     public boolean getEdgeAppearance(){
-        return this.edgeAppearance;
+        return this.store.getEdgeAppearance(this.slot);
     }
 
     /**
@@ -224,22 +294,315 @@ public String toString(){
         StringBuilder result = new StringBuilder();
 
         result.append("Vertex(").append(this.vertexSerialNo).append(") ");
-        result.append(this.position).append(' ');
-        result.append(this.normal).append(' ');
-        result.append("UV").append(this.uvPosition).append(' ');
+        result.append(getPosition()).append(' ');
+        result.append(getNormal()).append(' ');
+        result.append("UV").append(getUVPosition()).append(' ');
 
         result.append("[")
-              .append(this.boneA.getBoneName())
+              .append(getBoneA().getBoneName())
               .append("<>")
-              .append(this.boneB.getBoneName())
+              .append(getBoneB().getBoneName())
               .append("] ");
 
-        result.append("weight=").append(this.boneWeight).append(' ');
+        result.append("weight=").append(getWeightA()).append(' ');
 
-        if(this.edgeAppearance) result.append("showEdge");
+        if(getEdgeAppearance()) result.append("showEdge");
         else                    result.append("hideEdge");
 
         return result.toString();
     }
 
+
+    /**
+     * 頂点格納庫上の位置座標へのビュー。
+     */
+    private static final class PositionView extends MkPos3D{
+
+        private final VertexStore store;
+        private final int slot;
+
+        /**
+         * コンストラクタ。
+         * @param store 頂点格納庫
+         * @param slot スロット番号
+         */
+        PositionView(VertexStore store, int slot){
+            super(store.getXpos(slot),
+                  store.getYpos(slot),
+                  store.getZpos(slot) );
+            this.store = store;
+            this.slot = slot;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getXpos(){
+            return this.store.getXpos(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getYpos(){
+            return this.store.getYpos(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getZpos(){
+            return this.store.getZpos(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xPos {@inheritDoc}
+         */
+        @Override
+        public void setXpos(double xPos){
+            setPosition(xPos, getYpos(), getZpos());
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param yPos {@inheritDoc}
+         */
+        @Override
+        public void setYpos(double yPos){
+            setPosition(getXpos(), yPos, getZpos());
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param zPos {@inheritDoc}
+         */
+        @Override
+        public void setZpos(double zPos){
+            setPosition(getXpos(), getYpos(), zPos);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xPos {@inheritDoc}
+         * @param yPos {@inheritDoc}
+         * @param zPos {@inheritDoc}
+         */
+        @Override
+        public void setPosition(double xPos, double yPos, double zPos){
+            this.store.setPosition(this.slot,
+                    (float) xPos, (float) yPos, (float) zPos );
+            super.setPosition(xPos, yPos, zPos);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public String toString(){
+            super.setPosition(getXpos(), getYpos(), getZpos());
+            return super.toString();
+        }
+
+    }
+
+    /**
+     * 頂点格納庫上の法線ベクトルへのビュー。
+     */
+    private static final class NormalView extends MkVec3D{
+
+        private final VertexStore store;
+        private final int slot;
+
+        /**
+         * コンストラクタ。
+         * @param store 頂点格納庫
+         * @param slot スロット番号
+         */
+        NormalView(VertexStore store, int slot){
+            super(store.getXNormal(slot),
+                  store.getYNormal(slot),
+                  store.getZNormal(slot) );
+            this.store = store;
+            this.slot = slot;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getXVal(){
+            return this.store.getXNormal(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getYVal(){
+            return this.store.getYNormal(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getZVal(){
+            return this.store.getZNormal(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xVal {@inheritDoc}
+         */
+        @Override
+        public void setXVal(double xVal){
+            setVector(xVal, getYVal(), getZVal());
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param yVal {@inheritDoc}
+         */
+        @Override
+        public void setYVal(double yVal){
+            setVector(getXVal(), yVal, getZVal());
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param zVal {@inheritDoc}
+         */
+        @Override
+        public void setZVal(double zVal){
+            setVector(getXVal(), getYVal(), zVal);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xVal {@inheritDoc}
+         * @param yVal {@inheritDoc}
+         * @param zVal {@inheritDoc}
+         */
+        @Override
+        public void setVector(double xVal, double yVal, double zVal){
+            this.store.setNormal(this.slot,
+                    (float) xVal, (float) yVal, (float) zVal );
+            super.setVector(xVal, yVal, zVal);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public String toString(){
+            super.setVector(getXVal(), getYVal(), getZVal());
+            return super.toString();
+        }
+
+    }
+
+    /**
+     * 頂点格納庫上のUVマップ座標へのビュー。
+     */
+    private static final class UVView extends MkPos2D{
+
+        private final VertexStore store;
+        private final int slot;
+
+        /**
+         * コンストラクタ。
+         * @param store 頂点格納庫
+         * @param slot スロット番号
+         */
+        UVView(VertexStore store, int slot){
+            super(store.getUVal(slot), store.getVVal(slot));
+            this.store = store;
+            this.slot = slot;
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getXpos(){
+            return this.store.getUVal(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public double getYpos(){
+            return this.store.getVVal(this.slot);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xPos {@inheritDoc}
+         */
+        @Override
+        public void setXpos(double xPos){
+            setPosition(xPos, getYpos());
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param yPos {@inheritDoc}
+         */
+        @Override
+        public void setYpos(double yPos){
+            setPosition(getXpos(), yPos);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param xPos {@inheritDoc}
+         * @param yPos {@inheritDoc}
+         */
+        @Override
+        public void setPosition(double xPos, double yPos){
+            this.store.setUV(this.slot, (float) xPos, (float) yPos);
+            super.setPosition(xPos, yPos);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        public String toString(){
+            super.setPosition(getXpos(), getYpos());
+            return super.toString();
+        }
+
+    }
+
 }
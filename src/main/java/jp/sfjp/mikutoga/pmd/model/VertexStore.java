@@ -0,0 +1,623 @@
+/*
+ * packed vertex store
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 頂点情報の一括格納庫。
+ *
+ * <p>各頂点の属性を頂点ごとのオブジェクトではなく、
+ * 属性種別ごとのプリミティブ配列に詰めて保持する。
+ * 個々の頂点は格納庫内のスロット番号で識別される。
+ *
+ * <p>ボーンは格納庫ごとのボーン表に登録され、
+ * 頂点はボーン表上の番号をshort値で保持する。
+ *
+ * @see Vertex
+ */
+public class VertexStore {
+
+    private static final int MIN_WEIGHT = 0;
+    private static final int MAX_WEIGHT = 100;
+    private static final byte BALANCED  = 50;
+
+    private static final short NOBONE = (short) 0xffff;
+    private static final int MAX_BONES = 0xffff;
+
+    private static final int POS_DIM    = 3;
+    private static final int NORMAL_DIM = 3;
+    private static final int UV_DIM     = 2;
+    private static final int BONE_DIM   = 2;
+
+    private static final int DEF_CAPACITY = 16;
+
+
+    private float[] posArray;
+    private float[] normalArray;
+    private float[] uvArray;
+    private short[] boneArray;
+    private byte[] weightArray;
+    private byte[] edgeArray;
+
+    private int capacity;
+    private int size = 0;
+
+    private List<BoneInfo> boneTable = null;
+    private Map<BoneInfo, Integer> boneIdxMap = null;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public VertexStore(){
+        this(DEF_CAPACITY);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param initCapacity 初期容量
+     * @throws IllegalArgumentException 初期容量が負
+     */
+    public VertexStore(int initCapacity) throws IllegalArgumentException{
+        super();
+
+        if(initCapacity < 0) throw new IllegalArgumentException();
+
+        this.capacity = initCapacity;
+
+        this.posArray    = new float[initCapacity * POS_DIM];
+        this.normalArray = new float[initCapacity * NORMAL_DIM];
+        this.uvArray     = new float[initCapacity * UV_DIM];
+        this.boneArray   = new short[initCapacity * BONE_DIM];
+        this.weightArray = new byte[initCapacity];
+        this.edgeArray   = new byte[initCapacity];
+
+        return;
+    }
+
+
+    /**
+     * 割り当て済みスロット数を返す。
+     *
+     * @return スロット数
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * 指定スロット数を格納できるよう容量を確保する。
+     *
+     * @param minCapacity 最低容量
+     */
+    public void ensureCapacity(int minCapacity){
+        if(minCapacity <= this.capacity) return;
+
+        int newCapacity = this.capacity + (this.capacity >> 1);
+        if(newCapacity < minCapacity) newCapacity = minCapacity;
+
+        this.posArray = Arrays.copyOf(this.posArray, newCapacity * POS_DIM);
+        this.normalArray =
+                Arrays.copyOf(this.normalArray, newCapacity * NORMAL_DIM);
+        this.uvArray   = Arrays.copyOf(this.uvArray, newCapacity * UV_DIM);
+        this.boneArray = Arrays.copyOf(this.boneArray, newCapacity * BONE_DIM);
+        this.weightArray = Arrays.copyOf(this.weightArray, newCapacity);
+        this.edgeArray   = Arrays.copyOf(this.edgeArray, newCapacity);
+
+        this.capacity = newCapacity;
+
+        return;
+    }
+
+    /**
+     * 新規スロットを割り当てる。
+     *
+     * <p>ボーンは未設定、ウェイトは均等、エッジは表示状態で初期化される。
+     *
+     * @return スロット番号
+     */
+    public int allocSlot(){
+        int slot = this.size;
+        ensureCapacity(slot + 1);
+
+        int boneIdx = slot * BONE_DIM;
+        this.boneArray[boneIdx]     = NOBONE;
+        this.boneArray[boneIdx + 1] = NOBONE;
+        this.weightArray[slot] = BALANCED;
+        this.edgeArray[slot] = 1;
+
+        this.size++;
+
+        return slot;
+    }
+
+    /**
+     * 新規スロットを割り当て、そのスロットを指す頂点を返す。
+     *
+     * @return 頂点
+     * @see #allocSlot()
+     */
+    public Vertex newVertex(){
+        Vertex result = new Vertex(this);
+        return result;
+    }
+
+    /**
+     * 指定数の新規スロットを割り当て、
+     * 各スロットを指す頂点をリストの末尾に追加する。
+     *
+     * <p>容量は一括して確保される。
+     *
+     * @param vertexList 頂点リスト
+     * @param count 頂点数
+     * @return 最初に割り当てたスロット番号
+     */
+    public int addVertices(List<Vertex> vertexList, int count){
+        int fromSlot = this.size;
+        ensureCapacity(fromSlot + count);
+
+        for(int ct = 0; ct < count; ct++){
+            vertexList.add(new Vertex(this));
+        }
+
+        return fromSlot;
+    }
+
+    /**
+     * スロット番号の範囲を検査する。
+     *
+     * @param slot スロット番号
+     * @throws IndexOutOfBoundsException 未割り当てのスロット
+     */
+    private void checkSlot(int slot) throws IndexOutOfBoundsException{
+        if(slot < 0 || this.size <= slot){
+            throw new IndexOutOfBoundsException(Integer.toString(slot));
+        }
+        return;
+    }
+
+    /**
+     * 頂点位置座標を設定する。
+     *
+     * @param slot スロット番号
+     * @param xPos X座標
+     * @param yPos Y座標
+     * @param zPos Z座標
+     */
+    public void setPosition(int slot, float xPos, float yPos, float zPos){
+        checkSlot(slot);
+        int idx = slot * POS_DIM;
+        this.posArray[idx]     = xPos;
+        this.posArray[idx + 1] = yPos;
+        this.posArray[idx + 2] = zPos;
+        return;
+    }
+
+    /**
+     * 頂点位置のX座標を返す。
+     *
+     * @param slot スロット番号
+     * @return X座標
+     */
+    public float getXpos(int slot){
+        checkSlot(slot);
+        return this.posArray[slot * POS_DIM];
+    }
+
+    /**
+     * 頂点位置のY座標を返す。
+     *
+     * @param slot スロット番号
+     * @return Y座標
+     */
+    public float getYpos(int slot){
+        checkSlot(slot);
+        return this.posArray[slot * POS_DIM + 1];
+    }
+
+    /**
+     * 頂点位置のZ座標を返す。
+     *
+     * @param slot スロット番号
+     * @return Z座標
+     */
+    public float getZpos(int slot){
+        checkSlot(slot);
+        return this.posArray[slot * POS_DIM + 2];
+    }
+
+    /**
+     * 法線ベクトルを設定する。
+     *
+     * @param slot スロット番号
+     * @param xVal X成分
+     * @param yVal Y成分
+     * @param zVal Z成分
+     */
+    public void setNormal(int slot, float xVal, float yVal, float zVal){
+        checkSlot(slot);
+        int idx = slot * NORMAL_DIM;
+        this.normalArray[idx]     = xVal;
+        this.normalArray[idx + 1] = yVal;
+        this.normalArray[idx + 2] = zVal;
+        return;
+    }
+
+    /**
+     * 法線ベクトルのX成分を返す。
+     *
+     * @param slot スロット番号
+     * @return X成分
+     */
+    public float getXNormal(int slot){
+        checkSlot(slot);
+        return this.normalArray[slot * NORMAL_DIM];
+    }
+
+    /**
+     * 法線ベクトルのY成分を返す。
+     *
+     * @param slot スロット番号
+     * @return Y成分
+     */
+    public float getYNormal(int slot){
+        checkSlot(slot);
+        return this.normalArray[slot * NORMAL_DIM + 1];
+    }
+
+    /**
+     * 法線ベクトルのZ成分を返す。
+     *
+     * @param slot スロット番号
+     * @return Z成分
+     */
+    public float getZNormal(int slot){
+        checkSlot(slot);
+        return this.normalArray[slot * NORMAL_DIM + 2];
+    }
+
+    /**
+     * UVマップ座標を設定する。
+     *
+     * @param slot スロット番号
+     * @param uVal U座標
+     * @param vVal V座標
+     */
+    public void setUV(int slot, float uVal, float vVal){
+        checkSlot(slot);
+        int idx = slot * UV_DIM;
+        this.uvArray[idx]     = uVal;
+        this.uvArray[idx + 1] = vVal;
+        return;
+    }
+
+    /**
+     * UVマップのU座標を返す。
+     *
+     * @param slot スロット番号
+     * @return U座標
+     */
+    public float getUVal(int slot){
+        checkSlot(slot);
+        return this.uvArray[slot * UV_DIM];
+    }
+
+    /**
+     * UVマップのV座標を返す。
+     *
+     * @param slot スロット番号
+     * @return V座標
+     */
+    public float getVVal(int slot){
+        checkSlot(slot);
+        return this.uvArray[slot * UV_DIM + 1];
+    }
+
+    /**
+     * ボーンをボーン表に登録し、その表上の番号を返す。
+     * 登録済みなら既存の番号を返す。
+     *
+     * @param bone ボーン
+     * @return ボーン表上の番号
+     * @throws IllegalStateException ボーン表が溢れた
+     */
+    private short toBoneIdx(BoneInfo bone) throws IllegalStateException{
+        if(this.boneIdxMap == null){
+            this.boneTable = new ArrayList<>();
+            this.boneIdxMap = new HashMap<>();
+        }
+
+        Integer idx = this.boneIdxMap.get(bone);
+        if(idx == null){
+            int newIdx = this.boneTable.size();
+            if(MAX_BONES <= newIdx) throw new IllegalStateException();
+            this.boneTable.add(bone);
+            idx = newIdx;
+            this.boneIdxMap.put(bone, idx);
+        }
+        return (short)(int) idx;
+    }
+
+    /**
+     * ボーン表上の番号からボーンを返す。
+     *
+     * @param boneIdx ボーン表上の番号
+     * @return ボーン。未設定ならnull
+     */
+    private BoneInfo fromBoneIdx(short boneIdx){
+        if(boneIdx == NOBONE) return null;
+        BoneInfo result = this.boneTable.get(boneIdx & 0xffff);
+        return result;
+    }
+
+    /**
+     * 頂点の属するボーンを設定する。
+     *
+     * @param slot スロット番号
+     * @param boneA ボーンA
+     * @param boneB ボーンB
+     * @throws NullPointerException 引数がnull
+     */
+    public void setBonePair(int slot, BoneInfo boneA, BoneInfo boneB)
+            throws NullPointerException{
+        if(boneA == null || boneB == null)
+            throw new NullPointerException();
+        checkSlot(slot);
+
+        int idx = slot * BONE_DIM;
+        this.boneArray[idx]     = toBoneIdx(boneA);
+        this.boneArray[idx + 1] = toBoneIdx(boneB);
+
+        return;
+    }
+
+    /**
+     * ボーンAを返す。
+     *
+     * @param slot スロット番号
+     * @return ボーンA
+     */
+    public BoneInfo getBoneA(int slot){
+        checkSlot(slot);
+        return fromBoneIdx(this.boneArray[slot * BONE_DIM]);
+    }
+
+    /**
+     * ボーンBを返す。
+     *
+     * @param slot スロット番号
+     * @return ボーンB
+     */
+    public BoneInfo getBoneB(int slot){
+        checkSlot(slot);
+        return fromBoneIdx(this.boneArray[slot * BONE_DIM + 1]);
+    }
+
+    /**
+     * ボーンAのウェイト値を設定する。
+     *
+     * @param slot スロット番号
+     * @param weight ウェイト値。0(影響小)-100(影響大)
+     * @throws IllegalArgumentException ウェイト値が範囲外
+     */
+    public void setWeightA(int slot, int weight)
+            throws IllegalArgumentException{
+        if(    weight < MIN_WEIGHT
+            || MAX_WEIGHT < weight ){
+            throw new IllegalArgumentException();
+        }
+        checkSlot(slot);
+        this.weightArray[slot] = (byte) weight;
+        return;
+    }
+
+    /**
+     * ボーンAのウェイト値を返す。
+     *
+     * @param slot スロット番号
+     * @return ウェイト値
+     */
+    public int getWeightA(int slot){
+        checkSlot(slot);
+        return this.weightArray[slot];
+    }
+
+    /**
+     * エッジを表示するか設定する。
+     *
+     * @param slot スロット番号
+     * @param show 表示するならtrue
+     */
+    public void setEdgeAppearance(int slot, boolean show){
+        checkSlot(slot);
+        if(show) this.edgeArray[slot] = 1;
+        else     this.edgeArray[slot] = 0;
+        return;
+    }
+
+    /**
+     * エッジを表示するか判定する。
+     *
+     * @param slot スロット番号
+     * @return 表示するならtrue
+     */
+    public boolean getEdgeAppearance(int slot){
+        checkSlot(slot);
+        return this.edgeArray[slot] != 0;
+    }
+
+    /**
+     * 連続するスロット群の範囲を検査する。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     */
+    private void checkSlotRange(int fromSlot, int count)
+            throws IndexOutOfBoundsException{
+        if(fromSlot < 0 || count < 0 || this.size - fromSlot < count){
+            throw new IndexOutOfBoundsException();
+        }
+        return;
+    }
+
+    /**
+     * 連続するスロット群の頂点位置座標を一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに3要素が読まれる。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src XYZ座標の並び
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedPositions(int fromSlot, int count, FloatBuffer src)
+            throws IndexOutOfBoundsException{
+        checkSlotRange(fromSlot, count);
+        src.get(this.posArray, fromSlot * POS_DIM, count * POS_DIM);
+        return;
+    }
+
+    /**
+     * 連続するスロット群の法線ベクトルを一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに3要素が読まれる。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src XYZ成分の並び
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedNormals(int fromSlot, int count, FloatBuffer src)
+            throws IndexOutOfBoundsException{
+        checkSlotRange(fromSlot, count);
+        src.get(this.normalArray, fromSlot * NORMAL_DIM, count * NORMAL_DIM);
+        return;
+    }
+
+    /**
+     * 連続するスロット群のUVマップ座標を一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに2要素が読まれる。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src UV座標の並び
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedUVs(int fromSlot, int count, FloatBuffer src)
+            throws IndexOutOfBoundsException{
+        checkSlotRange(fromSlot, count);
+        src.get(this.uvArray, fromSlot * UV_DIM, count * UV_DIM);
+        return;
+    }
+
+    /**
+     * 連続するスロット群の属するボーンを一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに
+     * ボーンAとボーンBのボーンリスト上の添字が読まれる。
+     * 添字0xffffはボーン未設定を表す。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src ボーン添字の並び
+     * @param boneList ボーンリスト
+     * @throws IndexOutOfBoundsException
+     *     未割り当てのスロットを含む、もしくは不正なボーン添字
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedBones(int fromSlot, int count,
+                               ShortBuffer src, List<BoneInfo> boneList)
+            throws IndexOutOfBoundsException{
+        checkSlotRange(fromSlot, count);
+
+        int boneNum = boneList.size();
+        short[] toTable = new short[boneNum];
+        int boneIdx = 0;
+        for(BoneInfo bone : boneList){
+            toTable[boneIdx++] = toBoneIdx(bone);
+        }
+
+        int from = fromSlot * BONE_DIM;
+        int to = from + count * BONE_DIM;
+        for(int idx = from; idx < to; idx++){
+            short listIdx = src.get();
+            if(listIdx == NOBONE){
+                this.boneArray[idx] = NOBONE;
+                continue;
+            }
+            int unsigned = listIdx & 0xffff;
+            if(boneNum <= unsigned) throw new IndexOutOfBoundsException();
+            this.boneArray[idx] = toTable[unsigned];
+        }
+
+        return;
+    }
+
+    /**
+     * 連続するスロット群のボーンAのウェイト値を一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに1要素が読まれる。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src ウェイト値の並び
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     * @throws IllegalArgumentException ウェイト値が範囲外
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedWeights(int fromSlot, int count, ByteBuffer src)
+            throws IndexOutOfBoundsException, IllegalArgumentException{
+        checkSlotRange(fromSlot, count);
+        src.get(this.weightArray, fromSlot, count);
+        for(int slot = fromSlot; slot < fromSlot + count; slot++){
+            int weight = this.weightArray[slot];
+            if(weight < MIN_WEIGHT || MAX_WEIGHT < weight){
+                throw new IllegalArgumentException();
+            }
+        }
+        return;
+    }
+
+    /**
+     * 連続するスロット群のエッジ表示の有無を一括して設定する。
+     *
+     * <p>バッファの現在位置からスロットごとに1要素が読まれる。
+     * 0以外の値は表示を表す。
+     *
+     * @param fromSlot 先頭スロット番号
+     * @param count スロット数
+     * @param src エッジ表示の並び
+     * @throws IndexOutOfBoundsException 未割り当てのスロットを含む
+     * @throws java.nio.BufferUnderflowException 要素が不足
+     */
+    public void putPackedEdges(int fromSlot, int count, ByteBuffer src)
+            throws IndexOutOfBoundsException{
+        checkSlotRange(fromSlot, count);
+        src.get(this.edgeArray, fromSlot, count);
+        for(int slot = fromSlot; slot < fromSlot + count; slot++){
+            if(this.edgeArray[slot] != 0) this.edgeArray[slot] = 1;
+        }
+        return;
+    }
+
+}
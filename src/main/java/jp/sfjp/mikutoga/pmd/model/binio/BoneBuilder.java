@@ -8,13 +8,13 @@
 package jp.sfjp.mikutoga.pmd.model.binio;
 
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import jp.sfjp.mikutoga.bin.parser.ParseStage;
 import jp.sfjp.mikutoga.math.MkPos3D;
 import jp.sfjp.mikutoga.pmd.BoneType;
 import jp.sfjp.mikutoga.pmd.PmdConst;
 import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.BoneIndex;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
 import jp.sfjp.mikutoga.pmd.model.IKChain;
 import jp.sfjp.mikutoga.pmd.model.ListUtil;
@@ -158,11 +158,8 @@ public void loopEnd(ParseStage stage){
      * 所属グループの無いボーンをデフォルトボーングループへ登録する。
      */
     private void pickOrphanBone(){
-        List<BoneInfo> orpahnList = new LinkedList<>();
-        orpahnList.addAll(this.boneList);
-        for(BoneGroup group : this.boneGroupList){
-            orpahnList.removeAll(group.getBoneList());
-        }
+        BoneIndex index = new BoneIndex(this.boneList, this.boneGroupList);
+        List<BoneInfo> orpahnList = index.getUngroupedBones();
 
         BoneGroup defaultGroup = this.boneGroupList.get(0);
         defaultGroup.getBoneList().addAll(orpahnList);
@@ -0,0 +1,97 @@
+/*
+ * input stream over byte buffer
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ByteBufferを読み出し元とする入力ストリーム。
+ *
+ * <p>バッファの内容はパーサの要求する読み出し単位で直接転送され、
+ * 中間バッファを介さない。
+ * 読み出しに伴いバッファの位置は進む。
+ */
+class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+
+    /**
+     * コンストラクタ。
+     * @param buffer 読み出し元バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    ByteBufferInputStream(ByteBuffer buffer) throws NullPointerException{
+        super();
+        if(buffer == null) throw new NullPointerException();
+        this.buffer = buffer;
+        return;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int read(){
+        if( ! this.buffer.hasRemaining() ) return -1;
+        int result = this.buffer.get() & 0xff;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] buf, int off, int len){
+        if(off < 0 || len < 0 || buf.length - off < len){
+            throw new IndexOutOfBoundsException();
+        }
+        if(len == 0) return 0;
+
+        int remain = this.buffer.remaining();
+        if(remain <= 0) return -1;
+
+        int result = Math.min(len, remain);
+        this.buffer.get(buf, off, result);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param num {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long skip(long num){
+        if(num <= 0L) return 0L;
+
+        int remain = this.buffer.remaining();
+        int skipped = (int) Math.min(num, (long) remain);
+        this.buffer.position(this.buffer.position() + skipped);
+
+        return skipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int available(){
+        return this.buffer.remaining();
+    }
+
+}
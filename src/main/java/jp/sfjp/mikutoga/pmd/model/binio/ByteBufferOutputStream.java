@@ -0,0 +1,73 @@
+/*
+ * output stream over byte buffer
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ByteBufferを出力先とする出力ストリーム。
+ *
+ * <p>書き込みに伴いバッファの位置は進む。
+ * バッファの残り容量を超える書き込みは失敗する。
+ */
+class ByteBufferOutputStream extends OutputStream {
+
+    private static final String ERRMSG_OVERFLOW = "buffer overflow";
+
+    private final ByteBuffer buffer;
+
+
+    /**
+     * コンストラクタ。
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    ByteBufferOutputStream(ByteBuffer buffer) throws NullPointerException{
+        super();
+        if(buffer == null) throw new NullPointerException();
+        this.buffer = buffer;
+        return;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @param bVal {@inheritDoc}
+     * @throws IOException バッファの容量不足
+     */
+    @Override
+    public void write(int bVal) throws IOException{
+        if( ! this.buffer.hasRemaining() ){
+            throw new IOException(ERRMSG_OVERFLOW);
+        }
+        this.buffer.put((byte) bVal);
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @throws IOException バッファの容量不足
+     */
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException{
+        if(off < 0 || len < 0 || buf.length - off < len){
+            throw new IndexOutOfBoundsException();
+        }
+        if(this.buffer.remaining() < len){
+            throw new IOException(ERRMSG_OVERFLOW);
+        }
+        this.buffer.put(buf, off, len);
+        return;
+    }
+
+}
@@ -8,6 +8,7 @@
 package jp.sfjp.mikutoga.pmd.model.binio;
 
 import java.awt.Color;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import jp.sfjp.mikutoga.bin.parser.ParseStage;
@@ -17,6 +18,7 @@
 import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
 import jp.sfjp.mikutoga.pmd.model.Surface;
 import jp.sfjp.mikutoga.pmd.model.ToonMap;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
 import jp.sfjp.mikutoga.pmd.parser.PmdMaterialHandler;
 
 /**
@@ -31,8 +33,13 @@ class MaterialBuilder implements PmdMaterialHandler {
     private Iterator<Material> materialIt;
     private Material currentMaterial = null;
 
+    private final PmdModel model;
     private final List<Surface> surfacelList;
-    private Iterator<Surface> surfaceIt;
+    private int surfaceStart;
+
+    private ShapeBuilder shapeBuilder = null;
+    private int[] materialStart = new int[1];
+    private int materialIdx = 0;
 
     private final ToonMap toonMap;
 
@@ -44,6 +51,7 @@ class MaterialBuilder implements PmdMaterialHandler {
     MaterialBuilder(PmdModel model){
         super();
 
+        this.model = model;
         this.materialList = model.getMaterialList();
         this.surfacelList = model.getSurfaceList();
         this.toonMap = model.getToonMap();
@@ -68,11 +76,28 @@ public void loopStart(ParseStage stage, int loops){
             this.currentMaterial = this.materialIt.next();
         }
 
-        this.surfaceIt = this.surfacelList.iterator();
+        this.surfaceStart = 0;
+
+        this.materialStart = new int[loops + 1];
+        this.materialIdx = 0;
 
         return;
     }
 
+    /**
+     * 面の頂点IDを提供する形状ビルダを設定する。
+     *
+     * <p>設定されていれば、マテリアル読み込みの完了時に
+     * 面のインデックスバッファがモデルに設定される。
+     *
+     * @param builder 形状ビルダ
+     * @see PmdModel#setTriangleMesh(TriangleMesh)
+     */
+    void setShapeBuilder(ShapeBuilder builder){
+        this.shapeBuilder = builder;
+        return;
+    }
+
     /**
      * {@inheritDoc}
      * @param stage {@inheritDoc}
@@ -95,6 +120,20 @@ public void loopNext(ParseStage stage){
     @Override
     public void loopEnd(ParseStage stage){
         assert stage == PmdMaterialHandler.MATERIAL_LIST;
+
+        if(this.shapeBuilder == null) return;
+
+        int[] ids = this.shapeBuilder.getTriangleIds();
+        int idsLength = this.surfaceStart * TRIANGLE;
+        if(ids.length != idsLength){
+            ids = Arrays.copyOf(ids, idsLength);
+        }
+
+        int vertexNum = this.model.getVertexList().size();
+        TriangleMesh mesh =
+                new TriangleMesh(this.materialStart, ids, vertexNum);
+        this.model.setTriangleMesh(mesh);
+
         return;
     }
 
@@ -150,6 +189,11 @@ public void pmdMaterialSpecular(float red,
 
     /**
      * {@inheritDoc}
+     *
+     * <p>マテリアルは面リスト上の連続した範囲の面を担当する。
+     * 範囲内の面はマテリアルの面リストへ一括して追加され、
+     * 範囲の終端はインデックスバッファの開始位置表に記録される。
+     *
      * @param hasEdge {@inheritDoc}
      * @param vertexNum {@inheritDoc}
      */
@@ -160,10 +204,12 @@ public void pmdMaterialInfo(boolean hasEdge, int vertexNum){
         List<Surface> list = this.currentMaterial.getSurfaceList();
 
         int surfaceNum = vertexNum / TRIANGLE;
-        for(int ct = 1; ct <= surfaceNum; ct++){
-            Surface surface = this.surfaceIt.next();
-            list.add(surface);
-        }
+        int from = this.surfaceStart;
+        int to = from + surfaceNum;
+        list.addAll(this.surfacelList.subList(from, to));
+        this.surfaceStart = to;
+
+        this.materialStart[++this.materialIdx] = to;
 
         return;
     }
@@ -8,6 +8,8 @@
 package jp.sfjp.mikutoga.pmd.model.binio;
 
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * 最新仕様のPMDファイルエクスポーター。
@@ -27,4 +29,25 @@ public PmdExporter(OutputStream stream) throws NullPointerException{
         return;
     }
 
+    /**
+     * コンストラクタ。
+     * @param channel 出力先ファイルチャネル
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporter(FileChannel channel) throws NullPointerException{
+        super(channel);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     * @see PmdFileSize
+     */
+    public PmdExporter(ByteBuffer buffer) throws NullPointerException{
+        super(buffer);
+        return;
+    }
+
 }
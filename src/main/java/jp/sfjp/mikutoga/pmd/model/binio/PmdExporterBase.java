@@ -10,6 +10,10 @@
 import java.awt.Color;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,18 +33,29 @@
 import jp.sfjp.mikutoga.pmd.model.IKChain;
 import jp.sfjp.mikutoga.pmd.model.Material;
 import jp.sfjp.mikutoga.pmd.model.MorphPart;
-import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.pmd.model.PackedMorphStore;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
 import jp.sfjp.mikutoga.pmd.model.SerialNumbered;
 import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
-import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
 import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
 
 /**
  * PMDファイルのエクスポーター(拡張無し基本フォーマット)。
  *
  * <p>英名対応以降のPMDファイルフォーマットを
  * 使いたくない場合はこのエクスポーターを用いて出力せよ。
+ *
+ * <p>頂点、面、モーフ頂点などの固定長レコードは
+ * 個別の出力メソッドを介さずバッファへ直接書き込まれ、
+ * セクション単位でまとめて出力される。
+ *
+ * <p>原本PMDファイルを指定した場合、
+ * モデル上で未変更の部位に対応するセクションは再エンコードされず、
+ * 原本からバイト単位で複写される。
+ *
+ * @see #setOriginal(FileChannel, PmdSectionIndex)
  */
 public class PmdExporterBase extends BinaryExporter{
 
@@ -78,6 +93,17 @@ public class PmdExporterBase extends BinaryExporter{
 
     private static final int TRIANGLE = 3;
 
+    /** 頂点レコードのバイト長。 */
+    private static final int VERTEX_RECORD_SZ = 38;
+    /** 面レコードのバイト長。 */
+    private static final int SURFACE_RECORD_SZ = 6;
+    /** モーフ頂点レコードのバイト長。 */
+    private static final int MORPHVERTEX_RECORD_SZ = 16;
+    /** モーフヘッダのうちモーフ名以降のバイト長。 */
+    private static final int MORPHHEAD_SZ = 5;
+
+    private static final int INT_SZ = 4;
+
     static{
         assert NOPREVBONE_ID > PmdConst.MAX_BONE - 1;
     }
@@ -85,6 +111,12 @@ public class PmdExporterBase extends BinaryExporter{
 
     private float[] rgbaBuf = null;
 
+    private final RecordEncoder records;
+
+    private final WritableByteChannel rawChannel;
+    private final ByteBuffer rawBuffer;
+    private SectionCopier copier = null;
+
 
     /**
      * コンストラクタ。
@@ -95,6 +127,46 @@ public class PmdExporterBase extends BinaryExporter{
     public PmdExporterBase(OutputStream stream)
             throws NullPointerException{
         super(stream);
+        this.records = new RecordEncoder(this, null);
+        this.rawChannel = Channels.newChannel(stream);
+        this.rawBuffer = null;
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>固定長レコードはファイルチャネルへ直接書き込まれる。
+     *
+     * @param channel 出力先ファイルチャネル
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterBase(FileChannel channel)
+            throws NullPointerException{
+        super(Channels.newOutputStream(channel));
+        this.records = new RecordEncoder(this, channel);
+        this.rawChannel = channel;
+        this.rawBuffer = null;
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>全ての出力はバッファの現在位置から直接書き込まれる。
+     * バッファのバイトオーダーはリトルエンディアンに変更される。
+     * 容量が不足した場合の出力は{@link IOException}で失敗する。
+     *
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     * @see PmdFileSize
+     */
+    public PmdExporterBase(ByteBuffer buffer)
+            throws NullPointerException{
+        super(new ByteBufferOutputStream(buffer));
+        this.records = new RecordEncoder(buffer);
+        this.rawChannel = null;
+        this.rawBuffer = buffer;
         return;
     }
 
@@ -114,12 +186,127 @@ protected static String normalizeBreak(String text){
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>書き込み途中の固定長レコードも出力される。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException{
+        flushRecords();
+        super.flush();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>書き込み途中の固定長レコードを出力してから閉じる。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException{
+        flushRecords();
+        super.close();
+        return;
+    }
+
+    /**
+     * 指定サイズの固定長レコードを書き込めるバッファを返す。
+     *
+     * <p>バッファはリトルエンディアン。
+     * 書き込んだ内容は{@link #flushRecords()}の呼び出しまで出力されない。
+     *
+     * @param recordSize レコードのバイト長
+     * @return バッファ
+     * @throws IOException 出力エラー
+     */
+    protected ByteBuffer reserveRecord(int recordSize) throws IOException{
+        ByteBuffer result = this.records.reserve(recordSize);
+        return result;
+    }
+
+    /**
+     * 書き込み途中の固定長レコードを出力する。
+     *
+     * <p>固定長レコードに続けて個別の出力メソッドを用いる前に
+     * 呼ばなければならない。
+     *
+     * @throws IOException 出力エラー
+     */
+    protected void flushRecords() throws IOException{
+        this.records.drain();
+        return;
+    }
+
+    /**
+     * 差分出力のための原本PMDファイルを設定する。
+     *
+     * <p>原本のファイルチャネルは出力の間開いていなければならない。
+     * 原本の内容は出力するモデルの読み込み元と一致していなければならない。
+     *
+     * <p>複写されるのはモデル上で未変更と記録された部位のみであり、
+     * 読み込み直後のモデルは全部位が変更済みとみなされる。
+     * 複写を望む場合は呼び出し側が{@link PmdModel#markClean()}で
+     * 明示的に宣言しなければならない。
+     *
+     * @param channel 原本PMDファイル。nullなら全セクションを再エンコードする
+     * @param index 原本のセクション索引。
+     *     開始位置はファイル先頭を起点とすること
+     * @throws NullPointerException 原本を指定したが索引がnull
+     * @see PmdModel#markDirty(jp.sfjp.mikutoga.pmd.model.ModelSection)
+     */
+    public void setOriginal(FileChannel channel, PmdSectionIndex index)
+            throws NullPointerException{
+        if(channel == null){
+            this.copier = null;
+        }else{
+            this.copier = new SectionCopier(channel, index);
+        }
+        return;
+    }
+
+    /**
+     * 複写対象であれば原本のセクション群を複写する。
+     *
+     * <p>いずれかのセクションが複写対象でなければ何もしない。
+     * 書き込み途中の固定長レコードが先に出力される。
+     *
+     * @param sections 連続するセクション群
+     * @return 複写したならtrue。呼び出し側での出力が必要ならfalse
+     * @throws IOException 出力エラー
+     */
+    protected boolean copyOriginal(PmdSection... sections)
+            throws IOException{
+        if(this.copier == null) return false;
+        for(PmdSection section : sections){
+            if( ! this.copier.isCopyable(section) ) return false;
+        }
+
+        flush();
+
+        for(PmdSection section : sections){
+            if(this.rawBuffer != null){
+                this.copier.copyTo(section, this.rawBuffer);
+            }else{
+                this.copier.copyTo(section, this.rawChannel);
+            }
+        }
+
+        return true;
+    }
+
     /**
      * 文字列を指定されたバイト長で出力する。
      * 文字列の改行記号はLF(0x0a)に正規化される。
      * エンコード結果がバイト長に満たない場合は
      * 1つの0x00及びそれに続く複数の0xfdがパディングされる。
      *
+     * <p>書き込み途中の固定長レコードが先に出力される。
+     *
      * @param text 文字列
      * @param maxByteLength バイト長指定
      * @throws IOException 出力エラー
@@ -128,6 +315,7 @@ protected static String normalizeBreak(String text){
      */
     protected void dumpText(String text, int maxByteLength)
             throws IOException, IllegalTextExportException{
+        flushRecords();
         dumpFixedW31j(text, maxByteLength, FDFILLER);
         return;
     }
@@ -135,22 +323,46 @@ protected void dumpText(String text, int maxByteLength)
     /**
      * モデルデータをPMDファイル形式で出力する。
      *
+     * <p>原本PMDファイルが設定されていれば、
+     * 未変更の部位に対応するセクションは原本から複写される。
+     *
      * @param model モデルデータ
      * @throws IOException 出力エラー
      * @throws IllegalPmdDataException モデルデータに不備が発見された
      */
     public void dumpPmdModel(PmdModel model)
             throws IOException, IllegalPmdDataException{
+        if(this.copier != null) this.copier.prepare(model);
+
         try{
-            dumpBasic(model);
-            dumpVertexList(model);
-            dumpSurfaceList(model);
-            dumpMaterialList(model);
-            dumpBoneList(model);
-            dumpIKChainList(model);
-            dumpMorphList(model);
-            dumpMorphGroup(model);
-            dumpBoneGroupList(model);
+            if( ! copyOriginal(PmdSection.HEADER) ){
+                dumpBasic(model);
+            }
+            if( ! copyOriginal(PmdSection.VERTEX) ){
+                dumpVertexList(model);
+            }
+            if( ! copyOriginal(PmdSection.SURFACE) ){
+                dumpSurfaceList(model);
+            }
+            if( ! copyOriginal(PmdSection.MATERIAL) ){
+                dumpMaterialList(model);
+            }
+            if( ! copyOriginal(PmdSection.BONE) ){
+                dumpBoneList(model);
+            }
+            if( ! copyOriginal(PmdSection.IK) ){
+                dumpIKChainList(model);
+            }
+            if( ! copyOriginal(PmdSection.MORPH) ){
+                dumpMorphList(model);
+            }
+            if( ! copyOriginal(PmdSection.MORPH_ORDER) ){
+                dumpMorphGroup(model);
+            }
+            if( ! copyOriginal(PmdSection.BONE_GROUP,
+                               PmdSection.BONE_GROUP_MEMBER) ){
+                dumpBoneGroupList(model);
+            }
         }catch(IllegalTextExportException e){
             throw new IllegalPmdDataException(e);
         }
@@ -193,7 +405,7 @@ private void dumpVertexList(PmdModel model)
         List<Vertex> vList = model.getVertexList();
 
         int vertexNum = vList.size();
-        dumpLeInt(vertexNum);
+        reserveRecord(INT_SZ).putInt(vertexNum);
 
         for(Vertex vertex : vList){
             dumpVertex(vertex);
@@ -212,28 +424,35 @@ private void dumpVertexList(PmdModel model)
      */
     private void dumpVertex(Vertex vertex)
             throws IOException{
-        MkPos3D position = vertex.getPosition();
-        dumpPos3D(position);
+        VertexStore store = vertex.getVertexStore();
+        int slot = vertex.getStoreSlot();
 
-        MkVec3D normal = vertex.getNormal();
-        dumpVec3D(normal);
+        ByteBuffer buf = reserveRecord(VERTEX_RECORD_SZ);
 
-        MkPos2D uv = vertex.getUVPosition();
-        dumpPos2d(uv);
+        buf.putFloat(store.getXpos(slot));
+        buf.putFloat(store.getYpos(slot));
+        buf.putFloat(store.getZpos(slot));
 
-        BoneInfo boneA = vertex.getBoneA();
-        BoneInfo boneB = vertex.getBoneB();
-        dumpSerialIdAsShort(boneA);
-        dumpSerialIdAsShort(boneB);
+        buf.putFloat(store.getXNormal(slot));
+        buf.putFloat(store.getYNormal(slot));
+        buf.putFloat(store.getZNormal(slot));
 
-        int weight = vertex.getWeightA();
-        dumpByte((byte)weight);
+        buf.putFloat(store.getUVal(slot));
+        buf.putFloat(store.getVVal(slot));
+
+        BoneInfo boneA = store.getBoneA(slot);
+        BoneInfo boneB = store.getBoneB(slot);
+        buf.putShort((short) boneA.getSerialNumber());
+        buf.putShort((short) boneB.getSerialNumber());
+
+        int weight = store.getWeightA(slot);
+        buf.put((byte)weight);
 
         byte edgeFlag;
-        boolean hasEdge = vertex.getEdgeAppearance();
+        boolean hasEdge = store.getEdgeAppearance(slot);
         if(hasEdge) edgeFlag = 0x00;
         else        edgeFlag = 0x01;
-        dumpByte(edgeFlag);
+        buf.put(edgeFlag);
 
         return;
     }
@@ -246,21 +465,16 @@ private void dumpVertex(Vertex vertex)
      */
     private void dumpSurfaceList(PmdModel model)
             throws IOException{
-        int surfaceNum = 0;
-        List<Material> materialList = model.getMaterialList();
-        for(Material material : materialList){
-            surfaceNum += material.getSurfaceList().size();
-        }
-        dumpLeInt(surfaceNum * TRIANGLE);
+        TriangleMesh mesh = model.getTriangleMesh();
 
-        Vertex[] triangle = new Vertex[TRIANGLE];
-        for(Material material : materialList){
-            for(Surface surface : material){
-                surface.getTriangle(triangle);
-                dumpLeShort(triangle[0].getSerialNumber());
-                dumpLeShort(triangle[1].getSerialNumber());
-                dumpLeShort(triangle[2].getSerialNumber());
-            }
+        int surfaceNum = mesh.getSurfaceCount();
+        reserveRecord(INT_SZ).putInt(surfaceNum * TRIANGLE);
+
+        for(int surfaceNo = 0; surfaceNo < surfaceNum; surfaceNo++){
+            ByteBuffer buf = reserveRecord(SURFACE_RECORD_SZ);
+            buf.putShort((short) mesh.getSurfaceVertexId(surfaceNo, 0));
+            buf.putShort((short) mesh.getSurfaceVertexId(surfaceNo, 1));
+            buf.putShort((short) mesh.getSurfaceVertexId(surfaceNo, 2));
         }
 
         flush();
@@ -502,23 +716,18 @@ private void dumpIKChain(IKChain chain)
     /**
      * モーフリストを出力する。
      *
+     * <p>モーフ頂点はモーフ頂点格納庫を経由して出力され、
+     * モーフ頂点の通し番号は変更されない。
+     *
      * @param model モデルデータ
      * @throws IOException 出力エラー
      * @throws IllegalTextExportException モーフ名が長すぎる
      */
     private void dumpMorphList(PmdModel model)
             throws IOException, IllegalTextExportException{
-        Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
-        Set<MorphType> typeSet = morphMap.keySet();
-        List<MorphPart> morphPartList = new LinkedList<>();
-
-        for(MorphType type : typeSet){
-            List<MorphPart> partList = morphMap.get(type);
-            if(partList == null) continue;
-            morphPartList.addAll(partList);
-        }
+        PackedMorphStore morphStore = PackedMorphStore.build(model);
 
-        int totalMorphPart = morphPartList.size();
+        int totalMorphPart = morphStore.getMorphCount();
         if(totalMorphPart <= 0){
             dumpLeShort(0);
             return;
@@ -527,19 +736,25 @@ private void dumpMorphList(PmdModel model)
             dumpLeShort(totalMorphPart);
         }
 
-        dumpBaseMorph(model);
+        dumpBaseMorph(morphStore);
 
-        for(MorphPart part : morphPartList){
+        int morphNum = morphStore.getMorphCount();
+        for(int morphIdx = 0; morphIdx < morphNum; morphIdx++){
+            MorphPart part = morphStore.getMorphPart(morphIdx);
             dumpText(part.getMorphName().getPrimaryText(),
                      PmdConst.MAXBYTES_MORPHNAME );
 
-            List<MorphVertex> morphVertexList = part.getMorphVertexList();
-            dumpLeInt(morphVertexList.size());
-
-            dumpByte(part.getMorphType().encode());
-            for(MorphVertex morphVertex : morphVertexList){
-                dumpLeInt(morphVertex.getSerialNumber());
-                dumpPos3D(morphVertex.getOffset());
+            int vertexNum = morphStore.getMorphVertexCount(morphIdx);
+            ByteBuffer head = reserveRecord(MORPHHEAD_SZ);
+            head.putInt(vertexNum);
+            head.put(part.getMorphType().encode());
+
+            for(int idx = 0; idx < vertexNum; idx++){
+                ByteBuffer buf = reserveRecord(MORPHVERTEX_RECORD_SZ);
+                buf.putInt(morphStore.getBaseIndex(morphIdx, idx));
+                buf.putFloat(morphStore.getOffset(morphIdx, idx, 0));
+                buf.putFloat(morphStore.getOffset(morphIdx, idx, 1));
+                buf.putFloat(morphStore.getOffset(morphIdx, idx, 2));
             }
         }
 
@@ -551,23 +766,29 @@ private void dumpMorphList(PmdModel model)
     /**
      * BASEモーフを出力する。
      *
-     * @param model モデルデータ
+     * @param morphStore モーフ頂点格納庫
      * @throws IOException 出力エラー
      * @throws IllegalTextExportException モーフ名が長すぎる
      */
-    private void dumpBaseMorph(PmdModel model)
+    private void dumpBaseMorph(PackedMorphStore morphStore)
             throws IOException, IllegalTextExportException{
         dumpText("base", PmdConst.MAXBYTES_MORPHNAME);
 
-        List<MorphVertex> mergedMorphVertexList = model.mergeMorphVertex();
-        int totalVertex = mergedMorphVertexList.size();
-        dumpLeInt(totalVertex);
-
-        dumpByte(MorphType.BASE.encode());
-        for(MorphVertex morphVertex : mergedMorphVertexList){
-            Vertex baseVertex = morphVertex.getBaseVertex();
-            dumpLeInt(baseVertex.getSerialNumber());
-            dumpPos3D(baseVertex.getPosition());
+        int totalVertex = morphStore.getBaseVertexCount();
+        ByteBuffer head = reserveRecord(MORPHHEAD_SZ);
+        head.putInt(totalVertex);
+        head.put(MorphType.BASE.encode());
+
+        for(int baseIdx = 0; baseIdx < totalVertex; baseIdx++){
+            Vertex baseVertex = morphStore.getBaseVertex(baseIdx);
+            VertexStore store = baseVertex.getVertexStore();
+            int slot = baseVertex.getStoreSlot();
+
+            ByteBuffer buf = reserveRecord(MORPHVERTEX_RECORD_SZ);
+            buf.putInt(morphStore.getBaseVertexId(baseIdx));
+            buf.putFloat(store.getXpos(slot));
+            buf.putFloat(store.getYpos(slot));
+            buf.putFloat(store.getZpos(slot));
         }
 
         return;
@@ -9,6 +9,8 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.Map;
 import jp.sfjp.mikutoga.bin.export.IllegalTextExportException;
@@ -40,6 +42,30 @@ public PmdExporterExt1(OutputStream stream)
         return;
     }
 
+    /**
+     * コンストラクタ。
+     *
+     * @param channel 出力先ファイルチャネル
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt1(FileChannel channel)
+            throws NullPointerException{
+        super(channel);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt1(ByteBuffer buffer)
+            throws NullPointerException{
+        super(buffer);
+        return;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -52,7 +78,9 @@ public void dumpPmdModel(PmdModel model)
             throws IOException, IllegalPmdDataException{
         super.dumpPmdModel(model);
 
-        dumpGlobalInfo(model);
+        if( ! copyOriginal(PmdSection.ENGLISH) ){
+            dumpGlobalInfo(model);
+        }
 
         return;
     }
@@ -9,6 +9,8 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import jp.sfjp.mikutoga.bin.export.IllegalTextExportException;
 import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
 import jp.sfjp.mikutoga.pmd.PmdConst;
@@ -35,6 +37,30 @@ public PmdExporterExt2(OutputStream stream)
         return;
     }
 
+    /**
+     * コンストラクタ。
+     *
+     * @param channel 出力先ファイルチャネル
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt2(FileChannel channel)
+            throws NullPointerException{
+        super(channel);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt2(ByteBuffer buffer)
+            throws NullPointerException{
+        super(buffer);
+        return;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -48,7 +74,9 @@ public void dumpPmdModel(PmdModel model)
         super.dumpPmdModel(model);
 
         try{
-            dumpToonMap(model);
+            if( ! copyOriginal(PmdSection.TOON) ){
+                dumpToonMap(model);
+            }
         }catch(IllegalTextExportException e){
             throw new IllegalPmdDataException(e);
         }
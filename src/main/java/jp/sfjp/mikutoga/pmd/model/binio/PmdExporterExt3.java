@@ -9,8 +9,11 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import jp.sfjp.mikutoga.bin.export.IllegalTextExportException;
+import jp.sfjp.mikutoga.math.MkPos3D;
 import jp.sfjp.mikutoga.pmd.Deg3d;
 import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
 import jp.sfjp.mikutoga.pmd.PmdConst;
@@ -35,6 +38,9 @@ public class PmdExporterExt3 extends PmdExporterExt2{
 
     private static final short MASK_FULLCOLLISION = (short) 0xffff;
 
+    /** 剛体レコードのうち剛体名以降のバイト長。 */
+    private static final int RIGID_RECORD_SZ = 63;
+
     /**
      * コンストラクタ。
      *
@@ -47,6 +53,30 @@ public PmdExporterExt3(OutputStream stream)
         return;
     }
 
+    /**
+     * コンストラクタ。
+     *
+     * @param channel 出力先ファイルチャネル
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt3(FileChannel channel)
+            throws NullPointerException{
+        super(channel);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdExporterExt3(ByteBuffer buffer)
+            throws NullPointerException{
+        super(buffer);
+        return;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -60,8 +90,12 @@ public void dumpPmdModel(PmdModel model)
         super.dumpPmdModel(model);
 
         try{
-            dumpRigidList(model);
-            dumpJointList(model);
+            if( ! copyOriginal(PmdSection.RIGID) ){
+                dumpRigidList(model);
+            }
+            if( ! copyOriginal(PmdSection.JOINT) ){
+                dumpJointList(model);
+            }
         }catch(IllegalTextExportException e){
             throw new IllegalPmdDataException(e);
         }
@@ -94,6 +128,8 @@ private void dumpRigidList(PmdModel model)
     /**
      * 個別の剛体情報を出力する。
      *
+     * <p>剛体名以降は固定長レコードとして書き込まれる。
+     *
      * @param rigid 剛体
      * @throws IOException 出力エラー
      * @throws IllegalTextExportException 長すぎる剛体名
@@ -103,76 +139,83 @@ private void dumpRigid(RigidInfo rigid)
         String rigidName = rigid.getRigidName().getPrimaryText();
         dumpText(rigidName, PmdConst.MAXBYTES_RIGIDNAME);
 
+        ByteBuffer buf = reserveRecord(RIGID_RECORD_SZ);
+
         BoneInfo linkedBone = rigid.getLinkedBone();
         if(linkedBone == null){
-            dumpLeShort(-1);
+            buf.putShort((short) -1);
         }else{
-            dumpLeShort(linkedBone.getSerialNumber());
+            buf.putShort((short) linkedBone.getSerialNumber());
         }
 
         RigidGroup group = rigid.getRigidGroup();
-        dumpByte(group.getSerialNumber());
+        buf.put((byte) group.getSerialNumber());
 
         short mask = MASK_FULLCOLLISION;
         for(RigidGroup throughGroup : rigid.getThroughGroupColl()){
             int serialId = throughGroup.getSerialNumber();
             mask &= ~(0x0001 << serialId);
         }
-        dumpLeShort(mask);
+        buf.putShort(mask);
 
-        dumpRigidShape(rigid.getRigidShape());
+        putRigidShape(buf, rigid.getRigidShape());
 
-        dumpPos3D(rigid.getPosition());
-        dumpRad3d(rigid.getRotation());
+        MkPos3D position = rigid.getPosition();
+        buf.putFloat((float) position.getXpos());
+        buf.putFloat((float) position.getYpos());
+        buf.putFloat((float) position.getZpos());
 
-        dumpDynamics(rigid.getDynamicsInfo());
+        Rad3d rotation = rigid.getRotation();
+        buf.putFloat(rotation.getXRad());
+        buf.putFloat(rotation.getYRad());
+        buf.putFloat(rotation.getZRad());
 
-        dumpByte(rigid.getBehaviorType().encode());
+        putDynamics(buf, rigid.getDynamicsInfo());
+
+        buf.put(rigid.getBehaviorType().encode());
 
         return;
     }
 
     /**
-     * 剛体形状を出力する。
+     * 剛体形状をバッファに書き込む。
      *
+     * @param buf バッファ
      * @param shape 剛体形状
-     * @throws IOException 出力エラー
      */
-    private void dumpRigidShape(RigidShape shape)
-            throws IOException{
+    private static void putRigidShape(ByteBuffer buf, RigidShape shape){
         RigidShapeType type = shape.getShapeType();
-        dumpByte(type.encode());
+        buf.put(type.encode());
 
         float width = shape.getWidth();
         float height = shape.getHeight();
         float depth = shape.getDepth();
 
-        dumpLeFloat(width);
-        dumpLeFloat(height);
-        dumpLeFloat(depth);
+        buf.putFloat(width);
+        buf.putFloat(height);
+        buf.putFloat(depth);
 
         return;
     }
 
     /**
-     * 力学設定を出力する。
+     * 力学設定をバッファに書き込む。
      *
+     * @param buf バッファ
      * @param dynamics 力学設定
-     * @throws IOException 出力エラー
      */
-    private void dumpDynamics(DynamicsInfo dynamics)
-            throws IOException{
+    private static void putDynamics(ByteBuffer buf, DynamicsInfo dynamics){
         float mass        = dynamics.getMass();
         float dampPos     = dynamics.getDampingPosition();
         float dampRot     = dynamics.getDampingRotation();
         float restitution = dynamics.getRestitution();
         float friction    = dynamics.getFriction();
 
-        dumpLeFloat(mass);
-        dumpLeFloat(dampPos);
-        dumpLeFloat(dampRot);
-        dumpLeFloat(restitution);
-        dumpLeFloat(friction);
+        buf.putFloat(mass);
+        buf.putFloat(dampPos);
+        buf.putFloat(dampRot);
+        buf.putFloat(restitution);
+        buf.putFloat(friction);
 
         return;
     }
@@ -0,0 +1,269 @@
+/*
+ * pmd-file size calculator
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.PmdConst;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.IKChain;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.PackedMorphStore;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+
+/**
+ * {@link PmdExporter}が出力するPMDファイルのバイト長を算出する。
+ *
+ * <p>各セクションの要素数と固定長の名前、レコード長のみから求められ、
+ * モデルデータは変更されない。
+ * 差分出力では原本から複写されるセクションの原本上のバイト長が用いられる。
+ */
+public final class PmdFileSize {
+
+    private static final int BYTE_SZ  = 1;
+    private static final int SHORT_SZ = 2;
+    private static final int INT_SZ   = 4;
+    private static final int FLOAT_SZ = 4;
+    private static final int POS3D_SZ = FLOAT_SZ * 3;
+
+    private static final int MAGIC_SZ = 7;
+
+    private static final int VERTEX_SZ = 38;
+    private static final int SURFACE_SZ = SHORT_SZ * 3;
+    private static final int MATERIAL_SZ =
+            FLOAT_SZ * 11 + BYTE_SZ * 2 + INT_SZ
+            + PmdConst.MAXBYTES_TEXTUREFILENAME;
+    private static final int BONE_SZ =
+            PmdConst.MAXBYTES_BONENAME + SHORT_SZ * 3 + BYTE_SZ + POS3D_SZ;
+    private static final int IKCHAIN_SZ =
+            SHORT_SZ * 2 + BYTE_SZ + SHORT_SZ + FLOAT_SZ;
+    private static final int MORPH_SZ =
+            PmdConst.MAXBYTES_MORPHNAME + INT_SZ + BYTE_SZ;
+    private static final int MORPHVERTEX_SZ = INT_SZ + POS3D_SZ;
+    private static final int DISPBONE_SZ = SHORT_SZ + BYTE_SZ;
+    private static final int RIGID_SZ =
+            PmdConst.MAXBYTES_RIGIDNAME
+            + SHORT_SZ * 2 + BYTE_SZ * 3 + FLOAT_SZ * 8 + POS3D_SZ * 2;
+    private static final int JOINT_SZ =
+            PmdConst.MAXBYTES_JOINTNAME + INT_SZ * 2 + POS3D_SZ * 8;
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private PmdFileSize(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * モデルデータをPMDファイルに出力した際のバイト長を返す。
+     *
+     * @param model モデルデータ
+     * @return バイト長
+     */
+    public static long sizeOf(PmdModel model){
+        long result = sizeOf(model, null);
+        return result;
+    }
+
+    /**
+     * 原本PMDファイルからの差分出力を行った際のバイト長を返す。
+     *
+     * <p>原本から複写されるセクションは原本上のバイト長、
+     * それ以外のセクションは再エンコード後のバイト長で数えられる。
+     *
+     * @param model モデルデータ
+     * @param index 原本のセクション索引。nullなら全て再エンコードされる
+     * @return バイト長
+     * @see PmdExporterBase#setOriginal(java.nio.channels.FileChannel,
+     *     PmdSectionIndex)
+     */
+    public static long sizeOf(PmdModel model, PmdSectionIndex index){
+        Set<PmdSection> copySet;
+        if(index == null){
+            copySet = EnumSet.noneOf(PmdSection.class);
+        }else{
+            copySet = SectionCopier.selectSections(model, index);
+        }
+
+        PackedMorphStore morphStore = null;
+
+        long result = 0L;
+        for(PmdSection section : PmdSection.values()){
+            if(copySet.contains(section)){
+                result += index.getLength(section);
+                continue;
+            }
+            if(morphStore == null && isMorphSection(section)){
+                morphStore = PackedMorphStore.build(model);
+            }
+            result += sectionSize(model, section, morphStore);
+        }
+
+        return result;
+    }
+
+    /**
+     * モーフ情報を要するセクションか判定する。
+     *
+     * @param section セクション
+     * @return モーフ情報を要するならtrue
+     */
+    private static boolean isMorphSection(PmdSection section){
+        boolean result = section == PmdSection.MORPH
+                      || section == PmdSection.MORPH_ORDER;
+        return result;
+    }
+
+    /**
+     * セクションを再エンコードした際のバイト長を返す。
+     *
+     * @param model モデルデータ
+     * @param section セクション
+     * @param morphStore モーフ情報。モーフ関連以外のセクションではnull可
+     * @return バイト長
+     */
+    private static long sectionSize(PmdModel model,
+                                    PmdSection section,
+                                    PackedMorphStore morphStore ){
+        long result;
+
+        switch(section){
+        case HEADER:
+            result = MAGIC_SZ
+                    + PmdConst.MAXBYTES_MODELNAME
+                    + PmdConst.MAXBYTES_MODELDESC;
+            break;
+        case VERTEX:
+            result = INT_SZ
+                    + (long) VERTEX_SZ * model.getVertexList().size();
+            break;
+        case SURFACE:
+            long surfaceNum = 0L;
+            for(Material material : model.getMaterialList()){
+                surfaceNum += material.getSurfaceList().size();
+            }
+            result = INT_SZ + SURFACE_SZ * surfaceNum;
+            break;
+        case MATERIAL:
+            result = INT_SZ
+                    + (long) MATERIAL_SZ * model.getMaterialList().size();
+            break;
+        case BONE:
+            result = SHORT_SZ
+                    + (long) BONE_SZ * model.getBoneList().size();
+            break;
+        case IK:
+            result = SHORT_SZ;
+            for(IKChain chain : model.getIKChainList()){
+                int chainedNum = chain.getChainedBoneList().size();
+                result += IKCHAIN_SZ + SHORT_SZ * (chainedNum - 1);
+            }
+            break;
+        case MORPH:
+            int morphNum = morphStore.getMorphCount();
+            result = SHORT_SZ;
+            if(morphNum > 0){
+                result += MORPH_SZ + MORPHVERTEX_SZ
+                        * (long) morphStore.getBaseVertexCount();
+                result += MORPH_SZ * (long) morphNum;
+                result += MORPHVERTEX_SZ
+                        * (long) morphStore.getTotalMorphVertexCount();
+            }
+            break;
+        case MORPH_ORDER:
+            result = BYTE_SZ + SHORT_SZ * (long) morphStore.getMorphCount();
+            break;
+        case BONE_GROUP:
+            result = BYTE_SZ
+                    + PmdConst.MAXBYTES_BONEGROUPNAME
+                    * (long) countBoneGroup(model);
+            break;
+        case BONE_GROUP_MEMBER:
+            long dispBoneNum = 0L;
+            for(BoneGroup group : model.getBoneGroupList()){
+                if(group.isDefaultBoneGroup()) continue;
+                dispBoneNum += group.getBoneList().size();
+            }
+            result = INT_SZ + DISPBONE_SZ * dispBoneNum;
+            break;
+        case ENGLISH:
+            result = BYTE_SZ;
+            if(model.hasGlobalText()){
+                result += PmdConst.MAXBYTES_MODELNAME;
+                result += PmdConst.MAXBYTES_MODELDESC;
+                result += PmdConst.MAXBYTES_BONENAME
+                        * (long) model.getBoneList().size();
+                result += PmdConst.MAXBYTES_MORPHNAME
+                        * (long) countGlobalMorph(model);
+                result += PmdConst.MAXBYTES_BONEGROUPNAME
+                        * (long) countBoneGroup(model);
+            }
+            break;
+        case TOON:
+            result = PmdConst.MAXBYTES_TOONFILENAME
+                    * (long) PmdConst.TOON_FIXEDNUM;
+            break;
+        case RIGID:
+            result = INT_SZ
+                    + (long) RIGID_SZ * model.getRigidList().size();
+            break;
+        case JOINT:
+            result = INT_SZ
+                    + (long) JOINT_SZ * model.getJointList().size();
+            break;
+        default:
+            assert false;
+            throw new AssertionError();
+        }
+
+        return result;
+    }
+
+    /**
+     * 出力されるボーングループの数を返す。
+     *
+     * @param model モデルデータ
+     * @return ボーングループ数
+     */
+    private static int countBoneGroup(PmdModel model){
+        int result = 0;
+        for(BoneGroup group : model.getBoneGroupList()){
+            if(group.isDefaultBoneGroup()) continue;
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * 英語名が出力されるモーフの数を返す。
+     *
+     * @param model モデルデータ
+     * @return モーフ数
+     */
+    private static int countGlobalMorph(PmdModel model){
+        Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
+
+        int result = 0;
+        for(MorphType type : MorphType.values()){
+            if(type.isBase()) continue;
+            List<MorphPart> partList = morphMap.get(type);
+            if(partList == null) continue;
+            result += partList.size();
+        }
+
+        return result;
+    }
+
+}
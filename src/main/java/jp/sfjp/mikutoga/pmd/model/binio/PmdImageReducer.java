@@ -0,0 +1,250 @@
+/*
+ * reduced PMD image builder
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 読み込み対象外のセクションを取り除いたPMDデータを生成する。
+ *
+ * <p>取り除かれたセクションは要素数0のセクションに置き換えられ、
+ * 生成されたデータは通常のローダでそのまま読み込める。
+ * 要素数に連動する英語名のレコードも併せて取り除かれる。
+ *
+ * <p>各セクションの位置とバイト長は索引から得られ、
+ * 取り除かれるセクションの内容は読まれない。
+ * 既知のセクションの後に続くデータは複写されない。
+ *
+ * @see PmdLoadOptions
+ */
+final class PmdImageReducer {
+
+    private static final int OFF_MORPH_COUNT = 20;
+    private static final int OFF_MORPH_TYPE  = OFF_MORPH_COUNT + 4;
+
+
+    private final ByteBuffer src;
+    private final PmdSectionIndex index;
+    private final PmdLoadOptions options;
+
+    private ByteBuffer dst;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param src 元のPMDデータ。位置0から索引の終端位置までが使われる
+     * @param index 元データの索引
+     * @param options 読み込みオプション
+     */
+    private PmdImageReducer(ByteBuffer src,
+                            PmdSectionIndex index,
+                            PmdLoadOptions options ){
+        super();
+        this.src = src;
+        this.index = index;
+        this.options = options;
+        return;
+    }
+
+
+    /**
+     * 読み込み対象外のセクションを取り除いたPMDデータを生成する。
+     *
+     * <p>生成されたデータの長さは元データを超えない。
+     *
+     * @param src 元のPMDデータ。位置0から索引の終端位置までが使われる
+     * @param index 元データの索引
+     * @param options 読み込みオプション
+     * @return 生成されたPMDデータ。位置は0
+     */
+    static ByteBuffer reduce(ByteBuffer src,
+                             PmdSectionIndex index,
+                             PmdLoadOptions options ){
+        PmdImageReducer reducer = new PmdImageReducer(src, index, options);
+        ByteBuffer result = reducer.build();
+        return result;
+    }
+
+    /**
+     * PMDデータを生成する。
+     *
+     * @return 生成されたPMDデータ
+     */
+    private ByteBuffer build(){
+        this.dst = ByteBuffer.allocate(this.index.getEndPosition());
+        this.dst.order(ByteOrder.LITTLE_ENDIAN);
+
+        boolean shape    = this.options.loadsShape();
+        boolean bone     = this.options.loadsBone();
+        boolean morph    = this.options.loadsMorph();
+        boolean dynamics = this.options.loadsDynamics();
+
+        copySection(PmdSection.HEADER);
+
+        if(shape){
+            copySection(PmdSection.VERTEX);
+            copySection(PmdSection.SURFACE);
+        }else{
+            this.dst.putInt(0);
+            this.dst.putInt(0);
+        }
+
+        putMaterial(shape);
+
+        if(bone){
+            copySection(PmdSection.BONE);
+            copySection(PmdSection.IK);
+        }else{
+            this.dst.putShort((short) 0);
+            this.dst.putShort((short) 0);
+        }
+
+        if(morph){
+            if(shape) copySection(PmdSection.MORPH);
+            else      putMorphHeads();
+            copySection(PmdSection.MORPH_ORDER);
+        }else{
+            this.dst.putShort((short) 0);
+            this.dst.put((byte) 0);
+        }
+
+        if(bone){
+            copySection(PmdSection.BONE_GROUP);
+            copySection(PmdSection.BONE_GROUP_MEMBER);
+        }else{
+            this.dst.put((byte) 0);
+            this.dst.putInt(0);
+        }
+
+        if(this.index.hasSection(PmdSection.ENGLISH)){
+            putEnglish(bone, morph);
+        }
+
+        if(this.index.hasSection(PmdSection.TOON)){
+            copySection(PmdSection.TOON);
+        }
+
+        putDynamics(PmdSection.RIGID, dynamics);
+        putDynamics(PmdSection.JOINT, dynamics);
+
+        this.dst.flip();
+
+        return this.dst;
+    }
+
+    /**
+     * 元データの一部を複写する。
+     *
+     * @param offset 元データ上の開始位置
+     * @param length 長さ
+     */
+    private void copy(int offset, int length){
+        ByteBuffer view = this.src.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        this.dst.put(view);
+        return;
+    }
+
+    /**
+     * セクション全体を複写する。
+     *
+     * @param section セクション
+     */
+    private void copySection(PmdSection section){
+        copy(this.index.getOffset(section), this.index.getLength(section));
+        return;
+    }
+
+    /**
+     * 材質セクションを出力する。
+     *
+     * @param shape 面を読み込むならtrue。falseなら各材質の面頂点数は0となる
+     */
+    private void putMaterial(boolean shape){
+        if( ! this.options.loadsMaterial() ){
+            this.dst.putInt(0);
+            return;
+        }
+
+        int materialPos = this.dst.position();
+        copySection(PmdSection.MATERIAL);
+        if(shape) return;
+
+        int materials = this.index.getCount(PmdSection.MATERIAL);
+        for(int ct = 0; ct < materials; ct++){
+            int fieldPos = materialPos + 4
+                         + ct * PmdSectionIndex.MATERIAL_SIZE
+                         + PmdSectionIndex.MATERIAL_SURFACE_POS;
+            this.dst.putInt(fieldPos, 0);
+        }
+
+        return;
+    }
+
+    /**
+     * モーフ頂点を除いたモーフセクションを出力する。
+     */
+    private void putMorphHeads(){
+        int morphs = this.index.getCount(PmdSection.MORPH);
+        this.dst.putShort((short) morphs);
+        for(int ct = 0; ct < morphs; ct++){
+            int recPos = this.index.getMorphOffset(ct);
+            copy(recPos, OFF_MORPH_COUNT);
+            this.dst.putInt(0);
+            this.dst.put(this.src.get(recPos + OFF_MORPH_TYPE));
+        }
+        return;
+    }
+
+    /**
+     * 英語名情報セクションを出力する。
+     *
+     * @param bone ボーンを読み込むならtrue
+     * @param morph モーフを読み込むならtrue
+     */
+    private void putEnglish(boolean bone, boolean morph){
+        int offset = this.index.getOffset(PmdSection.ENGLISH);
+        if(this.index.getCount(PmdSection.ENGLISH) == 0){
+            copySection(PmdSection.ENGLISH);
+            return;
+        }
+
+        int bones  = this.index.getCount(PmdSection.BONE);
+        int morphs = Math.max(this.index.getCount(PmdSection.MORPH) - 1, 0);
+        int groups = this.index.getCount(PmdSection.BONE_GROUP);
+
+        int bonePos  = offset + 1 + PmdSectionIndex.ENGLISH_HEAD_SIZE;
+        int morphPos = bonePos + bones * PmdSectionIndex.ENGLISH_BONE_SIZE;
+        int groupPos = morphPos + morphs * PmdSectionIndex.ENGLISH_MORPH_SIZE;
+        int endPos   = offset + this.index.getLength(PmdSection.ENGLISH);
+
+        copy(offset, bonePos - offset);
+        if(bone)  copy(bonePos, morphPos - bonePos);
+        if(morph) copy(morphPos, groupPos - morphPos);
+        if(bone)  copy(groupPos, endPos - groupPos);
+
+        return;
+    }
+
+    /**
+     * 物理演算関連のセクションを出力する。
+     *
+     * @param section セクション
+     * @param load 読み込むならtrue
+     */
+    private void putDynamics(PmdSection section, boolean load){
+        if( ! this.index.hasSection(section) ) return;
+        if(load) copySection(section);
+        else     this.dst.putInt(0);
+        return;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * PMD load options
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * PMDファイル読み込み時にモデル化する部位の選択。
+ *
+ * <p>モデル名と説明文、および共有トゥーンファイル名は常に読み込まれる。
+ * 選択されなかった部位のセクションは
+ * 要素数から求めたバイト長に従い読み飛ばされ、モデル上は空となる。
+ *
+ * <p>部位間には以下の依存関係がある。
+ * <ul>
+ * <li>材質の面は形状が選択された場合のみ読み込まれる
+ * <li>モーフ頂点は形状が選択された場合のみ読み込まれる
+ * <li>剛体とジョイントはボーンを参照するため、
+ * 物理演算が選択されればボーンも読み込まれる
+ * </ul>
+ *
+ * <p>英語名情報は対応する部位が読み込まれる場合のみ読み込まれる。
+ *
+ * @see PmdLoader#setLoadOptions(PmdLoadOptions)
+ */
+public final class PmdLoadOptions {
+
+    /**
+     * モデル部位。
+     */
+    public enum Part {
+        /** 頂点および面。 */
+        SHAPE,
+        /** 材質。 */
+        MATERIAL,
+        /** ボーン、IKチェーン、ボーングループ。 */
+        BONE,
+        /** モーフおよびモーフ表示順。 */
+        MORPH,
+        /** 剛体およびジョイント。 */
+        DYNAMICS,
+        ;
+    }
+
+
+    private final Set<Part> partSet;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>全部位が選択された状態で生成される。
+     */
+    public PmdLoadOptions(){
+        super();
+        this.partSet = EnumSet.allOf(Part.class);
+        return;
+    }
+
+
+    /**
+     * ヘッダのみを読み込むオプションを生成する。
+     *
+     * <p>いずれの部位も選択されない。
+     * 各セクションの要素数は{@link PmdLoader#getSectionIndex()}から得られる。
+     *
+     * @return オプション
+     */
+    public static PmdLoadOptions headerOnly(){
+        PmdLoadOptions result = new PmdLoadOptions();
+        result.partSet.clear();
+        return result;
+    }
+
+    /**
+     * 部位を読み込むか否か設定する。
+     *
+     * @param part 部位
+     * @param load 読み込むならtrue
+     * @throws NullPointerException 部位がnull
+     */
+    public void setLoaded(Part part, boolean load)
+            throws NullPointerException{
+        if(part == null) throw new NullPointerException();
+        if(load) this.partSet.add(part);
+        else     this.partSet.remove(part);
+        return;
+    }
+
+    /**
+     * 部位が選択されているか判定する。
+     *
+     * <p>依存関係による暗黙の読み込みは考慮されない。
+     *
+     * @param part 部位
+     * @return 選択されていればtrue
+     */
+    public boolean isLoaded(Part part){
+        return this.partSet.contains(part);
+    }
+
+    /**
+     * 全部位が選択されているか判定する。
+     *
+     * @return 全部位が選択されていればtrue
+     */
+    public boolean isFull(){
+        return this.partSet.size() == Part.values().length;
+    }
+
+    /**
+     * 形状を読み込むか判定する。
+     *
+     * @return 読み込むならtrue
+     */
+    boolean loadsShape(){
+        return isLoaded(Part.SHAPE);
+    }
+
+    /**
+     * 材質を読み込むか判定する。
+     *
+     * @return 読み込むならtrue
+     */
+    boolean loadsMaterial(){
+        return isLoaded(Part.MATERIAL);
+    }
+
+    /**
+     * ボーンを読み込むか判定する。
+     *
+     * <p>物理演算が選択されていれば暗黙に読み込まれる。
+     *
+     * @return 読み込むならtrue
+     */
+    boolean loadsBone(){
+        return isLoaded(Part.BONE) || isLoaded(Part.DYNAMICS);
+    }
+
+    /**
+     * モーフを読み込むか判定する。
+     *
+     * @return 読み込むならtrue
+     */
+    boolean loadsMorph(){
+        return isLoaded(Part.MORPH);
+    }
+
+    /**
+     * 物理演算を読み込むか判定する。
+     *
+     * @return 読み込むならtrue
+     */
+    boolean loadsDynamics(){
+        return isLoaded(Part.DYNAMICS);
+    }
+
+}
@@ -7,8 +7,15 @@
 
 package jp.sfjp.mikutoga.pmd.model.binio;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
@@ -18,16 +25,28 @@
 
 /**
  * PMDモデルファイルを読み込むためのローダ。
+ *
+ * <p>読み込みオプションにより、モデル化する部位を選択できる。
+ * 選択されなかった部位のセクションは、
+ * セクション索引上のバイト長に従い読み飛ばされる。
+ *
+ * @see PmdLoadOptions
  */
 public class PmdLoader {
 
     private static final String ERR_TRYLOAD = "try loading first.";
     private static final String ERR_LOADED  = "has been loaded.";
+    private static final String ERR_TOOLARGE = "too large file:";
+
+    private static final int BUF_SZ = 8 * 1024;
 
 
     private boolean loaded = false;
     private boolean hasMoreData = true;
 
+    private PmdLoadOptions options = new PmdLoadOptions();
+    private PmdSectionIndex sectionIndex = null;
+
 
     /**
      * コンストラクタ。
@@ -52,10 +71,57 @@ public boolean hasMoreData() throws IllegalStateException{
         return this.hasMoreData;
     }
 
+    /**
+     * 読み込みオプションを設定する。
+     *
+     * <p>デフォルトでは全部位が読み込まれる。
+     * 一部の部位のみを読み込んだモデルは、
+     * PMDファイルやXMLファイルへの出力には適さない。
+     * ただし原本を指定したPMDファイルへの差分出力では、
+     * 読み込まなかった部位は原本から複写される。
+     *
+     * @param options 読み込みオプション
+     * @throws NullPointerException 引数がnull
+     */
+    public void setLoadOptions(PmdLoadOptions options)
+            throws NullPointerException{
+        if(options == null) throw new NullPointerException();
+        this.options = options;
+        return;
+    }
+
+    /**
+     * 読み込みオプションを返す。
+     *
+     * @return 読み込みオプション
+     */
+    public PmdLoadOptions getLoadOptions(){
+        return this.options;
+    }
+
+    /**
+     * 読み込み時に作成されたセクション索引を返す。
+     *
+     * <p>一部の部位のみを読み込んだ場合、
+     * 読み飛ばされたセクションの要素数も索引から得られる。
+     *
+     * @return セクション索引。全部位をストリームから読み込んだ場合はnull
+     * @throws IllegalStateException まだパースを試みていない。
+     */
+    public PmdSectionIndex getSectionIndex() throws IllegalStateException{
+        if( ! this.loaded ) throw new IllegalStateException(ERR_TRYLOAD);
+        return this.sectionIndex;
+    }
+
     /**
      * PMDファイルの読み込みを行いモデル情報を返す。
      * 1インスタンスにつき一度しかロードできない。
      *
+     * <p>読み込んだモデルの全部位は未変更として記録される。
+     *
+     * <p>全部位を読み込まない場合、
+     * 入力ソースは一旦全てメモリ上に読み込まれる。
+     *
      * @param source PMDファイル入力ソース
      * @return モデル情報
      * @throws IOException 入力エラー
@@ -68,6 +134,45 @@ public PmdModel load(InputStream source)
                    IllegalStateException {
         if(this.loaded) throw new IllegalStateException(ERR_LOADED);
 
+        if( ! this.options.isFull() ){
+            ByteBuffer buffer = ByteBuffer.wrap(readFully(source));
+            PmdModel model = load(buffer);
+            return model;
+        }
+
+        PmdModel model = parse(source);
+
+        return model;
+    }
+
+    /**
+     * 入力ストリームの内容を全て読み込む。
+     *
+     * @param source 入力ストリーム
+     * @return 内容
+     * @throws IOException 入力エラー
+     */
+    private static byte[] readFully(InputStream source) throws IOException{
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buf = new byte[BUF_SZ];
+        for(;;){
+            int size = source.read(buf);
+            if(size < 0) break;
+            result.write(buf, 0, size);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * PMDデータをパースしモデル情報を返す。
+     *
+     * @param source PMDデータ
+     * @return モデル情報
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     */
+    private PmdModel parse(InputStream source)
+            throws IOException, MmdFormatException{
         PmdModel model = new PmdModel();
 
         PmdParser parser = new PmdParser(source);
@@ -82,6 +187,7 @@ public PmdModel load(InputStream source)
         JointBuilder    jointBuilder    = new JointBuilder(model);
 
         List<MorphPart> morphPartList = new ArrayList<>();
+        materialBuilder.setShapeBuilder(shapeBuilder);
         morphBuilder.setMorphPartList(morphPartList);
         textBuilder.setMorphPartList(morphPartList);
 
@@ -105,4 +211,97 @@ public PmdModel load(InputStream source)
         return model;
     }
 
+    /**
+     * バイトバッファ上のPMDデータの読み込みを行いモデル情報を返す。
+     * 1インスタンスにつき一度しかロードできない。
+     *
+     * <p>バッファの現在位置からリミットまでがPMDデータとして扱われる。
+     * 引数のバッファの位置やバイトオーダーは変更されない。
+     *
+     * <p>全部位を読み込まない場合、先にセクション索引が作成され、
+     * 読み込み対象外のセクションを取り除いたデータがパースされる。
+     *
+     * @param buffer PMDデータを格納したバッファ
+     * @return モデル情報
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     * @throws IllegalStateException このインスタンスで再度のロードを試みた。
+     */
+    public PmdModel load(ByteBuffer buffer)
+            throws IOException,
+                   MmdFormatException,
+                   IllegalStateException {
+        if(this.loaded) throw new IllegalStateException(ERR_LOADED);
+
+        ByteBuffer view = buffer.slice();
+        view.order(ByteOrder.LITTLE_ENDIAN);
+
+        if(this.options.isFull()){
+            InputStream is = new ByteBufferInputStream(view);
+            PmdModel model = load(is);
+            return model;
+        }
+
+        PmdModel model;
+        try{
+            PmdSectionIndex index = PmdSectionIndex.scan(view);
+            this.sectionIndex = index;
+
+            ByteBuffer image =
+                    PmdImageReducer.reduce(view, index, this.options);
+            model = parse(new ByteBufferInputStream(image));
+
+            this.hasMoreData = index.getEndPosition() < view.limit();
+        }finally{
+            this.loaded = true;
+        }
+
+        return model;
+    }
+
+    /**
+     * PMDファイルをメモリマップし読み込みを行いモデル情報を返す。
+     * 1インスタンスにつき一度しかロードできない。
+     *
+     * @param path PMDファイル
+     * @return モデル情報
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     * @throws IllegalStateException このインスタンスで再度のロードを試みた。
+     */
+    public PmdModel load(Path path)
+            throws IOException,
+                   MmdFormatException,
+                   IllegalStateException {
+        if(this.loaded) throw new IllegalStateException(ERR_LOADED);
+
+        MappedByteBuffer buffer = mapFile(path);
+        PmdModel model = load(buffer);
+
+        return model;
+    }
+
+    /**
+     * ファイル全体を読み込み専用でメモリマップする。
+     *
+     * @param path ファイル
+     * @return マップされたバッファ
+     * @throws IOException 入力エラー
+     */
+    static MappedByteBuffer mapFile(Path path) throws IOException{
+        MappedByteBuffer buffer;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE){
+                throw new IOException(ERR_TOOLARGE + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }finally{
+            channel.close();
+        }
+
+        return buffer;
+    }
+
 }
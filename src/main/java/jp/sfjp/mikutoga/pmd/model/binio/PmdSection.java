@@ -0,0 +1,49 @@
+/*
+ * PMD file section
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+/**
+ * PMDファイルを構成するセクション。
+ *
+ * <p>列挙順はPMDファイル上の出現順と一致する。
+ *
+ * @see PmdSectionIndex
+ */
+public enum PmdSection {
+
+    /** ヘッダ。 */
+    HEADER,
+    /** 頂点リスト。 */
+    VERTEX,
+    /** 面頂点リスト。 */
+    SURFACE,
+    /** 材質リスト。 */
+    MATERIAL,
+    /** ボーンリスト。 */
+    BONE,
+    /** IKチェーンリスト。 */
+    IK,
+    /** モーフリスト。 */
+    MORPH,
+    /** モーフ表示順リスト。 */
+    MORPH_ORDER,
+    /** ボーングループ名リスト。 */
+    BONE_GROUP,
+    /** ボーングループ所属リスト。 */
+    BONE_GROUP_MEMBER,
+    /** 英語名情報。 */
+    ENGLISH,
+    /** 共有トゥーンファイル名リスト。 */
+    TOON,
+    /** 剛体リスト。 */
+    RIGID,
+    /** ジョイントリスト。 */
+    JOINT,
+    ;
+
+}
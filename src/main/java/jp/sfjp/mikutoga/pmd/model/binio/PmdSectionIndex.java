@@ -0,0 +1,546 @@
+/*
+ * PMD section offset index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+
+/**
+ * PMDファイル各セクションの位置と要素数の索引。
+ *
+ * <p>PMDデータを先頭から走査し、各セクションの開始位置、バイト長、
+ * 要素数を記録する。
+ * 各要素の内容は読まない。
+ *
+ * <p>英語名情報以降のセクションは省略されうる。
+ * 省略されたセクションは開始位置が負となる。
+ *
+ * <p>開始位置はセクション先頭の要素数フィールドを指す。
+ */
+public final class PmdSectionIndex {
+
+    /** ヘッダ長。 */
+    static final int HEADER_SIZE = 3 + 4 + 20 + 256;
+    /** 頂点レコード長。 */
+    static final int VERTEX_SIZE = 4 * 3 + 4 * 3 + 4 * 2 + 2 * 2 + 1 + 1;
+    /** 面頂点レコード長。 */
+    static final int SURFACE_VERTEX_SIZE = 2;
+    /** 材質レコード長。 */
+    static final int MATERIAL_SIZE = 4 * 3 + 4 + 4 + 4 * 3 + 4 * 3 + 1 + 1
+                                   + 4 + 20;
+    /** 材質レコード中の面頂点数フィールド位置。 */
+    static final int MATERIAL_SURFACE_POS = MATERIAL_SIZE - 20 - 4;
+    /** ボーンレコード長。 */
+    static final int BONE_SIZE = 20 + 2 + 2 + 1 + 2 + 4 * 3;
+    /** IKレコードの固定長部分。 */
+    static final int IK_HEAD_SIZE = 2 + 2 + 1 + 2 + 4;
+    /** モーフレコードの固定長部分。 */
+    static final int MORPH_HEAD_SIZE = 20 + 4 + 1;
+    /** モーフ頂点レコード長。 */
+    static final int MORPH_VERTEX_SIZE = 4 + 4 * 3;
+    /** ボーングループ名レコード長。 */
+    static final int BONE_GROUP_SIZE = 50;
+    /** ボーングループ所属レコード長。 */
+    static final int BONE_GROUP_MEMBER_SIZE = 2 + 1;
+    /** 英語名情報の固定長部分。 */
+    static final int ENGLISH_HEAD_SIZE = 20 + 256;
+    /** 英語ボーン名レコード長。 */
+    static final int ENGLISH_BONE_SIZE = 20;
+    /** 英語モーフ名レコード長。 */
+    static final int ENGLISH_MORPH_SIZE = 20;
+    /** 英語ボーングループ名レコード長。 */
+    static final int ENGLISH_BONE_GROUP_SIZE = 50;
+    /** 共有トゥーンファイル名セクション長。 */
+    static final int TOON_SIZE = 100 * 10;
+    /** 剛体レコード長。 */
+    static final int RIGID_SIZE = 20 + 2 + 1 + 2 + 1 + 4 * 3 + 4 * 3 + 4 * 3
+                                + 4 + 4 + 4 + 4 + 4 + 1;
+    /** ジョイントレコード長。 */
+    static final int JOINT_SIZE = 20 + 4 + 4 + 4 * 3 + 4 * 3
+                                + 4 * 6 + 4 * 6 + 4 * 3 + 4 * 3;
+
+    private static final byte[] MAGIC = {
+        (byte)0x50, (byte)0x6d, (byte)0x64,   // "Pmd"
+    };
+
+    private static final String ERR_MAGIC = "unknown PMD-header type";
+    private static final String ERR_EOF   = "unexpected end of PMD data";
+    private static final String ERR_SURFACE =
+            "illegal surface vertex number";
+    private static final String ERR_MATERIAL =
+            "materials refer too many surfaces";
+
+    private static final int SECTIONS = PmdSection.values().length;
+
+
+    private final int[] offsetArray = new int[SECTIONS];
+    private final int[] lengthArray = new int[SECTIONS];
+    private final int[] countArray  = new int[SECTIONS];
+    private int[] morphOffsetArray = new int[0];
+    private int endPos = 0;
+
+
+    /**
+     * コンストラクタ。
+     */
+    private PmdSectionIndex(){
+        super();
+        for(int idx = 0; idx < SECTIONS; idx++){
+            this.offsetArray[idx] = -1;
+        }
+        return;
+    }
+
+
+    /**
+     * PMDデータを走査し索引を作成する。
+     *
+     * <p>バッファの現在位置からリミットまでがPMDデータとして扱われる。
+     * 記録される位置はバッファの現在位置を起点とする。
+     * 引数のバッファの位置やバイトオーダーは変更されない。
+     *
+     * @param buffer PMDデータ
+     * @return 索引
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     */
+    public static PmdSectionIndex scan(ByteBuffer buffer)
+            throws MmdFormatException{
+        ByteBuffer view = buffer.slice();
+        view.order(ByteOrder.LITTLE_ENDIAN);
+
+        PmdSectionIndex index = new PmdSectionIndex();
+        Scanner scanner = new Scanner(view, index);
+        scanner.scanAll();
+
+        return index;
+    }
+
+
+    /**
+     * セクションを登録する。
+     *
+     * @param section セクション
+     * @param offset 開始位置
+     * @param length バイト長
+     * @param count 要素数
+     */
+    private void register(PmdSection section,
+                          int offset, int length, int count ){
+        int idx = section.ordinal();
+        this.offsetArray[idx] = offset;
+        this.lengthArray[idx] = length;
+        this.countArray[idx]  = count;
+        this.endPos = offset + length;
+        return;
+    }
+
+    /**
+     * セクションが存在するか判定する。
+     *
+     * @param section セクション
+     * @return 存在すればtrue
+     */
+    public boolean hasSection(PmdSection section){
+        return this.offsetArray[section.ordinal()] >= 0;
+    }
+
+    /**
+     * セクションの開始位置を返す。
+     *
+     * @param section セクション
+     * @return 開始位置。セクションが省略されていれば負の値
+     */
+    public int getOffset(PmdSection section){
+        return this.offsetArray[section.ordinal()];
+    }
+
+    /**
+     * セクションのバイト長を返す。
+     *
+     * @param section セクション
+     * @return バイト長。セクションが省略されていれば0
+     */
+    public int getLength(PmdSection section){
+        return this.lengthArray[section.ordinal()];
+    }
+
+    /**
+     * セクションの要素数を返す。
+     *
+     * <p>面頂点リストの場合は面数ではなく面頂点数を返す。
+     * 英語名情報の場合は英語名の有無を1と0で返す。
+     *
+     * @param section セクション
+     * @return 要素数。セクションが省略されていれば0
+     */
+    public int getCount(PmdSection section){
+        return this.countArray[section.ordinal()];
+    }
+
+    /**
+     * 既知の全セクションの終端位置を返す。
+     *
+     * @return 終端位置
+     */
+    public int getEndPosition(){
+        return this.endPos;
+    }
+
+    /**
+     * 個別モーフレコードの開始位置を返す。
+     *
+     * @param morphNo モーフ番号
+     * @return 開始位置
+     * @throws IndexOutOfBoundsException 不正なモーフ番号
+     */
+    public int getMorphOffset(int morphNo) throws IndexOutOfBoundsException{
+        return this.morphOffsetArray[morphNo];
+    }
+
+
+    /**
+     * PMDデータの走査器。
+     */
+    private static final class Scanner {
+
+        private final ByteBuffer buf;
+        private final PmdSectionIndex index;
+        private int pos = 0;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param buf PMDデータ
+         * @param index 記録先索引
+         */
+        Scanner(ByteBuffer buf, PmdSectionIndex index){
+            super();
+            this.buf = buf;
+            this.index = index;
+            return;
+        }
+
+        /**
+         * 指定バイト数が読み出し可能か検査する。
+         *
+         * @param size バイト数
+         * @throws MmdFormatException データ不足
+         */
+        private void require(long size) throws MmdFormatException{
+            if(size < 0L || this.buf.limit() - this.pos < size){
+                throw new MmdFormatException(ERR_EOF, this.pos);
+            }
+            return;
+        }
+
+        /**
+         * 未走査のデータがあるか判定する。
+         *
+         * @return 未走査のデータがあればtrue
+         */
+        private boolean hasMore(){
+            return this.pos < this.buf.limit();
+        }
+
+        /**
+         * 符号なし1バイト整数を読む。
+         *
+         * @return 値
+         * @throws MmdFormatException データ不足
+         */
+        private int readUByte() throws MmdFormatException{
+            require(1);
+            int result = this.buf.get(this.pos) & 0xff;
+            this.pos += 1;
+            return result;
+        }
+
+        /**
+         * 符号なし2バイト整数を読む。
+         *
+         * @return 値
+         * @throws MmdFormatException データ不足
+         */
+        private int readUShort() throws MmdFormatException{
+            require(2);
+            int result = this.buf.getShort(this.pos) & 0xffff;
+            this.pos += 2;
+            return result;
+        }
+
+        /**
+         * 4バイト要素数を読む。
+         *
+         * @return 値
+         * @throws MmdFormatException データ不足もしくは負の値
+         */
+        private int readCount() throws MmdFormatException{
+            require(4);
+            int result = this.buf.getInt(this.pos);
+            if(result < 0) throw new MmdFormatException(ERR_EOF, this.pos);
+            this.pos += 4;
+            return result;
+        }
+
+        /**
+         * 固定長レコードの並びを読み飛ばす。
+         *
+         * @param count レコード数
+         * @param size レコード長
+         * @throws MmdFormatException データ不足
+         */
+        private void skipRecords(int count, int size)
+                throws MmdFormatException{
+            long total = (long) count * size;
+            require(total);
+            this.pos += (int) total;
+            return;
+        }
+
+        /**
+         * 全セクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        void scanAll() throws MmdFormatException{
+            scanHeader();
+            scanShape();
+            scanMaterial();
+            scanBone();
+            scanIk();
+            scanMorph();
+            scanGroup();
+
+            if( ! hasMore() ) return;
+            scanEnglish();
+
+            if( ! hasMore() ) return;
+            scanFixed(PmdSection.TOON, TOON_SIZE);
+
+            if( ! hasMore() ) return;
+            scanCounted(PmdSection.RIGID, RIGID_SIZE);
+
+            if( ! hasMore() ) return;
+            scanCounted(PmdSection.JOINT, JOINT_SIZE);
+
+            return;
+        }
+
+        /**
+         * ヘッダを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanHeader() throws MmdFormatException{
+            require(HEADER_SIZE);
+            for(int idx = 0; idx < MAGIC.length; idx++){
+                if(this.buf.get(idx) != MAGIC[idx]){
+                    throw new MmdFormatException(ERR_MAGIC, idx);
+                }
+            }
+            this.pos = HEADER_SIZE;
+            this.index.register(PmdSection.HEADER, 0, HEADER_SIZE, 1);
+            return;
+        }
+
+        /**
+         * 頂点と面頂点のセクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanShape() throws MmdFormatException{
+            scanCounted(PmdSection.VERTEX, VERTEX_SIZE);
+
+            int start = this.pos;
+            int count = readCount();
+            if(count % 3 != 0){
+                throw new MmdFormatException(ERR_SURFACE, start);
+            }
+            skipRecords(count, SURFACE_VERTEX_SIZE);
+            this.index.register(PmdSection.SURFACE,
+                                start, this.pos - start, count);
+
+            return;
+        }
+
+        /**
+         * 材質セクションを走査する。
+         *
+         * <p>材質が参照する面頂点数の総和も検査される。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanMaterial() throws MmdFormatException{
+            int start = this.pos;
+            scanCounted(PmdSection.MATERIAL, MATERIAL_SIZE);
+
+            int count = this.index.getCount(PmdSection.MATERIAL);
+            int surfaceVertices = this.index.getCount(PmdSection.SURFACE);
+
+            long total = 0L;
+            int recPos = start + 4 + MATERIAL_SURFACE_POS;
+            for(int ct = 0; ct < count; ct++){
+                total += this.buf.getInt(recPos) & 0xffffffffL;
+                recPos += MATERIAL_SIZE;
+            }
+            if(total > surfaceVertices){
+                throw new MmdFormatException(ERR_MATERIAL, start);
+            }
+
+            return;
+        }
+
+        /**
+         * ボーンセクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanBone() throws MmdFormatException{
+            int start = this.pos;
+            int count = readUShort();
+            skipRecords(count, BONE_SIZE);
+            this.index.register(PmdSection.BONE,
+                                start, this.pos - start, count);
+            return;
+        }
+
+        /**
+         * IKセクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanIk() throws MmdFormatException{
+            int start = this.pos;
+            int count = readUShort();
+            for(int ct = 0; ct < count; ct++){
+                require(IK_HEAD_SIZE);
+                int chainLength = this.buf.get(this.pos + 2 + 2) & 0xff;
+                this.pos += IK_HEAD_SIZE;
+                skipRecords(chainLength, 2);
+            }
+            this.index.register(PmdSection.IK,
+                                start, this.pos - start, count);
+            return;
+        }
+
+        /**
+         * モーフセクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanMorph() throws MmdFormatException{
+            int start = this.pos;
+            int count = readUShort();
+
+            int[] morphOffsets = new int[count];
+            for(int ct = 0; ct < count; ct++){
+                morphOffsets[ct] = this.pos;
+                require(MORPH_HEAD_SIZE);
+                int vertices = this.buf.getInt(this.pos + 20);
+                if(vertices < 0){
+                    throw new MmdFormatException(ERR_EOF, this.pos);
+                }
+                this.pos += MORPH_HEAD_SIZE;
+                skipRecords(vertices, MORPH_VERTEX_SIZE);
+            }
+
+            this.index.morphOffsetArray = morphOffsets;
+            this.index.register(PmdSection.MORPH,
+                                start, this.pos - start, count);
+
+            return;
+        }
+
+        /**
+         * モーフ表示順とボーングループのセクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanGroup() throws MmdFormatException{
+            int start;
+            int count;
+
+            start = this.pos;
+            count = readUByte();
+            skipRecords(count, 2);
+            this.index.register(PmdSection.MORPH_ORDER,
+                                start, this.pos - start, count);
+
+            start = this.pos;
+            count = readUByte();
+            skipRecords(count, BONE_GROUP_SIZE);
+            this.index.register(PmdSection.BONE_GROUP,
+                                start, this.pos - start, count);
+
+            scanCounted(PmdSection.BONE_GROUP_MEMBER,
+                        BONE_GROUP_MEMBER_SIZE);
+
+            return;
+        }
+
+        /**
+         * 英語名情報セクションを走査する。
+         *
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanEnglish() throws MmdFormatException{
+            int start = this.pos;
+            int hasEnglish = readUByte();
+
+            if(hasEnglish != 0){
+                int bones  = this.index.getCount(PmdSection.BONE);
+                int morphs = this.index.getCount(PmdSection.MORPH);
+                int groups = this.index.getCount(PmdSection.BONE_GROUP);
+
+                skipRecords(1, ENGLISH_HEAD_SIZE);
+                skipRecords(bones, ENGLISH_BONE_SIZE);
+                skipRecords(Math.max(morphs - 1, 0), ENGLISH_MORPH_SIZE);
+                skipRecords(groups, ENGLISH_BONE_GROUP_SIZE);
+            }
+
+            this.index.register(PmdSection.ENGLISH,
+                                start, this.pos - start, hasEnglish);
+
+            return;
+        }
+
+        /**
+         * 4バイト要素数に続く固定長レコード列のセクションを走査する。
+         *
+         * @param section セクション
+         * @param size レコード長
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanCounted(PmdSection section, int size)
+                throws MmdFormatException{
+            int start = this.pos;
+            int count = readCount();
+            skipRecords(count, size);
+            this.index.register(section, start, this.pos - start, count);
+            return;
+        }
+
+        /**
+         * 要素数を持たない固定長セクションを走査する。
+         *
+         * @param section セクション
+         * @param size セクション長
+         * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+         */
+        private void scanFixed(PmdSection section, int size)
+                throws MmdFormatException{
+            int start = this.pos;
+            skipRecords(1, size);
+            this.index.register(section, start, size, 1);
+            return;
+        }
+
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * PMD section reader
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+
+/**
+ * 索引を用いたPMDデータの随時読み出し。
+ *
+ * <p>頂点、面、モーフ頂点のように要素数の多いセクションは
+ * オブジェクト化せず、PMDデータ上から直接読み出す。
+ *
+ * <p>それ以外のセクションは、要素数の多い部分を取り除いた
+ * 骨格PMDデータを通常のローダで読み込んで利用する。
+ *
+ * @see PmdSectionIndex
+ */
+public class PmdSectionReader {
+
+    private static final int OFF_NORMAL = 4 * 3;
+    private static final int OFF_UV     = OFF_NORMAL + 4 * 3;
+    private static final int OFF_BONE   = OFF_UV + 4 * 2;
+    private static final int OFF_WEIGHT = OFF_BONE + 2 * 2;
+    private static final int OFF_EDGE   = OFF_WEIGHT + 1;
+
+    private static final int OFF_MORPH_COUNT = 20;
+    private static final int OFF_MORPH_TYPE  = OFF_MORPH_COUNT + 4;
+
+
+    private final ByteBuffer buf;
+    private final PmdSectionIndex index;
+
+    private final int vertexBase;
+    private final int surfaceBase;
+    private final int materialBase;
+    private final int[] baseMorphArray;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>バッファの現在位置からリミットまでがPMDデータとして扱われる。
+     * 引数のバッファの位置やバイトオーダーは変更されない。
+     *
+     * @param buffer PMDデータ
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     */
+    public PmdSectionReader(ByteBuffer buffer) throws MmdFormatException{
+        super();
+
+        this.buf = buffer.slice();
+        this.buf.order(ByteOrder.LITTLE_ENDIAN);
+
+        this.index = PmdSectionIndex.scan(this.buf);
+
+        this.vertexBase   = this.index.getOffset(PmdSection.VERTEX)   + 4;
+        this.surfaceBase  = this.index.getOffset(PmdSection.SURFACE)  + 4;
+        this.materialBase = this.index.getOffset(PmdSection.MATERIAL) + 4;
+
+        int morphs = this.index.getCount(PmdSection.MORPH);
+        int bases = 0;
+        int[] baseMorphs = new int[morphs];
+        for(int morphNo = 0; morphNo < morphs; morphNo++){
+            if( ! getMorphType(morphNo).isBase() ) continue;
+            baseMorphs[bases++] = morphNo;
+        }
+        this.baseMorphArray = Arrays.copyOf(baseMorphs, bases);
+
+        return;
+    }
+
+
+    /**
+     * ローカルのPMDファイルをメモリマップし、読み出しを準備する。
+     *
+     * @param path PMDファイル
+     * @return 読み出し
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     */
+    public static PmdSectionReader open(Path path)
+            throws IOException, MmdFormatException{
+        ByteBuffer buffer = PmdLoader.mapFile(path);
+        PmdSectionReader result = new PmdSectionReader(buffer);
+        return result;
+    }
+
+
+    /**
+     * セクション索引を返す。
+     *
+     * @return セクション索引
+     */
+    public PmdSectionIndex getIndex(){
+        return this.index;
+    }
+
+    /**
+     * 骨格PMDデータを生成する。
+     *
+     * <p>骨格PMDデータは元データから頂点、面、
+     * および各モーフの頂点を取り除いたPMDデータである。
+     * 材質の面頂点数は0となる。
+     * その他のセクションは元データのまま。
+     *
+     * @return 骨格PMDデータ
+     */
+    public ByteBuffer buildSkeletonImage(){
+        PmdLoadOptions options = new PmdLoadOptions();
+        options.setLoaded(PmdLoadOptions.Part.SHAPE, false);
+
+        ByteBuffer result =
+                PmdImageReducer.reduce(this.buf, this.index, options);
+
+        return result;
+    }
+
+    /**
+     * 骨格PMDデータを読み込みモデルを返す。
+     *
+     * <p>返されるモデルは頂点、面、モーフ頂点を持たない。
+     *
+     * @return 骨格モデル
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     * @see #buildSkeletonImage()
+     */
+    public PmdModel loadSkeleton() throws IOException, MmdFormatException{
+        PmdLoader loader = new PmdLoader();
+        PmdModel model = loader.load(buildSkeletonImage());
+        return model;
+    }
+
+    /**
+     * 頂点数を返す。
+     *
+     * @return 頂点数
+     */
+    public int getVertexCount(){
+        return this.index.getCount(PmdSection.VERTEX);
+    }
+
+    /**
+     * 頂点レコードの位置を返す。
+     *
+     * @param vertexNo 頂点番号
+     * @return 位置
+     * @throws IndexOutOfBoundsException 不正な頂点番号
+     */
+    private int vertexPos(int vertexNo) throws IndexOutOfBoundsException{
+        if(vertexNo < 0 || getVertexCount() <= vertexNo){
+            throw new IndexOutOfBoundsException(Integer.toString(vertexNo));
+        }
+        return this.vertexBase + vertexNo * PmdSectionIndex.VERTEX_SIZE;
+    }
+
+    /**
+     * 頂点位置座標の成分を返す。
+     *
+     * @param vertexNo 頂点番号
+     * @param axis 成分番号。0:X 1:Y 2:Z
+     * @return 座標成分
+     */
+    public float getPosition(int vertexNo, int axis){
+        return this.buf.getFloat(vertexPos(vertexNo) + axis * 4);
+    }
+
+    /**
+     * 法線ベクトルの成分を返す。
+     *
+     * @param vertexNo 頂点番号
+     * @param axis 成分番号。0:X 1:Y 2:Z
+     * @return ベクトル成分
+     */
+    public float getNormal(int vertexNo, int axis){
+        return this.buf.getFloat(vertexPos(vertexNo) + OFF_NORMAL + axis * 4);
+    }
+
+    /**
+     * UVマップ座標の成分を返す。
+     *
+     * @param vertexNo 頂点番号
+     * @param axis 成分番号。0:U 1:V
+     * @return 座標成分
+     */
+    public float getUV(int vertexNo, int axis){
+        return this.buf.getFloat(vertexPos(vertexNo) + OFF_UV + axis * 4);
+    }
+
+    /**
+     * 頂点の属するボーンのIDを返す。
+     *
+     * @param vertexNo 頂点番号
+     * @param boneNo 0:ボーンA 1:ボーンB
+     * @return ボーンID
+     */
+    public int getBoneId(int vertexNo, int boneNo){
+        int pos = vertexPos(vertexNo) + OFF_BONE + boneNo * 2;
+        return this.buf.getShort(pos) & 0xffff;
+    }
+
+    /**
+     * ボーンAのウェイト値を返す。
+     *
+     * @param vertexNo 頂点番号
+     * @return ウェイト値
+     */
+    public int getWeightA(int vertexNo){
+        return this.buf.get(vertexPos(vertexNo) + OFF_WEIGHT) & 0xff;
+    }
+
+    /**
+     * エッジを表示するか判定する。
+     *
+     * @param vertexNo 頂点番号
+     * @return 表示するならtrue
+     */
+    public boolean getEdgeAppearance(int vertexNo){
+        return this.buf.get(vertexPos(vertexNo) + OFF_EDGE) == 0;
+    }
+
+    /**
+     * 面数を返す。
+     *
+     * @return 面数
+     */
+    public int getSurfaceCount(){
+        return this.index.getCount(PmdSection.SURFACE) / 3;
+    }
+
+    /**
+     * 面を構成する頂点の番号を返す。
+     *
+     * @param surfaceNo 面番号
+     * @param corner 面内の頂点順。0から2
+     * @return 頂点番号
+     * @throws IndexOutOfBoundsException 不正な面番号
+     */
+    public int getSurfaceVertexId(int surfaceNo, int corner)
+            throws IndexOutOfBoundsException{
+        if(surfaceNo < 0 || getSurfaceCount() <= surfaceNo){
+            throw new IndexOutOfBoundsException(Integer.toString(surfaceNo));
+        }
+        int pos = this.surfaceBase
+                + (surfaceNo * 3 + corner)
+                  * PmdSectionIndex.SURFACE_VERTEX_SIZE;
+        return this.buf.getShort(pos) & 0xffff;
+    }
+
+    /**
+     * 材質数を返す。
+     *
+     * @return 材質数
+     */
+    public int getMaterialCount(){
+        return this.index.getCount(PmdSection.MATERIAL);
+    }
+
+    /**
+     * 材質に属する面の数を返す。
+     *
+     * @param materialNo 材質番号
+     * @return 面数
+     */
+    public int getMaterialSurfaceCount(int materialNo){
+        int pos = this.materialBase
+                + materialNo * PmdSectionIndex.MATERIAL_SIZE
+                + PmdSectionIndex.MATERIAL_SURFACE_POS;
+        int vertices = this.buf.getInt(pos);
+        return vertices / 3;
+    }
+
+    /**
+     * モーフ種別を返す。
+     *
+     * @param morphNo モーフ番号
+     * @return モーフ種別
+     */
+    public MorphType getMorphType(int morphNo){
+        int pos = this.index.getMorphOffset(morphNo) + OFF_MORPH_TYPE;
+        return MorphType.decode(this.buf.get(pos));
+    }
+
+    /**
+     * モーフ頂点数を返す。
+     *
+     * @param morphNo モーフ番号
+     * @return モーフ頂点数
+     */
+    public int getMorphVertexCount(int morphNo){
+        int pos = this.index.getMorphOffset(morphNo) + OFF_MORPH_COUNT;
+        return this.buf.getInt(pos);
+    }
+
+    /**
+     * モーフ頂点レコードの位置を返す。
+     *
+     * @param morphNo モーフ番号
+     * @param vertexNo モーフ内頂点番号
+     * @return 位置
+     */
+    private int morphVertexPos(int morphNo, int vertexNo){
+        int pos = this.index.getMorphOffset(morphNo)
+                + PmdSectionIndex.MORPH_HEAD_SIZE
+                + vertexNo * PmdSectionIndex.MORPH_VERTEX_SIZE;
+        return pos;
+    }
+
+    /**
+     * モーフ頂点の移動量成分を返す。
+     *
+     * @param morphNo モーフ番号
+     * @param vertexNo モーフ内頂点番号
+     * @param axis 成分番号。0:X 1:Y 2:Z
+     * @return 移動量成分
+     */
+    public float getMorphOffset(int morphNo, int vertexNo, int axis){
+        int pos = morphVertexPos(morphNo, vertexNo) + 4 + axis * 4;
+        return this.buf.getFloat(pos);
+    }
+
+    /**
+     * モーフ頂点が変位させる頂点の番号を返す。
+     *
+     * <p>基本形以外のモーフ頂点の場合、
+     * 基本形モーフ頂点を介して頂点番号へ解決される。
+     * 基本形モーフが複数あればモーフ順に連結して扱う。
+     *
+     * @param morphNo モーフ番号
+     * @param vertexNo モーフ内頂点番号
+     * @return 頂点番号
+     * @throws IndexOutOfBoundsException 基本形モーフ頂点の参照が不正
+     */
+    public int getMorphBaseVertexId(int morphNo, int vertexNo)
+            throws IndexOutOfBoundsException{
+        int pos = morphVertexPos(morphNo, vertexNo);
+        int serial = this.buf.getInt(pos);
+        if(getMorphType(morphNo).isBase()) return serial;
+
+        int remain = serial;
+        for(int baseNo : this.baseMorphArray){
+            int baseVertices = getMorphVertexCount(baseNo);
+            if(0 <= remain && remain < baseVertices){
+                int basePos = morphVertexPos(baseNo, remain);
+                return this.buf.getInt(basePos);
+            }
+            remain -= baseVertices;
+        }
+
+        throw new IndexOutOfBoundsException(Integer.toString(serial));
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * fixed-size record encoder for pmd-file
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import jp.sfjp.mikutoga.bin.export.BinaryExporter;
+
+/**
+ * 固定長レコードをリトルエンディアンのバッファへ直接書き込むエンコーダ。
+ *
+ * <p>複数のバッファを順に使い切り、
+ * 全て埋まった時点もしくは明示的な排出指示で出力先へまとめて書き出す。
+ * 出力先がファイルチャネルの場合はギャザリング書き込みが用いられ、
+ * それ以外の場合は{@link BinaryExporter}へバイト列として渡される。
+ *
+ * <p>バッファ内容はエクスポーターへの他の出力に先立って
+ * 排出されなければならない。
+ *
+ * <p>出力先バッファを直接指定した場合は、
+ * レコードはそのバッファへ直接書き込まれ排出は不要となる。
+ */
+final class RecordEncoder {
+
+    /** バッファ1つあたりの容量。 */
+    static final int BUF_SZ = 64 * 1024;
+
+    private static final int BUF_NUM = 4;
+
+    private static final String ERRMSG_OVERFLOW = "buffer overflow";
+
+
+    private final BinaryExporter exporter;
+    private final FileChannel channel;
+
+    private final ByteBuffer target;
+
+    private final ByteBuffer[] bufs;
+    private int bufIdx = 0;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param exporter 排出先エクスポーター
+     * @param channel 排出先ファイルチャネル。
+     *     nullならエクスポーターへ排出する
+     * @throws NullPointerException エクスポーターがnull
+     */
+    RecordEncoder(BinaryExporter exporter, FileChannel channel)
+            throws NullPointerException{
+        super();
+
+        if(exporter == null) throw new NullPointerException();
+
+        this.exporter = exporter;
+        this.channel = channel;
+        this.target = null;
+
+        this.bufs = new ByteBuffer[BUF_NUM];
+        for(int idx = 0; idx < BUF_NUM; idx++){
+            ByteBuffer buf = ByteBuffer.allocate(BUF_SZ);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            this.bufs[idx] = buf;
+        }
+
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>出力先バッファのバイトオーダーはリトルエンディアンに変更される。
+     *
+     * @param target 出力先バッファ
+     * @throws NullPointerException 引数がnull
+     */
+    RecordEncoder(ByteBuffer target) throws NullPointerException{
+        super();
+
+        if(target == null) throw new NullPointerException();
+
+        this.exporter = null;
+        this.channel = null;
+        this.target = target;
+        this.target.order(ByteOrder.LITTLE_ENDIAN);
+
+        this.bufs = null;
+
+        return;
+    }
+
+
+    /**
+     * 指定サイズのレコードを書き込めるバッファを返す。
+     *
+     * <p>現在のバッファに空きが足りなければ次のバッファに移る。
+     * 全てのバッファが埋まっていれば先に排出される。
+     *
+     * <p>出力先バッファが指定されていればそのバッファを返す。
+     *
+     * @param recordSize レコードのバイト長
+     * @return バッファ
+     * @throws IOException 出力エラーもしくは出力先バッファの容量不足
+     */
+    ByteBuffer reserve(int recordSize) throws IOException{
+        if(this.target != null){
+            if(this.target.remaining() < recordSize){
+                throw new IOException(ERRMSG_OVERFLOW);
+            }
+            return this.target;
+        }
+
+        assert recordSize <= BUF_SZ;
+
+        ByteBuffer buf = this.bufs[this.bufIdx];
+        if(buf.remaining() >= recordSize) return buf;
+
+        this.bufIdx++;
+        if(this.bufIdx >= BUF_NUM) drain();
+
+        buf = this.bufs[this.bufIdx];
+        assert buf.remaining() >= recordSize;
+
+        return buf;
+    }
+
+    /**
+     * 書き込み済みの全バッファを出力先へ排出する。
+     *
+     * @throws IOException 出力エラー
+     */
+    void drain() throws IOException{
+        if(this.target != null) return;
+
+        int used = Math.min(this.bufIdx + 1, BUF_NUM);
+
+        for(int idx = 0; idx < used; idx++){
+            this.bufs[idx].flip();
+        }
+
+        if(this.channel != null){
+            drainToChannel(used);
+        }else{
+            drainToExporter(used);
+        }
+
+        for(int idx = 0; idx < used; idx++){
+            this.bufs[idx].clear();
+        }
+        this.bufIdx = 0;
+
+        return;
+    }
+
+    /**
+     * バッファをファイルチャネルへギャザリング書き込みする。
+     *
+     * @param used 使用済みバッファ数
+     * @throws IOException 出力エラー
+     */
+    private void drainToChannel(int used) throws IOException{
+        ByteBuffer last = this.bufs[used - 1];
+        while(last.hasRemaining()){
+            this.channel.write(this.bufs, 0, used);
+        }
+        return;
+    }
+
+    /**
+     * バッファをエクスポーターへバイト列として渡す。
+     *
+     * @param used 使用済みバッファ数
+     * @throws IOException 出力エラー
+     */
+    private void drainToExporter(int used) throws IOException{
+        for(int idx = 0; idx < used; idx++){
+            ByteBuffer buf = this.bufs[idx];
+            int length = buf.remaining();
+            if(length <= 0) continue;
+            this.exporter.dumpByteArray(buf.array(),
+                                        buf.arrayOffset() + buf.position(),
+                                        length );
+        }
+        return;
+    }
+
+}
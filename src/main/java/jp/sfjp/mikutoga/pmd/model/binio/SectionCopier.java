@@ -0,0 +1,320 @@
+/*
+ * unchanged section copier for pmd-file
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.ModelSection;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+
+/**
+ * 原本PMDファイルから未変更のセクションをバイト単位で複写する。
+ *
+ * <p>モデル上で未変更の部位に対応し、
+ * 原本に存在するセクションのみが複写対象となる。
+ *
+ * <p>変更済みの部位のいずれかで要素数が原本と異なる場合、
+ * 他のセクションからの参照がずれるため複写は一切行われない。
+ * 未変更の部位の内容は原本と一致するものとみなされる。
+ */
+final class SectionCopier {
+
+    private static final String ERRMSG_OVERFLOW = "buffer overflow";
+
+
+    private final FileChannel original;
+    private final PmdSectionIndex index;
+
+    private final Set<PmdSection> copySet =
+            EnumSet.noneOf(PmdSection.class);
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param original 原本PMDファイル
+     * @param index 原本のセクション索引。
+     *     開始位置はファイル先頭を起点とすること
+     * @throws NullPointerException 引数がnull
+     */
+    SectionCopier(FileChannel original, PmdSectionIndex index)
+            throws NullPointerException{
+        super();
+
+        if(original == null || index == null){
+            throw new NullPointerException();
+        }
+
+        this.original = original;
+        this.index = index;
+
+        return;
+    }
+
+
+    /**
+     * セクションに対応するモデルの部位が変更済みか判定する。
+     *
+     * @param model モデルデータ
+     * @param section セクション
+     * @return 変更済みならtrue
+     */
+    private static boolean isDirty(PmdModel model, PmdSection section){
+        boolean result;
+
+        switch(section){
+        case HEADER:
+            result = model.isDirty(ModelSection.BASIC);
+            break;
+        case VERTEX:
+            result = model.isDirty(ModelSection.VERTEX);
+            break;
+        case SURFACE:
+            result = model.isDirty(ModelSection.SURFACE);
+            break;
+        case MATERIAL:
+            result = model.isDirty(ModelSection.MATERIAL);
+            break;
+        case BONE:
+            result = model.isDirty(ModelSection.BONE);
+            break;
+        case IK:
+            result = model.isDirty(ModelSection.IK);
+            break;
+        case MORPH:
+            result = model.isDirty(ModelSection.MORPH);
+            break;
+        case MORPH_ORDER:
+            result = model.isDirty(ModelSection.MORPH)
+                  || model.isDirty(ModelSection.GROUP);
+            break;
+        case BONE_GROUP:
+        case BONE_GROUP_MEMBER:
+            result = model.isDirty(ModelSection.GROUP);
+            break;
+        case ENGLISH:
+            result = model.isDirty(ModelSection.ENGLISH);
+            break;
+        case TOON:
+            result = model.isDirty(ModelSection.TOON);
+            break;
+        case RIGID:
+            result = model.isDirty(ModelSection.RIGID);
+            break;
+        case JOINT:
+            result = model.isDirty(ModelSection.JOINT);
+            break;
+        default:
+            assert false;
+            throw new AssertionError();
+        }
+
+        return result;
+    }
+
+    /**
+     * モデルを出力した場合のセクションの要素数を返す。
+     *
+     * <p>要素数の定義は{@link PmdSectionIndex#getCount(PmdSection)}に従う。
+     *
+     * @param model モデルデータ
+     * @param section セクション
+     * @return 要素数
+     */
+    private static int countOf(PmdModel model, PmdSection section){
+        int result;
+
+        switch(section){
+        case HEADER:
+        case TOON:
+            result = 1;
+            break;
+        case VERTEX:
+            result = model.getVertexList().size();
+            break;
+        case SURFACE:
+            result = 0;
+            for(Material material : model.getMaterialList()){
+                result += material.getSurfaceList().size() * 3;
+            }
+            break;
+        case MATERIAL:
+            result = model.getMaterialList().size();
+            break;
+        case BONE:
+            result = model.getBoneList().size();
+            break;
+        case IK:
+            result = model.getIKChainList().size();
+            break;
+        case MORPH:
+            result = countMorph(model);
+            if(result > 0) result++;   // baseの分
+            break;
+        case MORPH_ORDER:
+            result = countMorph(model);
+            break;
+        case BONE_GROUP:
+            result = model.getBoneGroupList().size() - 1;
+            break;
+        case BONE_GROUP_MEMBER:
+            result = 0;
+            for(BoneGroup group : model.getBoneGroupList()){
+                if(group.isDefaultBoneGroup()) continue;
+                result += group.getBoneList().size();
+            }
+            break;
+        case ENGLISH:
+            if(model.hasGlobalText()) result = 1;
+            else                      result = 0;
+            break;
+        case RIGID:
+            result = model.getRigidList().size();
+            break;
+        case JOINT:
+            result = model.getJointList().size();
+            break;
+        default:
+            assert false;
+            throw new AssertionError();
+        }
+
+        return result;
+    }
+
+    /**
+     * BASE以外のモーフ数を返す。
+     *
+     * @param model モデルデータ
+     * @return モーフ数
+     */
+    private static int countMorph(PmdModel model){
+        Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
+
+        int result = 0;
+        for(MorphType type : MorphType.values()){
+            if(type.isBase()) continue;
+            List<MorphPart> partList = morphMap.get(type);
+            if(partList == null) continue;
+            result += partList.size();
+        }
+
+        return result;
+    }
+
+    /**
+     * モデルの変更状況に従い複写対象のセクションを選ぶ。
+     *
+     * @param model モデルデータ
+     * @param index 原本のセクション索引
+     * @return 複写対象のセクション
+     */
+    static Set<PmdSection> selectSections(PmdModel model,
+                                          PmdSectionIndex index ){
+        Set<PmdSection> result = EnumSet.noneOf(PmdSection.class);
+
+        for(PmdSection section : PmdSection.values()){
+            if( ! isDirty(model, section) ) continue;
+            if( ! index.hasSection(section) ) continue;
+            int count = countOf(model, section);
+            if(count != index.getCount(section)) return result;
+        }
+
+        for(PmdSection section : PmdSection.values()){
+            if(isDirty(model, section)) continue;
+            if( ! index.hasSection(section) ) continue;
+            result.add(section);
+        }
+
+        return result;
+    }
+
+    /**
+     * モデルの変更状況に従い複写対象のセクションを決める。
+     *
+     * @param model モデルデータ
+     * @see #selectSections(PmdModel, PmdSectionIndex)
+     */
+    void prepare(PmdModel model){
+        this.copySet.clear();
+        this.copySet.addAll(selectSections(model, this.index));
+        return;
+    }
+
+    /**
+     * セクションが複写対象か判定する。
+     *
+     * @param section セクション
+     * @return 複写対象ならtrue
+     */
+    boolean isCopyable(PmdSection section){
+        return this.copySet.contains(section);
+    }
+
+    /**
+     * 原本のセクションをチャネルの現在位置へ転送する。
+     *
+     * @param section セクション
+     * @param dst 転送先
+     * @throws IOException 入出力エラーもしくは原本が途中で尽きた
+     */
+    void copyTo(PmdSection section, WritableByteChannel dst)
+            throws IOException{
+        long pos = this.index.getOffset(section);
+        long end = pos + this.index.getLength(section);
+
+        while(pos < end){
+            long done = this.original.transferTo(pos, end - pos, dst);
+            if(done <= 0L) throw new EOFException();
+            pos += done;
+        }
+
+        return;
+    }
+
+    /**
+     * 原本のセクションをバッファの現在位置へ読み込む。
+     *
+     * @param section セクション
+     * @param dst 読み込み先
+     * @throws IOException 入出力エラー、原本が途中で尽きた、
+     *     もしくはバッファの容量不足
+     */
+    void copyTo(PmdSection section, ByteBuffer dst) throws IOException{
+        int length = this.index.getLength(section);
+        if(dst.remaining() < length){
+            throw new IOException(ERRMSG_OVERFLOW);
+        }
+
+        ByteBuffer view = dst.slice();
+        view.limit(length);
+
+        long pos = this.index.getOffset(section);
+        while(view.hasRemaining()){
+            int done = this.original.read(view, pos);
+            if(done < 0) throw new EOFException();
+            pos += done;
+        }
+
+        dst.position(dst.position() + length);
+
+        return;
+    }
+
+}
@@ -11,14 +11,12 @@
 import java.util.List;
 import java.util.RandomAccess;
 import jp.sfjp.mikutoga.bin.parser.ParseStage;
-import jp.sfjp.mikutoga.math.MkPos2D;
-import jp.sfjp.mikutoga.math.MkPos3D;
-import jp.sfjp.mikutoga.math.MkVec3D;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
 import jp.sfjp.mikutoga.pmd.model.ListUtil;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
 import jp.sfjp.mikutoga.pmd.model.Surface;
 import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
 import jp.sfjp.mikutoga.pmd.parser.PmdShapeHandler;
 
 /**
@@ -26,16 +24,23 @@
  */
 class ShapeBuilder implements PmdShapeHandler {
 
+    private static final int TRIANGLE = 3;
+
+    private final VertexStore vertexStore;
     private final List<Vertex> vertexList;
     private final List<BoneInfo> boneList;
     private final List<Surface> surfaceList;
 
     private Iterator<Vertex> vertexIt;
-    private Vertex currentVertex = null;
+    private VertexStore currentStore = null;
+    private int currentSlot = -1;
 
     private Iterator<Surface> surfaceIt;
     private Surface currentSurface = null;
 
+    private int[] triangleIds = new int[0];
+    private int triangleIdx = 0;
+
     /**
      * コンストラクタ。
      * @param model モデル
@@ -43,6 +48,7 @@ class ShapeBuilder implements PmdShapeHandler {
     ShapeBuilder(PmdModel model){
         super();
 
+        this.vertexStore = model.getVertexStore();
         this.vertexList  = model.getVertexList();
         this.boneList    = model.getBoneList();
         this.surfaceList = model.getSurfaceList();
@@ -71,6 +77,36 @@ private BoneInfo prepareBone(int id){
         return bone;
     }
 
+    /**
+     * 頂点リストの要素数を拡張し、空き要素を頂点格納庫上の頂点で埋める。
+     * @param loops 頂点数
+     */
+    private void prepareVertexList(int loops){
+        ListUtil.extendList(this.vertexList, loops);
+        this.vertexStore.ensureCapacity(this.vertexStore.size() + loops);
+
+        int size = this.vertexList.size();
+        for(int idx = 0; idx < size; idx++){
+            if(this.vertexList.get(idx) != null) continue;
+            Vertex vertex = this.vertexStore.newVertex();
+            this.vertexList.set(idx, vertex);
+        }
+
+        ListUtil.assignIndexedSerial(this.vertexList);
+
+        return;
+    }
+
+    /**
+     * 通知対象の頂点を設定する。
+     * @param vertex 頂点
+     */
+    private void setCurrentVertex(Vertex vertex){
+        this.currentStore = vertex.getVertexStore();
+        this.currentSlot = vertex.getStoreSlot();
+        return;
+    }
+
     /**
      * {@inheritDoc}
      * @param stage {@inheritDoc}
@@ -79,18 +115,20 @@ private BoneInfo prepareBone(int id){
     @Override
     public void loopStart(ParseStage stage, int loops){
         if(stage == PmdShapeHandler.VERTEX_LIST){
-            ListUtil.prepareDefConsList(this.vertexList, Vertex.class, loops);
-            ListUtil.assignIndexedSerial(this.vertexList);
+            prepareVertexList(loops);
 
             this.vertexIt = this.vertexList.iterator();
             if(this.vertexIt.hasNext()){
-                this.currentVertex = this.vertexIt.next();
+                setCurrentVertex(this.vertexIt.next());
             }
         }else if(stage == PmdShapeHandler.SURFACE_LIST){
             ListUtil.prepareDefConsList(this.surfaceList,
                                         Surface.class, loops );
             ListUtil.assignIndexedSerial(this.surfaceList);
 
+            this.triangleIds = new int[loops * TRIANGLE];
+            this.triangleIdx = 0;
+
             this.surfaceIt = this.surfaceList.iterator();
             if(this.surfaceIt.hasNext()){
                 this.currentSurface = this.surfaceIt.next();
@@ -110,7 +148,7 @@ public void loopStart(ParseStage stage, int loops){
     public void loopNext(ParseStage stage){
         if(stage == PmdShapeHandler.VERTEX_LIST){
             if(this.vertexIt.hasNext()){
-                this.currentVertex = this.vertexIt.next();
+                setCurrentVertex(this.vertexIt.next());
             }
         }else if(stage == PmdShapeHandler.SURFACE_LIST){
             if(this.surfaceIt.hasNext()){
@@ -140,10 +178,7 @@ public void loopEnd(ParseStage stage){
      */
     @Override
     public void pmdVertexPosition(float xPos, float yPos, float zPos){
-        MkPos3D position = this.currentVertex.getPosition();
-        position.setXpos(xPos);
-        position.setYpos(yPos);
-        position.setZpos(zPos);
+        this.currentStore.setPosition(this.currentSlot, xPos, yPos, zPos);
         return;
     }
 
@@ -155,10 +190,7 @@ public void pmdVertexPosition(float xPos, float yPos, float zPos){
      */
     @Override
     public void pmdVertexNormal(float xVec, float yVec, float zVec){
-        MkVec3D normal = this.currentVertex.getNormal();
-        normal.setXVal(xVec);
-        normal.setYVal(yVec);
-        normal.setZVal(zVec);
+        this.currentStore.setNormal(this.currentSlot, xVec, yVec, zVec);
         return;
     }
 
@@ -169,9 +201,7 @@ public void pmdVertexNormal(float xVec, float yVec, float zVec){
      */
     @Override
     public void pmdVertexUV(float uVal, float vVal){
-        MkPos2D uv = this.currentVertex.getUVPosition();
-        uv.setXpos(uVal);
-        uv.setYpos(vVal);
+        this.currentStore.setUV(this.currentSlot, uVal, vVal);
         return;
     }
 
@@ -186,8 +216,8 @@ public void pmdVertexWeight(int boneId1, int boneId2, int weightForB1){
         BoneInfo bone1 = prepareBone(boneId1);
         BoneInfo bone2 = prepareBone(boneId2);
 
-        this.currentVertex.setBonePair(bone1, bone2);
-        this.currentVertex.setWeightA(weightForB1);
+        this.currentStore.setBonePair(this.currentSlot, bone1, bone2);
+        this.currentStore.setWeightA(this.currentSlot, weightForB1);
 
         return;
     }
@@ -199,7 +229,7 @@ public void pmdVertexWeight(int boneId1, int boneId2, int weightForB1){
     @Override
     public void pmdVertexEdge(boolean hideEdge){
         boolean appearFlag = ! hideEdge;
-        this.currentVertex.setEdgeAppearance(appearFlag);
+        this.currentStore.setEdgeAppearance(this.currentSlot, appearFlag);
         return;
     }
 
@@ -219,7 +249,20 @@ public void pmdSurfaceTriangle(int vertexId1,
 
         this.currentSurface.setTriangle(vtx1, vtx2, vtx3);
 
+        this.triangleIds[this.triangleIdx++] = vertexId1;
+        this.triangleIds[this.triangleIdx++] = vertexId2;
+        this.triangleIds[this.triangleIdx++] = vertexId3;
+
         return;
     }
 
+    /**
+     * 読み込んだ面の頂点IDを面リスト順に並べた配列を返す。
+     *
+     * @return 頂点IDの並び。長さは面数の3倍
+     */
+    int[] getTriangleIds(){
+        return this.triangleIds;
+    }
+
 }
@@ -0,0 +1,268 @@
+/*
+ * PMD cache block reader
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+
+/**
+ * バッファ上のブロック列を先頭から順に読む。
+ *
+ * <p>ビューを返すメソッドはブロック上のデータを複写せず、
+ * ブロック範囲に限定したバッファのビューを返す。
+ */
+final class BlockReader {
+
+    private static final int ALIGN = 4;
+    private static final int ALIGN_MASK = ALIGN - 1;
+
+    private static final String ERR_EOF = "unexpected end of PMD cache";
+    private static final String ERR_LENGTH = "unexpected block length";
+    private static final String ERR_OFFSET = "invalid offset table";
+
+
+    private final ByteBuffer buffer;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer 入力バッファ。バイトオーダーは設定済みであること
+     */
+    BlockReader(ByteBuffer buffer){
+        super();
+        this.buffer = buffer;
+        return;
+    }
+
+
+    /**
+     * ブロックの要素数を読み、ブロック本体の範囲のビューを返す。
+     *
+     * <p>バッファの位置は次のブロックへ進む。
+     *
+     * @param unit 要素のバイト長
+     * @return ブロック本体のビュー
+     * @throws MmdFormatException ブロックが途切れている
+     */
+    private ByteBuffer nextBlock(int unit) throws MmdFormatException{
+        int pos = this.buffer.position();
+        if(this.buffer.remaining() < 4){
+            throw new MmdFormatException(ERR_EOF, pos);
+        }
+
+        long count = this.buffer.getInt();
+        long bytes = count * unit;
+        long padded = (bytes + ALIGN_MASK) & ~((long) ALIGN_MASK);
+        if(count < 0 || this.buffer.remaining() < padded){
+            throw new MmdFormatException(ERR_EOF, pos);
+        }
+
+        ByteBuffer view = this.buffer.slice();
+        view.order(this.buffer.order());
+        view.limit((int) bytes);
+
+        this.buffer.position(this.buffer.position() + (int) padded);
+
+        return view;
+    }
+
+    /**
+     * 開始位置の表を検査する。
+     *
+     * @param start 開始位置の表
+     * @param total 要素総数
+     * @throws MmdFormatException 開始位置が不正
+     */
+    static void checkOffsets(int[] start, int total)
+            throws MmdFormatException{
+        if(start.length < 1 || start[0] != 0){
+            throw new MmdFormatException(ERR_OFFSET);
+        }
+        for(int idx = 1; idx < start.length; idx++){
+            if(start[idx] < start[idx - 1]){
+                throw new MmdFormatException(ERR_OFFSET);
+            }
+        }
+        if(start[start.length - 1] != total){
+            throw new MmdFormatException(ERR_OFFSET);
+        }
+        return;
+    }
+
+    /**
+     * 残りのバイト長を返す。
+     *
+     * @return バイト長
+     */
+    int remaining(){
+        return this.buffer.remaining();
+    }
+
+    /**
+     * 要素数を示す1要素のint配列のブロックを読む。
+     *
+     * <p>1要素につき1バイト以上を要する要素数として、
+     * 残りのバイト長を超えないか検査される。
+     *
+     * @return 要素数
+     * @throws MmdFormatException ブロックが途切れているか要素数が不正
+     */
+    int nextCount() throws MmdFormatException{
+        int pos = this.buffer.position();
+        int result = nextInts(1)[0];
+        if(result < 0 || remaining() < result){
+            throw new MmdFormatException(ERR_LENGTH, pos);
+        }
+        return result;
+    }
+
+    /**
+     * int配列のブロックを読む。
+     *
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れている
+     */
+    int[] nextInts() throws MmdFormatException{
+        ByteBuffer view = nextBlock(4);
+        int[] result = new int[view.remaining() / 4];
+        view.asIntBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * 要素数を指定してint配列のブロックを読む。
+     *
+     * @param count 期待する要素数
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    int[] nextInts(int count) throws MmdFormatException{
+        int pos = this.buffer.position();
+        int[] result = nextInts();
+        if(result.length != count){
+            throw new MmdFormatException(ERR_LENGTH, pos);
+        }
+        return result;
+    }
+
+    /**
+     * 要素数を指定してfloat配列のブロックを読む。
+     *
+     * @param count 期待する要素数
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    float[] nextFloats(int count) throws MmdFormatException{
+        FloatBuffer view = nextFloatView(count);
+        float[] result = new float[count];
+        view.get(result);
+        return result;
+    }
+
+    /**
+     * 要素数を指定してbyte配列のブロックを読む。
+     *
+     * @param count 期待する要素数
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    byte[] nextBytes(int count) throws MmdFormatException{
+        ByteBuffer view = nextByteView(count);
+        byte[] result = new byte[count];
+        view.get(result);
+        return result;
+    }
+
+    /**
+     * byte配列のブロックを読む。
+     *
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れている
+     */
+    byte[] nextBytes() throws MmdFormatException{
+        ByteBuffer view = nextBlock(1);
+        byte[] result = new byte[view.remaining()];
+        view.get(result);
+        return result;
+    }
+
+    /**
+     * char配列のブロックを読む。
+     *
+     * @return 配列
+     * @throws MmdFormatException ブロックが途切れている
+     */
+    char[] nextChars() throws MmdFormatException{
+        ByteBuffer view = nextBlock(2);
+        char[] result = new char[view.remaining() / 2];
+        view.asCharBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * 要素数を指定してfloat配列のブロックのビューを返す。
+     *
+     * @param count 期待する要素数
+     * @return ビュー
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    FloatBuffer nextFloatView(int count) throws MmdFormatException{
+        int pos = this.buffer.position();
+        ByteBuffer view = nextBlock(4);
+        if(view.remaining() != 4L * count){
+            throw new MmdFormatException(ERR_LENGTH, pos);
+        }
+        return view.asFloatBuffer();
+    }
+
+    /**
+     * 要素数を指定してshort配列のブロックのビューを返す。
+     *
+     * @param count 期待する要素数
+     * @return ビュー
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    ShortBuffer nextShortView(int count) throws MmdFormatException{
+        int pos = this.buffer.position();
+        ByteBuffer view = nextBlock(2);
+        if(view.remaining() != 2L * count){
+            throw new MmdFormatException(ERR_LENGTH, pos);
+        }
+        return view.asShortBuffer();
+    }
+
+    /**
+     * byte配列のブロックのビューを返す。
+     *
+     * @return ビュー
+     * @throws MmdFormatException ブロックが途切れている
+     */
+    ByteBuffer nextByteView() throws MmdFormatException{
+        return nextBlock(1);
+    }
+
+    /**
+     * 要素数を指定してbyte配列のブロックのビューを返す。
+     *
+     * @param count 期待する要素数
+     * @return ビュー
+     * @throws MmdFormatException ブロックが途切れているか要素数が異なる
+     */
+    ByteBuffer nextByteView(int count) throws MmdFormatException{
+        int pos = this.buffer.position();
+        ByteBuffer view = nextBlock(1);
+        if(view.remaining() != count){
+            throw new MmdFormatException(ERR_LENGTH, pos);
+        }
+        return view;
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * PMD cache block writer
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * プリミティブ配列のブロック列を蓄積し、バッファへ出力する。
+ *
+ * <p>配列は複写されずに保持されるため、
+ * 出力までに配列の内容を変更してはならない。
+ */
+final class BlockWriter {
+
+    private static final int ALIGN = 4;
+    private static final int ALIGN_MASK = ALIGN - 1;
+
+
+    private final List<Object> blockList = new ArrayList<>();
+    private long size = 0L;
+
+
+    /**
+     * コンストラクタ。
+     */
+    BlockWriter(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 4バイト境界に切り上げたバイト長を返す。
+     *
+     * @param bytes バイト長
+     * @return 切り上げたバイト長
+     */
+    private static long align(long bytes){
+        return (bytes + ALIGN_MASK) & ~((long) ALIGN_MASK);
+    }
+
+    /**
+     * ブロックを追加する。
+     *
+     * @param block 配列
+     * @param bytes 配列のバイト長
+     */
+    private void add(Object block, long bytes){
+        this.blockList.add(block);
+        this.size += 4L + align(bytes);
+        return;
+    }
+
+    /**
+     * int配列のブロックを追加する。
+     *
+     * @param array 配列
+     */
+    void putInts(int[] array){
+        add(array, 4L * array.length);
+        return;
+    }
+
+    /**
+     * float配列のブロックを追加する。
+     *
+     * @param array 配列
+     */
+    void putFloats(float[] array){
+        add(array, 4L * array.length);
+        return;
+    }
+
+    /**
+     * short配列のブロックを追加する。
+     *
+     * @param array 配列
+     */
+    void putShorts(short[] array){
+        add(array, 2L * array.length);
+        return;
+    }
+
+    /**
+     * byte配列のブロックを追加する。
+     *
+     * @param array 配列
+     */
+    void putBytes(byte[] array){
+        add(array, array.length);
+        return;
+    }
+
+    /**
+     * char配列のブロックを追加する。
+     *
+     * @param array 配列
+     */
+    void putChars(char[] array){
+        add(array, 2L * array.length);
+        return;
+    }
+
+    /**
+     * 全ブロックの合計バイト長を返す。
+     *
+     * @return バイト長
+     */
+    long getSize(){
+        return this.size;
+    }
+
+    /**
+     * 全ブロックをバッファへ出力する。
+     *
+     * <p>バッファのバイトオーダーに従い出力される。
+     *
+     * @param buffer 出力先バッファ
+     * @throws java.nio.BufferOverflowException バッファの残りが不足
+     */
+    void writeTo(ByteBuffer buffer){
+        for(Object block : this.blockList){
+            int start = buffer.position() + 4;
+            int bytes;
+
+            if(block instanceof int[]){
+                int[] array = (int[]) block;
+                buffer.putInt(array.length);
+                buffer.asIntBuffer().put(array);
+                bytes = 4 * array.length;
+            }else if(block instanceof float[]){
+                float[] array = (float[]) block;
+                buffer.putInt(array.length);
+                buffer.asFloatBuffer().put(array);
+                bytes = 4 * array.length;
+            }else if(block instanceof short[]){
+                short[] array = (short[]) block;
+                buffer.putInt(array.length);
+                buffer.asShortBuffer().put(array);
+                bytes = 2 * array.length;
+            }else if(block instanceof byte[]){
+                byte[] array = (byte[]) block;
+                buffer.putInt(array.length);
+                buffer.put(array);
+                bytes = array.length;
+            }else if(block instanceof char[]){
+                char[] array = (char[]) block;
+                buffer.putInt(array.length);
+                buffer.asCharBuffer().put(array);
+                bytes = 2 * array.length;
+            }else{
+                assert false;
+                throw new AssertionError();
+            }
+
+            int end = start + (int) align(bytes);
+            buffer.position(start + bytes);
+            while(buffer.position() < end){
+                buffer.put((byte) 0);
+            }
+        }
+
+        return;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * PMD cache format definition
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import jp.sfjp.mikutoga.pmd.model.ToonMap;
+
+/**
+ * PMDキャッシュファイルのフォーマット定義。
+ *
+ * <p>ファイルはリトルエンディアンで、8バイトのマジック、
+ * 4バイトのバージョン番号に続き、ブロックの並びで構成される。
+ * 各ブロックは4バイトの要素数とプリミティブ配列からなり、
+ * 4バイト境界まで0で埋められる。
+ *
+ * <p>ブロックは以下の順に並ぶ。
+ * 要素数が実体数を示すブロック以外の要素数は記述から導かれる。
+ * <ol>
+ * <li>文字列表 : UTF-16文字プール、各文字列の開始位置
+ * <li>多言語文字列表 : 各多言語文字列の開始位置、言語と文字列の組
+ * <li>モデル : モデル名と説明文、トゥーンファイル名
+ * <li>ボーン : 名前、種別、親・子・影響ボーン、位置、回転連動率
+ * <li>頂点 : 頂点数、位置、法線、UV、ボーン対、ウェイト、エッジ
+ * <li>材質 : 名前、色と光沢度、トゥーン番号、テクスチャ、
+ * スフィアマップ、エッジ、材質順に並べた面の3頂点
+ * <li>IKチェーン : IKボーン、深さ、重み、連鎖ボーン
+ * <li>モーフ : 種別と種別ごとの範囲、名前、通し番号、
+ * 基本頂点、移動量
+ * <li>ボーングループ : 名前、所属ボーン
+ * <li>剛体グループ : グループ数、所属剛体
+ * <li>剛体 : 名前、挙動、形状、接続ボーン、グループ、
+ * 形状寸法・位置・回転・物理パラメータ、非衝突グループ
+ * <li>ジョイント : 名前、剛体対、位置・回転・ばね・可動範囲
+ * </ol>
+ *
+ * <p>オブジェクト間の参照は全て参照先リスト上の添字で表され、
+ * 参照無しは負の値で表される。
+ * 可変長の所属関係は開始位置の表と添字の並び(CSR形式)で表される。
+ *
+ * <p>フォーマットに互換性の無い変更が生じた場合はバージョン番号が変わる。
+ */
+final class CacheFormat {
+
+    /** マジック。 */
+    static final byte[] MAGIC = {
+        (byte) 'P', (byte) 'M', (byte) 'D', (byte) 'C',
+        (byte) 'A', (byte) 'C', (byte) 'H', (byte) 'E',
+    };
+
+    /** バージョン番号。 */
+    static final int VERSION = 1;
+
+    /** ヘッダ長。 */
+    static final int HEADER_SIZE = 8 + 4;
+
+    /** 参照無し。 */
+    static final int NO_REF = -1;
+
+    /** 頂点のボーン参照無し。 */
+    static final short NO_BONE = (short) 0xffff;
+
+    /** トゥーンファイル数。 */
+    static final int TOONS = ToonMap.MAX_CUSTOM_TOON;
+
+    /** 3次元ベクトルの要素数。 */
+    static final int DIM3 = 3;
+    /** UV座標の要素数。 */
+    static final int DIM2 = 2;
+    /** 三角形の頂点数。 */
+    static final int TRIANGLE = 3;
+
+    /** ボーン1つ当たりの参照数。親、子、影響ボーンの順。 */
+    static final int BONE_LINKS = 3;
+
+    /** 材質1つ当たりのfloat数。拡散光・反射光・環境光のRGBAと光沢度。 */
+    static final int MATERIAL_FLOATS = 4 * 3 + 1;
+
+    /** 剛体1つ当たりのfloat数。寸法、位置、回転、物理パラメータ5種。 */
+    static final int RIGID_FLOATS = DIM3 * 3 + 5;
+
+    /** ジョイント1つ当たりのfloat数。位置、回転、ばね2種、可動範囲2種。 */
+    static final int JOINT_FLOATS = DIM3 * 4 + 6 * 2;
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private CacheFormat(){
+        assert false;
+        throw new AssertionError();
+    }
+
+}
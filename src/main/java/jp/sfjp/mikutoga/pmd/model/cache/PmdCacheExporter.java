@@ -0,0 +1,667 @@
+/*
+ * model exporter for pmd-cache file
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.math.MkPos3D;
+import jp.sfjp.mikutoga.pmd.Deg3d;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.Rad3d;
+import jp.sfjp.mikutoga.pmd.TripletRange;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.BoneInfo;
+import jp.sfjp.mikutoga.pmd.model.DynamicsInfo;
+import jp.sfjp.mikutoga.pmd.model.IKChain;
+import jp.sfjp.mikutoga.pmd.model.JointInfo;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.RigidGroup;
+import jp.sfjp.mikutoga.pmd.model.RigidInfo;
+import jp.sfjp.mikutoga.pmd.model.RigidShape;
+import jp.sfjp.mikutoga.pmd.model.SerialNumbered;
+import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
+import jp.sfjp.mikutoga.pmd.model.ToonMap;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+
+/**
+ * PMDキャッシュファイルのエクスポーター。
+ *
+ * <p>モデルの全内容をメモリ上で整列させた後、一括して出力する。
+ * オブジェクト間の参照には各オブジェクトの通し番号が用いられるため、
+ * 通し番号は各リスト上の添字と一致していなければならない。
+ *
+ * @see PmdCacheLoader
+ */
+public class PmdCacheExporter {
+
+    private static final String ERR_TOOLARGE = "too large model";
+
+    private static final int COLOR_DIM = 4;
+
+
+    private final OutputStream ostream;
+
+    private final TextTable textTable = new TextTable();
+    private final BlockWriter body = new BlockWriter();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param stream 出力ストリーム
+     * @throws NullPointerException 引数がnull
+     */
+    public PmdCacheExporter(OutputStream stream) throws NullPointerException{
+        super();
+        if(stream == null) throw new NullPointerException();
+        this.ostream = stream;
+        return;
+    }
+
+
+    /**
+     * 参照先の通し番号を返す。
+     *
+     * @param numbered 参照先。nullも可
+     * @return 通し番号。nullなら{@link CacheFormat#NO_REF}
+     */
+    private static int ref(SerialNumbered numbered){
+        if(numbered == null) return CacheFormat.NO_REF;
+        return numbered.getSerialNumber();
+    }
+
+    /**
+     * 所属関係の開始位置の表を返す。
+     *
+     * @param groupList 所属先の並び
+     * @return 開始位置の表
+     */
+    private static int[] toStart(List<? extends Collection<?>> groupList){
+        int[] result = new int[groupList.size() + 1];
+        int total = 0;
+        int idx = 0;
+        for(Collection<?> group : groupList){
+            result[idx++] = total;
+            total += group.size();
+        }
+        result[idx] = total;
+        return result;
+    }
+
+    /**
+     * 所属関係の開始位置の表と所属要素の通し番号の並びを出力する。
+     *
+     * @param groupList 所属先の並び
+     */
+    private void putMembers(
+            List<? extends Collection<? extends SerialNumbered>> groupList){
+        int[] start = toStart(groupList);
+        int[] members = new int[start[start.length - 1]];
+
+        int idx = 0;
+        for(Collection<? extends SerialNumbered> group : groupList){
+            for(SerialNumbered member : group){
+                members[idx++] = ref(member);
+            }
+        }
+
+        this.body.putInts(start);
+        this.body.putInts(members);
+
+        return;
+    }
+
+    /**
+     * 色をfloat配列へ格納する。
+     *
+     * @param color 色
+     * @param dst 格納先
+     * @param pos 格納位置
+     * @return 次の格納位置
+     */
+    private static int putColor(Color color, float[] dst, int pos){
+        float[] rgba = color.getRGBComponents(null);
+        System.arraycopy(rgba, 0, dst, pos, COLOR_DIM);
+        return pos + COLOR_DIM;
+    }
+
+    /**
+     * 位置をfloat配列へ格納する。
+     *
+     * @param position 位置
+     * @param dst 格納先
+     * @param pos 格納位置
+     * @return 次の格納位置
+     */
+    private static int putPos(MkPos3D position, float[] dst, int pos){
+        int idx = pos;
+        dst[idx++] = (float) position.getXpos();
+        dst[idx++] = (float) position.getYpos();
+        dst[idx++] = (float) position.getZpos();
+        return idx;
+    }
+
+    /**
+     * ラジアン角をfloat配列へ格納する。
+     *
+     * @param rad ラジアン角
+     * @param dst 格納先
+     * @param pos 格納位置
+     * @return 次の格納位置
+     */
+    private static int putRad(Rad3d rad, float[] dst, int pos){
+        int idx = pos;
+        dst[idx++] = rad.getXRad();
+        dst[idx++] = rad.getYRad();
+        dst[idx++] = rad.getZRad();
+        return idx;
+    }
+
+    /**
+     * 度数角をfloat配列へ格納する。
+     *
+     * @param deg 度数角
+     * @param dst 格納先
+     * @param pos 格納位置
+     * @return 次の格納位置
+     */
+    private static int putDeg(Deg3d deg, float[] dst, int pos){
+        int idx = pos;
+        dst[idx++] = deg.getXDeg();
+        dst[idx++] = deg.getYDeg();
+        dst[idx++] = deg.getZDeg();
+        return idx;
+    }
+
+    /**
+     * 範囲をfloat配列へ格納する。
+     *
+     * @param range 範囲
+     * @param dst 格納先
+     * @param pos 格納位置
+     * @return 次の格納位置
+     */
+    private static int putRange(TripletRange range, float[] dst, int pos){
+        int idx = pos;
+        dst[idx++] = range.getXFrom();
+        dst[idx++] = range.getXTo();
+        dst[idx++] = range.getYFrom();
+        dst[idx++] = range.getYTo();
+        dst[idx++] = range.getZFrom();
+        dst[idx++] = range.getZTo();
+        return idx;
+    }
+
+    /**
+     * モデルデータをPMDキャッシュ形式で出力する。
+     *
+     * @param model モデルデータ
+     * @throws IOException 出力エラー
+     */
+    public void dumpPmdModel(PmdModel model) throws IOException{
+        dumpBasic(model);
+        dumpBone(model);
+        dumpVertex(model);
+        dumpMaterial(model);
+        dumpIKChain(model);
+        dumpMorph(model);
+        dumpBoneGroup(model);
+        dumpRigid(model);
+        dumpJoint(model);
+
+        BlockWriter text = new BlockWriter();
+        this.textTable.write(text);
+
+        long total = CacheFormat.HEADER_SIZE + text.getSize()
+                   + this.body.getSize();
+        if(total > Integer.MAX_VALUE) throw new IOException(ERR_TOOLARGE);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(CacheFormat.MAGIC);
+        buffer.putInt(CacheFormat.VERSION);
+        text.writeTo(buffer);
+        this.body.writeTo(buffer);
+        assert ! buffer.hasRemaining();
+
+        this.ostream.write(buffer.array());
+        this.ostream.flush();
+
+        return;
+    }
+
+    /**
+     * モデル名、説明文、トゥーンファイル名を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpBasic(PmdModel model){
+        int[] texts = {
+            this.textTable.putI18nText(model.getModelName()),
+            this.textTable.putI18nText(model.getDescription()),
+        };
+        this.body.putInts(texts);
+
+        ToonMap toonMap = model.getToonMap();
+        int[] toons = new int[CacheFormat.TOONS];
+        for(int idx = 0; idx < CacheFormat.TOONS; idx++){
+            String toonFile = toonMap.getIndexedToon(idx);
+            toons[idx] = this.textTable.putString(toonFile);
+        }
+        this.body.putInts(toons);
+
+        return;
+    }
+
+    /**
+     * ボーン情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpBone(PmdModel model){
+        List<BoneInfo> boneList = model.getBoneList();
+        int boneNum = boneList.size();
+
+        int[] names = new int[boneNum];
+        byte[] types = new byte[boneNum];
+        int[] links = new int[boneNum * CacheFormat.BONE_LINKS];
+        float[] positions = new float[boneNum * CacheFormat.DIM3];
+        int[] ratios = new int[boneNum];
+
+        int idx = 0;
+        int linkIdx = 0;
+        int posIdx = 0;
+        for(BoneInfo bone : boneList){
+            names[idx] = this.textTable.putI18nText(bone.getBoneName());
+            types[idx] = bone.getBoneType().encode();
+            links[linkIdx++] = ref(bone.getPrevBone());
+            links[linkIdx++] = ref(bone.getNextBone());
+            links[linkIdx++] = ref(bone.getSrcBone());
+            posIdx = putPos(bone.getPosition(), positions, posIdx);
+            ratios[idx] = bone.getRotationRatio();
+            idx++;
+        }
+
+        this.body.putInts(names);
+        this.body.putBytes(types);
+        this.body.putInts(links);
+        this.body.putFloats(positions);
+        this.body.putInts(ratios);
+
+        return;
+    }
+
+    /**
+     * 頂点情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpVertex(PmdModel model){
+        List<Vertex> vertexList = model.getVertexList();
+        int vertexNum = vertexList.size();
+
+        float[] positions = new float[vertexNum * CacheFormat.DIM3];
+        float[] normals = new float[vertexNum * CacheFormat.DIM3];
+        float[] uvs = new float[vertexNum * CacheFormat.DIM2];
+        short[] bones = new short[vertexNum * 2];
+        byte[] weights = new byte[vertexNum];
+        byte[] edges = new byte[vertexNum];
+
+        int idx = 0;
+        for(Vertex vertex : vertexList){
+            VertexStore store = vertex.getVertexStore();
+            int slot = vertex.getStoreSlot();
+
+            int pos3 = idx * CacheFormat.DIM3;
+            positions[pos3]     = store.getXpos(slot);
+            positions[pos3 + 1] = store.getYpos(slot);
+            positions[pos3 + 2] = store.getZpos(slot);
+            normals[pos3]     = store.getXNormal(slot);
+            normals[pos3 + 1] = store.getYNormal(slot);
+            normals[pos3 + 2] = store.getZNormal(slot);
+
+            int pos2 = idx * CacheFormat.DIM2;
+            uvs[pos2]     = store.getUVal(slot);
+            uvs[pos2 + 1] = store.getVVal(slot);
+
+            bones[pos2]     = toBoneRef(store.getBoneA(slot));
+            bones[pos2 + 1] = toBoneRef(store.getBoneB(slot));
+
+            weights[idx] = (byte) store.getWeightA(slot);
+            edges[idx] = (byte) (store.getEdgeAppearance(slot) ? 1 : 0);
+
+            idx++;
+        }
+
+        this.body.putInts(new int[]{vertexNum});
+        this.body.putFloats(positions);
+        this.body.putFloats(normals);
+        this.body.putFloats(uvs);
+        this.body.putShorts(bones);
+        this.body.putBytes(weights);
+        this.body.putBytes(edges);
+
+        return;
+    }
+
+    /**
+     * 頂点から参照されるボーンの番号を返す。
+     *
+     * @param bone ボーン。nullも可
+     * @return ボーン番号
+     */
+    private static short toBoneRef(BoneInfo bone){
+        if(bone == null) return CacheFormat.NO_BONE;
+        return (short) bone.getSerialNumber();
+    }
+
+    /**
+     * 材質情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpMaterial(PmdModel model){
+        List<Material> materialList = model.getMaterialList();
+        int materialNum = materialList.size();
+
+        int[] names = new int[materialNum];
+        float[] colors = new float[materialNum * CacheFormat.MATERIAL_FLOATS];
+        int[] toons = new int[materialNum];
+        int[] textures = new int[materialNum];
+        int[] spheres = new int[materialNum];
+        byte[] edges = new byte[materialNum];
+
+        int idx = 0;
+        int colorIdx = 0;
+        for(Material material : materialList){
+            names[idx] =
+                    this.textTable.putI18nText(material.getMaterialName());
+
+            colorIdx = putColor(material.getDiffuseColor(),
+                                colors, colorIdx);
+            colorIdx = putColor(material.getSpecularColor(),
+                                colors, colorIdx);
+            colorIdx = putColor(material.getAmbientColor(),
+                                colors, colorIdx);
+            colors[colorIdx++] = material.getShininess();
+
+            ShadeInfo shade = material.getShadeInfo();
+            toons[idx] = shade.getToonIndex();
+            textures[idx] =
+                    this.textTable.putString(shade.getTextureFileName());
+            spheres[idx] =
+                    this.textTable.putString(shade.getSpheremapFileName());
+
+            edges[idx] = (byte) (material.getEdgeAppearance() ? 1 : 0);
+
+            idx++;
+        }
+
+        this.body.putInts(names);
+        this.body.putFloats(colors);
+        this.body.putInts(toons);
+        this.body.putInts(textures);
+        this.body.putInts(spheres);
+        this.body.putBytes(edges);
+
+        TriangleMesh mesh = model.getTriangleMesh();
+        int[] surfaceStart = new int[materialNum + 1];
+        for(int materialIdx = 0; materialIdx < materialNum; materialIdx++){
+            surfaceStart[materialIdx] =
+                    mesh.getMaterialSurfaceStart(materialIdx);
+        }
+        int surfaceNum = mesh.getSurfaceCount();
+        surfaceStart[materialNum] = surfaceNum;
+
+        int[] triangles = new int[surfaceNum * CacheFormat.TRIANGLE];
+        int triIdx = 0;
+        for(int surfaceNo = 0; surfaceNo < surfaceNum; surfaceNo++){
+            for(int corner = 0; corner < CacheFormat.TRIANGLE; corner++){
+                triangles[triIdx++] =
+                        mesh.getSurfaceVertexId(surfaceNo, corner);
+            }
+        }
+
+        this.body.putInts(surfaceStart);
+        this.body.putInts(triangles);
+
+        return;
+    }
+
+    /**
+     * IKチェーン情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpIKChain(PmdModel model){
+        List<IKChain> chainList = model.getIKChainList();
+        int chainNum = chainList.size();
+
+        int[] ikBones = new int[chainNum];
+        int[] depths = new int[chainNum];
+        float[] weights = new float[chainNum];
+        List<List<BoneInfo>> chainedGroups = new ArrayList<>();
+
+        int idx = 0;
+        for(IKChain chain : chainList){
+            ikBones[idx] = ref(chain.getIkBone());
+            depths[idx] = chain.getIKDepth();
+            weights[idx] = chain.getIKWeight();
+            chainedGroups.add(chain.getChainedBoneList());
+            idx++;
+        }
+
+        this.body.putInts(ikBones);
+        this.body.putInts(depths);
+        this.body.putFloats(weights);
+        putMembers(chainedGroups);
+
+        return;
+    }
+
+    /**
+     * モーフ情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpMorph(PmdModel model){
+        Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
+
+        byte[] types = new byte[morphMap.size()];
+        List<MorphPart> partList = new ArrayList<>();
+        List<List<MorphPart>> typeGroups = new ArrayList<>();
+
+        int typeIdx = 0;
+        for(Map.Entry<MorphType, List<MorphPart>> entry
+                : morphMap.entrySet()){
+            types[typeIdx++] = entry.getKey().encode();
+            typeGroups.add(entry.getValue());
+            partList.addAll(entry.getValue());
+        }
+
+        int partNum = partList.size();
+        int[] names = new int[partNum];
+        int[] serials = new int[partNum];
+        List<List<MorphVertex>> vertexGroups = new ArrayList<>();
+
+        int idx = 0;
+        for(MorphPart part : partList){
+            names[idx] = this.textTable.putI18nText(part.getMorphName());
+            serials[idx] = part.getSerialNumber();
+            vertexGroups.add(part.getMorphVertexList());
+            idx++;
+        }
+
+        int[] typeStart = toStart(typeGroups);
+        int[] vertexStart = toStart(vertexGroups);
+        int morphVertexNum = vertexStart[vertexStart.length - 1];
+
+        int[] baseVertices = new int[morphVertexNum];
+        float[] offsets = new float[morphVertexNum * CacheFormat.DIM3];
+
+        int vertexIdx = 0;
+        int offsetIdx = 0;
+        for(List<MorphVertex> morphVertexList : vertexGroups){
+            for(MorphVertex morphVertex : morphVertexList){
+                baseVertices[vertexIdx++] = ref(morphVertex.getBaseVertex());
+                offsetIdx = putPos(morphVertex.getOffset(),
+                                   offsets, offsetIdx);
+            }
+        }
+
+        this.body.putBytes(types);
+        this.body.putInts(typeStart);
+        this.body.putInts(names);
+        this.body.putInts(serials);
+        this.body.putInts(vertexStart);
+        this.body.putInts(baseVertices);
+        this.body.putFloats(offsets);
+
+        return;
+    }
+
+    /**
+     * ボーングループ情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpBoneGroup(PmdModel model){
+        List<BoneGroup> groupList = model.getBoneGroupList();
+
+        int[] names = new int[groupList.size()];
+        List<List<BoneInfo>> boneGroups = new ArrayList<>();
+
+        int idx = 0;
+        for(BoneGroup group : groupList){
+            names[idx++] = this.textTable.putI18nText(group.getGroupName());
+            boneGroups.add(group.getBoneList());
+        }
+
+        this.body.putInts(names);
+        putMembers(boneGroups);
+
+        return;
+    }
+
+    /**
+     * 剛体グループ及び剛体情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpRigid(PmdModel model){
+        List<RigidGroup> groupList = model.getRigidGroupList();
+        List<List<RigidInfo>> rigidGroups = new ArrayList<>();
+        for(RigidGroup group : groupList){
+            rigidGroups.add(group.getRigidList());
+        }
+        this.body.putInts(new int[]{groupList.size()});
+
+        List<RigidInfo> rigidList = model.getRigidList();
+        int rigidNum = rigidList.size();
+
+        int[] names = new int[rigidNum];
+        byte[] behaviors = new byte[rigidNum];
+        byte[] shapes = new byte[rigidNum];
+        int[] linkedBones = new int[rigidNum];
+        int[] groups = new int[rigidNum];
+        float[] params = new float[rigidNum * CacheFormat.RIGID_FLOATS];
+        List<Collection<RigidGroup>> throughGroups =
+                new ArrayList<>();
+
+        int idx = 0;
+        int paramIdx = 0;
+        for(RigidInfo rigid : rigidList){
+            names[idx] = this.textTable.putI18nText(rigid.getRigidName());
+            behaviors[idx] = rigid.getBehaviorType().encode();
+
+            RigidShape shape = rigid.getRigidShape();
+            shapes[idx] = shape.getShapeType().encode();
+
+            linkedBones[idx] = ref(rigid.getLinkedBone());
+            groups[idx] = ref(rigid.getRigidGroup());
+
+            params[paramIdx++] = shape.getWidth();
+            params[paramIdx++] = shape.getHeight();
+            params[paramIdx++] = shape.getDepth();
+            paramIdx = putPos(rigid.getPosition(), params, paramIdx);
+            paramIdx = putRad(rigid.getRotation(), params, paramIdx);
+
+            DynamicsInfo dynamics = rigid.getDynamicsInfo();
+            params[paramIdx++] = dynamics.getMass();
+            params[paramIdx++] = dynamics.getDampingPosition();
+            params[paramIdx++] = dynamics.getDampingRotation();
+            params[paramIdx++] = dynamics.getRestitution();
+            params[paramIdx++] = dynamics.getFriction();
+
+            throughGroups.add(rigid.getThroughGroupColl());
+
+            idx++;
+        }
+
+        this.body.putInts(names);
+        this.body.putBytes(behaviors);
+        this.body.putBytes(shapes);
+        this.body.putInts(linkedBones);
+        this.body.putInts(groups);
+        this.body.putFloats(params);
+        putMembers(rigidGroups);
+        putMembers(throughGroups);
+
+        return;
+    }
+
+    /**
+     * ジョイント情報を出力する。
+     *
+     * @param model モデルデータ
+     */
+    private void dumpJoint(PmdModel model){
+        List<JointInfo> jointList = model.getJointList();
+        int jointNum = jointList.size();
+
+        int[] names = new int[jointNum];
+        int[] rigids = new int[jointNum * 2];
+        float[] params = new float[jointNum * CacheFormat.JOINT_FLOATS];
+
+        int idx = 0;
+        int paramIdx = 0;
+        for(JointInfo joint : jointList){
+            names[idx] = this.textTable.putI18nText(joint.getJointName());
+            rigids[idx * 2]     = ref(joint.getRigidA());
+            rigids[idx * 2 + 1] = ref(joint.getRigidB());
+
+            paramIdx = putPos(joint.getPosition(), params, paramIdx);
+            paramIdx = putRad(joint.getRotation(), params, paramIdx);
+            paramIdx = putPos(joint.getElasticPosition(), params, paramIdx);
+            paramIdx = putDeg(joint.getElasticRotation(), params, paramIdx);
+            paramIdx = putRange(joint.getPositionRange(), params, paramIdx);
+            paramIdx = putRange(joint.getRotationRange(), params, paramIdx);
+
+            idx++;
+        }
+
+        this.body.putInts(names);
+        this.body.putInts(rigids);
+        this.body.putFloats(params);
+
+        return;
+    }
+
+}
@@ -0,0 +1,795 @@
+/*
+ * model loader for pmd-cache file
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.math.MkPos3D;
+import jp.sfjp.mikutoga.pmd.BoneType;
+import jp.sfjp.mikutoga.pmd.Deg3d;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.Rad3d;
+import jp.sfjp.mikutoga.pmd.RigidBehaviorType;
+import jp.sfjp.mikutoga.pmd.RigidShapeType;
+import jp.sfjp.mikutoga.pmd.TripletRange;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.BoneInfo;
+import jp.sfjp.mikutoga.pmd.model.DynamicsInfo;
+import jp.sfjp.mikutoga.pmd.model.IKChain;
+import jp.sfjp.mikutoga.pmd.model.JointInfo;
+import jp.sfjp.mikutoga.pmd.model.ListUtil;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.RigidGroup;
+import jp.sfjp.mikutoga.pmd.model.RigidInfo;
+import jp.sfjp.mikutoga.pmd.model.RigidShape;
+import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
+import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.ToonMap;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+
+/**
+ * PMDキャッシュファイルを読み込むためのローダ。
+ *
+ * <p>頂点属性はキャッシュ上の配列から頂点格納庫へ一括して複写される。
+ * 文字列はUTF-16のまま格納されているため文字コード変換を伴わない。
+ *
+ * <p>ファイルから読み込む場合、ファイルはメモリへマップされる。
+ *
+ * @see PmdCacheExporter
+ */
+public class PmdCacheLoader {
+
+    private static final String ERR_LOADED  = "has been loaded.";
+    private static final String ERR_MAGIC   = "not a PMD cache";
+    private static final String ERR_VERSION = "unsupported PMD cache version";
+    private static final String ERR_REF     = "invalid reference";
+    private static final String ERR_VALUE   = "invalid value";
+    private static final String ERR_TOOLARGE = "too large file:";
+
+    private static final int BUF_SZ = 8 * 1024;
+    private static final int COLOR_DIM = 4;
+
+
+    private boolean loaded = false;
+
+    private BlockReader reader;
+    private TextTable textTable;
+    private PmdModel model;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public PmdCacheLoader(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 参照先リストから要素を返す。
+     *
+     * @param <E> 要素の型
+     * @param list 参照先リスト
+     * @param idx 添字。負なら参照無し
+     * @return 要素。参照無しならnull
+     * @throws MmdFormatException 添字が範囲外
+     */
+    private static <E> E ref(List<E> list, int idx)
+            throws MmdFormatException{
+        if(idx < 0) return null;
+        if(list.size() <= idx) throw new MmdFormatException(ERR_REF);
+        return list.get(idx);
+    }
+
+    /**
+     * 参照先リストから参照無しを許さずに要素を返す。
+     *
+     * @param <E> 要素の型
+     * @param list 参照先リスト
+     * @param idx 添字
+     * @return 要素
+     * @throws MmdFormatException 添字が範囲外
+     */
+    private static <E> E refNonNull(List<E> list, int idx)
+            throws MmdFormatException{
+        E result = ref(list, idx);
+        if(result == null) throw new MmdFormatException(ERR_REF);
+        return result;
+    }
+
+    /**
+     * 所属関係を読み込み、所属先へ要素を追加する。
+     *
+     * @param <E> 要素の型
+     * @param groupList 所属先の並び
+     * @param elemList 要素の参照先リスト
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private <E> void readMembers(List<? extends Collection<E>> groupList,
+                                 List<E> elemList)
+            throws MmdFormatException{
+        int[] start = this.reader.nextInts(groupList.size() + 1);
+        int[] members = this.reader.nextInts();
+        BlockReader.checkOffsets(start, members.length);
+
+        int idx = 0;
+        for(Collection<E> group : groupList){
+            int end = start[idx + 1];
+            for(int pos = start[idx]; pos < end; pos++){
+                group.add(refNonNull(elemList, members[pos]));
+            }
+            idx++;
+        }
+
+        return;
+    }
+
+    /**
+     * float配列から色を生成する。
+     *
+     * @param src float配列
+     * @param pos 読み込み位置
+     * @return 色
+     * @throws MmdFormatException 成分が範囲外
+     */
+    private static Color toColor(float[] src, int pos)
+            throws MmdFormatException{
+        Color result;
+        try{
+            result = new Color(src[pos], src[pos + 1],
+                               src[pos + 2], src[pos + COLOR_DIM - 1]);
+        }catch(IllegalArgumentException e){
+            throw new MmdFormatException(ERR_VALUE);
+        }
+        return result;
+    }
+
+    /**
+     * float配列から位置を設定する。
+     *
+     * @param src float配列
+     * @param pos 読み込み位置
+     * @param dst 設定先
+     * @return 次の読み込み位置
+     */
+    private static int getPos(float[] src, int pos, MkPos3D dst){
+        dst.setPosition(src[pos], src[pos + 1], src[pos + 2]);
+        return pos + CacheFormat.DIM3;
+    }
+
+    /**
+     * float配列からラジアン角を設定する。
+     *
+     * @param src float配列
+     * @param pos 読み込み位置
+     * @param dst 設定先
+     * @return 次の読み込み位置
+     */
+    private static int getRad(float[] src, int pos, Rad3d dst){
+        dst.setXRad(src[pos]);
+        dst.setYRad(src[pos + 1]);
+        dst.setZRad(src[pos + 2]);
+        return pos + CacheFormat.DIM3;
+    }
+
+    /**
+     * float配列から度数角を設定する。
+     *
+     * @param src float配列
+     * @param pos 読み込み位置
+     * @param dst 設定先
+     * @return 次の読み込み位置
+     */
+    private static int getDeg(float[] src, int pos, Deg3d dst){
+        dst.setXDeg(src[pos]);
+        dst.setYDeg(src[pos + 1]);
+        dst.setZDeg(src[pos + 2]);
+        return pos + CacheFormat.DIM3;
+    }
+
+    /**
+     * float配列から範囲を設定する。
+     *
+     * @param src float配列
+     * @param pos 読み込み位置
+     * @param dst 設定先
+     * @return 次の読み込み位置
+     */
+    private static int getRange(float[] src, int pos, TripletRange dst){
+        int idx = pos;
+        dst.setXRange(src[idx], src[idx + 1]);
+        idx += 2;
+        dst.setYRange(src[idx], src[idx + 1]);
+        idx += 2;
+        dst.setZRange(src[idx], src[idx + 1]);
+        idx += 2;
+        return idx;
+    }
+
+    /**
+     * 入力ストリームの内容を全て読み込む。
+     *
+     * @param source 入力ストリーム
+     * @return 内容
+     * @throws IOException 入力エラー
+     */
+    private static byte[] readFully(InputStream source) throws IOException{
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buf = new byte[BUF_SZ];
+        for(;;){
+            int size = source.read(buf);
+            if(size < 0) break;
+            result.write(buf, 0, size);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * PMDキャッシュファイルの読み込みを行いモデル情報を返す。
+     * 1インスタンスにつき一度しかロードできない。
+     *
+     * <p>ファイルは読み込み専用でメモリへマップされる。
+     *
+     * @param file PMDキャッシュファイル
+     * @return モデル情報
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットの異常を検出
+     * @throws IllegalStateException このインスタンスで再度のロードを試みた。
+     */
+    public PmdModel load(Path file)
+            throws IOException,
+                   MmdFormatException,
+                   IllegalStateException {
+        if(this.loaded) throw new IllegalStateException(ERR_LOADED);
+
+        ByteBuffer buffer;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try{
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE){
+                throw new IOException(ERR_TOOLARGE + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }finally{
+            channel.close();
+        }
+
+        PmdModel result = load(buffer);
+
+        return result;
+    }
+
+    /**
+     * PMDキャッシュデータの読み込みを行いモデル情報を返す。
+     * 1インスタンスにつき一度しかロードできない。
+     *
+     * <p>入力ソースは一旦全てメモリ上に読み込まれる。
+     *
+     * @param source PMDキャッシュ入力ソース
+     * @return モデル情報
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットの異常を検出
+     * @throws IllegalStateException このインスタンスで再度のロードを試みた。
+     */
+    public PmdModel load(InputStream source)
+            throws IOException,
+                   MmdFormatException,
+                   IllegalStateException {
+        if(this.loaded) throw new IllegalStateException(ERR_LOADED);
+
+        ByteBuffer buffer = ByteBuffer.wrap(readFully(source));
+        PmdModel result = load(buffer);
+
+        return result;
+    }
+
+    /**
+     * メモリ上のPMDキャッシュデータからモデル情報を返す。
+     * 1インスタンスにつき一度しかロードできない。
+     *
+     * <p>バッファの現在位置から読み込まれる。
+     * バッファの位置やバイトオーダーは変更されない。
+     *
+     * @param buffer PMDキャッシュデータ
+     * @return モデル情報
+     * @throws MmdFormatException フォーマットの異常を検出
+     * @throws IllegalStateException このインスタンスで再度のロードを試みた。
+     */
+    public PmdModel load(ByteBuffer buffer)
+            throws MmdFormatException, IllegalStateException {
+        if(this.loaded) throw new IllegalStateException(ERR_LOADED);
+        this.loaded = true;
+
+        ByteBuffer view = buffer.slice();
+        view.order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(view);
+
+        this.reader = new BlockReader(view);
+        this.model = new PmdModel();
+
+        try{
+            this.textTable = TextTable.read(this.reader);
+            loadBasic();
+            loadBone();
+            loadVertex();
+            loadMaterial();
+            loadIKChain();
+            loadMorph();
+            loadBoneGroup();
+            loadRigid();
+            loadJoint();
+        }catch(IndexOutOfBoundsException
+                | IllegalArgumentException
+                | BufferUnderflowException e){
+            throw new MmdFormatException(ERR_VALUE);
+        }
+
+        PmdModel result = this.model;
+
+        this.reader = null;
+        this.textTable = null;
+        this.model = null;
+
+        return result;
+    }
+
+    /**
+     * ヘッダを検査する。
+     *
+     * @param buffer 入力バッファ
+     * @throws MmdFormatException マジックもしくはバージョンが異なる
+     */
+    private static void checkHeader(ByteBuffer buffer)
+            throws MmdFormatException{
+        if(buffer.remaining() < CacheFormat.HEADER_SIZE){
+            throw new MmdFormatException(ERR_MAGIC, 0L);
+        }
+
+        for(byte magic : CacheFormat.MAGIC){
+            if(buffer.get() != magic){
+                throw new MmdFormatException(ERR_MAGIC, 0L);
+            }
+        }
+
+        int pos = buffer.position();
+        if(buffer.getInt() != CacheFormat.VERSION){
+            throw new MmdFormatException(ERR_VERSION, pos);
+        }
+
+        return;
+    }
+
+    /**
+     * モデル名、説明文、トゥーンファイル名を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadBasic() throws MmdFormatException{
+        int[] texts = this.reader.nextInts(2);
+        this.textTable.getI18nText(texts[0], this.model.getModelName());
+        this.textTable.getI18nText(texts[1], this.model.getDescription());
+
+        int[] toons = this.reader.nextInts(CacheFormat.TOONS);
+        ToonMap toonMap = this.model.getToonMap();
+        for(int idx = 0; idx < CacheFormat.TOONS; idx++){
+            String toonFile = this.textTable.getString(toons[idx]);
+            if(toonFile == null){
+                toonMap.resetIndexedToon(idx);
+            }else{
+                toonMap.setIndexedToon(idx, toonFile);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * ボーン情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadBone() throws MmdFormatException{
+        int[] names = this.reader.nextInts();
+        int boneNum = names.length;
+
+        List<BoneInfo> boneList = this.model.getBoneList();
+        for(int idx = 0; idx < boneNum; idx++){
+            BoneInfo bone = new BoneInfo();
+            this.textTable.getI18nText(names[idx], bone.getBoneName());
+            boneList.add(bone);
+        }
+        ListUtil.assignIndexedSerial(boneList);
+
+        byte[] types = this.reader.nextBytes(boneNum);
+        int[] links = this.reader.nextInts(boneNum * CacheFormat.BONE_LINKS);
+        float[] positions = this.reader.nextFloats(boneNum * CacheFormat.DIM3);
+        int[] ratios = this.reader.nextInts(boneNum);
+
+        int idx = 0;
+        int linkIdx = 0;
+        int posIdx = 0;
+        for(BoneInfo bone : boneList){
+            BoneType type = BoneType.decode(types[idx]);
+            if(type == null) throw new MmdFormatException(ERR_VALUE);
+            bone.setBoneType(type);
+
+            bone.setPrevBone(ref(boneList, links[linkIdx++]));
+            bone.setNextBone(ref(boneList, links[linkIdx++]));
+            bone.setSrcBone(ref(boneList, links[linkIdx++]));
+
+            posIdx = getPos(positions, posIdx, bone.getPosition());
+            bone.setRotationRatio(ratios[idx]);
+
+            idx++;
+        }
+
+        return;
+    }
+
+    /**
+     * 頂点情報を読み込む。
+     *
+     * <p>頂点属性は頂点格納庫へ一括して複写される。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadVertex() throws MmdFormatException{
+        int vertexNum = this.reader.nextCount();
+
+        VertexStore store = this.model.getVertexStore();
+        List<Vertex> vertexList = this.model.getVertexList();
+        int fromSlot = store.addVertices(vertexList, vertexNum);
+        ListUtil.assignIndexedSerial(vertexList);
+
+        int dim3 = vertexNum * CacheFormat.DIM3;
+        int dim2 = vertexNum * CacheFormat.DIM2;
+        store.putPackedPositions(fromSlot, vertexNum,
+                                 this.reader.nextFloatView(dim3));
+        store.putPackedNormals(fromSlot, vertexNum,
+                               this.reader.nextFloatView(dim3));
+        store.putPackedUVs(fromSlot, vertexNum,
+                           this.reader.nextFloatView(dim2));
+        store.putPackedBones(fromSlot, vertexNum,
+                             this.reader.nextShortView(vertexNum * 2),
+                             this.model.getBoneList());
+        store.putPackedWeights(fromSlot, vertexNum,
+                               this.reader.nextByteView(vertexNum));
+        store.putPackedEdges(fromSlot, vertexNum,
+                             this.reader.nextByteView(vertexNum));
+
+        return;
+    }
+
+    /**
+     * 材質情報及び面情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadMaterial() throws MmdFormatException{
+        int[] names = this.reader.nextInts();
+        int materialNum = names.length;
+
+        int colorNum = materialNum * CacheFormat.MATERIAL_FLOATS;
+        float[] colors = this.reader.nextFloats(colorNum);
+        int[] toons = this.reader.nextInts(materialNum);
+        int[] textures = this.reader.nextInts(materialNum);
+        int[] spheres = this.reader.nextInts(materialNum);
+        byte[] edges = this.reader.nextBytes(materialNum);
+
+        List<Material> materialList = this.model.getMaterialList();
+        int colorIdx = 0;
+        for(int idx = 0; idx < materialNum; idx++){
+            Material material = new Material();
+            this.textTable.getI18nText(names[idx],
+                                       material.getMaterialName());
+
+            material.setDiffuseColor(toColor(colors, colorIdx));
+            colorIdx += COLOR_DIM;
+            material.setSpecularColor(toColor(colors, colorIdx));
+            colorIdx += COLOR_DIM;
+            material.setAmbientColor(toColor(colors, colorIdx));
+            colorIdx += COLOR_DIM;
+            material.setShininess(colors[colorIdx++]);
+
+            ShadeInfo shade = material.getShadeInfo();
+            shade.setToonIndex(toons[idx]);
+            shade.setTextureFileName(
+                    this.textTable.getString(textures[idx]));
+            shade.setSpheremapFileName(
+                    this.textTable.getString(spheres[idx]));
+
+            material.setEdgeAppearance(edges[idx] != 0);
+
+            materialList.add(material);
+        }
+
+        this.model.setToonMap(this.model.getToonMap());
+
+        int[] surfaceStart = this.reader.nextInts(materialNum + 1);
+        int[] triangles = this.reader.nextInts();
+        if(triangles.length % CacheFormat.TRIANGLE != 0){
+            throw new MmdFormatException(ERR_VALUE);
+        }
+        BlockReader.checkOffsets(surfaceStart,
+                               triangles.length / CacheFormat.TRIANGLE);
+
+        List<Vertex> vertexList = this.model.getVertexList();
+        List<Surface> surfaceList = this.model.getSurfaceList();
+        int triIdx = 0;
+        int materialIdx = 0;
+        for(Material material : materialList){
+            List<Surface> materialSurfaces = material.getSurfaceList();
+            int end = surfaceStart[materialIdx + 1];
+            while(triIdx < end * CacheFormat.TRIANGLE){
+                Vertex vtx1 = refNonNull(vertexList, triangles[triIdx++]);
+                Vertex vtx2 = refNonNull(vertexList, triangles[triIdx++]);
+                Vertex vtx3 = refNonNull(vertexList, triangles[triIdx++]);
+                Surface surface = new Surface();
+                surface.setTriangle(vtx1, vtx2, vtx3);
+                surfaceList.add(surface);
+                materialSurfaces.add(surface);
+            }
+            materialIdx++;
+        }
+        ListUtil.assignIndexedSerial(surfaceList);
+
+        TriangleMesh mesh =
+                new TriangleMesh(surfaceStart, triangles, vertexList.size());
+        this.model.setTriangleMesh(mesh);
+
+        return;
+    }
+
+    /**
+     * IKチェーン情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadIKChain() throws MmdFormatException{
+        int[] ikBones = this.reader.nextInts();
+        int chainNum = ikBones.length;
+        int[] depths = this.reader.nextInts(chainNum);
+        float[] weights = this.reader.nextFloats(chainNum);
+
+        List<BoneInfo> boneList = this.model.getBoneList();
+        List<IKChain> chainList = this.model.getIKChainList();
+        List<List<BoneInfo>> chainedGroups = new ArrayList<>();
+        for(int idx = 0; idx < chainNum; idx++){
+            IKChain chain = new IKChain();
+            chain.setIkBone(ref(boneList, ikBones[idx]));
+            chain.setIKDepth(depths[idx]);
+            chain.setIKWeight(weights[idx]);
+            chainList.add(chain);
+            chainedGroups.add(chain.getChainedBoneList());
+        }
+
+        readMembers(chainedGroups, boneList);
+
+        return;
+    }
+
+    /**
+     * モーフ情報を読み込む。
+     *
+     * <p>モーフの通し番号はキャッシュに記録された値が用いられる。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadMorph() throws MmdFormatException{
+        byte[] types = this.reader.nextBytes();
+        int typeNum = types.length;
+        int[] typeStart = this.reader.nextInts(typeNum + 1);
+        int[] names = this.reader.nextInts();
+        int partNum = names.length;
+        BlockReader.checkOffsets(typeStart, partNum);
+        int[] serials = this.reader.nextInts(partNum);
+        int[] vertexStart = this.reader.nextInts(partNum + 1);
+        int[] baseVertices = this.reader.nextInts();
+        int morphVertexNum = baseVertices.length;
+        BlockReader.checkOffsets(vertexStart, morphVertexNum);
+        float[] offsets =
+                this.reader.nextFloats(morphVertexNum * CacheFormat.DIM3);
+
+        Map<MorphType, List<MorphPart>> morphMap = this.model.getMorphMap();
+        List<Vertex> vertexList = this.model.getVertexList();
+
+        int partIdx = 0;
+        int offsetIdx = 0;
+        for(int typeIdx = 0; typeIdx < typeNum; typeIdx++){
+            MorphType type = MorphType.decode(types[typeIdx]);
+            if(type == null) throw new MmdFormatException(ERR_VALUE);
+            List<MorphPart> partList = morphMap.get(type);
+            if(partList == null) throw new MmdFormatException(ERR_VALUE);
+
+            for(; partIdx < typeStart[typeIdx + 1]; partIdx++){
+                MorphPart part = new MorphPart();
+                this.textTable.getI18nText(names[partIdx],
+                                           part.getMorphName());
+                part.setMorphType(type);
+                part.setSerialNumber(serials[partIdx]);
+
+                List<MorphVertex> morphVertexList =
+                        part.getMorphVertexList();
+                int end = vertexStart[partIdx + 1];
+                for(int pos = vertexStart[partIdx]; pos < end; pos++){
+                    MorphVertex morphVertex = new MorphVertex();
+                    Vertex base = refNonNull(vertexList, baseVertices[pos]);
+                    morphVertex.setBaseVertex(base);
+                    offsetIdx = getPos(offsets, offsetIdx,
+                                       morphVertex.getOffset());
+                    morphVertexList.add(morphVertex);
+                }
+
+                partList.add(part);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * ボーングループ情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadBoneGroup() throws MmdFormatException{
+        int[] names = this.reader.nextInts();
+
+        List<BoneGroup> groupList = this.model.getBoneGroupList();
+        List<List<BoneInfo>> boneGroups = new ArrayList<>();
+        for(int name : names){
+            BoneGroup group = new BoneGroup();
+            this.textTable.getI18nText(name, group.getGroupName());
+            groupList.add(group);
+            boneGroups.add(group.getBoneList());
+        }
+        ListUtil.assignIndexedSerial(groupList);
+
+        readMembers(boneGroups, this.model.getBoneList());
+
+        return;
+    }
+
+    /**
+     * 剛体グループ及び剛体情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadRigid() throws MmdFormatException{
+        int groupNum = this.reader.nextCount();
+
+        List<RigidGroup> groupList = this.model.getRigidGroupList();
+        List<List<RigidInfo>> rigidGroups = new ArrayList<>();
+        for(int idx = 0; idx < groupNum; idx++){
+            RigidGroup group = new RigidGroup();
+            groupList.add(group);
+            rigidGroups.add(group.getRigidList());
+        }
+        ListUtil.assignIndexedSerial(groupList);
+
+        int[] names = this.reader.nextInts();
+        int rigidNum = names.length;
+        byte[] behaviors = this.reader.nextBytes(rigidNum);
+        byte[] shapes = this.reader.nextBytes(rigidNum);
+        int[] linkedBones = this.reader.nextInts(rigidNum);
+        int[] groups = this.reader.nextInts(rigidNum);
+        FloatBuffer params =
+                this.reader.nextFloatView(rigidNum * CacheFormat.RIGID_FLOATS);
+
+        List<BoneInfo> boneList = this.model.getBoneList();
+        List<RigidInfo> rigidList = this.model.getRigidList();
+        float[] param = new float[CacheFormat.RIGID_FLOATS];
+        List<Collection<RigidGroup>> throughGroups =
+                new ArrayList<>();
+
+        for(int idx = 0; idx < rigidNum; idx++){
+            RigidInfo rigid = new RigidInfo();
+            this.textTable.getI18nText(names[idx], rigid.getRigidName());
+
+            RigidBehaviorType behavior =
+                    RigidBehaviorType.decode(behaviors[idx]);
+            RigidShapeType shapeType = RigidShapeType.decode(shapes[idx]);
+            if(behavior == null || shapeType == null){
+                throw new MmdFormatException(ERR_VALUE);
+            }
+            rigid.setBehaviorType(behavior);
+
+            RigidShape shape = rigid.getRigidShape();
+            shape.setShapeType(shapeType);
+
+            rigid.setLinkedBone(ref(boneList, linkedBones[idx]));
+            rigid.setRigidGroup(ref(groupList, groups[idx]));
+
+            params.get(param);
+            int paramIdx = 0;
+            shape.setWidth(param[paramIdx++]);
+            shape.setHeight(param[paramIdx++]);
+            shape.setDepth(param[paramIdx++]);
+            paramIdx = getPos(param, paramIdx, rigid.getPosition());
+            paramIdx = getRad(param, paramIdx, rigid.getRotation());
+
+            DynamicsInfo dynamics = rigid.getDynamicsInfo();
+            dynamics.setMass(param[paramIdx++]);
+            dynamics.setDampingPosition(param[paramIdx++]);
+            dynamics.setDampingRotation(param[paramIdx++]);
+            dynamics.setRestitution(param[paramIdx++]);
+            dynamics.setFriction(param[paramIdx++]);
+            assert paramIdx == CacheFormat.RIGID_FLOATS;
+
+            rigidList.add(rigid);
+            throughGroups.add(rigid.getThroughGroupColl());
+        }
+        ListUtil.assignIndexedSerial(rigidList);
+
+        readMembers(rigidGroups, rigidList);
+        readMembers(throughGroups, groupList);
+
+        return;
+    }
+
+    /**
+     * ジョイント情報を読み込む。
+     *
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    private void loadJoint() throws MmdFormatException{
+        int[] names = this.reader.nextInts();
+        int jointNum = names.length;
+        int[] rigids = this.reader.nextInts(jointNum * 2);
+        FloatBuffer params =
+                this.reader.nextFloatView(jointNum * CacheFormat.JOINT_FLOATS);
+
+        List<RigidInfo> rigidList = this.model.getRigidList();
+        List<JointInfo> jointList = this.model.getJointList();
+        float[] param = new float[CacheFormat.JOINT_FLOATS];
+
+        for(int idx = 0; idx < jointNum; idx++){
+            JointInfo joint = new JointInfo();
+            this.textTable.getI18nText(names[idx], joint.getJointName());
+
+            RigidInfo rigidA = ref(rigidList, rigids[idx * 2]);
+            RigidInfo rigidB = ref(rigidList, rigids[idx * 2 + 1]);
+            joint.setRigidPair(rigidA, rigidB);
+
+            params.get(param);
+            int paramIdx = 0;
+            paramIdx = getPos(param, paramIdx, joint.getPosition());
+            paramIdx = getRad(param, paramIdx, joint.getRotation());
+            paramIdx = getPos(param, paramIdx, joint.getElasticPosition());
+            paramIdx = getDeg(param, paramIdx, joint.getElasticRotation());
+            paramIdx = getRange(param, paramIdx, joint.getPositionRange());
+            paramIdx = getRange(param, paramIdx, joint.getRotationRange());
+            assert paramIdx == CacheFormat.JOINT_FLOATS;
+
+            jointList.add(joint);
+        }
+
+        return;
+    }
+
+}
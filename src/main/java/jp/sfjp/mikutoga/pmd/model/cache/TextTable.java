@@ -0,0 +1,211 @@
+/*
+ * PMD cache text table
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.corelib.I18nText;
+
+/**
+ * PMDキャッシュの文字列表。
+ *
+ * <p>同一内容の文字列は1つにまとめられ、
+ * 全文字列はUTF-16の文字プールに連結して格納される。
+ * 多言語文字列は言語コードと文字列の番号の組の並びとして格納される。
+ *
+ * <p>出力時には文字列を登録して番号を得る。
+ * 入力時には番号から文字列を得る。
+ */
+final class TextTable {
+
+    private static final String ERR_TEXTREF = "invalid text reference";
+
+
+    private final Map<String, Integer> stringMap = new HashMap<>();
+    private final List<String> stringList = new ArrayList<>();
+
+    private final List<int[]> i18nList = new ArrayList<>();
+
+
+    /**
+     * 出力用の空の文字列表を生成する。
+     */
+    TextTable(){
+        super();
+        return;
+    }
+
+
+    /**
+     * ブロック列から文字列表を読み込む。
+     *
+     * @param reader ブロック読み込み元
+     * @return 文字列表
+     * @throws MmdFormatException フォーマットの異常を検出
+     */
+    static TextTable read(BlockReader reader) throws MmdFormatException{
+        TextTable result = new TextTable();
+
+        char[] pool = reader.nextChars();
+        int[] strStart = reader.nextInts();
+        BlockReader.checkOffsets(strStart, pool.length);
+        for(int idx = 0; idx < strStart.length - 1; idx++){
+            int begin = strStart[idx];
+            int len = strStart[idx + 1] - begin;
+            result.stringList.add(new String(pool, begin, len));
+        }
+
+        int[] textStart = reader.nextInts();
+        int[] pairs = reader.nextInts();
+        BlockReader.checkOffsets(textStart, pairs.length / 2);
+        for(int idx = 0; idx < textStart.length - 1; idx++){
+            int begin = textStart[idx] * 2;
+            int end = textStart[idx + 1] * 2;
+            int[] textPairs = new int[end - begin];
+            System.arraycopy(pairs, begin, textPairs, 0, textPairs.length);
+            result.i18nList.add(textPairs);
+        }
+
+        return result;
+    }
+
+    /**
+     * 文字列を登録し番号を返す。
+     *
+     * @param text 文字列。nullも可
+     * @return 文字列番号。nullなら{@link CacheFormat#NO_REF}
+     */
+    int putString(String text){
+        if(text == null) return CacheFormat.NO_REF;
+
+        Integer known = this.stringMap.get(text);
+        if(known != null) return known;
+
+        int result = this.stringList.size();
+        this.stringList.add(text);
+        this.stringMap.put(text, result);
+
+        return result;
+    }
+
+    /**
+     * 多言語文字列を登録し番号を返す。
+     *
+     * @param text 多言語文字列
+     * @return 多言語文字列番号
+     */
+    int putI18nText(I18nText text){
+        List<String> langList = new ArrayList<>();
+        for(String lang639 : text.lang639CodeList()){
+            langList.add(lang639);
+        }
+
+        int[] textPairs = new int[langList.size() * 2];
+        int pairIdx = 0;
+        for(String lang639 : langList){
+            textPairs[pairIdx++] = putString(lang639);
+            textPairs[pairIdx++] = putString(text.getI18nText(lang639));
+        }
+
+        int result = this.i18nList.size();
+        this.i18nList.add(textPairs);
+
+        return result;
+    }
+
+    /**
+     * 番号に対応する文字列を返す。
+     *
+     * @param id 文字列番号
+     * @return 文字列。番号が負ならnull
+     * @throws MmdFormatException 番号が範囲外
+     */
+    String getString(int id) throws MmdFormatException{
+        if(id < 0) return null;
+        if(this.stringList.size() <= id){
+            throw new MmdFormatException(ERR_TEXTREF);
+        }
+        return this.stringList.get(id);
+    }
+
+    /**
+     * 番号に対応する多言語文字列の内容を設定する。
+     *
+     * @param id 多言語文字列番号
+     * @param dest 設定先
+     * @throws MmdFormatException 番号が範囲外
+     */
+    void getI18nText(int id, I18nText dest) throws MmdFormatException{
+        if(id < 0 || this.i18nList.size() <= id){
+            throw new MmdFormatException(ERR_TEXTREF);
+        }
+
+        int[] textPairs = this.i18nList.get(id);
+        for(int idx = 0; idx < textPairs.length; idx += 2){
+            String lang639 = getString(textPairs[idx]);
+            String text = getString(textPairs[idx + 1]);
+            if(lang639 == null || text == null){
+                throw new MmdFormatException(ERR_TEXTREF);
+            }
+            dest.setI18nText(lang639, text);
+        }
+
+        return;
+    }
+
+    /**
+     * 文字列表をブロック列へ出力する。
+     *
+     * @param writer ブロック出力先
+     */
+    void write(BlockWriter writer){
+        int[] strStart = new int[this.stringList.size() + 1];
+        int total = 0;
+        int idx = 0;
+        for(String text : this.stringList){
+            strStart[idx++] = total;
+            total += text.length();
+        }
+        strStart[idx] = total;
+
+        char[] pool = new char[total];
+        int pos = 0;
+        for(String text : this.stringList){
+            text.getChars(0, text.length(), pool, pos);
+            pos += text.length();
+        }
+
+        writer.putChars(pool);
+        writer.putInts(strStart);
+
+        int[] textStart = new int[this.i18nList.size() + 1];
+        int pairTotal = 0;
+        idx = 0;
+        for(int[] textPairs : this.i18nList){
+            textStart[idx++] = pairTotal;
+            pairTotal += textPairs.length / 2;
+        }
+        textStart[idx] = pairTotal;
+
+        int[] pairs = new int[pairTotal * 2];
+        pos = 0;
+        for(int[] textPairs : this.i18nList){
+            System.arraycopy(textPairs, 0, pairs, pos, textPairs.length);
+            pos += textPairs.length;
+        }
+
+        writer.putInts(textStart);
+        writer.putInts(pairs);
+
+        return;
+    }
+
+}
@@ -0,0 +1,14 @@
+/*
+ * package information for Javadoc
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+/**
+ * PMDモデルのバイナリスナップショット(PMDキャッシュ)用入出力。
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+/* EOF */
@@ -11,12 +11,11 @@
 import java.util.List;
 import java.util.Map;
 import jp.sfjp.mikutoga.corelib.I18nText;
-import jp.sfjp.mikutoga.math.MkPos3D;
 import jp.sfjp.mikutoga.pmd.MorphType;
 import jp.sfjp.mikutoga.pmd.model.MorphPart;
-import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.pmd.model.PackedMorphStore;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
-import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionReader;
 import jp.sfjp.mikutoga.xml.ProxyXmlExporter;
 
 /**
@@ -51,21 +50,47 @@ class ExporterMorph extends ProxyXmlExporter {
      * @throws IOException 出力エラー
      */
     void putMorphList(PmdModel model) throws IOException{
+        putMorphList(model, null);
+        return;
+    }
+
+    /**
+     * モーフ定義データを出力する。
+     *
+     * <p>PMDデータが指定された場合、
+     * モーフ頂点はモデルデータではなくPMDデータ上から読み出される。
+     *
+     * @param model モデルデータ
+     * @param reader PMDデータ。nullも可
+     * @throws IOException 出力エラー
+     */
+    void putMorphList(PmdModel model, PmdSectionReader reader)
+            throws IOException{
         ind().putSimpleSTag(PmdTag.MORPH_LIST.tag()).ln();
         pushNest();
 
-        boolean dumped = false;
+        PackedMorphStore morphStore = null;
+        if(reader == null){
+            morphStore = PackedMorphStore.build(model);
+        }
+
+        int morphIdx = 0;
         Map<MorphType, List<MorphPart>> morphMap = model.getMorphMap();
         for(MorphType type : MorphType.values()){
             if(type == MorphType.BASE) continue;
             List<MorphPart> partList = morphMap.get(type);
             if(partList == null) continue;
             for(MorphPart part : partList){
-                if( ! dumped ){
+                if(morphIdx <= 0){
                     ln().putBlockComment(MORPHTYPE_COMMENT).ln();
                 }
-                putMorphPart(part);
-                dumped = true;
+                if(reader == null){
+                    assert morphStore.getMorphPart(morphIdx) == part;
+                    putMorphPart(part, morphStore, morphIdx);
+                }else{
+                    putMorphPart(part, reader);
+                }
+                morphIdx++;
             }
         }
 
@@ -76,11 +101,60 @@ void putMorphList(PmdModel model) throws IOException{
     }
 
     /**
-     * 個別のモーフ情報を出力する。
+     * 個別のモーフ情報をモーフ頂点格納庫から出力する。
+     * @param part モーフ情報
+     * @param morphStore モーフ頂点格納庫
+     * @param morphIdx 格納庫上のモーフ番号
+     * @throws IOException 出力エラー
+     */
+    private void putMorphPart(MorphPart part,
+                              PackedMorphStore morphStore, int morphIdx)
+            throws IOException{
+        putMorphHead(part);
+
+        int vertices = morphStore.getMorphVertexCount(morphIdx);
+        for(int idx = 0; idx < vertices; idx++){
+            putMorphVertex(morphStore.getVertexId(morphIdx, idx),
+                           morphStore.getOffset(morphIdx, idx, 0),
+                           morphStore.getOffset(morphIdx, idx, 1),
+                           morphStore.getOffset(morphIdx, idx, 2) );
+        }
+
+        putMorphTail();
+
+        return;
+    }
+
+    /**
+     * 個別のモーフ情報をPMDデータ上から出力する。
+     * @param part モーフ情報
+     * @param reader PMDデータ
+     * @throws IOException 出力エラー
+     */
+    private void putMorphPart(MorphPart part, PmdSectionReader reader)
+            throws IOException{
+        putMorphHead(part);
+
+        int morphNo = part.getSerialNumber();
+        int vertices = reader.getMorphVertexCount(morphNo);
+        for(int idx = 0; idx < vertices; idx++){
+            putMorphVertex(reader.getMorphBaseVertexId(morphNo, idx),
+                           reader.getMorphOffset(morphNo, idx, 0),
+                           reader.getMorphOffset(morphNo, idx, 1),
+                           reader.getMorphOffset(morphNo, idx, 2) );
+        }
+
+        putMorphTail();
+
+        return;
+    }
+
+    /**
+     * モーフ情報の開始部を出力する。
      * @param part モーフ情報
      * @throws IOException 出力エラー
      */
-    private void putMorphPart(MorphPart part) throws IOException{
+    private void putMorphHead(MorphPart part) throws IOException{
         I18nText i18nName = part.getMorphName();
         String primary = i18nName.getPrimaryText();
 
@@ -95,28 +169,41 @@ private void putMorphPart(MorphPart part) throws IOException{
 
         this.exp.putI18nName(i18nName);
 
-        for(MorphVertex mvertex : part){
-            MkPos3D offset = mvertex.getOffset();
-            Vertex base = mvertex.getBaseVertex();
-
-            ind().putOpenSTag(PmdTag.MORPH_VERTEX.tag()).sp();
-            this.exp.putNumberedIdAttr(PmdAttr.VERTEX_IDREF,
-                    ExtraExporter.PFX_VERTEX, base);
-            sp();
-            putFloatAttr(PmdAttr.XOFF.attr(),
-                    (float) offset.getXpos()).sp();
-            putFloatAttr(PmdAttr.YOFF.attr(),
-                    (float) offset.getYpos()).sp();
-            putFloatAttr(PmdAttr.ZOFF.attr(),
-                    (float) offset.getZpos()).sp();
-            putCloseEmpty();
-            ln();
-        }
+        return;
+    }
 
+    /**
+     * モーフ情報の終了部を出力する。
+     * @throws IOException 出力エラー
+     */
+    private void putMorphTail() throws IOException{
         popNest();
         ind().putETag(PmdTag.MORPH.tag()).ln(2);
 
         return;
     }
 
+    /**
+     * 個別のモーフ頂点を出力する。
+     * @param vertexId 基本頂点の通し番号
+     * @param xOff X軸変位
+     * @param yOff Y軸変位
+     * @param zOff Z軸変位
+     * @throws IOException 出力エラー
+     */
+    private void putMorphVertex(int vertexId,
+                                float xOff, float yOff, float zOff)
+            throws IOException{
+        ind().putOpenSTag(PmdTag.MORPH_VERTEX.tag()).sp();
+        this.exp.putNumberedIdAttr(PmdAttr.VERTEX_IDREF,
+                ExtraExporter.PFX_VERTEX, vertexId);
+        sp();
+        putFloatAttr(PmdAttr.XOFF.attr(), xOff).sp();
+        putFloatAttr(PmdAttr.YOFF.attr(), yOff).sp();
+        putFloatAttr(PmdAttr.ZOFF.attr(), zOff).sp();
+        putCloseEmpty();
+        ln();
+        return;
+    }
+
 }
@@ -9,14 +9,12 @@
 
 import java.io.IOException;
 import java.util.List;
-import jp.sfjp.mikutoga.math.MkPos2D;
-import jp.sfjp.mikutoga.math.MkPos3D;
-import jp.sfjp.mikutoga.math.MkVec3D;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
-import jp.sfjp.mikutoga.pmd.model.Material;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
-import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
 import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionReader;
 import jp.sfjp.mikutoga.xml.ProxyXmlExporter;
 
 /**
@@ -44,63 +42,142 @@ class ExporterShape extends ProxyXmlExporter {
      */
     void putSurfaceGroupList(PmdModel model)
             throws IOException{
-        ind().putSimpleSTag(PmdTag.SURFACE_GROUP_LIST.tag()).ln();
+        TriangleMesh mesh = model.getTriangleMesh();
 
-        pushNest();
-        int ct = 0;
-        boolean dumped = false;
-        List<Material> materialList = model.getMaterialList();
-        for(Material material : materialList){
-            List<Surface> surfaceList = material.getSurfaceList();
-            if( ! dumped ) ln();
-            putSurfaceList(surfaceList, ct++);
-            dumped = true;
+        putSurfaceGroupListOpen();
+
+        int materials = mesh.getMaterialCount();
+        for(int ct = 0; ct < materials; ct++){
+            int surfaceNo = mesh.getMaterialSurfaceStart(ct);
+            int surfaces = mesh.getMaterialSurfaceCount(ct);
+            putSurfaceGroupOpen(ct);
+            putSurfaces(mesh, surfaceNo, surfaceNo + surfaces);
+            putSurfaceGroupClose();
         }
-        popNest();
 
-        ind().putETag(PmdTag.SURFACE_GROUP_LIST.tag()).ln(2);
+        putSurfaceGroupListClose();
+
+        return;
+    }
+
+    /**
+     * PMDデータ上の面情報からサーフェイスグループリストを出力する。
+     * 出力内容は{@link #putSurfaceGroupList(PmdModel)}と同一。
+     * @param reader PMDデータ
+     * @throws IOException 出力エラー
+     */
+    void putSurfaceGroupList(PmdSectionReader reader)
+            throws IOException{
+        putSurfaceGroupListOpen();
+
+        int surfaceNo = 0;
+        int materials = reader.getMaterialCount();
+        for(int ct = 0; ct < materials; ct++){
+            int surfaces = reader.getMaterialSurfaceCount(ct);
+            putSurfaceGroupOpen(ct);
+            putSurfaces(reader, surfaceNo, surfaceNo + surfaces);
+            putSurfaceGroupClose();
+            surfaceNo += surfaces;
+        }
+
+        putSurfaceGroupListClose();
 
         return;
     }
 
     /**
-     * 個別のサーフェイスグループを出力する。
-     * @param surfaceList サーフェイスのリスト
+     * サーフェイスグループリストの開始タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    void putSurfaceGroupListOpen() throws IOException{
+        ind().putSimpleSTag(PmdTag.SURFACE_GROUP_LIST.tag()).ln();
+        pushNest();
+        return;
+    }
+
+    /**
+     * サーフェイスグループリストの終了タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    void putSurfaceGroupListClose() throws IOException{
+        popNest();
+        ind().putETag(PmdTag.SURFACE_GROUP_LIST.tag()).ln(2);
+        return;
+    }
+
+    /**
+     * サーフェイスグループの開始タグを出力する。
+     * 先頭のグループの前には空行が入る。
      * @param index グループインデックス
      * @throws IOException 出力エラー
      */
-    private void putSurfaceList(List<Surface> surfaceList,
-                                              int index)
+    void putSurfaceGroupOpen(int index)
             throws IOException{
+        if(index == 0) ln();
         ind().putOpenSTag(PmdTag.SURFACE_GROUP.tag()).sp();
         this.exp.putNumberedIdAttr(PmdAttr.SURFACE_GROUP_ID,
                           ExtraExporter.PFX_SURFACEGROUP, index);
         sp().putCloseSTag().ln();
         pushNest();
+        return;
+    }
 
-        for(Surface surface : surfaceList){
-            putSurface(surface);
-        }
-
+    /**
+     * サーフェイスグループの終了タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    void putSurfaceGroupClose()
+            throws IOException{
         popNest();
         ind().putETag(PmdTag.SURFACE_GROUP.tag()).ln(2);
+        return;
+    }
 
+    /**
+     * インデックスバッファ上の指定範囲の面を出力する。
+     * @param mesh インデックスバッファ
+     * @param from 開始面番号
+     * @param to 終了面番号(この面は含まない)
+     * @throws IOException 出力エラー
+     */
+    void putSurfaces(TriangleMesh mesh, int from, int to)
+            throws IOException{
+        for(int surfaceNo = from; surfaceNo < to; surfaceNo++){
+            putSurface(mesh.getSurfaceVertexId(surfaceNo, 0),
+                       mesh.getSurfaceVertexId(surfaceNo, 1),
+                       mesh.getSurfaceVertexId(surfaceNo, 2) );
+        }
+        return;
+    }
+
+    /**
+     * PMDデータ上の指定範囲の面を出力する。
+     * @param reader PMDデータ
+     * @param from 開始面番号
+     * @param to 終了面番号(この面は含まない)
+     * @throws IOException 出力エラー
+     */
+    void putSurfaces(PmdSectionReader reader, int from, int to)
+            throws IOException{
+        for(int surfaceNo = from; surfaceNo < to; surfaceNo++){
+            putSurface(reader.getSurfaceVertexId(surfaceNo, 0),
+                       reader.getSurfaceVertexId(surfaceNo, 1),
+                       reader.getSurfaceVertexId(surfaceNo, 2) );
+        }
         return;
     }
 
     /**
      * 個別のサーフェイスを出力する。
-     * @param surface サーフェイス
+     * @param vertex1 頂点1の通し番号
+     * @param vertex2 頂点2の通し番号
+     * @param vertex3 頂点3の通し番号
      * @throws IOException 出力エラー
      */
-    private void putSurface(Surface surface)
+    private void putSurface(int vertex1, int vertex2, int vertex3)
             throws IOException{
         ind().putOpenSTag(PmdTag.SURFACE.tag()).sp();
 
-        Vertex vertex1 = surface.getVertex1();
-        Vertex vertex2 = surface.getVertex2();
-        Vertex vertex3 = surface.getVertex3();
-
         this.exp.putNumberedIdAttr(PmdAttr.VERTEX_IDREF_1,
                           ExtraExporter.PFX_VERTEX, vertex1);
         sp();
@@ -122,20 +199,92 @@ private void putSurface(Surface surface)
      */
     void putVertexList(PmdModel model)
             throws IOException{
-        ind().putSimpleSTag(PmdTag.VERTEX_LIST.tag()).ln();
+        putVertexListOpen();
+        List<Vertex> vertexList = model.getVertexList();
+        putVertices(vertexList, 0);
+        putVertexListClose();
+        return;
+    }
 
+    /**
+     * PMDデータ上の頂点情報から頂点リストを出力する。
+     * 出力内容は{@link #putVertexList(PmdModel)}と同一。
+     * @param reader PMDデータ
+     * @throws IOException 出力エラー
+     */
+    void putVertexList(PmdSectionReader reader)
+            throws IOException{
+        putVertexListOpen();
+        putVertices(reader, 0, reader.getVertexCount());
+        putVertexListClose();
+        return;
+    }
+
+    /**
+     * 頂点リストの開始タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    void putVertexListOpen() throws IOException{
+        ind().putSimpleSTag(PmdTag.VERTEX_LIST.tag()).ln();
         pushNest();
-        boolean dumped = false;
-        List<Vertex> vertexList = model.getVertexList();
+        return;
+    }
+
+    /**
+     * 頂点リストの終了タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    void putVertexListClose() throws IOException{
+        popNest();
+        ind().putETag(PmdTag.VERTEX_LIST.tag()).ln(2);
+        return;
+    }
+
+    /**
+     * 頂点群を出力する。
+     * 先頭の頂点の前には空行が入る。
+     * @param vertexList 頂点のリスト
+     * @param from リスト先頭要素の頂点リスト内での位置
+     * @throws IOException 出力エラー
+     */
+    void putVertices(List<Vertex> vertexList, int from)
+            throws IOException{
+        boolean dumped = from > 0;
         for(Vertex vertex : vertexList){
             if( ! dumped ) ln();
             putVertex(vertex);
             dumped = true;
         }
-        popNest();
-
-        ind().putETag(PmdTag.VERTEX_LIST.tag()).ln(2);
+        return;
+    }
 
+    /**
+     * PMDデータ上の指定範囲の頂点を出力する。
+     * 先頭の頂点の前には空行が入る。
+     * @param reader PMDデータ
+     * @param from 開始頂点番号
+     * @param to 終了頂点番号(この頂点は含まない)
+     * @throws IOException 出力エラー
+     */
+    void putVertices(PmdSectionReader reader, int from, int to)
+            throws IOException{
+        for(int no = from; no < to; no++){
+            if(no == 0) ln();
+            putVertexOpen(no, reader.getEdgeAppearance(no));
+            ind();
+            this.exp.putPosition(reader.getPosition(no, 0),
+                                 reader.getPosition(no, 1),
+                                 reader.getPosition(no, 2) );
+            ln();
+            putNormal(reader.getNormal(no, 0),
+                      reader.getNormal(no, 1),
+                      reader.getNormal(no, 2) );
+            putUvMap(reader.getUV(no, 0), reader.getUV(no, 1));
+            putSkinning(reader.getBoneId(no, 0),
+                        reader.getBoneId(no, 1),
+                        reader.getWeightA(no) );
+            putVertexClose();
+        }
         return;
     }
 
@@ -146,23 +295,43 @@ void putVertexList(PmdModel model)
      */
     private void putVertex(Vertex vertex)
             throws IOException{
+        putVertexOpen(vertex.getSerialNumber(), vertex.getEdgeAppearance());
+        putVertexBody(vertex);
+        putVertexClose();
+        return;
+    }
+
+    /**
+     * 頂点の開始タグを出力する。
+     * @param serial 頂点通し番号
+     * @param showEdge エッジを表示するならtrue
+     * @throws IOException 出力エラー
+     */
+    private void putVertexOpen(int serial, boolean showEdge)
+            throws IOException{
         String bool;
-        if(vertex.getEdgeAppearance()) bool = "true";
-        else                           bool = "false";
+        if(showEdge) bool = "true";
+        else         bool = "false";
 
         ind().putOpenSTag(PmdTag.VERTEX.tag()).sp();
         this.exp.putNumberedIdAttr(PmdAttr.VERTEX_ID,
-                ExtraExporter.PFX_VERTEX, vertex);
+                ExtraExporter.PFX_VERTEX, serial);
         sp();
         putAttr(PmdAttr.SHOW_EDGE.attr(), bool);
         sp().putCloseSTag().ln();
         pushNest();
 
-        putVertexBody(vertex);
+        return;
+    }
 
+    /**
+     * 頂点の終了タグを出力する。
+     * @throws IOException 出力エラー
+     */
+    private void putVertexClose()
+            throws IOException{
         popNest();
         ind().putETag(PmdTag.VERTEX.tag()).ln(2);
-
         return;
     }
 
@@ -173,30 +342,72 @@ private void putVertex(Vertex vertex)
      */
     private void putVertexBody(Vertex vertex)
             throws IOException{
-        MkPos3D position = vertex.getPosition();
+        VertexStore store = vertex.getVertexStore();
+        int slot = vertex.getStoreSlot();
+
         ind();
-        this.exp.putPosition(position);
+        this.exp.putPosition(store.getXpos(slot),
+                             store.getYpos(slot),
+                             store.getZpos(slot) );
         ln();
 
-        MkVec3D normal = vertex.getNormal();
+        putNormal(store.getXNormal(slot),
+                  store.getYNormal(slot),
+                  store.getZNormal(slot) );
+
+        putUvMap(store.getUVal(slot), store.getVVal(slot));
+
+        BoneInfo boneA = store.getBoneA(slot);
+        BoneInfo boneB = store.getBoneB(slot);
+        int weight = store.getWeightA(slot);
+        putSkinning(boneA.getSerialNumber(),
+                    boneB.getSerialNumber(),
+                    weight );
+
+        return;
+    }
+
+    /**
+     * 法線情報を出力する。
+     * @param xVal X成分
+     * @param yVal Y成分
+     * @param zVal Z成分
+     * @throws IOException 出力エラー
+     */
+    private void putNormal(float xVal, float yVal, float zVal)
+            throws IOException{
         ind().putOpenSTag(PmdTag.NORMAL.tag()).sp();
-        putFloatAttr(PmdAttr.X.attr(), (float) normal.getXVal())
-                .sp();
-        putFloatAttr(PmdAttr.Y.attr(), (float) normal.getYVal())
-                .sp();
-        putFloatAttr(PmdAttr.Z.attr(), (float) normal.getZVal())
-                .sp();
+        putFloatAttr(PmdAttr.X.attr(), xVal).sp();
+        putFloatAttr(PmdAttr.Y.attr(), yVal).sp();
+        putFloatAttr(PmdAttr.Z.attr(), zVal).sp();
         putCloseEmpty().ln();
+        return;
+    }
 
-        MkPos2D uvPos = vertex.getUVPosition();
+    /**
+     * UVマップ情報を出力する。
+     * @param uVal U座標
+     * @param vVal V座標
+     * @throws IOException 出力エラー
+     */
+    private void putUvMap(float uVal, float vVal)
+            throws IOException{
         ind().putOpenSTag(PmdTag.UV_MAP.tag()).sp();
-        putFloatAttr(PmdAttr.U.attr(), (float) uvPos.getXpos()).sp();
-        putFloatAttr(PmdAttr.V.attr(), (float) uvPos.getYpos()).sp();
+        putFloatAttr(PmdAttr.U.attr(), uVal).sp();
+        putFloatAttr(PmdAttr.V.attr(), vVal).sp();
         putCloseEmpty().ln();
+        return;
+    }
 
-        BoneInfo boneA = vertex.getBoneA();
-        BoneInfo boneB = vertex.getBoneB();
-        int weight = vertex.getWeightA();
+    /**
+     * スキニング情報を出力する。
+     * @param boneA ボーンAの通し番号
+     * @param boneB ボーンBの通し番号
+     * @param weight ボーンAのウェイト値
+     * @throws IOException 出力エラー
+     */
+    private void putSkinning(int boneA, int boneB, int weight)
+            throws IOException{
         ind().putOpenSTag(PmdTag.SKINNING.tag()).sp();
         this.exp.putNumberedIdAttr(PmdAttr.BONE_IDREF_1,
                 ExtraExporter.PFX_BONE, boneA);
@@ -206,7 +417,6 @@ private void putVertexBody(Vertex vertex)
         sp();
         putIntAttr(PmdAttr.WEIGHT_BALANCE.attr(), weight).sp();
         putCloseEmpty().ln();
-
         return;
     }
 
@@ -159,14 +159,26 @@ void putNumberedIdAttr(PmdAttr attr,
      */
     void putPosition(MkPos3D position)
             throws IOException{
+        putPosition((float) position.getXpos(),
+                    (float) position.getYpos(),
+                    (float) position.getZpos() );
+        return;
+    }
+
+    /**
+     * 位置情報を出力する。
+     * @param xPos X座標
+     * @param yPos Y座標
+     * @param zPos Z座標
+     * @throws IOException 出力エラー
+     */
+    void putPosition(float xPos, float yPos, float zPos)
+            throws IOException{
         putOpenSTag("position").sp();
 
-        putFloatAttr(PmdAttr.X.attr(),
-                (float) position.getXpos()).sp();
-        putFloatAttr(PmdAttr.Y.attr(),
-                (float) position.getYpos()).sp();
-        putFloatAttr(PmdAttr.Z.attr(),
-                (float) position.getZpos()).sp();
+        putFloatAttr(PmdAttr.X.attr(), xPos).sp();
+        putFloatAttr(PmdAttr.Y.attr(), yPos).sp();
+        putFloatAttr(PmdAttr.Z.attr(), zPos).sp();
 
         putCloseEmpty();
 
@@ -0,0 +1,238 @@
+/*
+ * ID-reference list
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 未解決のID参照を溜め込む一時リスト。
+ *
+ * <p>参照元インスタンスごとに同数の参照IDを持つ。
+ * 正規形の参照IDは登録時に数値へ変換され、int配列に詰めて保持される。
+ * 正規形でない参照IDのみが文字列のまま保持される。
+ *
+ * @param <E> ID参照元インスタンス型
+ * @param <T> ID参照先インスタンス型
+ * @see IdTable
+ */
+final class IdRefList<E, T> {
+
+    private static final int NULLREF = Integer.MIN_VALUE;
+    private static final int DEF_CAPACITY = 16;
+
+
+    private final IdTable<T> table;
+    private final int arity;
+
+    private final ArrayList<E> bodyList = new ArrayList<>();
+    private int[] refArray;
+    private List<String> oddRefList = null;
+    private int maxIndex = -1;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param table 参照先テーブル
+     * @param arity 参照元ごとの参照ID数
+     */
+    IdRefList(IdTable<T> table, int arity){
+        super();
+        this.table = table;
+        this.arity = arity;
+        this.refArray = new int[DEF_CAPACITY * arity];
+        return;
+    }
+
+
+    /**
+     * 参照IDを数値に符号化する。
+     *
+     * <p>正規形IDは0以上の数値部分、
+     * それ以外は文字列保持位置を示す負の値、
+     * nullは{@link #NULLREF}となる。
+     *
+     * @param idRef 参照ID
+     * @return 符号
+     */
+    private int encode(String idRef){
+        if(idRef == null) return NULLREF;
+
+        int idx = this.table.parseIndex(idRef);
+        if(idx != IdTable.NOT_CANONICAL){
+            if(idx > this.maxIndex) this.maxIndex = idx;
+            return idx;
+        }
+
+        if(this.oddRefList == null) this.oddRefList = new ArrayList<>();
+        int result = -1 - this.oddRefList.size();
+        this.oddRefList.add(idRef);
+
+        return result;
+    }
+
+    /**
+     * 参照元1件分の符号格納領域を確保し、その先頭位置を返す。
+     *
+     * @param refs 参照元が持つ参照IDの数
+     * @return 格納領域の先頭位置
+     * @throws IllegalArgumentException 参照IDの数が不正
+     */
+    private int reserve(int refs) throws IllegalArgumentException{
+        if(refs != this.arity) throw new IllegalArgumentException();
+
+        int pos = this.bodyList.size() * this.arity;
+        int minLength = pos + this.arity;
+        if(this.refArray.length < minLength){
+            int newLength = this.refArray.length;
+            newLength += newLength >> 1;
+            if(newLength < minLength) newLength = minLength;
+            this.refArray = Arrays.copyOf(this.refArray, newLength);
+        }
+
+        return pos;
+    }
+
+    /**
+     * 参照元と参照IDを登録する。
+     *
+     * @param body 参照元
+     * @param idRef 参照ID。nullも可
+     * @throws IllegalArgumentException 参照IDの数が不正
+     */
+    void add(E body, String idRef) throws IllegalArgumentException{
+        int pos = reserve(1);
+        this.refArray[pos] = encode(idRef);
+        this.bodyList.add(body);
+        return;
+    }
+
+    /**
+     * 参照元と参照IDを登録する。
+     *
+     * @param body 参照元
+     * @param idRef1 参照IDその1。nullも可
+     * @param idRef2 参照IDその2。nullも可
+     * @throws IllegalArgumentException 参照IDの数が不正
+     */
+    void add(E body, String idRef1, String idRef2)
+            throws IllegalArgumentException{
+        int pos = reserve(2);
+        this.refArray[pos]     = encode(idRef1);
+        this.refArray[pos + 1] = encode(idRef2);
+        this.bodyList.add(body);
+        return;
+    }
+
+    /**
+     * 参照元と参照IDを登録する。
+     *
+     * @param body 参照元
+     * @param idRef1 参照IDその1。nullも可
+     * @param idRef2 参照IDその2。nullも可
+     * @param idRef3 参照IDその3。nullも可
+     * @throws IllegalArgumentException 参照IDの数が不正
+     */
+    void add(E body, String idRef1, String idRef2, String idRef3)
+            throws IllegalArgumentException{
+        int pos = reserve(3);
+        this.refArray[pos]     = encode(idRef1);
+        this.refArray[pos + 1] = encode(idRef2);
+        this.refArray[pos + 2] = encode(idRef3);
+        this.bodyList.add(body);
+        return;
+    }
+
+    /**
+     * 参照元の数を返す。
+     *
+     * @return 参照元の数
+     */
+    int size(){
+        return this.bodyList.size();
+    }
+
+    /**
+     * 正規形参照IDの数値部分の最大値を返す。
+     *
+     * @return 最大値。正規形参照IDが無ければ負の値
+     */
+    int getMaxIndex(){
+        return this.maxIndex;
+    }
+
+    /**
+     * 参照元を返す。
+     *
+     * @param no 登録順
+     * @return 参照元
+     */
+    E getBody(int no){
+        return this.bodyList.get(no);
+    }
+
+    /**
+     * 参照先を解決して返す。
+     *
+     * @param no 登録順
+     * @param refNo 参照元内での参照IDの順番
+     * @return 参照先。参照IDがnullもしくは未登録ならnull
+     */
+    T getTarget(int no, int refNo){
+        int code = this.refArray[no * this.arity + refNo];
+        if(code == NULLREF) return null;
+        if(code >= 0) return this.table.get(code);
+
+        String idRef = this.oddRefList.get(-1 - code);
+        T result = this.table.get(idRef);
+
+        return result;
+    }
+
+    /**
+     * 参照IDを返す。
+     *
+     * @param no 登録順
+     * @param refNo 参照元内での参照IDの順番
+     * @return 参照ID。nullもありうる
+     */
+    String getIdRef(int no, int refNo){
+        int code = this.refArray[no * this.arity + refNo];
+        if(code == NULLREF) return null;
+        if(code >= 0) return this.table.toId(code);
+        String result = this.oddRefList.get(-1 - code);
+        return result;
+    }
+
+    /**
+     * 参照IDがnullか判定する。
+     *
+     * @param no 登録順
+     * @param refNo 参照元内での参照IDの順番
+     * @return nullならtrue
+     */
+    boolean isNullRef(int no, int refNo){
+        int code = this.refArray[no * this.arity + refNo];
+        return code == NULLREF;
+    }
+
+    /**
+     * 全登録を破棄し、確保した領域を解放する。
+     */
+    void release(){
+        this.bodyList.clear();
+        this.bodyList.trimToSize();
+        this.refArray = new int[0];
+        this.oddRefList = null;
+        this.maxIndex = -1;
+        return;
+    }
+
+}
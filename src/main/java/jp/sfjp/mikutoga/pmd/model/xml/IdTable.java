@@ -0,0 +1,197 @@
+/*
+ * integer indexed ID table
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ID文字列をキーとする参照先テーブル。
+ *
+ * <p>{@link ExtraExporter}が出力する正規形のID
+ * (接頭辞と先頭0のない10進数からなる。例:"vtx123")は
+ * 数値部分を添え字とする配列で管理される。
+ * それ以外のIDはMapで管理される。
+ * どちらの場合もID文字列の同一性に基づく振る舞いは変わらない。
+ *
+ * @param <E> 参照先の型
+ */
+final class IdTable<E> {
+
+    /** 正規形でないIDを示す添え字。 */
+    static final int NOT_CANONICAL = -1;
+
+    private static final int DEF_CAPACITY = 16;
+    private static final int SPARSE_SLACK = 1024;
+    private static final int RADIX = 10;
+
+
+    private final String prefix;
+
+    private Object[] denseArray;
+    private Map<String, E> sparseMap = null;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param prefix 正規形IDの接頭辞
+     */
+    IdTable(String prefix){
+        super();
+        this.prefix = prefix;
+        this.denseArray = new Object[DEF_CAPACITY];
+        return;
+    }
+
+
+    /**
+     * 正規形IDの数値部分を返す。
+     *
+     * <p>数値部分は0以上の10進数で、
+     * 0以外は先頭に0を持たない。
+     *
+     * @param id ID
+     * @return 数値部分。正規形でなければ{@link #NOT_CANONICAL}
+     */
+    int parseIndex(String id){
+        if(id == null) return NOT_CANONICAL;
+        if( ! id.startsWith(this.prefix) ) return NOT_CANONICAL;
+
+        int start = this.prefix.length();
+        int length = id.length();
+        if(start >= length) return NOT_CANONICAL;
+        if(id.charAt(start) == '0' && length - start > 1){
+            return NOT_CANONICAL;
+        }
+
+        int result = 0;
+        for(int pos = start; pos < length; pos++){
+            int digit = id.charAt(pos) - '0';
+            if(digit < 0 || RADIX <= digit) return NOT_CANONICAL;
+            if(result > (Integer.MAX_VALUE - digit) / RADIX){
+                return NOT_CANONICAL;
+            }
+            result = result * RADIX + digit;
+        }
+
+        return result;
+    }
+
+    /**
+     * 添え字配列の容量を確保する。
+     *
+     * @param minCapacity 最低容量
+     */
+    void ensureCapacity(int minCapacity){
+        int oldCapacity = this.denseArray.length;
+        if(minCapacity <= oldCapacity) return;
+
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if(newCapacity < minCapacity) newCapacity = minCapacity;
+
+        this.denseArray = Arrays.copyOf(this.denseArray, newCapacity);
+
+        return;
+    }
+
+    /**
+     * IDと参照先を登録する。
+     *
+     * <p>既存のIDと重複した場合は上書きされる。
+     *
+     * <p>正規形IDであっても、添え字配列の容量から
+     * 大きく外れた数値部分を持つIDはMapで管理される。
+     *
+     * @param id ID
+     * @param value 参照先
+     * @return 上書きされた参照先。重複が無ければnull
+     */
+    E put(String id, E value){
+        int idx = parseIndex(id);
+        if(idx != NOT_CANONICAL){
+            int capacity = this.denseArray.length;
+            if(idx < capacity + (capacity >> 1) + SPARSE_SLACK){
+                ensureCapacity(idx + 1);
+                @SuppressWarnings("unchecked")
+                E old = (E) this.denseArray[idx];
+                this.denseArray[idx] = value;
+                if(this.sparseMap != null){
+                    E sparseOld = this.sparseMap.remove(id);
+                    if(old == null) old = sparseOld;
+                }
+                return old;
+            }
+        }
+
+        if(this.sparseMap == null) this.sparseMap = new HashMap<>();
+        E old = this.sparseMap.put(id, value);
+
+        return old;
+    }
+
+    /**
+     * IDから参照先を得る。
+     *
+     * @param id ID
+     * @return 参照先。未登録ならnull
+     */
+    E get(String id){
+        int idx = parseIndex(id);
+        if(idx != NOT_CANONICAL) return get(idx);
+
+        if(this.sparseMap == null) return null;
+        E result = this.sparseMap.get(id);
+
+        return result;
+    }
+
+    /**
+     * 正規形IDの数値部分から参照先を得る。
+     *
+     * @param idx 正規形IDの数値部分
+     * @return 参照先。未登録ならnull
+     */
+    E get(int idx){
+        if(idx < this.denseArray.length){
+            @SuppressWarnings("unchecked")
+            E result = (E) this.denseArray[idx];
+            if(result != null) return result;
+        }
+
+        if(this.sparseMap == null) return null;
+
+        // 正規形IDは数値部分から一意に復元できる
+        String id = toId(idx);
+        E result = this.sparseMap.get(id);
+
+        return result;
+    }
+
+    /**
+     * 正規形IDの数値部分からID文字列を復元する。
+     *
+     * @param idx 正規形IDの数値部分
+     * @return ID
+     */
+    String toId(int idx){
+        String result = this.prefix + idx;
+        return result;
+    }
+
+    /**
+     * 全登録を破棄し、確保した領域を解放する。
+     */
+    void release(){
+        this.denseArray = new Object[0];
+        this.sparseMap = null;
+        return;
+    }
+
+}
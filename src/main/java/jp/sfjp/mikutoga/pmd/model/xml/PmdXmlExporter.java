@@ -8,8 +8,22 @@
 package jp.sfjp.mikutoga.pmd.model.xml;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
 import jp.sfjp.mikutoga.corelib.I18nText;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.TriangleMesh;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionReader;
 import jp.sfjp.mikutoga.xml.BasicXmlExporter;
 import jp.sfjp.mikutoga.xml.SchemaUtil;
 
@@ -38,11 +52,20 @@ public class PmdXmlExporter extends BasicXmlExporter{
     /** 改行文字列 CRLF。 */
     private static final String CRLF = CR + LF;  // 0x0d, 0x0a
 
+    /** 並列出力時に1タスクが受け持つ頂点数。 */
+    private static final int VERTEX_CHUNK = 2048;
+    /** 並列出力時に1タスクが受け持つ面数。 */
+    private static final int SURFACE_CHUNK = 8192;
+    /** 並列出力時に未出力で保持するタスク数の、並列度に対する倍率。 */
+    private static final int PART_WINDOW = 2;
+
 
     private XmlModelFileType xmlType = XmlModelFileType.XML_130128;
 
     private String generator = null;
 
+    private ForkJoinPool parallelPool = null;
+
     private final ExporterMaterial materialExporter;
     private final ExporterBone     boneExporter;
     private final ExporterMorph    morphExporter;
@@ -51,6 +74,8 @@ public class PmdXmlExporter extends BasicXmlExporter{
 
     private final ExtraExporter exp;
 
+    private final char[] numBuf = new char[XsdNumFormatter.MAX_CHARS];
+
 
     /**
      * コンストラクタ。
@@ -122,6 +147,113 @@ public String getGenerator(){
         return this.generator;
     }
 
+    /**
+     * 並列出力に用いるスレッドプールを設定する。
+     *
+     * <p>設定された場合、互いに独立したセクション、
+     * および頂点リストとサーフェイスグループリストの連続した区間が
+     * 個別のバッファへ並列に出力され、
+     * 先頭から順に完了したものが元の順序で書き出される。
+     * 出力内容は逐次出力と同一。
+     *
+     * <p>スレッドプールの生成と終了は呼び出し側の責務。
+     *
+     * @param pool スレッドプール。nullなら逐次出力
+     */
+    public void setParallelPool(ForkJoinPool pool){
+        this.parallelPool = pool;
+        return;
+    }
+
+    /**
+     * 並列出力に用いるスレッドプールを返す。
+     * @return スレッドプール。逐次出力ならnull
+     */
+    public ForkJoinPool getParallelPool(){
+        return this.parallelPool;
+    }
+
+    /**
+     * 数値表記用バッファの内容を出力する。
+     * @param end 出力範囲の末尾(この位置は含まない)
+     * @throws IOException 出力エラー
+     */
+    private void putNumBuf(int end) throws IOException{
+        for(int pos = 0; pos < end; pos++){
+            putRawCh(this.numBuf[pos]);
+        }
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>文字列オブジェクトを生成せずに出力する。
+     *
+     * @param iVal {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public PmdXmlExporter putXsdInt(int iVal) throws IOException{
+        int end = XsdNumFormatter.formatInt(iVal, this.numBuf, 0);
+        putNumBuf(end);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>多くの値で文字列オブジェクトを生成せずに出力する。
+     *
+     * @param fVal {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     * @see XsdNumFormatter
+     */
+    @Override
+    public PmdXmlExporter putXsdFloat(float fVal) throws IOException{
+        int end = XsdNumFormatter.formatFloat(fVal, this.numBuf, 0);
+        putNumBuf(end);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param attrName {@inheritDoc}
+     * @param iVal {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public PmdXmlExporter putIntAttr(CharSequence attrName, int iVal)
+            throws IOException{
+        putRawText(attrName).putRawCh('=');
+        putRawCh('"');
+        putXsdInt(iVal);
+        putRawCh('"');
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param attrName {@inheritDoc}
+     * @param fVal {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public PmdXmlExporter putFloatAttr(CharSequence attrName, float fVal)
+            throws IOException{
+        putRawText(attrName).putRawCh('=');
+        putRawCh('"');
+        putXsdFloat(fVal);
+        putRawCh('"');
+        return this;
+    }
+
     /**
      * PMDモデルデータをXML形式で出力する。
      * @param model PMDモデルデータ
@@ -133,7 +265,33 @@ public void putPmdXml(PmdModel model, Appendable xmlOut)
         setAppendable(xmlOut);
 
         try{
-            putPmdXmlImpl(model);
+            putPmdXmlImpl(model, null);
+        }finally{
+            flush();
+        }
+
+        return;
+    }
+
+    /**
+     * PMDデータをモデルデータを構築せずにXML形式で出力する。
+     *
+     * <p>頂点、面、モーフ頂点はPMDデータ上から直接読み出され、
+     * 出力内容は{@link #putPmdXml(PmdModel, Appendable)}と同一となる。
+     *
+     * @param reader PMDデータ
+     * @param xmlOut XML出力先
+     * @throws IOException 入出力エラー
+     * @throws MmdFormatException PMDファイルフォーマットの異常を検出
+     */
+    public void putPmdXml(PmdSectionReader reader, Appendable xmlOut)
+            throws IOException, MmdFormatException{
+        PmdModel skeleton = reader.loadSkeleton();
+
+        setAppendable(xmlOut);
+
+        try{
+            putPmdXmlImpl(skeleton, reader);
         }finally{
             flush();
         }
@@ -144,14 +302,38 @@ public void putPmdXml(PmdModel model, Appendable xmlOut)
     /**
      * PMDモデルデータをXML形式で出力する。
      * @param model PMDモデルデータ
+     * @param reader 頂点、面、モーフ頂点の読み出し元PMDデータ。
+     *     nullならモデルデータから読み出す
      * @throws IOException 出力エラー
      */
-    private void putPmdXmlImpl(PmdModel model) throws IOException{
+    private void putPmdXmlImpl(PmdModel model, PmdSectionReader reader)
+            throws IOException{
         putPmdRootOpen(model);
 
         putModelInfo(model);
         putMetaInfo();
 
+        if(this.parallelPool == null){
+            putSections(model, reader);
+        }else{
+            putSectionsParallel(model, reader);
+        }
+
+        ind().putETag(PmdTag.PMD_MODEL.tag()).ln(2);
+        ind().putLineComment("EOF").ln();
+
+        return;
+    }
+
+    /**
+     * ルート要素直下の各セクションを逐次出力する。
+     * @param model PMDモデルデータ
+     * @param reader 頂点、面、モーフ頂点の読み出し元PMDデータ。
+     *     nullならモデルデータから読み出す
+     * @throws IOException 出力エラー
+     */
+    private void putSections(PmdModel model, PmdSectionReader reader)
+            throws IOException{
         this.materialExporter.putMaterialList(model);
         this.materialExporter.putToonMap(model);
 
@@ -159,21 +341,378 @@ private void putPmdXmlImpl(PmdModel model) throws IOException{
         this.boneExporter.putBoneGroupList(model);
         this.boneExporter.putIKChainList(model);
 
-        this.morphExporter.putMorphList(model);
+        if(reader == null){
+            this.morphExporter.putMorphList(model);
+        }else{
+            this.morphExporter.putMorphList(model, reader);
+        }
 
         this.dynamicsExporter.putRigidList(model);
         this.dynamicsExporter.putRigidGroupList(model);
         this.dynamicsExporter.putJointList(model);
 
-        this.shapeExporter.putSurfaceGroupList(model);
-        this.shapeExporter.putVertexList(model);
+        if(reader == null){
+            this.shapeExporter.putSurfaceGroupList(model);
+            this.shapeExporter.putVertexList(model);
+        }else{
+            this.shapeExporter.putSurfaceGroupList(reader);
+            this.shapeExporter.putVertexList(reader);
+        }
 
-        ind().putETag(PmdTag.PMD_MODEL.tag()).ln(2);
-        ind().putLineComment("EOF").ln();
+        return;
+    }
+
+    /**
+     * ルート要素直下の各セクションを並列に出力する。
+     * @param model PMDモデルデータ
+     * @param reader 頂点、面、モーフ頂点の読み出し元PMDデータ。
+     *     nullならモデルデータから読み出す
+     * @throws IOException 出力エラー
+     */
+    private void putSectionsParallel(final PmdModel model,
+                                     final PmdSectionReader reader)
+            throws IOException{
+        List<Callable<CharSequence>> parts = new ArrayList<>();
+
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.materialExporter.putMaterialList(model);
+                part.materialExporter.putToonMap(model);
+                return;
+            }
+        }));
+
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.boneExporter.putBoneList(model);
+                part.boneExporter.putBoneGroupList(model);
+                part.boneExporter.putIKChainList(model);
+                return;
+            }
+        }));
 
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.morphExporter.putMorphList(model, reader);
+                return;
+            }
+        }));
+
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.dynamicsExporter.putRigidList(model);
+                part.dynamicsExporter.putRigidGroupList(model);
+                part.dynamicsExporter.putJointList(model);
+                return;
+            }
+        }));
+
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.shapeExporter.putSurfaceGroupListOpen();
+                return;
+            }
+        }));
+        if(reader == null) addSurfaceParts(parts, model);
+        else               addSurfaceParts(parts, reader);
+        parts.add(newPart(1, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.shapeExporter.putSurfaceGroupListClose();
+                return;
+            }
+        }));
+
+        parts.add(newPart(0, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.shapeExporter.putVertexListOpen();
+                return;
+            }
+        }));
+        if(reader == null) addVertexParts(parts, model);
+        else               addVertexParts(parts, reader);
+        parts.add(newPart(1, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                part.shapeExporter.putVertexListClose();
+                return;
+            }
+        }));
+
+        putParts(parts);
+
+        return;
+    }
+
+    /**
+     * 並列出力タスク群を実行し、その出力内容を元の順序で書き出す。
+     *
+     * <p>先頭のタスクが完了するたびにその出力内容を書き出し、
+     * 後続のタスクを投入する。
+     * 投入済みで未出力のタスク数はスレッドプールの並列度の
+     * {@value #PART_WINDOW}倍までに制限されるため、
+     * 出力途中に保持されるバッファは一部の区間に限られる。
+     *
+     * <p>出力に失敗した場合、未出力のタスクは取り消される。
+     *
+     * @param parts 出力タスク群
+     * @throws IOException 出力エラー
+     */
+    private void putParts(List<Callable<CharSequence>> parts)
+            throws IOException{
+        ForkJoinPool pool = this.parallelPool;
+        int window = Math.max(pool.getParallelism() * PART_WINDOW, 1);
+
+        Iterator<Callable<CharSequence>> it = parts.iterator();
+        Deque<Future<CharSequence>> pending = new ArrayDeque<>(window);
+
+        try{
+            for(;;){
+                while(pending.size() < window && it.hasNext()){
+                    pending.addLast(pool.submit(it.next()));
+                }
+
+                Future<CharSequence> head = pending.pollFirst();
+                if(head == null) break;
+
+                putRawText(getPartResult(head));
+            }
+        }finally{
+            for(Future<CharSequence> future : pending){
+                future.cancel(true);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * サーフェイスグループの出力タスクを追加する。
+     * @param parts タスク一覧
+     * @param model PMDモデルデータ
+     */
+    private void addSurfaceParts(List<Callable<CharSequence>> parts,
+                                 PmdModel model){
+        final TriangleMesh mesh = model.getTriangleMesh();
+        int materials = mesh.getMaterialCount();
+        for(int index = 0; index < materials; index++){
+            int start = mesh.getMaterialSurfaceStart(index);
+            int end = start + mesh.getMaterialSurfaceCount(index);
+            int from = start;
+            do{
+                final int chunkFrom = from;
+                final int chunkTo = Math.min(end, from + SURFACE_CHUNK);
+                PartWriter writer = new PartWriter(){
+                    @Override
+                    public void write(PmdXmlExporter part)
+                            throws IOException{
+                        part.shapeExporter
+                            .putSurfaces(mesh, chunkFrom, chunkTo);
+                        return;
+                    }
+                };
+                parts.add(newSurfacePart(index,
+                        chunkFrom == start, chunkTo == end, writer));
+                from = chunkTo;
+            }while(from < end);
+        }
+        return;
+    }
+
+    /**
+     * PMDデータ上のサーフェイスグループの出力タスクを追加する。
+     * @param parts タスク一覧
+     * @param reader PMDデータ
+     */
+    private void addSurfaceParts(List<Callable<CharSequence>> parts,
+                                 final PmdSectionReader reader){
+        int surfaceNo = 0;
+        int materials = reader.getMaterialCount();
+        for(int index = 0; index < materials; index++){
+            int start = surfaceNo;
+            int end = start + reader.getMaterialSurfaceCount(index);
+            int from = start;
+            do{
+                final int chunkFrom = from;
+                final int chunkTo = Math.min(end, from + SURFACE_CHUNK);
+                PartWriter writer = new PartWriter(){
+                    @Override
+                    public void write(PmdXmlExporter part)
+                            throws IOException{
+                        part.shapeExporter
+                            .putSurfaces(reader, chunkFrom, chunkTo);
+                        return;
+                    }
+                };
+                parts.add(newSurfacePart(index,
+                        chunkFrom == start, chunkTo == end, writer));
+                from = chunkTo;
+            }while(from < end);
+            surfaceNo = end;
+        }
+        return;
+    }
+
+    /**
+     * サーフェイスグループの一区間の出力タスクを生成する。
+     * @param index グループインデックス
+     * @param first グループの先頭区間ならtrue
+     * @param last グループの末尾区間ならtrue
+     * @param writer 区間内の面を出力する処理
+     * @return タスク
+     */
+    private Callable<CharSequence> newSurfacePart(final int index,
+                                                  final boolean first,
+                                                  final boolean last,
+                                                  final PartWriter writer){
+        Callable<CharSequence> result = newPart(1, new PartWriter(){
+            @Override
+            public void write(PmdXmlExporter part) throws IOException{
+                if(first) part.shapeExporter.putSurfaceGroupOpen(index);
+                else      part.pushNest();
+                writer.write(part);
+                if(last) part.shapeExporter.putSurfaceGroupClose();
+                return;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 頂点の出力タスクを追加する。
+     * @param parts タスク一覧
+     * @param model PMDモデルデータ
+     */
+    private void addVertexParts(List<Callable<CharSequence>> parts,
+                                PmdModel model){
+        List<Vertex> vertexList = model.getVertexList();
+        int size = vertexList.size();
+        for(int from = 0; from < size; from += VERTEX_CHUNK){
+            final int chunkFrom = from;
+            int to = Math.min(size, from + VERTEX_CHUNK);
+            final List<Vertex> chunk = vertexList.subList(from, to);
+            parts.add(newPart(1, new PartWriter(){
+                @Override
+                public void write(PmdXmlExporter part) throws IOException{
+                    part.shapeExporter.putVertices(chunk, chunkFrom);
+                    return;
+                }
+            }));
+        }
+        return;
+    }
+
+    /**
+     * PMDデータ上の頂点の出力タスクを追加する。
+     * @param parts タスク一覧
+     * @param reader PMDデータ
+     */
+    private void addVertexParts(List<Callable<CharSequence>> parts,
+                                final PmdSectionReader reader){
+        int size = reader.getVertexCount();
+        for(int from = 0; from < size; from += VERTEX_CHUNK){
+            final int chunkFrom = from;
+            final int chunkTo = Math.min(size, from + VERTEX_CHUNK);
+            parts.add(newPart(1, new PartWriter(){
+                @Override
+                public void write(PmdXmlExporter part) throws IOException{
+                    part.shapeExporter
+                        .putVertices(reader, chunkFrom, chunkTo);
+                    return;
+                }
+            }));
+        }
         return;
     }
 
+    /**
+     * 個別のバッファへ出力するタスクを生成する。
+     *
+     * <p>タスクは出力設定を引き継いだ別のエクスポーターを用いる。
+     *
+     * @param nest 出力開始時のネストレベル
+     * @param writer 出力処理
+     * @return タスク
+     */
+    private Callable<CharSequence> newPart(final int nest,
+                                           final PartWriter writer){
+        final XmlModelFileType type = this.xmlType;
+        final String newLine = getNewLine();
+        final boolean basicLatinOnly = isBasicLatinOnlyOut();
+
+        Callable<CharSequence> result = new Callable<CharSequence>(){
+            @Override
+            public CharSequence call() throws IOException{
+                StringBuilder buf = new StringBuilder();
+
+                PmdXmlExporter part = new PmdXmlExporter();
+                part.setXmlFileType(type);
+                part.setNewLine(newLine);
+                part.setBasicLatinOnlyOut(basicLatinOnly);
+                part.setAppendable(buf);
+                for(int ct = 0; ct < nest; ct++){
+                    part.pushNest();
+                }
+
+                writer.write(part);
+                part.flush();
+
+                return buf;
+            }
+        };
+
+        return result;
+    }
+
+    /**
+     * 並列出力タスクの結果を得る。
+     * @param future タスクの結果
+     * @return 出力内容
+     * @throws IOException 出力エラー
+     */
+    private static CharSequence getPartResult(Future<CharSequence> future)
+            throws IOException{
+        CharSequence result;
+
+        try{
+            result = future.get();
+        }catch(InterruptedException e){
+            throw toInterruptedIO(e);
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException)     throw (IOException) cause;
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error)           throw (Error) cause;
+            throw new IOException(cause);
+        }
+
+        return result;
+    }
+
+    /**
+     * 割り込みを入出力例外に変換する。
+     *
+     * <p>スレッドの割り込み状態は復元される。
+     *
+     * @param cause 割り込み
+     * @return 入出力例外
+     */
+    private static InterruptedIOException toInterruptedIO(
+            InterruptedException cause){
+        Thread.currentThread().interrupt();
+        InterruptedIOException result = new InterruptedIOException();
+        result.initCause(cause);
+        return result;
+    }
+
     /**
      * ルートタグ開始を出力する。
      * @param model モデル情報
@@ -363,4 +902,19 @@ private PmdXmlExporter putMetaInfo() throws IOException{
         return this;
     }
 
+
+    /**
+     * 並列出力タスクの出力処理。
+     */
+    private interface PartWriter{
+
+        /**
+         * 出力を行う。
+         * @param part 出力先エクスポーター
+         * @throws IOException 出力エラー
+         */
+        void write(PmdXmlExporter part) throws IOException;
+
+    }
+
 }
@@ -7,11 +7,10 @@
 
 package jp.sfjp.mikutoga.pmd.model.xml;
 
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
 import jp.sfjp.mikutoga.pmd.model.Material;
 import jp.sfjp.mikutoga.pmd.model.MorphVertex;
@@ -20,49 +19,67 @@
 import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
 import jp.sfjp.mikutoga.pmd.model.Surface;
 import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /**
  * 各種ID参照解決用の一時的なヘルパ。
+ *
+ * <p>{@link ExtraExporter}の出力する正規形のIDは
+ * 数値化され配列の添え字として解決される。
+ * 解決を終えた参照情報は速やかに解放される。
+ *
+ * <p>IDの重複や未登録IDへの参照は{@link TogaXmlException}として報告される。
+ * スキーマ検証を経ないXMLであっても、
+ * モデルの構築に必要な参照の整合性はここで保証される。
  */
 class RefHelper {
 
+    private static final String ERRMSG_DUPID =
+            "Duplicated {0} ID : \"{1}\"";
+    private static final String ERRMSG_NOID =
+            "Unresolved {0} ID reference : \"{1}\"";
+
+    private static final String KIND_SURFACEGROUP = "surfaceGroup";
+    private static final String KIND_VERTEX       = "vertex";
+    private static final String KIND_TOONFILE     = "toonFile";
+    private static final String KIND_BONE         = "bone";
+    private static final String KIND_RIGID        = "rigid";
+    private static final String KIND_RIGIDGROUP   = "rigidGroup";
+
+
+    // 面関連
+    private final IdTable<List<Surface>> surfaceGroupIdTable =
+            new IdTable<>(ExtraExporter.PFX_SURFACEGROUP);
+    private final IdRefList<Surface, Vertex> surfaceVertexIdRefList;
+    private String lastSurfaceGroupId = null;
+    private List<Surface> lastSurfaceGroup = null;
+
+    // 頂点関連
+    private final IdTable<Vertex> vertexIdTable =
+            new IdTable<>(ExtraExporter.PFX_VERTEX);
+    private boolean vertexPresized = false;
+
     // マテリアル関連
-    private final List<IdRefHolder<Material>> materialSfcGroupIdRefList =
-            new LinkedList<>();
-    private final List<IdRefHolder<Material>> materialToonIdRefList =
-            new LinkedList<>();
-    private final Map<String, Integer> toonIdxMap =
-            new HashMap<>();
+    private final IdRefList<Material, List<Surface>> materialSfcGroupIdRefList;
+    private final IdTable<Integer> toonIdxTable =
+            new IdTable<>(ExtraExporter.PFX_TOONFILE);
+    private final IdRefList<Material, Integer> materialToonIdRefList;
 
     // ボーン関連
-    private final Map<String, BoneInfo> boneIdMap =
-            new HashMap<>();
-    private final List<IdRefHolder<BoneInfo>> boneChainIdRefList =
-            new LinkedList<>();
-    private final List<IdRefHolder<BoneInfo>> boneSourceIdRefList =
-            new LinkedList<>();
+    private final IdTable<BoneInfo> boneIdTable =
+            new IdTable<>(ExtraExporter.PFX_BONE);
+    private final IdRefList<BoneInfo, BoneInfo> boneChainIdRefList;
+    private final IdRefList<BoneInfo, BoneInfo> boneSourceIdRefList;
 
     // モーフ関連
-    private final List<IdRefHolder<MorphVertex>> morphVertexIdRefList =
-            new LinkedList<>();
+    private final IdRefList<MorphVertex, Vertex> morphVertexIdRefList;
 
     // 剛体関連
-    private final Map<String, RigidInfo> rigidIdMap =
-            new HashMap<>();
-    private final Map<String, RigidGroup> rigidGroupIdMap =
-            new HashMap<>();
-    private final List<IdRefHolder<RigidInfo>> thghRigidGroupIdRefList =
-            new LinkedList<>();
-
-    // 面関連
-    private final Map<String, List<Surface>> surfaceGroupIdMap =
-            new HashMap<>();
-    private final List<IdRefHolder<Surface>> surfaceVertexIdRef =
-            new LinkedList<>();
-
-    // 頂点関連
-    private final Map<String, Vertex> vertexIdMap =
-            new HashMap<>();
+    private final IdTable<RigidInfo> rigidIdTable =
+            new IdTable<>(ExtraExporter.PFX_RIGID);
+    private final IdTable<RigidGroup> rigidGroupIdTable =
+            new IdTable<>(ExtraExporter.PFX_RIGIDGROUP);
+    private final IdRefList<RigidInfo, RigidGroup> thghRigidGroupIdRefList;
 
 
     /**
@@ -70,9 +87,110 @@ class RefHelper {
      */
     RefHelper(){
         super();
+
+        this.surfaceVertexIdRefList =
+                new IdRefList<>(this.vertexIdTable, 3);
+        this.materialSfcGroupIdRefList =
+                new IdRefList<>(this.surfaceGroupIdTable, 1);
+        this.materialToonIdRefList =
+                new IdRefList<>(this.toonIdxTable, 1);
+        this.boneChainIdRefList =
+                new IdRefList<>(this.boneIdTable, 2);
+        this.boneSourceIdRefList =
+                new IdRefList<>(this.boneIdTable, 1);
+        this.morphVertexIdRefList =
+                new IdRefList<>(this.vertexIdTable, 1);
+        this.thghRigidGroupIdRefList =
+                new IdRefList<>(this.rigidGroupIdTable, 1);
+
+        return;
+    }
+
+
+    /**
+     * IDの重複を示す例外を生成する。
+     *
+     * @param kind ID種別
+     * @param id ID
+     * @return 例外
+     */
+    private static TogaXmlException dupIdError(String kind, String id){
+        String errMsg = MessageFormat.format(ERRMSG_DUPID, kind, id);
+        return new TogaXmlException(errMsg);
+    }
+
+    /**
+     * 未解決のID参照を示す例外を生成する。
+     *
+     * @param kind ID種別
+     * @param idRef ID参照
+     * @return 例外
+     */
+    private static TogaXmlException noIdError(String kind, String idRef){
+        String errMsg = MessageFormat.format(ERRMSG_NOID, kind, idRef);
+        return new TogaXmlException(errMsg);
+    }
+
+    /**
+     * IDと参照先を重複無く登録する。
+     *
+     * @param <T> 参照先の型
+     * @param table 参照先テーブル
+     * @param kind ID種別
+     * @param id ID
+     * @param value 参照先
+     * @throws TogaXmlException IDが重複した
+     */
+    private static <T> void putUnique(IdTable<T> table,
+                                      String kind,
+                                      String id,
+                                      T value )
+            throws TogaXmlException{
+        T old = table.put(id, value);
+        if(old != null) throw dupIdError(kind, id);
         return;
     }
 
+    /**
+     * IDから参照先を得る。
+     *
+     * @param <T> 参照先の型
+     * @param table 参照先テーブル
+     * @param kind ID種別
+     * @param idRef ID参照
+     * @return 参照先。ID参照がnullならnull
+     * @throws TogaXmlException 未登録のIDを参照した
+     */
+    private static <T> T find(IdTable<T> table, String kind, String idRef)
+            throws TogaXmlException{
+        if(idRef == null) return null;
+        T result = table.get(idRef);
+        if(result == null) throw noIdError(kind, idRef);
+        return result;
+    }
+
+    /**
+     * 参照先を解決して返す。
+     *
+     * @param <T> 参照先の型
+     * @param refList 参照リスト
+     * @param kind ID種別
+     * @param no 登録順
+     * @param refNo 参照元内での参照IDの順番
+     * @return 参照先
+     * @throws TogaXmlException 参照IDがnullもしくは未登録
+     */
+    private static <T> T getTarget(IdRefList<?, T> refList,
+                                   String kind,
+                                   int no,
+                                   int refNo )
+            throws TogaXmlException{
+        T result = refList.getTarget(no, refNo);
+        if(result == null){
+            throw noIdError(kind, refList.getIdRef(no, refNo));
+        }
+        return result;
+    }
 
     /**
      * マテリアルからのサーフェイスグループID参照を登録する。
@@ -80,10 +198,24 @@ class RefHelper {
      * @param idRef サーフェイスグループID参照
      */
     void addSurfaceGroupIdRef(Material material, String idRef){
-        IdRefHolder<Material> holder =
-                new IdRefHolder<>(material, idRef);
-        this.materialSfcGroupIdRefList.add(holder);
+        this.materialSfcGroupIdRefList.add(material, idRef);
+        return;
+    }
 
+    /**
+     * サーフェイスグループIDを登録する。
+     *
+     * <p>構成サーフェイスを持たないグループも参照可能となる。
+     *
+     * @param surfaceGroupId サーフェイスグループID
+     * @throws TogaXmlException IDが重複した
+     */
+    void addSurfaceGroupId(String surfaceGroupId) throws TogaXmlException{
+        List<Surface> surfaceGroup = new ArrayList<>();
+        putUnique(this.surfaceGroupIdTable, KIND_SURFACEGROUP,
+                  surfaceGroupId, surfaceGroup);
+        this.lastSurfaceGroupId = surfaceGroupId;
+        this.lastSurfaceGroup = surfaceGroup;
         return;
     }
 
@@ -93,11 +225,20 @@ void addSurfaceGroupIdRef(Material material, String idRef){
      * @param surface サーフェイス
      */
     void addSurfaceGroup(String surfaceGroupId, Surface surface){
-        List<Surface> surfaceGroup =
-                this.surfaceGroupIdMap.get(surfaceGroupId);
-        if(surfaceGroup == null){
-            surfaceGroup = new LinkedList<>();
-            this.surfaceGroupIdMap.put(surfaceGroupId, surfaceGroup);
+        List<Surface> surfaceGroup;
+
+        // 同一グループのサーフェイスは連続して現れる
+        if(    surfaceGroupId != null
+            && surfaceGroupId.equals(this.lastSurfaceGroupId) ){
+            surfaceGroup = this.lastSurfaceGroup;
+        }else{
+            surfaceGroup = this.surfaceGroupIdTable.get(surfaceGroupId);
+            if(surfaceGroup == null){
+                surfaceGroup = new ArrayList<>();
+                this.surfaceGroupIdTable.put(surfaceGroupId, surfaceGroup);
+            }
+            this.lastSurfaceGroupId = surfaceGroupId;
+            this.lastSurfaceGroup = surfaceGroup;
         }
 
         surfaceGroup.add(surface);
@@ -107,19 +248,27 @@ void addSurfaceGroup(String surfaceGroupId, Surface surface){
 
     /**
      * マテリアルからのサーフェイスグループID参照を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveMaterialSurfaceGroupId(){
-        for(IdRefHolder<Material> holder : this.materialSfcGroupIdRefList){
-            Material material = holder.getBody();
-            String surfaceGroupIdRef = holder.getIdRef();
+    void resolveMaterialSurfaceGroupId() throws TogaXmlException{
+        IdRefList<Material, List<Surface>> refList =
+                this.materialSfcGroupIdRefList;
 
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            Material material = refList.getBody(no);
             List<Surface> surfaceGroup =
-                    this.surfaceGroupIdMap.get(surfaceGroupIdRef);
+                    getTarget(refList, KIND_SURFACEGROUP, no, 0);
 
             List<Surface> surfaceList = material.getSurfaceList();
             surfaceList.addAll(surfaceGroup);
         }
 
+        refList.release();
+        this.surfaceGroupIdTable.release();
+        this.lastSurfaceGroupId = null;
+        this.lastSurfaceGroup = null;
+
         return;
     }
 
@@ -129,9 +278,7 @@ void resolveMaterialSurfaceGroupId(){
      * @param idRef トゥーンファイルID参照
      */
     void addToonFileIdRef(Material material, String idRef){
-        IdRefHolder<Material> holder =
-                new IdRefHolder<>(material, idRef);
-        this.materialToonIdRefList.add(holder);
+        this.materialToonIdRefList.add(material, idRef);
         return;
     }
 
@@ -139,25 +286,32 @@ void addToonFileIdRef(Material material, String idRef){
      * 共有トゥーンファイルのインデックスを登録する。
      * @param toonFileId ToonファイルID
      * @param idx 共有Toonインデックス
+     * @throws TogaXmlException IDが重複した
      */
-    void addToonIdx(String toonFileId, int idx){
-        this.toonIdxMap.put(toonFileId, idx);
+    void addToonIdx(String toonFileId, int idx) throws TogaXmlException{
+        putUnique(this.toonIdxTable, KIND_TOONFILE, toonFileId, idx);
         return;
     }
 
     /**
      * マテリアルからの共有トゥーンインデックスの参照問題を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveToonIdx(){
-        for(IdRefHolder<Material> holder : this.materialToonIdRefList){
-            Material material = holder.getBody();
-            String toonFileIdRef = holder.getIdRef();
-            int toonIdx = this.toonIdxMap.get(toonFileIdRef);
+    void resolveToonIdx() throws TogaXmlException{
+        IdRefList<Material, Integer> refList = this.materialToonIdRefList;
+
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            Material material = refList.getBody(no);
+            int toonIdx = getTarget(refList, KIND_TOONFILE, no, 0);
 
             ShadeInfo shadeInfo = material.getShadeInfo();
             shadeInfo.setToonIndex(toonIdx);
         }
 
+        refList.release();
+        this.toonIdxTable.release();
+
         return;
     }
 
@@ -165,19 +319,22 @@ void resolveToonIdx(){
      * ボーンIDを登録する。
      * @param boneId ボーンID
      * @param boneInfo ボーン情報
+     * @throws TogaXmlException IDが重複した
      */
-    void addBoneId(String boneId, BoneInfo boneInfo){
-        this.boneIdMap.put(boneId, boneInfo);
+    void addBoneId(String boneId, BoneInfo boneInfo)
+            throws TogaXmlException{
+        putUnique(this.boneIdTable, KIND_BONE, boneId, boneInfo);
         return;
     }
 
     /**
      * ボーンIDを問い合わせる。
      * @param boneId ボーンID
-     * @return ボーン情報
+     * @return ボーン情報。IDがnullならnull
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    BoneInfo findBoneId(String boneId){
-        BoneInfo result = this.boneIdMap.get(boneId);
+    BoneInfo findBoneId(String boneId) throws TogaXmlException{
+        BoneInfo result = find(this.boneIdTable, KIND_BONE, boneId);
         return result;
     }
 
@@ -189,32 +346,34 @@ BoneInfo findBoneId(String boneId){
      */
     void addBoneChain(BoneInfo bone,
                         String prevBoneIdRef, String nextBoneIdRef ){
-        IdRefHolder<BoneInfo> holder =
-                new IdRefHolder<>(bone, prevBoneIdRef, nextBoneIdRef);
-        this.boneChainIdRefList.add(holder);
+        this.boneChainIdRefList.add(bone, prevBoneIdRef, nextBoneIdRef);
         return;
     }
 
     /**
      * ボーン間チェーン参照情報を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveBoneChainIdRef(){
-        for(IdRefHolder<BoneInfo> holder : this.boneChainIdRefList){
-            BoneInfo bone = holder.getBody();
-            String prevBoneIdRef = holder.getIdRef();
-            String nextBoneIdRef = holder.getIdRef2();
-
-            if(prevBoneIdRef != null){
-                BoneInfo prevBone = this.boneIdMap.get(prevBoneIdRef);
+    void resolveBoneChainIdRef() throws TogaXmlException{
+        IdRefList<BoneInfo, BoneInfo> refList = this.boneChainIdRefList;
+
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            BoneInfo bone = refList.getBody(no);
+
+            if( ! refList.isNullRef(no, 0) ){
+                BoneInfo prevBone = getTarget(refList, KIND_BONE, no, 0);
                 bone.setPrevBone(prevBone);
             }
 
-            if(nextBoneIdRef != null){
-                BoneInfo nextBone = this.boneIdMap.get(nextBoneIdRef);
+            if( ! refList.isNullRef(no, 1) ){
+                BoneInfo nextBone = getTarget(refList, KIND_BONE, no, 1);
                 bone.setNextBone(nextBone);
             }
         }
 
+        refList.release();
+
         return;
     }
 
@@ -224,25 +383,28 @@ void resolveBoneChainIdRef(){
      * @param srcBoneIdRef ソースボーンID参照
      */
     void addSrcBoneIdRef(BoneInfo bone, String srcBoneIdRef){
-        IdRefHolder<BoneInfo> holder =
-                new IdRefHolder<>(bone, srcBoneIdRef);
-        this.boneSourceIdRefList.add(holder);
+        this.boneSourceIdRefList.add(bone, srcBoneIdRef);
         return;
     }
 
     /**
      * ボーン情報からのソースボーンID参照を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveSrcBoneIdRef(){
-        for(IdRefHolder<BoneInfo> holder : this.boneSourceIdRefList){
-            BoneInfo bone = holder.getBody();
-            String srcBoneIdRef = holder.getIdRef();
-            if(srcBoneIdRef == null) continue;
+    void resolveSrcBoneIdRef() throws TogaXmlException{
+        IdRefList<BoneInfo, BoneInfo> refList = this.boneSourceIdRefList;
 
-            BoneInfo srcBone = this.boneIdMap.get(srcBoneIdRef);
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            if(refList.isNullRef(no, 0)) continue;
+
+            BoneInfo bone = refList.getBody(no);
+            BoneInfo srcBone = getTarget(refList, KIND_BONE, no, 0);
             bone.setSrcBone(srcBone);
         }
 
+        refList.release();
+
         return;
     }
 
@@ -252,9 +414,7 @@ void resolveSrcBoneIdRef(){
      * @param vertexIdRef 頂点ID参照
      */
     void addMorphVertexIdRef(MorphVertex morphVertex, String vertexIdRef){
-        IdRefHolder<MorphVertex> holder =
-                new IdRefHolder<>(morphVertex, vertexIdRef);
-        this.morphVertexIdRefList.add(holder);
+        this.morphVertexIdRefList.add(morphVertex, vertexIdRef);
         return;
     }
 
@@ -262,19 +422,22 @@ void addMorphVertexIdRef(MorphVertex morphVertex, String vertexIdRef){
      * 剛体IDを登録する。
      * @param rigidId 剛体ID
      * @param rigid 剛体情報
+     * @throws TogaXmlException IDが重複した
      */
-    void addRigidId(String rigidId, RigidInfo rigid){
-        this.rigidIdMap.put(rigidId, rigid);
+    void addRigidId(String rigidId, RigidInfo rigid)
+            throws TogaXmlException{
+        putUnique(this.rigidIdTable, KIND_RIGID, rigidId, rigid);
         return;
     }
 
     /**
      * 剛体IDを問い合わせる。
      * @param rigidId 剛体ID
-     * @return 剛体情報
+     * @return 剛体情報。IDがnullならnull
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    RigidInfo findRigidId(String rigidId){
-        RigidInfo result = this.rigidIdMap.get(rigidId);
+    RigidInfo findRigidId(String rigidId) throws TogaXmlException{
+        RigidInfo result = find(this.rigidIdTable, KIND_RIGID, rigidId);
         return result;
     }
 
@@ -284,9 +447,7 @@ RigidInfo findRigidId(String rigidId){
      * @param rigidGroupIdRef 剛体グループID参照
      */
     void addThroughRigidGroupIdRef(RigidInfo rigid, String rigidGroupIdRef){
-        IdRefHolder<RigidInfo> holder =
-                new IdRefHolder<>(rigid, rigidGroupIdRef);
-        this.thghRigidGroupIdRefList.add(holder);
+        this.thghRigidGroupIdRefList.add(rigid, rigidGroupIdRef);
         return;
     }
 
@@ -294,26 +455,36 @@ void addThroughRigidGroupIdRef(RigidInfo rigid, String rigidGroupIdRef){
      * 剛体グループIDを登録する。
      * @param rigidGroupId 剛体グループID
      * @param rigidGroup 剛体グループ
+     * @throws TogaXmlException IDが重複した
      */
-    void addRigidGroupId(String rigidGroupId, RigidGroup rigidGroup){
-        this.rigidGroupIdMap.put(rigidGroupId, rigidGroup);
+    void addRigidGroupId(String rigidGroupId, RigidGroup rigidGroup)
+            throws TogaXmlException{
+        putUnique(this.rigidGroupIdTable, KIND_RIGIDGROUP,
+                  rigidGroupId, rigidGroup);
         return;
     }
 
     /**
      * 剛体グループID参照を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveThroughRigidGroupIdRef(){
-        for(IdRefHolder<RigidInfo> holder : this.thghRigidGroupIdRefList){
-            RigidInfo rigid = holder.getBody();
-            String rigidGroupIdRef = holder.getIdRef();
-            RigidGroup group = this.rigidGroupIdMap.get(rigidGroupIdRef);
+    void resolveThroughRigidGroupIdRef() throws TogaXmlException{
+        IdRefList<RigidInfo, RigidGroup> refList =
+                this.thghRigidGroupIdRefList;
+
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            RigidInfo rigid = refList.getBody(no);
+            RigidGroup group = getTarget(refList, KIND_RIGIDGROUP, no, 0);
 
             Collection<RigidGroup> throughGroups =
                     rigid.getThroughGroupColl();
             throughGroups.add(group);
         }
 
+        refList.release();
+        this.rigidGroupIdTable.release();
+
         return;
     }
 
@@ -328,151 +499,106 @@ void addSurfaceVertex(Surface surface,
                             String vtxIdRef1,
                             String vtxIdRef2,
                             String vtxIdRef3 ){
-        IdRefHolder<Surface> holder =
-                new IdRefHolder<>(surface,
-                                  vtxIdRef1,
-                                  vtxIdRef2,
-                                  vtxIdRef3 );
-
-        this.surfaceVertexIdRef.add(holder);
-
+        this.surfaceVertexIdRefList.add(surface,
+                                        vtxIdRef1,
+                                        vtxIdRef2,
+                                        vtxIdRef3 );
         return;
     }
 
     /**
      * 頂点IDを登録する。
+     *
+     * <p>最初の登録時に、登録済みの頂点ID参照から
+     * 頂点数を見積もりテーブルを事前に拡張する。
+     *
      * @param vertexId 頂点ID
      * @param vertex 頂点
+     * @throws TogaXmlException IDが重複した
      */
-    void addVertexId(String vertexId, Vertex vertex){
-        this.vertexIdMap.put(vertexId, vertex);
+    void addVertexId(String vertexId, Vertex vertex)
+            throws TogaXmlException{
+        if( ! this.vertexPresized ){
+            presizeVertexIdTable();
+            this.vertexPresized = true;
+        }
+
+        putUnique(this.vertexIdTable, KIND_VERTEX, vertexId, vertex);
+
         return;
     }
 
     /**
-     * モーフ頂点からの頂点ID参照を解決する。
+     * 登録済みの頂点ID参照から頂点数を見積もり、
+     * 頂点IDテーブルを事前に拡張する。
+     *
+     * <p>見積もりは参照IDの総数を超えない。
      */
-    void resolveMorphVertexIdRef(){
-        for(IdRefHolder<MorphVertex> holder : this.morphVertexIdRefList){
-            MorphVertex morphVertex = holder.getBody();
-            String vertexIdRef = holder.getIdRef();
-            Vertex vertex = this.vertexIdMap.get(vertexIdRef);
+    private void presizeVertexIdTable(){
+        int maxIdx = Math.max(this.surfaceVertexIdRefList.getMaxIndex(),
+                              this.morphVertexIdRefList.getMaxIndex() );
+        if(maxIdx < 0) return;
 
-            morphVertex.setBaseVertex(vertex);
-        }
+        long refs = this.surfaceVertexIdRefList.size() * 3L
+                  + this.morphVertexIdRefList.size();
+        long estimate = Math.min((long) maxIdx + 1L, refs);
+
+        this.vertexIdTable.ensureCapacity((int) estimate);
 
         return;
     }
 
     /**
-     * サーフェイスからの頂点ID参照を解決する。
+     * モーフ頂点からの頂点ID参照を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    void resolveSurfaceVertexIdRef(){
-        for(IdRefHolder<Surface> holder : this.surfaceVertexIdRef){
-            Surface surface = holder.getBody();
-            String vertexIdRef1 = holder.getIdRef();
-            String vertexIdRef2 = holder.getIdRef2();
-            String vertexIdRef3 = holder.getIdRef3();
+    void resolveMorphVertexIdRef() throws TogaXmlException{
+        IdRefList<MorphVertex, Vertex> refList = this.morphVertexIdRefList;
 
-            Vertex vtx1 = this.vertexIdMap.get(vertexIdRef1);
-            Vertex vtx2 = this.vertexIdMap.get(vertexIdRef2);
-            Vertex vtx3 = this.vertexIdMap.get(vertexIdRef3);
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            MorphVertex morphVertex = refList.getBody(no);
+            Vertex vertex = getTarget(refList, KIND_VERTEX, no, 0);
 
-            surface.setTriangle(vtx1, vtx2, vtx3);
+            morphVertex.setBaseVertex(vertex);
         }
 
+        refList.release();
+
         return;
     }
 
     /**
-     * ID参照解決用一時ホルダ。
-     * 必要に応じて参照IDを3つまで持てる。
-     * @param <E> ID参照元インスタンス型
+     * サーフェイスからの頂点ID参照を解決する。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
-    private static final class IdRefHolder<E> {
-
-        private final E body;
-
-        private final String idRef;
-        private final String idRef2;
-        private final String idRef3;
-
-        /**
-         * コンストラクタ。
-         * @param body ID参照元インスタンス
-         * @param idRef 参照ID
-         */
-        IdRefHolder(E body, String idRef){
-            this(body, idRef, null, null);
-            return;
-        }
+    void resolveSurfaceVertexIdRef() throws TogaXmlException{
+        IdRefList<Surface, Vertex> refList = this.surfaceVertexIdRefList;
 
-        /**
-         * コンストラクタ。
-         * @param body ID参照元インスタンス
-         * @param idRef 参照ID
-         * @param idRef2 参照IDその2
-         */
-        IdRefHolder(E body, String idRef, String idRef2){
-            this(body, idRef, idRef2, null);
-            return;
-        }
-
-        /**
-         * コンストラクタ。
-         * @param body ID参照元インスタンス
-         * @param idRef  参照ID
-         * @param idRef2 参照IDその2
-         * @param idRef3 参照IDその3
-         */
-        IdRefHolder(E body,
-                      String idRef,
-                      String idRef2,
-                      String idRef3 ){
-            super();
-
-            this.body = body;
-
-            this.idRef  = idRef;
-            this.idRef2 = idRef2;
-            this.idRef3 = idRef3;
-
-            return;
-        }
+        int size = refList.size();
+        for(int no = 0; no < size; no++){
+            Surface surface = refList.getBody(no);
 
+            Vertex vtx1 = getTarget(refList, KIND_VERTEX, no, 0);
+            Vertex vtx2 = getTarget(refList, KIND_VERTEX, no, 1);
+            Vertex vtx3 = getTarget(refList, KIND_VERTEX, no, 2);
 
-        /**
-         * ID参照元インスタンスを返す。
-         * @return ID参照元インスタンス
-         */
-        private E getBody(){
-            return this.body;
+            surface.setTriangle(vtx1, vtx2, vtx3);
         }
 
-        /**
-         * 参照IDを返す。
-         * @return 参照ID
-         */
-        private String getIdRef(){
-            return this.idRef;
-        }
+        refList.release();
 
-        /**
-         * 参照IDその2を返す。
-         * @return 参照ID
-         */
-        private String getIdRef2(){
-            return this.idRef2;
-        }
-
-        /**
-         * 参照IDその3を返す。
-         * @return 参照ID
-         */
-        private String getIdRef3(){
-            return this.idRef3;
-        }
+        return;
+    }
 
+    /**
+     * 頂点IDテーブルを解放する。
+     *
+     * <p>頂点ID参照を全て解決した後に呼ばれなければならない。
+     */
+    void releaseVertexId(){
+        this.vertexIdTable.release();
+        return;
     }
 
 }
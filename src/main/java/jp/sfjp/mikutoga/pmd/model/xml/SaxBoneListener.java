@@ -12,9 +12,12 @@
 import jp.sfjp.mikutoga.math.MkPos3D;
 import jp.sfjp.mikutoga.pmd.BoneType;
 import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.BoneIndex;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
 import jp.sfjp.mikutoga.pmd.model.IKChain;
 import jp.sfjp.mikutoga.pmd.model.ListUtil;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /*
     + boneList
@@ -61,9 +64,10 @@ class SaxBoneListener extends SaxListener{
 
     /**
      * boneInfoタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.BONE)
-    void openBoneInfo(){
+    void openBoneInfo() throws TogaXmlException{
         this.currentBone = new BoneInfo();
 
         String nameAttr = getStringAttr(PmdAttr.NAME);
@@ -117,9 +121,10 @@ void openI18nText(){
 
     /**
      * boneListタグ終了の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @CloseXmlMark(PmdTag.BONE_LIST)
-    void closeBoneList(){
+    void closeBoneList() throws TogaXmlException{
         this.helper.resolveSrcBoneIdRef();
         this.helper.resolveBoneChainIdRef();
 
@@ -131,9 +136,10 @@ void closeBoneList(){
 
     /**
      * positionタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.POSITION)
-    void openPosition(){
+    void openPosition() throws TogaXmlException{
         float x = getFloatAttr(PmdAttr.X);
         float y = getFloatAttr(PmdAttr.Y);
         float z = getFloatAttr(PmdAttr.Z);
@@ -146,9 +152,10 @@ void openPosition(){
 
     /**
      * rotationRatioタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.ROTATION_RATIO)
-    void openRotationRatio(){
+    void openRotationRatio() throws TogaXmlException{
         int ratio = getIntAttr(PmdAttr.RATIO);
         this.currentBone.setRotationRatio(ratio);
         return;
@@ -207,11 +214,20 @@ void openBoneGroupList(){
 
     /**
      * boneGroupListタグ終了の通知を受け取る。
+     *
+     * <p>所属グループの無いボーンはデフォルトボーングループへ登録される。
      */
     @CloseXmlMark(PmdTag.BONE_GROUP_LIST)
     void closeBoneGroupList(){
-        List<BoneGroup> boneGroupList = getPmdModel().getBoneGroupList();
+        PmdModel model = getPmdModel();
+        List<BoneGroup> boneGroupList = model.getBoneGroupList();
         ListUtil.assignIndexedSerial(boneGroupList);
+
+        BoneIndex index = BoneIndex.build(model);
+        BoneGroup defaultGroup = boneGroupList.get(0);
+        assert defaultGroup.isDefaultBoneGroup();
+        defaultGroup.getBoneList().addAll(index.getUngroupedBones());
+
         return;
     }
 
@@ -244,9 +260,10 @@ void closeBoneGroup(){
 
     /**
      * boneGroupMemberタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.BONE_GROUP_MEMBER)
-    void openBoneGroupMember(){
+    void openBoneGroupMember() throws TogaXmlException{
         String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
 
         BoneInfo bone = this.helper.findBoneId(boneIdRef);
@@ -259,9 +276,10 @@ void openBoneGroupMember(){
 
     /**
      * ikChainタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.IK_CHAIN)
-    void openIkChain(){
+    void openIkChain() throws TogaXmlException{
         this.currentIkChain = new IKChain();
 
         String ikBoneIdRef = getStringAttr(PmdAttr.IK_BONE_IDREF);
@@ -292,9 +310,10 @@ void closeIkChain(){
 
     /**
      * chainOrderタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.CHAIN_ORDER)
-    void openChainOrder(){
+    void openChainOrder() throws TogaXmlException{
         String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
         BoneInfo bone = this.helper.findBoneId(boneIdRef);
 
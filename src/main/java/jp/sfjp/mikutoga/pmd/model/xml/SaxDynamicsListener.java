@@ -22,6 +22,7 @@
 import jp.sfjp.mikutoga.pmd.model.RigidGroup;
 import jp.sfjp.mikutoga.pmd.model.RigidInfo;
 import jp.sfjp.mikutoga.pmd.model.RigidShape;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /*
     + rigidList
@@ -85,9 +86,10 @@ void closeRigidList(){
 
     /**
      * rigidタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.RIGID)
-    void openRigid(){
+    void openRigid() throws TogaXmlException{
         this.currentRigid = new RigidInfo();
 
         String name = getStringAttr(PmdAttr.NAME);
@@ -142,9 +144,10 @@ void openI18nText(){
 
     /**
      * linkedBoneタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.LINKED_BONE)
-    void openLinkedBone(){
+    void openLinkedBone() throws TogaXmlException{
         String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
         BoneInfo linkedBone = this.helper.findBoneId(boneIdRef);
         this.currentRigid.setLinkedBone(linkedBone);
@@ -154,9 +157,10 @@ void openLinkedBone(){
 
     /**
      * rigidShapeSphereタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.RIGID_SHAPE_SPHERE)
-    void openRigidShapeSphere(){
+    void openRigidShapeSphere() throws TogaXmlException{
         RigidShape shape = this.currentRigid.getRigidShape();
 
         shape.setShapeType(RigidShapeType.SPHERE);
@@ -169,9 +173,10 @@ void openRigidShapeSphere(){
 
     /**
      * rigidShapeBoxタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.RIGID_SHAPE_BOX)
-    void openRigidShapeBox(){
+    void openRigidShapeBox() throws TogaXmlException{
         RigidShape shape = this.currentRigid.getRigidShape();
 
         shape.setShapeType(RigidShapeType.BOX);
@@ -189,9 +194,10 @@ void openRigidShapeBox(){
 
     /**
      * rigidShapeCapsuleタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.RIGID_SHAPE_CAPSULE)
-    void openRigidShapeCapsule(){
+    void openRigidShapeCapsule() throws TogaXmlException{
         RigidShape shape = this.currentRigid.getRigidShape();
 
         shape.setShapeType(RigidShapeType.CAPSULE);
@@ -207,9 +213,10 @@ void openRigidShapeCapsule(){
 
     /**
      * positionタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.POSITION)
-    void openPosition(){
+    void openPosition() throws TogaXmlException{
         MkPos3D pos;
         if(this.currentRigid != null){
             pos = this.currentRigid.getPosition();
@@ -231,9 +238,10 @@ void openPosition(){
 
     /**
      * radRotationタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.RAD_ROTATION)
-    void openRadRotation(){
+    void openRadRotation() throws TogaXmlException{
         Rad3d rad;
         if(this.currentRigid != null){
             rad = this.currentRigid.getRotation();
@@ -257,9 +265,10 @@ void openRadRotation(){
 
     /**
      * dynamicsタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.DYNAMICS)
-    void openDynamics(){
+    void openDynamics() throws TogaXmlException{
 
         float mass            = getFloatAttr(PmdAttr.MASS);
         float dampingPosition = getFloatAttr(PmdAttr.DAMPING_POSITION);
@@ -294,9 +303,10 @@ void openThroughRigidGroup(){
 
     /**
      * rigidGroupタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.RIGID_GROUP)
-    void openRigidGroup(){
+    void openRigidGroup() throws TogaXmlException{
         RigidGroup rigidGroup = new RigidGroup();
         this.currentRigidGroup = rigidGroup;
 
@@ -322,9 +332,10 @@ void closeRigidGroup(){
 
     /**
      * rigidGroupMemberタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.RIGID_GROUP_MEMBER)
-    void openRigidGroupMember(){
+    void openRigidGroupMember() throws TogaXmlException{
         String rigidIdRef = getStringAttr(PmdAttr.RIGID_IDREF);
 
         RigidInfo member = this.helper.findRigidId(rigidIdRef);
@@ -339,9 +350,10 @@ void openRigidGroupMember(){
     /**
      * rigidGroupListタグ終了の通知を受け取る。
      * 剛体グループ総数が定員に満たない場合は自動追加される。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @CloseXmlMark(PmdTag.RIGID_GROUP_LIST)
-    void closeRigidGroupList(){
+    void closeRigidGroupList() throws TogaXmlException{
 
         this.helper.resolveThroughRigidGroupIdRef();
 
@@ -386,9 +398,10 @@ void closeJoint(){
 
     /**
      * jointedRigidPairタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @OpenXmlMark(PmdTag.JOINTED_RIGID_PAIR)
-    void openJointedRigidPair(){
+    void openJointedRigidPair() throws TogaXmlException{
         String rigidIdRef1 = getStringAttr(PmdAttr.RIGID_IDREF_1);
         String rigidIdRef2 = getStringAttr(PmdAttr.RIGID_IDREF_2);
 
@@ -402,9 +415,10 @@ void openJointedRigidPair(){
 
     /**
      * limitPositionタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.LIMIT_POSITION)
-    void openLimitPosition(){
+    void openLimitPosition() throws TogaXmlException{
         float xFrom = getFloatAttr(PmdAttr.X_FROM);
         float xTo   = getFloatAttr(PmdAttr.X_TO);
 
@@ -424,9 +438,10 @@ void openLimitPosition(){
 
     /**
      * limitRotationタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.LIMIT_ROTATION)
-    void openLimitRotation(){
+    void openLimitRotation() throws TogaXmlException{
         float xFrom = getFloatAttr(PmdAttr.X_FROM);
         float xTo   = getFloatAttr(PmdAttr.X_TO);
 
@@ -446,9 +461,10 @@ void openLimitRotation(){
 
     /**
      * elasticPositionタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.ELASTIC_POSITION)
-    void openElasticPosition(){
+    void openElasticPosition() throws TogaXmlException{
         float x = getFloatAttr(PmdAttr.X);
         float y = getFloatAttr(PmdAttr.Y);
         float z = getFloatAttr(PmdAttr.Z);
@@ -461,9 +477,10 @@ void openElasticPosition(){
 
     /**
      * elasticRotationタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.ELASTIC_ROTATION)
-    void openElasticRotation(){
+    void openElasticRotation() throws TogaXmlException{
         float xDeg = getFloatAttr(PmdAttr.X_DEG);
         float yDeg = getFloatAttr(PmdAttr.Y_DEG);
         float zDeg = getFloatAttr(PmdAttr.Z_DEG);
@@ -8,28 +8,71 @@
 package jp.sfjp.mikutoga.pmd.model.xml;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.EnumMap;
 import java.util.LinkedList;
-import java.util.Map;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
 import jp.sfjp.mikutoga.xml.DatatypeIo;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 import org.xml.sax.Attributes;
 
 /**
  * XML要素出現の通知受信部の共通実装。
+ *
+ * <p>注釈でマークされたメソッド群から、
+ * タグ種別の序数で引けるディスパッチテーブルが
+ * リスナクラスごとに一度だけ構築される。
+ *
+ * <p>同種の要素は同じ並びの属性を持つことが多いため、
+ * 属性の位置は属性名ごとに記憶され、
+ * 次回以降は名前の照合のみで位置を引ける。
+ *
+ * <p>スキーマ検証を経ない入力に備え、
+ * 必須属性の欠落や不正な属性値は要素名と属性名を添えた
+ * {@link TogaXmlException}として報告される。
  */
 class SaxListener {
 
-    private final Map<PmdTag, Method> openDispatcher;
-    private final Map<PmdTag, Method> closeDispatcher;
+    private static final String ERRMSG_NOATTR =
+            "Missing attribute \"{1}\" in element <{0}>";
+    private static final String ERRMSG_INVATTR =
+            "Invalid attribute value {1}=\"{2}\" in element <{0}>";
+
+    private static final MethodType DISPATCH_TYPE =
+            MethodType.methodType(void.class, SaxListener.class);
+
+    private static final ClassValue<MethodHandle[]> OPEN_TABLES =
+            new ClassValue<MethodHandle[]>(){
+                @Override
+                protected MethodHandle[] computeValue(Class<?> klass){
+                    return buildDispatcher(klass, OpenXmlMark.class);
+                }
+            };
+
+    private static final ClassValue<MethodHandle[]> CLOSE_TABLES =
+            new ClassValue<MethodHandle[]>(){
+                @Override
+                protected MethodHandle[] computeValue(Class<?> klass){
+                    return buildDispatcher(klass, CloseXmlMark.class);
+                }
+            };
+
+
+    private final MethodHandle[] openDispatcher;
+    private final MethodHandle[] closeDispatcher;
 
     private PmdModel pmdModel = null;
+    private PmdTag currentTag = null;
     private Attributes currentAttribute = null;
 
+    private final int[] attrIndexCache = new int[PmdAttr.values().length];
+
 
     /**
      * コンストラクタ。
@@ -38,8 +81,10 @@ protected SaxListener(){
         super();
 
         Class<?> thisClass = this.getClass();
-        this.openDispatcher  = getOpenDispatcher(thisClass);
-        this.closeDispatcher = getCloseDispatcher(thisClass);
+        this.openDispatcher  = OPEN_TABLES.get(thisClass);
+        this.closeDispatcher = CLOSE_TABLES.get(thisClass);
+
+        Arrays.fill(this.attrIndexCache, -1);
 
         return;
     }
@@ -71,38 +116,55 @@ private static Collection<Method> filtMethod(Class<?> klass,
     }
 
     /**
-     * 注釈でマークされた開始タグ通知用ディスパッチテーブルを返す。
-     * @param klass 対象クラス
-     * @return ディスパッチテーブル
+     * メソッドにマークされた注釈からタグ種別を得る。
+     * @param method メソッド
+     * @param filter 注釈
+     * @return タグ種別
      */
-    private static Map<PmdTag, Method> getOpenDispatcher(Class<?> klass){
-        Map<PmdTag, Method> result =
-                new EnumMap<>(PmdTag.class);
-
-        for(Method method : filtMethod(klass, OpenXmlMark.class)){
-            Annotation anno = method.getAnnotation(OpenXmlMark.class);
-            OpenXmlMark mark = (OpenXmlMark) anno;
-            PmdTag tag = mark.value();
-            result.put(tag, method);
+    private static PmdTag getMarkedTag(Method method,
+                                       Class<? extends Annotation> filter ){
+        PmdTag result;
+
+        if(filter == OpenXmlMark.class){
+            OpenXmlMark mark = method.getAnnotation(OpenXmlMark.class);
+            result = mark.value();
+        }else if(filter == CloseXmlMark.class){
+            CloseXmlMark mark = method.getAnnotation(CloseXmlMark.class);
+            result = mark.value();
+        }else{
+            assert false;
+            throw new AssertionError();
         }
 
         return result;
     }
 
     /**
-     * 注釈でマークされた終了タグ通知用ディスパッチテーブルを返す。
+     * 注釈でマークされたメソッド群からディスパッチテーブルを構築する。
+     * テーブルはタグ種別の序数で索引付けされる。
      * @param klass 対象クラス
+     * @param filter 注釈
      * @return ディスパッチテーブル
      */
-    private static Map<PmdTag, Method> getCloseDispatcher(Class<?> klass){
-        Map<PmdTag, Method> result =
-                new EnumMap<>(PmdTag.class);
+    private static MethodHandle[] buildDispatcher(
+            Class<?> klass, Class<? extends Annotation> filter ){
+        MethodHandle[] result = new MethodHandle[PmdTag.values().length];
 
-        for(Method method : filtMethod(klass, CloseXmlMark.class)){
-            Annotation anno = method.getAnnotation(CloseXmlMark.class);
-            CloseXmlMark mark = (CloseXmlMark) anno;
-            PmdTag tag = mark.value();
-            result.put(tag, method);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        for(Method method : filtMethod(klass, filter)){
+            PmdTag tag = getMarkedTag(method, filter);
+
+            MethodHandle handle;
+            try{
+                handle = lookup.unreflect(method);
+            }catch(IllegalAccessException e){
+                assert false;
+                throw new AssertionError(e);
+            }
+            handle = handle.asType(DISPATCH_TYPE);
+
+            result[tag.ordinal()] = handle;
         }
 
         return result;
@@ -111,25 +173,23 @@ private static Map<PmdTag, Method> getCloseDispatcher(Class<?> klass){
 
     /**
      * ディスパッチテーブルに従いディスパッチする。
-     * @param map ディスパッチテーブル
+     * @param table ディスパッチテーブル
      * @param tag タグ種
      * @return ディスパッチが行われなければfalse
+     * @throws TogaXmlException 構造上の不整合を検出した
      */
-    private boolean dispatch(Map<PmdTag, Method> map, PmdTag tag){
-        Method method = map.get(tag);
-        if(method == null) return false;
+    private boolean dispatch(MethodHandle[] table, PmdTag tag)
+            throws TogaXmlException{
+        MethodHandle handle = table[tag.ordinal()];
+        if(handle == null) return false;
 
         try{
-            method.invoke(this);
-        }catch(IllegalAccessException ex){
+            handle.invokeExact(this);
+        }catch(RuntimeException | Error | TogaXmlException e){
+            throw e;
+        }catch(Throwable e){
             assert false;
-        }catch(InvocationTargetException ex){
-            Throwable cause = ex.getTargetException();
-            if(cause instanceof RuntimeException){
-                throw (RuntimeException) cause;
-            }else if(cause instanceof Error){
-                throw (Error) cause;
-            }
+            throw new AssertionError(e);
         }
 
         return true;
@@ -140,8 +200,11 @@ private boolean dispatch(Map<PmdTag, Method> map, PmdTag tag){
      * @param tag タグ種別
      * @param attr 属性群
      * @return ディスパッチが行われなければfalse
+     * @throws TogaXmlException 構造上の不整合を検出した
      */
-    boolean openDispatch(PmdTag tag, Attributes attr){
+    boolean openDispatch(PmdTag tag, Attributes attr)
+            throws TogaXmlException{
+        this.currentTag = tag;
         this.currentAttribute = attr;
         return dispatch(this.openDispatcher, tag);
     }
@@ -150,8 +213,9 @@ boolean openDispatch(PmdTag tag, Attributes attr){
      * 終了タグ登場を通知する。
      * @param tag タグ種別
      * @return ディスパッチが行われなければfalse
+     * @throws TogaXmlException 構造上の不整合を検出した
      */
-    boolean closeDispatch(PmdTag tag){
+    boolean closeDispatch(PmdTag tag) throws TogaXmlException{
         return dispatch(this.closeDispatcher, tag);
     }
 
@@ -184,6 +248,39 @@ protected PmdModel getPmdModel(){
         return this.pmdModel;
     }
 
+    /**
+     * 現在の属性群における属性の位置を返す。
+     * @param attr 属性名
+     * @return 属性の位置。該当する属性が無ければ負の値。
+     */
+    private int indexOfAttr(PmdAttr attr){
+        Attributes attrs = this.currentAttribute;
+        String attrName = attr.attr();
+        int ordinal = attr.ordinal();
+
+        int idx = this.attrIndexCache[ordinal];
+        if(0 <= idx && idx < attrs.getLength()){
+            if(attrName.equals(attrs.getQName(idx))) return idx;
+        }
+
+        idx = attrs.getIndex(attrName);
+        if(idx >= 0) this.attrIndexCache[ordinal] = idx;
+
+        return idx;
+    }
+
+    /**
+     * 属性値の文字列を得る。
+     * @param attr 属性名
+     * @return 属性値。該当する属性が無ければnull。
+     */
+    private String getAttrValue(PmdAttr attr){
+        int idx = indexOfAttr(attr);
+        if(idx < 0) return null;
+        String result = this.currentAttribute.getValue(idx);
+        return result;
+    }
+
     /**
      * xsd:string型属性値の読み込み。
      * @param attr 属性名
@@ -191,8 +288,42 @@ protected PmdModel getPmdModel(){
      * @see "http://www.w3.org/TR/xmlschema-2/#string"
      */
     protected String getStringAttr(PmdAttr attr){
-        String attrName = attr.attr();
-        String result = this.currentAttribute.getValue(attrName);
+        String result = getAttrValue(attr);
+        return result;
+    }
+
+    /**
+     * 必須属性値の文字列を得る。
+     * @param attr 属性名
+     * @return 属性値
+     * @throws TogaXmlException 属性が無い
+     */
+    private String getRequiredAttr(PmdAttr attr) throws TogaXmlException{
+        String result = getAttrValue(attr);
+        if(result == null){
+            String errMsg = MessageFormat.format(ERRMSG_NOATTR,
+                                                 this.currentTag.tag(),
+                                                 attr.attr() );
+            throw new TogaXmlException(errMsg);
+        }
+        return result;
+    }
+
+    /**
+     * 不正な属性値の例外を生成する。
+     * @param attr 属性名
+     * @param value 属性値
+     * @param cause 原因
+     * @return 例外
+     */
+    private TogaXmlException invalidAttr(PmdAttr attr,
+                                         String value,
+                                         Throwable cause ){
+        String errMsg = MessageFormat.format(ERRMSG_INVATTR,
+                                             this.currentTag.tag(),
+                                             attr.attr(),
+                                             value );
+        TogaXmlException result = new TogaXmlException(errMsg, cause);
         return result;
     }
 
@@ -200,15 +331,18 @@ protected String getStringAttr(PmdAttr attr){
      * xsd:boolean型属性値の読み込み。
      * @param attr 属性名
      * @return 属性値。
-     * @throws IllegalArgumentException boolean型表記ではない
+     * @throws TogaXmlException 属性が無いもしくはboolean型表記ではない
      * @see "http://www.w3.org/TR/xmlschema-2/#boolean"
      */
     protected boolean getBooleanAttr(PmdAttr attr)
-            throws IllegalArgumentException{
-        String attrName = attr.attr();
-        String attrVal = this.currentAttribute.getValue(attrName);
+            throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
         boolean bVal;
-        bVal = DatatypeIo.parseBoolean(attrVal);
+        try{
+            bVal = DatatypeIo.parseBoolean(attrVal);
+        }catch(IllegalArgumentException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
         return bVal;
     }
 
@@ -216,15 +350,18 @@ protected boolean getBooleanAttr(PmdAttr attr)
      * xsd:float型属性値の読み込み。
      * @param attr 属性名
      * @return 属性値。
-     * @throws NumberFormatException float型表記ではない
+     * @throws TogaXmlException 属性が無いもしくはfloat型表記ではない
      * @see "http://www.w3.org/TR/xmlschema-2/#float"
      */
     protected float getFloatAttr(PmdAttr attr)
-            throws NumberFormatException {
-        String attrName = attr.attr();
-        String attrVal = this.currentAttribute.getValue(attrName);
+            throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
         float fVal;
-        fVal = DatatypeIo.parseFloat(attrVal);
+        try{
+            fVal = XsdNumParser.parseFloat(attrVal);
+        }catch(NumberFormatException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
         return fVal;
     }
 
@@ -232,15 +369,18 @@ protected float getFloatAttr(PmdAttr attr)
      * xsd:int型属性値の読み込み。
      * @param attr 属性名
      * @return 属性値。
-     * @throws NumberFormatException int型表記ではない
+     * @throws TogaXmlException 属性が無いもしくはint型表記ではない
      * @see "http://www.w3.org/TR/xmlschema-2/#int"
      */
     protected int getIntAttr(PmdAttr attr)
-            throws NumberFormatException {
-        String attrName = attr.attr();
-        String attrVal = this.currentAttribute.getValue(attrName);
+            throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
         int iVal;
-        iVal = DatatypeIo.parseInt(attrVal);
+        try{
+            iVal = XsdNumParser.parseInt(attrVal);
+        }catch(NumberFormatException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
         return iVal;
     }
 
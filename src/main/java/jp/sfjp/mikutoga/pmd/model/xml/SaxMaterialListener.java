@@ -13,6 +13,7 @@
 import jp.sfjp.mikutoga.pmd.model.Material;
 import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
 import jp.sfjp.mikutoga.pmd.model.ToonMap;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /*
     + materialList
@@ -72,9 +73,10 @@ private static String xferBslash(String txt){
 
     /**
      * materialタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.MATERIAL)
-    void openMaterial(){
+    void openMaterial() throws TogaXmlException{
         this.currentMaterial = new Material();
 
         String name = getStringAttr(PmdAttr.NAME);
@@ -125,9 +127,10 @@ void openI18nText(){
 
     /**
      * diffuseタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.DIFFUSE)
-    void openDiffuse(){
+    void openDiffuse() throws TogaXmlException{
         float rCol = getFloatAttr(PmdAttr.R);
         float gCol = getFloatAttr(PmdAttr.G);
         float bCol = getFloatAttr(PmdAttr.B);
@@ -142,9 +145,10 @@ void openDiffuse(){
 
     /**
      * specularタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.SPECULAR)
-    void openSpecular(){
+    void openSpecular() throws TogaXmlException{
         float rCol = getFloatAttr(PmdAttr.R);
         float gCol = getFloatAttr(PmdAttr.G);
         float bCol = getFloatAttr(PmdAttr.B);
@@ -160,9 +164,10 @@ void openSpecular(){
 
     /**
      * ambientタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.AMBIENT)
-    void openAmbient(){
+    void openAmbient() throws TogaXmlException{
         float rCol = getFloatAttr(PmdAttr.R);
         float gCol = getFloatAttr(PmdAttr.G);
         float bCol = getFloatAttr(PmdAttr.B);
@@ -216,9 +221,10 @@ void openSphemapFile(){
 
     /**
      * toonDefタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.TOON_DEF)
-    void openToonDef(){
+    void openToonDef() throws TogaXmlException{
         String toonFileId = getStringAttr(PmdAttr.TOONFILE_ID);
         int index         = getIntAttr(PmdAttr.INDEX);
         String fileName   = getStringAttr(PmdAttr.WINFILE_NAME);
@@ -234,9 +240,10 @@ void openToonDef(){
 
     /**
      * toonMapタグ終了の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @CloseXmlMark(PmdTag.TOON_MAP)
-    void closeToonMap(){
+    void closeToonMap() throws TogaXmlException{
         this.helper.resolveToonIdx();
         return;
     }
@@ -16,6 +16,7 @@
 import jp.sfjp.mikutoga.pmd.model.ListUtil;
 import jp.sfjp.mikutoga.pmd.model.MorphPart;
 import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /*
     + morphList
@@ -120,9 +121,10 @@ void openI18nText(){
 
     /**
      * morphVertexタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.MORPH_VERTEX)
-    void openMorphVertex(){
+    void openMorphVertex() throws TogaXmlException{
         MorphVertex morphVertex = new MorphVertex();
 
         String vertexIdRef = getStringAttr(PmdAttr.VERTEX_IDREF);
@@ -7,14 +7,14 @@
 
 package jp.sfjp.mikutoga.pmd.model.xml;
 
+import java.text.MessageFormat;
 import java.util.List;
-import jp.sfjp.mikutoga.math.MkPos2D;
-import jp.sfjp.mikutoga.math.MkPos3D;
-import jp.sfjp.mikutoga.math.MkVec3D;
 import jp.sfjp.mikutoga.pmd.model.BoneInfo;
 import jp.sfjp.mikutoga.pmd.model.ListUtil;
 import jp.sfjp.mikutoga.pmd.model.Surface;
 import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 
 /*
     + surfaceGroupList
@@ -33,6 +33,10 @@
  */
 class SaxShapeListener extends SaxListener{
 
+    private static final String ERRMSG_WEIGHT =
+            "weightBalance out of range(0-100) : {0}";
+
+
     private final RefHelper helper;
 
     private String currentSurfaceGroupId = null;
@@ -52,21 +56,25 @@ class SaxShapeListener extends SaxListener{
 
     /**
      * surfaceGroupListタグ終了の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @CloseXmlMark(PmdTag.SURFACE_GROUP_LIST)
-    void closeSurfaceGroupList(){
+    void closeSurfaceGroupList() throws TogaXmlException{
         this.helper.resolveMaterialSurfaceGroupId();
         return;
     }
 
     /**
      * surfaceGroupタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.SURFACE_GROUP)
-    void openSurfaceGroup(){
+    void openSurfaceGroup() throws TogaXmlException{
         String surfaceGroupId = getStringAttr(PmdAttr.SURFACE_GROUP_ID);
         this.currentSurfaceGroupId = surfaceGroupId;
 
+        this.helper.addSurfaceGroupId(surfaceGroupId);
+
         return;
     }
 
@@ -104,10 +112,12 @@ void openSurface(){
 
     /**
      * vertexタグ開始の通知を受け取る。
+     * @throws TogaXmlException IDが重複した
      */
     @OpenXmlMark(PmdTag.VERTEX)
-    void openVertex(){
-        this.currentVertex = new Vertex();
+    void openVertex() throws TogaXmlException{
+        VertexStore store = getPmdModel().getVertexStore();
+        this.currentVertex = store.newVertex();
 
         String vtxId     = getStringAttr(PmdAttr.VERTEX_ID);
         boolean showEdge = getBooleanAttr(PmdAttr.SHOW_EDGE);
@@ -135,53 +145,55 @@ void closeVertex(){
 
     /**
      * positionタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.POSITION)
-    void openPosition(){
+    void openPosition() throws TogaXmlException{
         float x = getFloatAttr(PmdAttr.X);
         float y = getFloatAttr(PmdAttr.Y);
         float z = getFloatAttr(PmdAttr.Z);
 
-        MkPos3D pos = this.currentVertex.getPosition();
-        pos.setPosition(x, y, z);
+        this.currentVertex.setPosition(x, y, z);
 
         return;
     }
 
     /**
      * normalタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.NORMAL)
-    void openNormal(){
+    void openNormal() throws TogaXmlException{
         float x = getFloatAttr(PmdAttr.X);
         float y = getFloatAttr(PmdAttr.Y);
         float z = getFloatAttr(PmdAttr.Z);
 
-        MkVec3D normal = this.currentVertex.getNormal();
-        normal.setVector(x, y, z);
+        this.currentVertex.setNormal(x, y, z);
 
         return;
     }
 
     /**
      * uvMapタグ開始の通知を受け取る。
+     * @throws TogaXmlException 属性が無いもしくは不正な属性値
      */
     @OpenXmlMark(PmdTag.UV_MAP)
-    void openUvMap(){
+    void openUvMap() throws TogaXmlException{
         float u = getFloatAttr(PmdAttr.U);
         float v = getFloatAttr(PmdAttr.V);
 
-        MkPos2D pos = this.currentVertex.getUVPosition();
-        pos.setPosition(u, v);
+        this.currentVertex.setUVPosition(u, v);
 
         return;
     }
 
     /**
      * skinningタグ開始の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した、
+     *     もしくはウェイト値が範囲外
      */
     @OpenXmlMark(PmdTag.SKINNING)
-    void openSkinning(){
+    void openSkinning() throws TogaXmlException{
         String boneIdRef1 = getStringAttr(PmdAttr.BONE_IDREF_1);
         String boneIdRef2 = getStringAttr(PmdAttr.BONE_IDREF_2);
         BoneInfo bone1 = this.helper.findBoneId(boneIdRef1);
@@ -190,18 +202,26 @@ void openSkinning(){
         int weightBalance = getIntAttr(PmdAttr.WEIGHT_BALANCE);
 
         this.currentVertex.setBonePair(bone1, bone2);
-        this.currentVertex.setWeightA(weightBalance);
+        try{
+            this.currentVertex.setWeightA(weightBalance);
+        }catch(IllegalArgumentException e){
+            String errMsg =
+                    MessageFormat.format(ERRMSG_WEIGHT, weightBalance);
+            throw new TogaXmlException(errMsg, e);
+        }
 
         return;
     }
 
     /**
      * vertexListタグ終了の通知を受け取る。
+     * @throws TogaXmlException 未登録のIDを参照した
      */
     @CloseXmlMark(PmdTag.VERTEX_LIST)
-    void closeVertexList(){
+    void closeVertexList() throws TogaXmlException{
         this.helper.resolveMorphVertexIdRef();
         this.helper.resolveSurfaceVertexIdRef();
+        this.helper.releaseVertexId();
 
         List<Vertex> vertexList = getPmdModel().getVertexList();
         ListUtil.assignIndexedSerial(vertexList);
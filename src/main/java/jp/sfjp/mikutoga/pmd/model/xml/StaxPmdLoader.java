@@ -0,0 +1,1395 @@
+/*
+ * xml to pmd loader with StAX
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.awt.Color;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import jp.sfjp.mikutoga.corelib.I18nText;
+import jp.sfjp.mikutoga.math.MkPos3D;
+import jp.sfjp.mikutoga.pmd.BoneType;
+import jp.sfjp.mikutoga.pmd.Deg3d;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import jp.sfjp.mikutoga.pmd.Rad3d;
+import jp.sfjp.mikutoga.pmd.RigidBehaviorType;
+import jp.sfjp.mikutoga.pmd.RigidShapeType;
+import jp.sfjp.mikutoga.pmd.TripletRange;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.BoneIndex;
+import jp.sfjp.mikutoga.pmd.model.BoneInfo;
+import jp.sfjp.mikutoga.pmd.model.DynamicsInfo;
+import jp.sfjp.mikutoga.pmd.model.IKChain;
+import jp.sfjp.mikutoga.pmd.model.JointInfo;
+import jp.sfjp.mikutoga.pmd.model.ListUtil;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.MorphVertex;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.RigidGroup;
+import jp.sfjp.mikutoga.pmd.model.RigidInfo;
+import jp.sfjp.mikutoga.pmd.model.RigidShape;
+import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
+import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.ToonMap;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd.model.VertexStore;
+import jp.sfjp.mikutoga.xml.DatatypeIo;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+
+/**
+ * StAXのプル型パーサでXMLモデルファイルを読み込むためのローダ。
+ *
+ * <p>{@link XmlPmdLoader}と異なり、
+ * 要素ごとのリスナ切り替えや注釈によるディスパッチを介さず、
+ * 要素の入れ子構造に沿った再帰下降で直接モデルを構築する。
+ * ID参照の解決は{@link XmlPmdLoader}と同じく{@link RefHelper}が担う。
+ *
+ * <p>属性の位置は属性名ごとに記憶され、
+ * 同じ並びの属性を持つ要素が続く限り名前の照合のみで位置を引ける。
+ *
+ * <p>スキーマ検証は行われない。
+ * 必須属性の欠落や値の書式誤りは{@link TogaXmlException}として報告される。
+ * 未知の要素および名前空間外の要素は子孫ごと読み飛ばされる。
+ *
+ * <p>インスタンスは複数スレッドから同時に使えない。
+ */
+public class StaxPmdLoader {
+
+    private static final char BS_CHAR  = (char) 0x005c;
+    private static final char YEN_CHAR = (char) 0x00a5;
+    private static final String BS_TXT  = Character.toString(BS_CHAR);
+    private static final String YEN_TXT = Character.toString(YEN_CHAR);
+
+    private static final int TOON_IDX_NONE = 255;
+
+    private static final String ERRMSG_NOROOT =
+            "Root element must be pmdModel in PMD-XML namespace.";
+    private static final String ERRMSG_EOD =
+            "Unexpected end of document.";
+    private static final String ERRMSG_NOATTR =
+            "Missing attribute \"{0}\" at line {1}";
+    private static final String ERRMSG_INVATTR =
+            "Invalid attribute value {0}=\"{1}\" at line {2}";
+
+
+    private final int[] attrIndexCache = new int[PmdAttr.values().length];
+
+    private XMLStreamReader reader = null;
+    private String nsuri = null;
+    private PmdModel pmdModel = null;
+    private RefHelper helper = null;
+
+
+    /**
+     * コンストラクタ。
+     */
+    public StaxPmdLoader(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 区切り文字を円記号からバックスラッシュに置き換える。
+     *
+     * @param txt 文字列
+     * @return 置き換えた文字列
+     */
+    private static String xferBslash(String txt){
+        String result;
+        result = txt.replace(YEN_TXT, BS_TXT);
+        return result;
+    }
+
+    /**
+     * PMD-XMLの名前空間か判定する。
+     *
+     * @param uri 名前空間URI
+     * @return PMD-XMLの名前空間ならtrue
+     */
+    private static boolean isPmdNamespace(String uri){
+        boolean result = Schema101009.NS_PMDXML.equals(uri)
+                      || Schema130128.NS_PMDXML.equals(uri);
+        return result;
+    }
+
+
+    /**
+     * XMLのパースを行う。
+     *
+     * <p>ストリームリーダはルート要素の直前に位置していなければならない。
+     * パース後のストリームリーダはルート要素の終了タグに位置する。
+     * ストリームリーダは閉じられない。
+     *
+     * @param xsr ストリームリーダ。名前空間をサポートしていなければならない
+     * @return モデルデータ
+     * @throws TogaXmlException 構文エラーもしくは不正なXMLデータ
+     */
+    public PmdModel parse(XMLStreamReader xsr) throws TogaXmlException{
+        this.reader = xsr;
+        this.pmdModel = new PmdModel();
+        this.helper = new RefHelper();
+        Arrays.fill(this.attrIndexCache, -1);
+
+        PmdModel result;
+        try{
+            openRoot();
+            pmdModel();
+            result = this.pmdModel;
+        }catch(XMLStreamException e){
+            throw new TogaXmlException(e.getMessage(), e);
+        }finally{
+            this.reader = null;
+            this.nsuri = null;
+            this.pmdModel = null;
+            this.helper = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * ルート要素の開始タグへ進み、名前空間を確定する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException ルート要素がPMD-XMLのものではない
+     */
+    private void openRoot() throws XMLStreamException, TogaXmlException{
+        XMLStreamReader xsr = this.reader;
+
+        while(xsr.getEventType() != XMLStreamConstants.START_ELEMENT){
+            if( ! xsr.hasNext() ) throw new TogaXmlException(ERRMSG_EOD);
+            xsr.next();
+        }
+
+        String uri = xsr.getNamespaceURI();
+        String localName = xsr.getLocalName();
+        if(    ! isPmdNamespace(uri)
+            || PmdTag.parse(localName) != PmdTag.PMD_MODEL ){
+            throw new TogaXmlException(ERRMSG_NOROOT);
+        }
+
+        this.nsuri = uri;
+
+        return;
+    }
+
+    /**
+     * 現在位置の開始タグがPMD-XMLの既知の要素であれば種別を返す。
+     *
+     * @return 要素種別。該当しなければnull
+     */
+    private PmdTag currentTag(){
+        XMLStreamReader xsr = this.reader;
+        if( ! this.nsuri.equals(xsr.getNamespaceURI()) ) return null;
+        PmdTag result = PmdTag.parse(xsr.getLocalName());
+        return result;
+    }
+
+    /**
+     * 次の子要素の開始タグへ進む。
+     *
+     * <p>文字データ、コメント、処理命令、
+     * および未知の要素は読み飛ばされる。
+     *
+     * @return 子要素の種別。親要素の終了タグに達したらnull
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 文書が途中で尽きた
+     */
+    private PmdTag nextChild() throws XMLStreamException, TogaXmlException{
+        XMLStreamReader xsr = this.reader;
+
+        while(xsr.hasNext()){
+            int event = xsr.next();
+            if(event == XMLStreamConstants.END_ELEMENT) return null;
+            if(event != XMLStreamConstants.START_ELEMENT) continue;
+
+            PmdTag tag = currentTag();
+            if(tag != null) return tag;
+
+            skipElement();
+        }
+
+        throw new TogaXmlException(ERRMSG_EOD);
+    }
+
+    /**
+     * 現在位置の要素の残りを子孫ごと読み飛ばし、終了タグへ進む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 文書が途中で尽きた
+     */
+    private void skipElement() throws XMLStreamException, TogaXmlException{
+        XMLStreamReader xsr = this.reader;
+
+        int depth = 1;
+        while(xsr.hasNext()){
+            int event = xsr.next();
+            if(event == XMLStreamConstants.START_ELEMENT){
+                depth++;
+            }else if(event == XMLStreamConstants.END_ELEMENT){
+                depth--;
+                if(depth <= 0) return;
+            }
+        }
+
+        throw new TogaXmlException(ERRMSG_EOD);
+    }
+
+    /**
+     * 現在の行番号を返す。
+     *
+     * @return 行番号。不明なら負の値
+     */
+    private int lineNumber(){
+        int result = this.reader.getLocation().getLineNumber();
+        return result;
+    }
+
+    /**
+     * 現在の開始タグにおいて指定位置の属性が指定名のものか判定する。
+     *
+     * @param idx 属性の位置
+     * @param attrName 属性名
+     * @return 該当すればtrue
+     */
+    private boolean isAttrAt(int idx, String attrName){
+        XMLStreamReader xsr = this.reader;
+
+        String ns = xsr.getAttributeNamespace(idx);
+        if(ns != null && ! ns.isEmpty()) return false;
+
+        boolean result = attrName.equals(xsr.getAttributeLocalName(idx));
+        return result;
+    }
+
+    /**
+     * xsd:string型属性値の読み込み。
+     *
+     * <p>前回と同じ位置に属性があれば、属性の走査は行われない。
+     *
+     * @param attr 属性名
+     * @return 属性値。該当する属性が無ければnull。
+     */
+    private String getStringAttr(PmdAttr attr){
+        XMLStreamReader xsr = this.reader;
+        String attrName = attr.attr();
+        int ordinal = attr.ordinal();
+        int count = xsr.getAttributeCount();
+
+        int idx = this.attrIndexCache[ordinal];
+        if(0 <= idx && idx < count && isAttrAt(idx, attrName)){
+            return xsr.getAttributeValue(idx);
+        }
+
+        for(idx = 0; idx < count; idx++){
+            if(isAttrAt(idx, attrName)){
+                this.attrIndexCache[ordinal] = idx;
+                return xsr.getAttributeValue(idx);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 必須属性値の読み込み。
+     *
+     * @param attr 属性名
+     * @return 属性値
+     * @throws TogaXmlException 属性が無い
+     */
+    private String getRequiredAttr(PmdAttr attr) throws TogaXmlException{
+        String result = getStringAttr(attr);
+        if(result == null){
+            String errMsg = MessageFormat.format(ERRMSG_NOATTR,
+                                                 attr.attr(),
+                                                 lineNumber() );
+            throw new TogaXmlException(errMsg);
+        }
+        return result;
+    }
+
+    /**
+     * 不正な属性値の例外を生成する。
+     *
+     * @param attr 属性名
+     * @param value 属性値
+     * @param cause 原因
+     * @return 例外
+     */
+    private TogaXmlException invalidAttr(PmdAttr attr,
+                                         String value,
+                                         Throwable cause ){
+        String errMsg = MessageFormat.format(ERRMSG_INVATTR,
+                                             attr.attr(),
+                                             value,
+                                             lineNumber() );
+        TogaXmlException result = new TogaXmlException(errMsg, cause);
+        return result;
+    }
+
+    /**
+     * xsd:boolean型属性値の読み込み。
+     *
+     * @param attr 属性名
+     * @return 属性値
+     * @throws TogaXmlException 属性が無いもしくはboolean型表記ではない
+     * @see "http://www.w3.org/TR/xmlschema-2/#boolean"
+     */
+    private boolean getBooleanAttr(PmdAttr attr) throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
+        boolean bVal;
+        try{
+            bVal = DatatypeIo.parseBoolean(attrVal);
+        }catch(IllegalArgumentException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
+        return bVal;
+    }
+
+    /**
+     * xsd:float型属性値の読み込み。
+     *
+     * @param attr 属性名
+     * @return 属性値
+     * @throws TogaXmlException 属性が無いもしくはfloat型表記ではない
+     * @see "http://www.w3.org/TR/xmlschema-2/#float"
+     */
+    private float getFloatAttr(PmdAttr attr) throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
+        float fVal;
+        try{
+            fVal = XsdNumParser.parseFloat(attrVal);
+        }catch(NumberFormatException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
+        return fVal;
+    }
+
+    /**
+     * xsd:int型属性値の読み込み。
+     *
+     * @param attr 属性名
+     * @return 属性値
+     * @throws TogaXmlException 属性が無いもしくはint型表記ではない
+     * @see "http://www.w3.org/TR/xmlschema-2/#int"
+     */
+    private int getIntAttr(PmdAttr attr) throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
+        int iVal;
+        try{
+            iVal = XsdNumParser.parseInt(attrVal);
+        }catch(NumberFormatException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
+        return iVal;
+    }
+
+    /**
+     * 列挙型属性値の読み込み。
+     *
+     * @param <E> 列挙型
+     * @param attr 属性名
+     * @param type 列挙型のクラス
+     * @return 属性値
+     * @throws TogaXmlException 属性が無いもしくは該当する列挙子が無い
+     */
+    private <E extends Enum<E>> E getEnumAttr(PmdAttr attr, Class<E> type)
+            throws TogaXmlException{
+        String attrVal = getRequiredAttr(attr);
+        E result;
+        try{
+            result = Enum.valueOf(type, attrVal);
+        }catch(IllegalArgumentException e){
+            throw invalidAttr(attr, attrVal, e);
+        }
+        return result;
+    }
+
+    /**
+     * 3次元位置を表す属性群を読み込む。
+     *
+     * @param pos 格納先
+     * @throws TogaXmlException 不正な属性
+     */
+    private void readXyz(MkPos3D pos) throws TogaXmlException{
+        float x = getFloatAttr(PmdAttr.X);
+        float y = getFloatAttr(PmdAttr.Y);
+        float z = getFloatAttr(PmdAttr.Z);
+        pos.setPosition(x, y, z);
+        return;
+    }
+
+    /**
+     * ラジアン角を表す属性群を読み込む。
+     *
+     * @param rad 格納先
+     * @throws TogaXmlException 不正な属性
+     */
+    private void readRad(Rad3d rad) throws TogaXmlException{
+        float xRad = getFloatAttr(PmdAttr.X_RAD);
+        float yRad = getFloatAttr(PmdAttr.Y_RAD);
+        float zRad = getFloatAttr(PmdAttr.Z_RAD);
+        rad.setXRad(xRad);
+        rad.setYRad(yRad);
+        rad.setZRad(zRad);
+        return;
+    }
+
+    /**
+     * 範囲を表す属性群を読み込む。
+     *
+     * @param range 格納先
+     * @throws TogaXmlException 不正な属性
+     */
+    private void readRange(TripletRange range) throws TogaXmlException{
+        float xFrom = getFloatAttr(PmdAttr.X_FROM);
+        float xTo   = getFloatAttr(PmdAttr.X_TO);
+        float yFrom = getFloatAttr(PmdAttr.Y_FROM);
+        float yTo   = getFloatAttr(PmdAttr.Y_TO);
+        float zFrom = getFloatAttr(PmdAttr.Z_FROM);
+        float zTo   = getFloatAttr(PmdAttr.Z_TO);
+        range.setXRange(xFrom, xTo);
+        range.setYRange(yFrom, yTo);
+        range.setZRange(zFrom, zTo);
+        return;
+    }
+
+    /**
+     * i18nName要素を読み込み、要素を抜ける。
+     *
+     * @param text 格納先
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void i18nName(I18nText text)
+            throws XMLStreamException, TogaXmlException{
+        String lang = getStringAttr(PmdAttr.LANG);
+        String name = getStringAttr(PmdAttr.NAME);
+        text.setI18nText(lang, name);
+        skipElement();
+        return;
+    }
+
+    /**
+     * pmdModel要素の内容を読み込む。
+     *
+     * <pre>
+     * + pmdModel
+     *     + i18nName
+     *     + description
+     *     + materialList
+     *     + toonMap
+     *     + boneList
+     *     + boneGroupList
+     *     + ikChainList
+     *     + morphList
+     *     + rigidList
+     *     + rigidGroupList
+     *     + jointList
+     *     + surfaceGroupList
+     *     + vertexList
+     * </pre>
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void pmdModel() throws XMLStreamException, TogaXmlException{
+        I18nText modelName = this.pmdModel.getModelName();
+        modelName.setPrimaryText(getStringAttr(PmdAttr.NAME));
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            switch(tag){
+            case I18N_NAME:
+                i18nName(modelName);
+                break;
+            case DESCRIPTION:
+                description();
+                break;
+            case MATERIAL_LIST:
+                materialList();
+                break;
+            case TOON_MAP:
+                toonMap();
+                break;
+            case BONE_LIST:
+                boneList();
+                break;
+            case BONE_GROUP_LIST:
+                boneGroupList();
+                break;
+            case IK_CHAIN_LIST:
+                ikChainList();
+                break;
+            case MORPH_LIST:
+                morphList();
+                break;
+            case RIGID_LIST:
+                rigidList();
+                break;
+            case RIGID_GROUP_LIST:
+                rigidGroupList();
+                break;
+            case JOINT_LIST:
+                jointList();
+                break;
+            case SURFACE_GROUP_LIST:
+                surfaceGroupList();
+                break;
+            case VERTEX_LIST:
+                vertexList();
+                break;
+            default:
+                skipElement();
+                break;
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * description要素を読み込む。
+     *
+     * <p>改行文字は無視され、br要素が改行となる。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 文書が途中で尽きた
+     */
+    private void description() throws XMLStreamException, TogaXmlException{
+        XMLStreamReader xsr = this.reader;
+
+        String lang = getStringAttr(PmdAttr.LANG);
+        StringBuilder bredText = new StringBuilder();
+
+        for(;;){
+            if( ! xsr.hasNext() ) throw new TogaXmlException(ERRMSG_EOD);
+            int event = xsr.next();
+
+            if(event == XMLStreamConstants.END_ELEMENT) break;
+
+            if(event == XMLStreamConstants.START_ELEMENT){
+                if(currentTag() == PmdTag.BR) bredText.append('\n');
+                skipElement();
+            }else if(   event == XMLStreamConstants.CHARACTERS
+                     || event == XMLStreamConstants.CDATA
+                     || event == XMLStreamConstants.SPACE ){
+                int start = xsr.getTextStart();
+                int end = start + xsr.getTextLength();
+                char[] chars = xsr.getTextCharacters();
+                for(int pos = start; pos < end; pos++){
+                    char chData = chars[pos];
+                    if(chData == '\n') continue;
+                    if(chData == '\r') continue;
+                    bredText.append(chData);
+                }
+            }
+        }
+
+        I18nText desc = this.pmdModel.getDescription();
+        if(lang == null){
+            desc.setPrimaryText(bredText.toString());
+        }else{
+            desc.setI18nText(lang, bredText.toString());
+        }
+
+        return;
+    }
+
+    /**
+     * materialList要素の内容を読み込む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void materialList() throws XMLStreamException, TogaXmlException{
+        List<Material> materialList = this.pmdModel.getMaterialList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.MATERIAL) materialList.add(material());
+            else                       skipElement();
+        }
+
+        return;
+    }
+
+    /**
+     * material要素を読み込む。
+     *
+     * @return マテリアル
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private Material material() throws XMLStreamException, TogaXmlException{
+        Material material = new Material();
+
+        String name = getStringAttr(PmdAttr.NAME);
+        boolean showEdge = getBooleanAttr(PmdAttr.SHOW_EDGE);
+        String surfaceGroupIdRef =
+                getStringAttr(PmdAttr.SURFACE_GROUP_IDREF);
+
+        if(name != null){
+            material.getMaterialName().setPrimaryText(name);
+        }
+        material.setEdgeAppearance(showEdge);
+
+        ShadeInfo shadeInfo = material.getShadeInfo();
+        shadeInfo.setToonIndex(TOON_IDX_NONE);
+
+        this.helper.addSurfaceGroupIdRef(material, surfaceGroupIdRef);
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            float rCol;
+            float gCol;
+            float bCol;
+            switch(tag){
+            case I18N_NAME:
+                i18nName(material.getMaterialName());
+                break;
+            case DIFFUSE:
+                rCol = getFloatAttr(PmdAttr.R);
+                gCol = getFloatAttr(PmdAttr.G);
+                bCol = getFloatAttr(PmdAttr.B);
+                float alpha = getFloatAttr(PmdAttr.ALPHA);
+                material.setDiffuseColor(
+                        new Color(rCol, gCol, bCol, alpha) );
+                skipElement();
+                break;
+            case SPECULAR:
+                rCol = getFloatAttr(PmdAttr.R);
+                gCol = getFloatAttr(PmdAttr.G);
+                bCol = getFloatAttr(PmdAttr.B);
+                float shine = getFloatAttr(PmdAttr.SHININESS);
+                material.setSpecularColor(new Color(rCol, gCol, bCol));
+                material.setShininess(shine);
+                skipElement();
+                break;
+            case AMBIENT:
+                rCol = getFloatAttr(PmdAttr.R);
+                gCol = getFloatAttr(PmdAttr.G);
+                bCol = getFloatAttr(PmdAttr.B);
+                material.setAmbientColor(new Color(rCol, gCol, bCol));
+                skipElement();
+                break;
+            case TOON:
+                String toonFileIdRef = getStringAttr(PmdAttr.TOONFILE_IDREF);
+                this.helper.addToonFileIdRef(material, toonFileIdRef);
+                skipElement();
+                break;
+            case TEXTURE_FILE:
+                String texture = getRequiredAttr(PmdAttr.WINFILE_NAME);
+                shadeInfo.setTextureFileName(xferBslash(texture));
+                skipElement();
+                break;
+            case SPHEREMAP_FILE:
+                String sphere = getRequiredAttr(PmdAttr.WINFILE_NAME);
+                shadeInfo.setSpheremapFileName(xferBslash(sphere));
+                skipElement();
+                break;
+            default:
+                skipElement();
+                break;
+            }
+        }
+
+        return material;
+    }
+
+    /**
+     * toonMap要素の内容を読み込み、
+     * マテリアルからのトゥーン参照を解決する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void toonMap() throws XMLStreamException, TogaXmlException{
+        ToonMap toonMap = this.pmdModel.getToonMap();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.TOON_DEF){
+                String toonFileId = getStringAttr(PmdAttr.TOONFILE_ID);
+                int index         = getIntAttr(PmdAttr.INDEX);
+                String fileName   = getRequiredAttr(PmdAttr.WINFILE_NAME);
+                toonMap.setIndexedToon(index, xferBslash(fileName));
+                this.helper.addToonIdx(toonFileId, index);
+            }
+            skipElement();
+        }
+
+        this.helper.resolveToonIdx();
+
+        return;
+    }
+
+    /**
+     * boneList要素の内容を読み込み、ボーン間の参照を解決する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void boneList() throws XMLStreamException, TogaXmlException{
+        List<BoneInfo> boneList = this.pmdModel.getBoneList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.BONE) boneList.add(bone());
+            else                   skipElement();
+        }
+
+        this.helper.resolveSrcBoneIdRef();
+        this.helper.resolveBoneChainIdRef();
+        ListUtil.assignIndexedSerial(boneList);
+
+        return;
+    }
+
+    /**
+     * bone要素を読み込む。
+     *
+     * @return ボーン情報
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private BoneInfo bone() throws XMLStreamException, TogaXmlException{
+        BoneInfo bone = new BoneInfo();
+
+        bone.getBoneName().setPrimaryText(getStringAttr(PmdAttr.NAME));
+        String boneId = getStringAttr(PmdAttr.BONE_ID);
+        this.helper.addBoneId(boneId, bone);
+        bone.setBoneType(getEnumAttr(PmdAttr.TYPE, BoneType.class));
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            switch(tag){
+            case I18N_NAME:
+                i18nName(bone.getBoneName());
+                break;
+            case POSITION:
+                readXyz(bone.getPosition());
+                skipElement();
+                break;
+            case ROTATION_RATIO:
+                bone.setRotationRatio(getIntAttr(PmdAttr.RATIO));
+                skipElement();
+                break;
+            case IK_BONE:        // 101009 only
+            case SOURCE_BONE:    // 130128 only
+                String srcIdRef = getStringAttr(PmdAttr.BONE_IDREF);
+                this.helper.addSrcBoneIdRef(bone, srcIdRef);
+                skipElement();
+                break;
+            case BONE_CHAIN:
+                String prevIdRef = getStringAttr(PmdAttr.PREV_BONE_IDREF);
+                String nextIdRef = getStringAttr(PmdAttr.NEXT_BONE_IDREF);
+                this.helper.addBoneChain(bone, prevIdRef, nextIdRef);
+                skipElement();
+                break;
+            default:
+                skipElement();
+                break;
+            }
+        }
+
+        return bone;
+    }
+
+    /**
+     * boneGroupList要素の内容を読み込む。
+     *
+     * <p>どのグループにも属さないボーンはデフォルトグループに属する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void boneGroupList()
+            throws XMLStreamException, TogaXmlException{
+        List<BoneGroup> boneGroupList = this.pmdModel.getBoneGroupList();
+
+        BoneGroup defaultGroup = new BoneGroup();
+        defaultGroup.setSerialNumber(0);
+        boneGroupList.add(defaultGroup);
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.BONE_GROUP) boneGroupList.add(boneGroup());
+            else                         skipElement();
+        }
+
+        ListUtil.assignIndexedSerial(boneGroupList);
+
+        BoneIndex index = BoneIndex.build(this.pmdModel);
+        assert defaultGroup.isDefaultBoneGroup();
+        defaultGroup.getBoneList().addAll(index.getUngroupedBones());
+
+        return;
+    }
+
+    /**
+     * boneGroup要素を読み込む。
+     *
+     * @return ボーングループ
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private BoneGroup boneGroup()
+            throws XMLStreamException, TogaXmlException{
+        BoneGroup group = new BoneGroup();
+
+        group.getGroupName().setPrimaryText(getStringAttr(PmdAttr.NAME));
+        List<BoneInfo> memberList = group.getBoneList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.I18N_NAME){
+                i18nName(group.getGroupName());
+                continue;
+            }
+            if(tag == PmdTag.BONE_GROUP_MEMBER){
+                String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
+                memberList.add(this.helper.findBoneId(boneIdRef));
+            }
+            skipElement();
+        }
+
+        return group;
+    }
+
+    /**
+     * ikChainList要素の内容を読み込む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void ikChainList() throws XMLStreamException, TogaXmlException{
+        List<IKChain> ikChainList = this.pmdModel.getIKChainList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.IK_CHAIN) ikChainList.add(ikChain());
+            else                       skipElement();
+        }
+
+        return;
+    }
+
+    /**
+     * ikChain要素を読み込む。
+     *
+     * @return IKチェーン
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private IKChain ikChain() throws XMLStreamException, TogaXmlException{
+        IKChain ikChain = new IKChain();
+
+        String ikBoneIdRef = getStringAttr(PmdAttr.IK_BONE_IDREF);
+        ikChain.setIkBone(this.helper.findBoneId(ikBoneIdRef));
+        ikChain.setIKDepth(getIntAttr(PmdAttr.RECURSIVE_DEPTH));
+        ikChain.setIKWeight(getFloatAttr(PmdAttr.WEIGHT));
+
+        List<BoneInfo> chainList = ikChain.getChainedBoneList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.CHAIN_ORDER){
+                String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
+                chainList.add(this.helper.findBoneId(boneIdRef));
+            }
+            skipElement();
+        }
+
+        return ikChain;
+    }
+
+    /**
+     * morphList要素の内容を読み込み、モーフの通し番号を割り振る。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void morphList() throws XMLStreamException, TogaXmlException{
+        Map<MorphType, List<MorphPart>> morphMap =
+                this.pmdModel.getMorphMap();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag != PmdTag.MORPH){
+                skipElement();
+                continue;
+            }
+            MorphPart morph = morph();
+            morphMap.get(morph.getMorphType()).add(morph);
+        }
+
+        List<MorphPart> tempList = new LinkedList<>();
+        tempList.addAll(morphMap.get(MorphType.EYEBROW));
+        tempList.addAll(morphMap.get(MorphType.EYE));
+        tempList.addAll(morphMap.get(MorphType.LIP));
+        tempList.addAll(morphMap.get(MorphType.EXTRA));
+        MorphPart baseDummy = new MorphPart();
+        tempList.add(0, baseDummy);  // BASE dummy
+        ListUtil.assignIndexedSerial(tempList);
+
+        return;
+    }
+
+    /**
+     * morph要素を読み込む。
+     *
+     * @return モーフ
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private MorphPart morph() throws XMLStreamException, TogaXmlException{
+        MorphPart morph = new MorphPart();
+
+        morph.getMorphName().setPrimaryText(getStringAttr(PmdAttr.NAME));
+        morph.setMorphType(getEnumAttr(PmdAttr.TYPE, MorphType.class));
+
+        List<MorphVertex> morphVertexList = morph.getMorphVertexList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.I18N_NAME){
+                i18nName(morph.getMorphName());
+                continue;
+            }
+            if(tag == PmdTag.MORPH_VERTEX){
+                morphVertexList.add(morphVertex());
+            }
+            skipElement();
+        }
+
+        return morph;
+    }
+
+    /**
+     * morphVertex要素の属性を読み込む。
+     *
+     * @return モーフ頂点
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private MorphVertex morphVertex() throws TogaXmlException{
+        MorphVertex morphVertex = new MorphVertex();
+
+        String vertexIdRef = getStringAttr(PmdAttr.VERTEX_IDREF);
+        this.helper.addMorphVertexIdRef(morphVertex, vertexIdRef);
+
+        float xOff = getFloatAttr(PmdAttr.XOFF);
+        float yOff = getFloatAttr(PmdAttr.YOFF);
+        float zOff = getFloatAttr(PmdAttr.ZOFF);
+        morphVertex.getOffset().setPosition(xOff, yOff, zOff);
+
+        return morphVertex;
+    }
+
+    /**
+     * rigidList要素の内容を読み込む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void rigidList() throws XMLStreamException, TogaXmlException{
+        List<RigidInfo> rigidList = this.pmdModel.getRigidList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.RIGID) rigidList.add(rigid());
+            else                    skipElement();
+        }
+
+        ListUtil.assignIndexedSerial(rigidList);
+
+        return;
+    }
+
+    /**
+     * rigid要素を読み込む。
+     *
+     * @return 剛体情報
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private RigidInfo rigid() throws XMLStreamException, TogaXmlException{
+        RigidInfo rigid = new RigidInfo();
+
+        rigid.getRigidName().setPrimaryText(getStringAttr(PmdAttr.NAME));
+        String rigidId = getStringAttr(PmdAttr.RIGID_ID);
+        this.helper.addRigidId(rigidId, rigid);
+        rigid.setBehaviorType(
+                getEnumAttr(PmdAttr.BEHAVIOR, RigidBehaviorType.class) );
+
+        RigidShape shape = rigid.getRigidShape();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            switch(tag){
+            case I18N_NAME:
+                i18nName(rigid.getRigidName());
+                break;
+            case LINKED_BONE:
+                String boneIdRef = getStringAttr(PmdAttr.BONE_IDREF);
+                rigid.setLinkedBone(this.helper.findBoneId(boneIdRef));
+                skipElement();
+                break;
+            case RIGID_SHAPE_SPHERE:
+                shape.setShapeType(RigidShapeType.SPHERE);
+                shape.setRadius(getFloatAttr(PmdAttr.RADIUS));
+                skipElement();
+                break;
+            case RIGID_SHAPE_BOX:
+                shape.setShapeType(RigidShapeType.BOX);
+                shape.setWidth(getFloatAttr(PmdAttr.WIDTH));
+                shape.setHeight(getFloatAttr(PmdAttr.HEIGHT));
+                shape.setDepth(getFloatAttr(PmdAttr.DEPTH));
+                skipElement();
+                break;
+            case RIGID_SHAPE_CAPSULE:
+                shape.setShapeType(RigidShapeType.CAPSULE);
+                shape.setHeight(getFloatAttr(PmdAttr.HEIGHT));
+                shape.setRadius(getFloatAttr(PmdAttr.RADIUS));
+                skipElement();
+                break;
+            case POSITION:
+                readXyz(rigid.getPosition());
+                skipElement();
+                break;
+            case RAD_ROTATION:
+                readRad(rigid.getRotation());
+                skipElement();
+                break;
+            case DYNAMICS:
+                dynamics(rigid.getDynamicsInfo());
+                skipElement();
+                break;
+            case THROUGH_RIGID_GROUP:
+                String groupIdRef = getStringAttr(PmdAttr.RIGID_GROUP_IDREF);
+                this.helper.addThroughRigidGroupIdRef(rigid, groupIdRef);
+                skipElement();
+                break;
+            default:
+                skipElement();
+                break;
+            }
+        }
+
+        return rigid;
+    }
+
+    /**
+     * dynamics要素の属性を読み込む。
+     *
+     * @param dynamics 格納先
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void dynamics(DynamicsInfo dynamics) throws TogaXmlException{
+        float mass            = getFloatAttr(PmdAttr.MASS);
+        float dampingPosition = getFloatAttr(PmdAttr.DAMPING_POSITION);
+        float dampingRotation = getFloatAttr(PmdAttr.DAMPING_ROTATION);
+        float restitution     = getFloatAttr(PmdAttr.RESTITUTION);
+        float friction        = getFloatAttr(PmdAttr.FRICTION);
+
+        dynamics.setMass(mass);
+        dynamics.setDampingPosition(dampingPosition);
+        dynamics.setDampingRotation(dampingRotation);
+        dynamics.setRestitution(restitution);
+        dynamics.setFriction(friction);
+
+        return;
+    }
+
+    /**
+     * rigidGroupList要素の内容を読み込み、通過剛体グループ参照を解決する。
+     *
+     * <p>剛体グループは最大数まで補われる。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void rigidGroupList()
+            throws XMLStreamException, TogaXmlException{
+        List<RigidGroup> rigidGroupList = this.pmdModel.getRigidGroupList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.RIGID_GROUP) rigidGroupList.add(rigidGroup());
+            else                          skipElement();
+        }
+
+        this.helper.resolveThroughRigidGroupIdRef();
+
+        while(rigidGroupList.size() < RigidGroup.MAX_RIGID_GROUP){
+            rigidGroupList.add(new RigidGroup());
+        }
+        ListUtil.assignIndexedSerial(rigidGroupList);
+
+        return;
+    }
+
+    /**
+     * rigidGroup要素を読み込む。
+     *
+     * @return 剛体グループ
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private RigidGroup rigidGroup()
+            throws XMLStreamException, TogaXmlException{
+        RigidGroup group = new RigidGroup();
+
+        String rigidGroupId = getStringAttr(PmdAttr.RIGID_GROUP_ID);
+        this.helper.addRigidGroupId(rigidGroupId, group);
+
+        List<RigidInfo> memberList = group.getRigidList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.RIGID_GROUP_MEMBER){
+                String rigidIdRef = getStringAttr(PmdAttr.RIGID_IDREF);
+                RigidInfo member = this.helper.findRigidId(rigidIdRef);
+                memberList.add(member);
+                member.setRigidGroup(group);
+            }
+            skipElement();
+        }
+
+        return group;
+    }
+
+    /**
+     * jointList要素の内容を読み込む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void jointList() throws XMLStreamException, TogaXmlException{
+        List<JointInfo> jointList = this.pmdModel.getJointList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.JOINT) jointList.add(joint());
+            else                    skipElement();
+        }
+
+        return;
+    }
+
+    /**
+     * joint要素を読み込む。
+     *
+     * @return ジョイント情報
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private JointInfo joint() throws XMLStreamException, TogaXmlException{
+        JointInfo joint = new JointInfo();
+
+        joint.getJointName().setPrimaryText(getStringAttr(PmdAttr.NAME));
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            switch(tag){
+            case I18N_NAME:
+                i18nName(joint.getJointName());
+                break;
+            case JOINTED_RIGID_PAIR:
+                String rigidIdRef1 = getStringAttr(PmdAttr.RIGID_IDREF_1);
+                String rigidIdRef2 = getStringAttr(PmdAttr.RIGID_IDREF_2);
+                RigidInfo rigidA = this.helper.findRigidId(rigidIdRef1);
+                RigidInfo rigidB = this.helper.findRigidId(rigidIdRef2);
+                joint.setRigidPair(rigidA, rigidB);
+                skipElement();
+                break;
+            case POSITION:
+                readXyz(joint.getPosition());
+                skipElement();
+                break;
+            case RAD_ROTATION:
+                readRad(joint.getRotation());
+                skipElement();
+                break;
+            case LIMIT_POSITION:
+                readRange(joint.getPositionRange());
+                skipElement();
+                break;
+            case LIMIT_ROTATION:
+                readRange(joint.getRotationRange());
+                skipElement();
+                break;
+            case ELASTIC_POSITION:
+                readXyz(joint.getElasticPosition());
+                skipElement();
+                break;
+            case ELASTIC_ROTATION:
+                float xDeg = getFloatAttr(PmdAttr.X_DEG);
+                float yDeg = getFloatAttr(PmdAttr.Y_DEG);
+                float zDeg = getFloatAttr(PmdAttr.Z_DEG);
+                Deg3d rot = joint.getElasticRotation();
+                rot.setXDeg(xDeg);
+                rot.setYDeg(yDeg);
+                rot.setZDeg(zDeg);
+                skipElement();
+                break;
+            default:
+                skipElement();
+                break;
+            }
+        }
+
+        return joint;
+    }
+
+    /**
+     * surfaceGroupList要素の内容を読み込み、
+     * マテリアルからのサーフェイスグループ参照を解決する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void surfaceGroupList()
+            throws XMLStreamException, TogaXmlException{
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.SURFACE_GROUP) surfaceGroup();
+            else                            skipElement();
+        }
+
+        this.helper.resolveMaterialSurfaceGroupId();
+
+        return;
+    }
+
+    /**
+     * surfaceGroup要素を読み込む。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void surfaceGroup() throws XMLStreamException, TogaXmlException{
+        String surfaceGroupId = getStringAttr(PmdAttr.SURFACE_GROUP_ID);
+        this.helper.addSurfaceGroupId(surfaceGroupId);
+        List<Surface> surfaceList = this.pmdModel.getSurfaceList();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.SURFACE){
+                Surface surface = new Surface();
+                String vtxIdRef1 = getStringAttr(PmdAttr.VERTEX_IDREF_1);
+                String vtxIdRef2 = getStringAttr(PmdAttr.VERTEX_IDREF_2);
+                String vtxIdRef3 = getStringAttr(PmdAttr.VERTEX_IDREF_3);
+                this.helper.addSurfaceGroup(surfaceGroupId, surface);
+                this.helper.addSurfaceVertex(surface,
+                                             vtxIdRef1,
+                                             vtxIdRef2,
+                                             vtxIdRef3 );
+                surfaceList.add(surface);
+            }
+            skipElement();
+        }
+
+        return;
+    }
+
+    /**
+     * vertexList要素の内容を読み込み、頂点への参照を解決する。
+     *
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private void vertexList() throws XMLStreamException, TogaXmlException{
+        List<Vertex> vertexList = this.pmdModel.getVertexList();
+        VertexStore store = this.pmdModel.getVertexStore();
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            if(tag == PmdTag.VERTEX) vertexList.add(vertex(store));
+            else                     skipElement();
+        }
+
+        this.helper.resolveMorphVertexIdRef();
+        this.helper.resolveSurfaceVertexIdRef();
+        this.helper.releaseVertexId();
+        ListUtil.assignIndexedSerial(vertexList);
+
+        return;
+    }
+
+    /**
+     * vertex要素を読み込む。
+     *
+     * @param store 頂点属性の格納先
+     * @return 頂点
+     * @throws XMLStreamException 構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private Vertex vertex(VertexStore store)
+            throws XMLStreamException, TogaXmlException{
+        Vertex vertex = store.newVertex();
+
+        String vtxId = getStringAttr(PmdAttr.VERTEX_ID);
+        vertex.setEdgeAppearance(getBooleanAttr(PmdAttr.SHOW_EDGE));
+        this.helper.addVertexId(vtxId, vertex);
+
+        PmdTag tag;
+        while((tag = nextChild()) != null){
+            float x;
+            float y;
+            float z;
+            switch(tag){
+            case POSITION:
+                x = getFloatAttr(PmdAttr.X);
+                y = getFloatAttr(PmdAttr.Y);
+                z = getFloatAttr(PmdAttr.Z);
+                vertex.setPosition(x, y, z);
+                break;
+            case NORMAL:
+                x = getFloatAttr(PmdAttr.X);
+                y = getFloatAttr(PmdAttr.Y);
+                z = getFloatAttr(PmdAttr.Z);
+                vertex.setNormal(x, y, z);
+                break;
+            case UV_MAP:
+                float u = getFloatAttr(PmdAttr.U);
+                float v = getFloatAttr(PmdAttr.V);
+                vertex.setUVPosition(u, v);
+                break;
+            case SKINNING:
+                String boneIdRef1 = getStringAttr(PmdAttr.BONE_IDREF_1);
+                String boneIdRef2 = getStringAttr(PmdAttr.BONE_IDREF_2);
+                BoneInfo bone1 = this.helper.findBoneId(boneIdRef1);
+                BoneInfo bone2 = this.helper.findBoneId(boneIdRef2);
+                vertex.setBonePair(bone1, bone2);
+                int weight = getIntAttr(PmdAttr.WEIGHT_BALANCE);
+                try{
+                    vertex.setWeightA(weight);
+                }catch(IllegalArgumentException e){
+                    throw invalidAttr(PmdAttr.WEIGHT_BALANCE,
+                                      Integer.toString(weight), e);
+                }
+                break;
+            default:
+                break;
+            }
+            skipElement();
+        }
+
+        return vertex;
+    }
+
+}
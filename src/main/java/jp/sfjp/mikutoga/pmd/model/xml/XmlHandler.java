@@ -10,6 +10,7 @@
 import java.util.EnumMap;
 import java.util.Map;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Locator;
@@ -150,7 +151,11 @@ public void startElement(String uri,
         switchListener(tag);
 
         if(this.currentListener == null) return;
-        this.currentListener.openDispatch(tag, attr);
+        try{
+            this.currentListener.openDispatch(tag, attr);
+        }catch(TogaXmlException e){
+            throw new SAXException(e);
+        }
 
         return;
     }
@@ -186,7 +191,11 @@ public void endElement(String uri, String localName, String qName)
         if(tag == null) return;
 
         if(this.currentListener != null){
-            this.currentListener.closeDispatch(tag);
+            try{
+                this.currentListener.closeDispatch(tag);
+            }catch(TogaXmlException e){
+                throw new SAXException(e);
+            }
         }
 
         return;
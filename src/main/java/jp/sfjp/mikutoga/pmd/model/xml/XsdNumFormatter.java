@@ -0,0 +1,531 @@
+/*
+ * xsd number formatter
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.math.BigInteger;
+
+/**
+ * XML Schema の数値型の文字列表記を文字配列へ書き込む。
+ *
+ * <p>後述の例外を除き、{@link String}などの中間オブジェクトを生成しない。
+ *
+ * <p>float値は元の値へ復元可能な最短の10進桁列に変換され、
+ * {@link Float#toString(float)}と同じ書式で表記される。
+ * 桁列の算出にはRyuアルゴリズムを用いる。
+ * 非数および無限大は xsd:float の表記("NaN", "INF", "-INF")となる。
+ *
+ * <p>JDK18以前の{@link Float#toString(float)}は
+ * 2のべき乗、2<sup>25</sup>以上の値および非正規化数で
+ * 最短でない桁列を返すことがある。
+ * 出力を従来と一致させるため、これらの値に限り
+ * {@link Float#toString(float)}の結果をそのまま用いる。
+ * 2のべき乗の表記はクラス初期化時に用意される。
+ *
+ * @see <a href="https://doi.org/10.1145/3192366.3192369">
+ *     Ryū: fast float-to-string conversion</a>
+ */
+final class XsdNumFormatter {
+
+    /** 1値の表記に必要な最大文字数。 */
+    static final int MAX_CHARS = 16;
+
+    private static final int MANTISSA_BITS = 23;
+    private static final int MANTISSA_MASK = (1 << MANTISSA_BITS) - 1;
+    private static final int EXPONENT_BITS = 8;
+    private static final int EXPONENT_MASK = (1 << EXPONENT_BITS) - 1;
+    private static final int EXPONENT_BIAS = (1 << (EXPONENT_BITS - 1)) - 1;
+
+    private static final int POW5_INV_BITCOUNT = 59;
+    private static final int POW5_BITCOUNT = 61;
+    private static final int POW5_INV_TABLE_SIZE = 31;
+    private static final int POW5_TABLE_SIZE = 47;
+
+    private static final long[] POW5_INV_SPLIT =
+            new long[POW5_INV_TABLE_SIZE];
+    private static final long[] POW5_SPLIT =
+            new long[POW5_TABLE_SIZE];
+
+    /** Ryuアルゴリズムを適用するIEEE754指数部の上限。2<sup>25</sup>未満。 */
+    private static final int SHORTEST_EXP_MAX = EXPONENT_BIAS + 24;
+
+    private static final int PLAIN_EXP_MIN = -3;
+    private static final int PLAIN_EXP_MAX = 7;
+
+    private static final int RADIX = 10;
+    private static final int HALF = 5;
+    private static final int UINT_BITS = 32;
+    private static final long UINT_MASK = 0xffffffffL;
+
+    private static final char[] NAN_CHARS = "NaN".toCharArray();
+    private static final char[] INF_CHARS = "INF".toCharArray();
+    private static final char[] INT_MIN_CHARS =
+            Integer.toString(Integer.MIN_VALUE).toCharArray();
+
+    private static final char[][] POW2_CHARS = new char[EXPONENT_MASK][];
+
+    static{
+        for(int exp = 1; exp < EXPONENT_MASK; exp++){
+            float pow2 = Float.intBitsToFloat(exp << MANTISSA_BITS);
+            POW2_CHARS[exp] = Float.toString(pow2).toCharArray();
+        }
+
+        BigInteger five = BigInteger.valueOf(5);
+        int tableSize = Math.max(POW5_INV_TABLE_SIZE, POW5_TABLE_SIZE);
+        for(int idx = 0; idx < tableSize; idx++){
+            BigInteger pow = five.pow(idx);
+            int bits = pow.bitLength();
+
+            if(idx < POW5_TABLE_SIZE){
+                int shift = bits - POW5_BITCOUNT;
+                BigInteger split;
+                if(shift >= 0) split = pow.shiftRight(shift);
+                else           split = pow.shiftLeft(-shift);
+                POW5_SPLIT[idx] = split.longValue();
+            }
+
+            if(idx < POW5_INV_TABLE_SIZE){
+                int shift = bits - 1 + POW5_INV_BITCOUNT;
+                BigInteger inv = BigInteger.ONE.shiftLeft(shift)
+                        .divide(pow).add(BigInteger.ONE);
+                POW5_INV_SPLIT[idx] = inv.longValue();
+            }
+        }
+    }
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private XsdNumFormatter(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * 5のべき乗のビット長を返す。
+     *
+     * @param exp 指数
+     * @return 5<sup>exp</sup>のビット長。expが0なら1
+     */
+    private static int pow5bits(int exp){
+        return ((exp * 1217359) >>> 19) + 1;
+    }
+
+    /**
+     * floor(log<sub>10</sub>(2<sup>exp</sup>))を返す。
+     *
+     * @param exp 指数
+     * @return 結果
+     */
+    private static int log10Pow2(int exp){
+        return (exp * 78913) >>> 18;
+    }
+
+    /**
+     * floor(log<sub>10</sub>(5<sup>exp</sup>))を返す。
+     *
+     * @param exp 指数
+     * @return 結果
+     */
+    private static int log10Pow5(int exp){
+        return (exp * 732923) >>> 20;
+    }
+
+    /**
+     * 値が5<sup>exp</sup>の倍数か判定する。
+     *
+     * @param value 値
+     * @param exp 指数
+     * @return 倍数ならtrue
+     */
+    private static boolean isMultipleOfPow5(long value, int exp){
+        long rest = value;
+        int count = 0;
+        while(rest % HALF == 0){
+            rest /= HALF;
+            count++;
+        }
+        return count >= exp;
+    }
+
+    /**
+     * 値が2<sup>exp</sup>の倍数か判定する。
+     *
+     * @param value 値
+     * @param exp 指数
+     * @return 倍数ならtrue
+     */
+    private static boolean isMultipleOfPow2(long value, int exp){
+        return (value & ((1L << exp) - 1)) == 0;
+    }
+
+    /**
+     * 32bit値と64bit係数の積を右シフトする。
+     *
+     * @param value 32bit以内の非負値
+     * @param factor 64bit係数
+     * @param shift シフト量。32以上
+     * @return 結果
+     */
+    private static long mulShift(long value, long factor, int shift){
+        long lo = value * (factor & UINT_MASK);
+        long hi = value * (factor >>> UINT_BITS);
+        long sum = (lo >>> UINT_BITS) + hi;
+        return sum >>> (shift - UINT_BITS);
+    }
+
+    /**
+     * 10進桁数を返す。
+     *
+     * @param value 非負値
+     * @return 桁数
+     */
+    private static int decimalLength(long value){
+        int result = 1;
+        long rest = value;
+        while(rest >= RADIX){
+            rest /= RADIX;
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * 配列の指定範囲に非負値の10進表記を右詰めで書き込む。
+     *
+     * @param value 非負値
+     * @param buf 書き込み先
+     * @param end 書き込み範囲の末尾(この位置は含まない)
+     * @param length 書き込む桁数
+     */
+    private static void putDigits(long value, char[] buf,
+                                  int end, int length){
+        long rest = value;
+        for(int pos = end - 1; pos >= end - length; pos--){
+            buf[pos] = (char) ('0' + (int) (rest % RADIX));
+            rest /= RADIX;
+        }
+        return;
+    }
+
+    /**
+     * int値の xsd:int 表記を書き込む。
+     *
+     * <p>表記は{@link Integer#toString(int)}と同一。
+     *
+     * @param iVal int値
+     * @param buf 書き込み先。{@link #MAX_CHARS}文字以上の空きが必要
+     * @param start 書き込み開始位置
+     * @return 書き込み終了位置
+     */
+    static int formatInt(int iVal, char[] buf, int start){
+        if(iVal == Integer.MIN_VALUE){
+            int length = INT_MIN_CHARS.length;
+            System.arraycopy(INT_MIN_CHARS, 0, buf, start, length);
+            return start + length;
+        }
+
+        int pos = start;
+        long absVal = iVal;
+        if(iVal < 0){
+            buf[pos++] = '-';
+            absVal = -absVal;
+        }
+
+        int length = decimalLength(absVal);
+        pos += length;
+        putDigits(absVal, buf, pos, length);
+
+        return pos;
+    }
+
+    /**
+     * float値の xsd:float 表記を書き込む。
+     *
+     * @param fVal float値
+     * @param buf 書き込み先。{@link #MAX_CHARS}文字以上の空きが必要
+     * @param start 書き込み開始位置
+     * @return 書き込み終了位置
+     */
+    static int formatFloat(float fVal, char[] buf, int start){
+        int pos = start;
+
+        if(Float.isNaN(fVal)){
+            System.arraycopy(NAN_CHARS, 0, buf, pos, NAN_CHARS.length);
+            return pos + NAN_CHARS.length;
+        }
+
+        int bits = Float.floatToRawIntBits(fVal);
+        if(bits < 0) buf[pos++] = '-';
+
+        int ieeeMantissa = bits & MANTISSA_MASK;
+        int ieeeExponent = (bits >>> MANTISSA_BITS) & EXPONENT_MASK;
+
+        if(ieeeExponent == EXPONENT_MASK){
+            System.arraycopy(INF_CHARS, 0, buf, pos, INF_CHARS.length);
+            return pos + INF_CHARS.length;
+        }
+
+        if(ieeeExponent == 0 && ieeeMantissa == 0){
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+            return pos;
+        }
+
+        if(ieeeMantissa == 0){
+            char[] pow2 = POW2_CHARS[ieeeExponent];
+            System.arraycopy(pow2, 0, buf, pos, pow2.length);
+            return pos + pow2.length;
+        }
+
+        if(ieeeExponent == 0 || ieeeExponent > SHORTEST_EXP_MAX){
+            // JDKのバージョンにより表記が揺れる範囲は従来通り
+            String txt = Float.toString(Math.abs(fVal));
+            int length = txt.length();
+            txt.getChars(0, length, buf, pos);
+            return pos + length;
+        }
+
+        return putShortest(ieeeMantissa, ieeeExponent, buf, pos);
+    }
+
+    /**
+     * 有限かつ非0のfloat値の絶対値を最短の10進表記で書き込む。
+     *
+     * @param ieeeMantissa IEEE754仮数部
+     * @param ieeeExponent IEEE754指数部
+     * @param buf 書き込み先
+     * @param start 書き込み開始位置
+     * @return 書き込み終了位置
+     */
+    private static int putShortest(int ieeeMantissa, int ieeeExponent,
+                                   char[] buf, int start){
+        int e2;
+        long m2;
+        if(ieeeExponent == 0){
+            e2 = 1 - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        }else{
+            e2 = ieeeExponent - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = (1L << MANTISSA_BITS) | ieeeMantissa;
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+
+        // 値とその前後の丸め境界を4倍スケールで表す
+        long mv = 4 * m2;
+        long mp = 4 * m2 + 2;
+        int mmShift;
+        if(ieeeMantissa != 0 || ieeeExponent <= 1) mmShift = 1;
+        else                                       mmShift = 0;
+        long mm = 4 * m2 - 1 - mmShift;
+
+        long vr;
+        long vp;
+        long vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        int lastRemovedDigit = 0;
+
+        if(e2 >= 0){
+            int q = log10Pow2(e2);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            long factor = POW5_INV_SPLIT[q];
+            vr = mulShift(mv, factor, i);
+            vp = mulShift(mp, factor, i);
+            vm = mulShift(mm, factor, i);
+            if(q != 0 && (vp - 1) / RADIX <= vm / RADIX){
+                int l = POW5_INV_BITCOUNT + pow5bits(q - 1) - 1;
+                long removed = mulShift(mv, POW5_INV_SPLIT[q - 1],
+                                        -e2 + q - 1 + l);
+                lastRemovedDigit = (int) (removed % RADIX);
+            }
+            if(q <= 9){
+                if(mv % HALF == 0){
+                    vrIsTrailingZeros = isMultipleOfPow5(mv, q);
+                }else if(acceptBounds){
+                    vmIsTrailingZeros = isMultipleOfPow5(mm, q);
+                }else if(isMultipleOfPow5(mp, q)){
+                    vp--;
+                }
+            }
+        }else{
+            int q = log10Pow5(-e2);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long factor = POW5_SPLIT[i];
+            vr = mulShift(mv, factor, j);
+            vp = mulShift(mp, factor, j);
+            vm = mulShift(mm, factor, j);
+            if(q != 0 && (vp - 1) / RADIX <= vm / RADIX){
+                j = q - 1 - (pow5bits(i + 1) - POW5_BITCOUNT);
+                long removed = mulShift(mv, POW5_SPLIT[i + 1], j);
+                lastRemovedDigit = (int) (removed % RADIX);
+            }
+            if(q <= 1){
+                vrIsTrailingZeros = true;
+                if(acceptBounds) vmIsTrailingZeros = mmShift == 1;
+                else             vp--;
+            }else if(q < 31){
+                vrIsTrailingZeros = isMultipleOfPow2(mv, q - 1);
+            }
+        }
+
+        int removed = 0;
+        long output;
+        if(vmIsTrailingZeros || vrIsTrailingZeros){
+            while(vp / RADIX > vm / RADIX){
+                vmIsTrailingZeros &= vm % RADIX == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % RADIX);
+                vr /= RADIX;
+                vp /= RADIX;
+                vm /= RADIX;
+                removed++;
+            }
+            if(vmIsTrailingZeros){
+                while(vm % RADIX == 0){
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % RADIX);
+                    vr /= RADIX;
+                    vp /= RADIX;
+                    vm /= RADIX;
+                    removed++;
+                }
+            }
+            if(vrIsTrailingZeros && lastRemovedDigit == HALF
+                    && vr % 2 == 0){
+                // 丁度中間なら偶数側へ丸める
+                lastRemovedDigit = HALF - 1;
+            }
+            output = vr;
+            if(    (vr == vm && ( ! acceptBounds || ! vmIsTrailingZeros))
+                || lastRemovedDigit >= HALF ){
+                output++;
+            }
+        }else{
+            while(vp / RADIX > vm / RADIX){
+                lastRemovedDigit = (int) (vr % RADIX);
+                vr /= RADIX;
+                vp /= RADIX;
+                vm /= RADIX;
+                removed++;
+            }
+            output = vr;
+            if(vr == vm || lastRemovedDigit >= HALF){
+                output++;
+            }
+        }
+
+        int exp = e10 + removed;
+        int length = decimalLength(output);
+        int sciExp = exp + length - 1;
+
+        int result;
+        if(PLAIN_EXP_MIN <= sciExp && sciExp < PLAIN_EXP_MAX){
+            result = putPlain(output, length, sciExp, buf, start);
+        }else{
+            result = putScientific(output, length, sciExp, buf, start);
+        }
+
+        return result;
+    }
+
+    /**
+     * 桁列を小数点表記で書き込む。
+     *
+     * @param digits 10進桁列
+     * @param length 桁数
+     * @param sciExp 先頭桁の10進指数
+     * @param buf 書き込み先
+     * @param start 書き込み開始位置
+     * @return 書き込み終了位置
+     */
+    private static int putPlain(long digits, int length, int sciExp,
+                                char[] buf, int start){
+        int pos = start;
+
+        if(sciExp < 0){
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for(int ct = -1; ct > sciExp; ct--){
+                buf[pos++] = '0';
+            }
+            pos += length;
+            putDigits(digits, buf, pos, length);
+            return pos;
+        }
+
+        int intLength = sciExp + 1;
+        if(length <= intLength){
+            pos += length;
+            putDigits(digits, buf, pos, length);
+            for(int ct = length; ct < intLength; ct++){
+                buf[pos++] = '0';
+            }
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+            return pos;
+        }
+
+        int fracLength = length - intLength;
+        long rest = digits;
+        int end = pos + length + 1;
+        putDigits(rest, buf, end, fracLength);
+        for(int ct = 0; ct < fracLength; ct++){
+            rest /= RADIX;
+        }
+        buf[end - fracLength - 1] = '.';
+        putDigits(rest, buf, end - fracLength - 1, intLength);
+
+        return end;
+    }
+
+    /**
+     * 桁列を指数表記で書き込む。
+     *
+     * @param digits 10進桁列
+     * @param length 桁数
+     * @param sciExp 先頭桁の10進指数
+     * @param buf 書き込み先
+     * @param start 書き込み開始位置
+     * @return 書き込み終了位置
+     */
+    private static int putScientific(long digits, int length, int sciExp,
+                                     char[] buf, int start){
+        int pos = start;
+
+        if(length == 1){
+            buf[pos++] = (char) ('0' + (int) digits);
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+        }else{
+            int end = pos + length + 1;
+            putDigits(digits, buf, end, length - 1);
+            long lead = digits;
+            for(int ct = 1; ct < length; ct++){
+                lead /= RADIX;
+            }
+            buf[pos] = (char) ('0' + (int) lead);
+            buf[pos + 1] = '.';
+            pos = end;
+        }
+
+        buf[pos++] = 'E';
+        pos = formatInt(sciExp, buf, pos);
+
+        return pos;
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * xsd number parser
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import jp.sfjp.mikutoga.xml.DatatypeIo;
+
+/**
+ * XML Schema の数値型表記の解析。
+ *
+ * <p>空白や符号以外の装飾を持たない10進表記は
+ * 専用の解析器で高速に変換される。
+ * 非数、無限大、前後の空白、桁数の多い表記などは
+ * {@link DatatypeIo}に委ねられる。
+ * いずれの場合も結果は{@link DatatypeIo}と一致する。
+ */
+final class XsdNumParser {
+
+    /** doubleで正確に表せる10のべき乗の最大指数。 */
+    private static final int EXACT_POW10_MAX = 22;
+
+    /** doubleで正確に表せる10進仮数の最大桁数。 */
+    private static final int EXACT_DIGITS_MAX = 15;
+
+    /** int値の最大桁数。 */
+    private static final int INT_DIGITS_MAX = 10;
+
+    /** 指数部の最大桁数。 */
+    private static final int EXP_DIGITS_MAX = 3;
+
+    private static final int RADIX = 10;
+
+    private static final double[] POW10 = new double[EXACT_POW10_MAX + 1];
+
+    static{
+        double pow = 1.0;
+        for(int idx = 0; idx <= EXACT_POW10_MAX; idx++){
+            POW10[idx] = pow;
+            pow *= RADIX;
+        }
+    }
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private XsdNumParser(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * 文字が10進数字ならその値を返す。
+     *
+     * @param ch 文字
+     * @return 数字の値。数字でなければ負の値
+     */
+    private static int digitOf(char ch){
+        if(ch < '0' || '9' < ch) return -1;
+        return ch - '0';
+    }
+
+    /**
+     * xsd:int型表記を解析する。
+     *
+     * @param txt 表記
+     * @return int値
+     * @throws NumberFormatException int型表記ではない
+     * @see "http://www.w3.org/TR/xmlschema-2/#int"
+     */
+    static int parseInt(String txt) throws NumberFormatException{
+        if(txt == null) return DatatypeIo.parseInt(txt);
+
+        int length = txt.length();
+        int pos = 0;
+        boolean negative = false;
+        if(pos < length){
+            char sign = txt.charAt(pos);
+            if(sign == '-'){
+                negative = true;
+                pos++;
+            }else if(sign == '+'){
+                pos++;
+            }
+        }
+
+        int digits = length - pos;
+        if(digits <= 0 || INT_DIGITS_MAX < digits){
+            return DatatypeIo.parseInt(txt);
+        }
+
+        long value = 0L;
+        for(; pos < length; pos++){
+            int digit = digitOf(txt.charAt(pos));
+            if(digit < 0) return DatatypeIo.parseInt(txt);
+            value = value * RADIX + digit;
+        }
+
+        if(negative) value = -value;
+        if(value < Integer.MIN_VALUE || Integer.MAX_VALUE < value){
+            return DatatypeIo.parseInt(txt);
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * xsd:float型表記を解析する。
+     *
+     * <p>仮数部の有効桁数が15以下で、
+     * 10進指数が±22以内に収まる表記は、
+     * double演算1回による正確な丸めを経てfloat値に変換される。
+     * 変換結果がfloat値の丸め境界に一致し
+     * 二重丸めの恐れがある場合は{@link DatatypeIo}に委ねる。
+     *
+     * @param txt 表記
+     * @return float値
+     * @throws NumberFormatException float型表記ではない
+     * @see "http://www.w3.org/TR/xmlschema-2/#float"
+     */
+    static float parseFloat(String txt) throws NumberFormatException{
+        if(txt == null) return DatatypeIo.parseFloat(txt);
+
+        int length = txt.length();
+        int pos = 0;
+
+        boolean negative = false;
+        if(pos < length){
+            char sign = txt.charAt(pos);
+            if(sign == '-'){
+                negative = true;
+                pos++;
+            }else if(sign == '+'){
+                pos++;
+            }
+        }
+
+        long mantissa = 0L;
+        int sigDigits = 0;
+        int allDigits = 0;
+        int fracDigits = 0;
+        boolean afterPoint = false;
+
+        for(; pos < length; pos++){
+            char ch = txt.charAt(pos);
+            if(ch == '.'){
+                if(afterPoint) return DatatypeIo.parseFloat(txt);
+                afterPoint = true;
+                continue;
+            }
+            int digit = digitOf(ch);
+            if(digit < 0) break;
+
+            allDigits++;
+            if(afterPoint) fracDigits++;
+            if(mantissa == 0L && digit == 0) continue;
+
+            sigDigits++;
+            if(sigDigits > EXACT_DIGITS_MAX){
+                return DatatypeIo.parseFloat(txt);
+            }
+            mantissa = mantissa * RADIX + digit;
+        }
+
+        if(allDigits <= 0) return DatatypeIo.parseFloat(txt);
+
+        int exp10 = 0;
+        if(pos < length){
+            char ch = txt.charAt(pos++);
+            if(ch != 'E' && ch != 'e') return DatatypeIo.parseFloat(txt);
+
+            boolean expNegative = false;
+            if(pos < length){
+                char sign = txt.charAt(pos);
+                if(sign == '-'){
+                    expNegative = true;
+                    pos++;
+                }else if(sign == '+'){
+                    pos++;
+                }
+            }
+
+            int expDigits = length - pos;
+            if(expDigits <= 0 || EXP_DIGITS_MAX < expDigits){
+                return DatatypeIo.parseFloat(txt);
+            }
+
+            for(; pos < length; pos++){
+                int digit = digitOf(txt.charAt(pos));
+                if(digit < 0) return DatatypeIo.parseFloat(txt);
+                exp10 = exp10 * RADIX + digit;
+            }
+
+            if(expNegative) exp10 = -exp10;
+        }
+
+        float result;
+        if(mantissa == 0L){
+            result = 0.0f;
+        }else{
+            exp10 -= fracDigits;
+            if(exp10 < -EXACT_POW10_MAX || EXACT_POW10_MAX < exp10){
+                return DatatypeIo.parseFloat(txt);
+            }
+
+            double dVal = (double) mantissa;
+            if(exp10 < 0) dVal /= POW10[-exp10];
+            else          dVal *= POW10[exp10];
+
+            result = (float) dVal;
+            if( ! isSafeNarrowing(dVal, result) ){
+                return DatatypeIo.parseFloat(txt);
+            }
+        }
+
+        if(negative) result = -result;
+
+        return result;
+    }
+
+    /**
+     * double値からfloat値への丸めが
+     * 元の10進表記からの直接の丸めと一致するか判定する。
+     *
+     * <p>double値がfloat値の丸め境界(隣接するfloat値の中点)に
+     * 一致しない限り、二重丸めの影響は生じない。
+     *
+     * @param dVal 正のdouble値
+     * @param fVal dVal を丸めたfloat値
+     * @return 一致が保証されるならtrue
+     */
+    private static boolean isSafeNarrowing(double dVal, float fVal){
+        if(Float.isInfinite(fVal) || fVal == 0.0f) return false;
+
+        double near = fVal;
+        if(near == dVal) return true;
+
+        double far;
+        if(dVal > near) far = Math.nextUp(fVal);
+        else            far = Math.nextDown(fVal);
+
+        boolean isMidpoint = dVal - near == far - dVal;
+
+        return ! isMidpoint;
+    }
+
+}
@@ -0,0 +1,596 @@
+/*
+ * batch converter
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * 複数ファイルの一括変換を行う。
+ *
+ * <p>変換ジョブは-iで列挙されたファイル、
+ * -idirで指定されたディレクトリ以下のファイル、
+ * -joblistで指定されたジョブリストから構成される。
+ *
+ * <p>ジョブは固定数のワーカースレッドで並行処理される。
+ * 各ワーカーは専用のコンバータを持つ。
+ * あるジョブの失敗は他のジョブに影響しない。
+ */
+final class BatchConv {
+
+    private static final PrintStream ERROUT = System.err;
+    private static final Charset CS_UTF8 = Charset.forName("UTF-8");
+
+    private static final String SFX_PMD = ".pmd";
+    private static final String SFX_XML = ".xml";
+    private static final String SFX_CACHE = ".pmdc";
+    private static final String SFX_GZIP = ".gz";
+
+    private static final String COMMENT = "#";
+    private static final String JOBSEP = "\t";
+
+    private static final String MSG_NOINDIR = "{0} is not directory.";
+    private static final String MSG_DUPOUT =
+            "{0} is output of multiple inputs. rejected.";
+    private static final String MSG_UNKTYPE =
+            "Unknown input file type : {0}";
+    private static final String MSG_JOBERR = "FAILED: {0}\n{1}";
+    private static final String MSG_SUMMARY = "{0} converted, {1} failed.";
+
+
+    private final OptInfo optInfo;
+    private final List<BatchJob> jobList = new ArrayList<>();
+    private int rejected = 0;
+    private ConversionCache cache = null;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param optInfo オプション情報
+     */
+    BatchConv(OptInfo optInfo){
+        super();
+        this.optInfo = optInfo;
+        return;
+    }
+
+
+    /**
+     * 出力ファイル種別に応じたファイル名接尾辞を返す。
+     *
+     * @param type 出力ファイル種別
+     * @return 接尾辞
+     */
+    private static String outSuffix(ModelFileType type){
+        String result;
+        if     (type.isPmd())   result = SFX_PMD;
+        else if(type.isCache()) result = SFX_CACHE;
+        else                    result = SFX_XML;
+        return result;
+    }
+
+    /**
+     * ファイル名の接尾辞を置き換える。
+     *
+     * <p>gzip圧縮を示す接尾辞は、その前の接尾辞とまとめて置き換えられる。
+     *
+     * @param fileName ファイル名
+     * @param suffix 新しい接尾辞
+     * @return 置き換え後のファイル名
+     */
+    static String replaceSuffix(String fileName, String suffix){
+        String base = fileName;
+        if(OptInfo.isGzipName(base)){
+            base = base.substring(0, base.length() - SFX_GZIP.length());
+        }
+        int dotPos = base.lastIndexOf('.');
+        if(dotPos > 0) base = base.substring(0, dotPos);
+        String result = base + suffix;
+        return result;
+    }
+
+    /**
+     * 変換ジョブ群を返す。
+     *
+     * @return 変換ジョブ群
+     */
+    List<BatchJob> getJobList(){
+        return Collections.unmodifiableList(this.jobList);
+    }
+
+    /**
+     * 出力先の重複により除外されたジョブ数を返す。
+     *
+     * @return 除外されたジョブ数
+     */
+    int getRejectedCount(){
+        return this.rejected;
+    }
+
+    /**
+     * 入力ファイル種別を決定する。
+     *
+     * @param inFile 入力ファイル
+     * @return 入力ファイル種別。決定できなければNONE
+     */
+    private ModelFileType decideInType(Path inFile){
+        ModelFileType result = this.optInfo.getInFileType();
+        if(result == ModelFileType.NONE){
+            Path fileName = inFile.getFileName();
+            if(fileName != null){
+                result = OptInfo.getFileType(fileName.toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 入力ファイルに対応する出力ファイル名を、
+     * 出力ディレクトリからの相対パスとして返す。
+     *
+     * @param relPath 入力ファイルの相対パス
+     * @return 出力ファイルの相対パス
+     */
+    private Path toOutRelPath(Path relPath){
+        String suffix = outSuffix(this.optInfo.getOutFileType());
+        if(this.optInfo.isOutGzip()) suffix += SFX_GZIP;
+        String outName =
+                replaceSuffix(relPath.getFileName().toString(), suffix);
+        Path result = relPath.resolveSibling(outName);
+        return result;
+    }
+
+    /**
+     * 変換ジョブを追加する。
+     *
+     * @param inFile 入力ファイル
+     * @param outFile 出力ファイル
+     */
+    private void addJob(Path inFile, Path outFile){
+        ModelFileType inType = decideInType(inFile);
+        BatchJob job = new BatchJob(inFile, outFile, inType);
+        this.jobList.add(job);
+        return;
+    }
+
+    /**
+     * -iで指定された入力ファイル群からジョブを構成する。
+     */
+    private void buildFileJobs(){
+        Path outDir = Paths.get(this.optInfo.getOutDirname());
+
+        for(String inName : this.optInfo.getInFilenames()){
+            Path inFile = Paths.get(inName);
+            Path outFile = outDir.resolve(toOutRelPath(inFile.getFileName()));
+            addJob(inFile, outFile);
+        }
+
+        return;
+    }
+
+    /**
+     * -idirで指定されたディレクトリを走査しジョブを構成する。
+     *
+     * <p>入力ファイル種別が指定されていなければ、
+     * 接尾辞が.pmdもしくは.xmlのファイルが対象となる。
+     * それらに.gzが続くgzip圧縮ファイルも対象となる。
+     * 出力ファイルは入力ディレクトリ内の相対位置を保って配置される。
+     *
+     * @throws IOException 入力ディレクトリの走査に失敗
+     */
+    private void buildDirJobs() throws IOException{
+        String inDirName = this.optInfo.getInDirname();
+        if(inDirName == null) return;
+
+        final Path inDir = Paths.get(inDirName);
+        if( ! Files.isDirectory(inDir) ){
+            String msg = MessageFormat.format(MSG_NOINDIR, inDir);
+            throw new IOException(msg);
+        }
+
+        final List<Path> found = new ArrayList<>();
+        Files.walkFileTree(inDir, new SimpleFileVisitor<Path>(){
+            @Override
+            public FileVisitResult visitFile(Path file,
+                                             BasicFileAttributes attrs){
+                if(attrs.isRegularFile() && isTarget(file)){
+                    found.add(inDir.relativize(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(found);
+
+        Path outDir = Paths.get(this.optInfo.getOutDirname());
+        for(Path relPath : found){
+            Path inFile = inDir.resolve(relPath);
+            Path outFile = outDir.resolve(toOutRelPath(relPath));
+            addJob(inFile, outFile);
+        }
+
+        return;
+    }
+
+    /**
+     * ディレクトリ走査時の変換対象か判定する。
+     *
+     * @param file ファイル
+     * @return 対象ならtrue
+     */
+    private boolean isTarget(Path file){
+        Path fileName = file.getFileName();
+        if(fileName == null) return false;
+
+        ModelFileType type = OptInfo.getFileType(fileName.toString());
+        if(type == ModelFileType.NONE) return false;
+
+        ModelFileType inType = this.optInfo.getInFileType();
+        if(inType.isPmd() && ! type.isPmd()) return false;
+        if(inType.isXml() && ! type.isXml()) return false;
+        if(inType.isCache() && ! type.isCache()) return false;
+
+        return true;
+    }
+
+    /**
+     * ジョブリストファイルを読みジョブを構成する。
+     *
+     * <p>ジョブリストは1行に1ジョブを記述したUTF-8テキスト。
+     * 各行は入力ファイル名と、タブに続く省略可能な出力ファイル名からなる。
+     * 相対指定の出力ファイル名は出力ディレクトリを基準とする。
+     * 空行と#で始まる行は無視される。
+     *
+     * @throws IOException ジョブリストの読み込みに失敗
+     */
+    private void buildListJobs() throws IOException{
+        String listName = this.optInfo.getJobListFilename();
+        if(listName == null) return;
+
+        Path outDir = Paths.get(this.optInfo.getOutDirname());
+
+        BufferedReader reader =
+                Files.newBufferedReader(Paths.get(listName), CS_UTF8);
+        try{
+            for(;;){
+                String line = reader.readLine();
+                if(line == null) break;
+                if(line.trim().isEmpty()) continue;
+                if(line.startsWith(COMMENT)) continue;
+
+                String inName = line;
+                String outName = null;
+                int sepPos = line.indexOf(JOBSEP);
+                if(sepPos >= 0){
+                    inName  = line.substring(0, sepPos);
+                    outName = line.substring(sepPos + 1).trim();
+                    if(outName.isEmpty()) outName = null;
+                }
+
+                Path inFile = Paths.get(inName.trim());
+                Path outFile;
+                if(outName == null){
+                    outFile = outDir.resolve(
+                            toOutRelPath(inFile.getFileName()));
+                }else{
+                    outFile = outDir.resolve(outName);
+                }
+
+                addJob(inFile, outFile);
+            }
+        }finally{
+            reader.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 出力先が重複したジョブを除外する。
+     *
+     * <p>出力先が重複した場合は先に登録されたジョブのみを残す。
+     * 除外されたジョブは失敗したジョブとして数えられる。
+     */
+    private void removeDupOutput(){
+        Set<Path> outSet = new HashSet<>();
+        List<BatchJob> uniqList = new ArrayList<>(this.jobList.size());
+
+        for(BatchJob job : this.jobList){
+            Path key = job.getOutFile().toAbsolutePath().normalize();
+            if( ! outSet.add(key) ){
+                String msg = MessageFormat.format(MSG_DUPOUT, key);
+                ERROUT.println(msg);
+                this.rejected++;
+                continue;
+            }
+            uniqList.add(job);
+        }
+
+        this.jobList.clear();
+        this.jobList.addAll(uniqList);
+
+        return;
+    }
+
+    /**
+     * オプション情報に従い変換ジョブ群を構成する。
+     *
+     * @throws IOException 入力ディレクトリやジョブリストの読み込みに失敗
+     */
+    void buildJobs() throws IOException{
+        this.jobList.clear();
+        this.rejected = 0;
+
+        buildFileJobs();
+        buildDirJobs();
+        buildListJobs();
+
+        removeDupOutput();
+
+        return;
+    }
+
+    /**
+     * ワーカー数を決定する。
+     *
+     * @return ワーカー数
+     */
+    private int decideWorkers(){
+        int result = this.optInfo.getWorkers();
+        if(result <= 0){
+            result = Runtime.getRuntime().availableProcessors();
+        }
+        result = Math.min(result, this.jobList.size());
+        result = Math.max(result, 1);
+        return result;
+    }
+
+    /**
+     * オプション情報に従い全ワーカーで共有する変換結果キャッシュを開く。
+     *
+     * <p>キャッシュディレクトリが未指定なら何もしない。
+     *
+     * @throws IOException キャッシュディレクトリの作成もしくは走査に失敗
+     */
+    void openCache() throws IOException{
+        String dirName = this.optInfo.getCacheDirname();
+        if(dirName == null) return;
+
+        Path cacheDir = Paths.get(dirName);
+        this.cache = new ConversionCache(cacheDir,
+                                         this.optInfo.getCacheSize());
+
+        return;
+    }
+
+    /**
+     * 構成済みの全ジョブを変換する。
+     *
+     * <p>失敗したジョブがあれば、ジョブ順で最初に失敗したジョブの
+     * 終了コードを返す。
+     * ワーカーが実行しなかったジョブは内部エラーとして扱われる。
+     *
+     * <p>出力先の重複により除外されたジョブは失敗として数えられ、
+     * 他に失敗したジョブが無ければオプションエラーの終了コードを返す。
+     *
+     * @return 終了コード
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    int runJobs() throws InterruptedException{
+        final int jobs = this.jobList.size();
+        final int[] results = new int[jobs];
+        final AtomicInteger nextJob = new AtomicInteger(0);
+
+        Arrays.fill(results, Pmd2Xml.EXIT_INTERR);
+
+        int workers = decideWorkers();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try{
+            for(int ct = 0; ct < workers; ct++){
+                pool.execute(new Runnable(){
+                    @Override
+                    public void run(){
+                        Pmd2XmlConv converter = buildConverter();
+                        try{
+                            runWorker(converter, nextJob, results);
+                        }finally{
+                            ForkJoinPool xmlPool =
+                                    converter.getXmlParallelPool();
+                            if(xmlPool != null) xmlPool.shutdown();
+                        }
+                        return;
+                    }
+                });
+            }
+        }finally{
+            pool.shutdown();
+        }
+
+        while( ! pool.awaitTermination(1L, TimeUnit.SECONDS) ){
+            continue;
+        }
+
+        int exitCode = Pmd2Xml.EXIT_OK;
+        int failed = 0;
+        for(int result : results){
+            if(result == Pmd2Xml.EXIT_OK) continue;
+            if(failed == 0) exitCode = result;
+            failed++;
+        }
+
+        if(failed == 0 && this.rejected > 0){
+            exitCode = Pmd2Xml.EXIT_OPTERR;
+        }
+
+        String summary = MessageFormat.format(MSG_SUMMARY,
+                                              jobs - failed,
+                                              failed + this.rejected );
+        ERROUT.println(summary);
+
+        return exitCode;
+    }
+
+    /**
+     * 未着手のジョブが無くなるまで1ワーカーでジョブを変換する。
+     *
+     * @param converter ワーカー専用のコンバータ
+     * @param nextJob 次に着手するジョブの番号
+     * @param results ジョブごとの終了コード
+     */
+    private void runWorker(Pmd2XmlConv converter,
+                           AtomicInteger nextJob,
+                           int[] results ){
+        int jobs = this.jobList.size();
+
+        for(;;){
+            int idx = nextJob.getAndIncrement();
+            if(idx >= jobs) break;
+            BatchJob job = this.jobList.get(idx);
+            results[idx] = runJob(converter, job);
+        }
+
+        return;
+    }
+
+    /**
+     * ワーカー専用のコンバータを生成する。
+     *
+     * <p>XMLの並列出力が指示された場合、
+     * プロセッサ数をワーカー数で割った並列度を持つ
+     * ワーカー専用のスレッドプールが割り当てられる。
+     * その並列度が1以下ならワーカー間の並列性で十分なため、
+     * XMLは逐次出力される。
+     * スレッドプールはワーカーの終了時に停止される。
+     *
+     * @return コンバータ
+     */
+    private Pmd2XmlConv buildConverter(){
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+
+        converter.setOutType(this.optInfo.getOutFileType());
+        converter.setNewline(this.optInfo.getNewline());
+        converter.setGenerator(this.optInfo.getGenerator());
+        converter.setConversionCache(this.cache);
+        converter.setXmlPullParser(this.optInfo.isXmlPullParser());
+        converter.setXmlTrusted(this.optInfo.isXmlTrusted());
+
+        int procs = Runtime.getRuntime().availableProcessors();
+        int share = Math.max(procs / decideWorkers(), 1);
+
+        if(this.optInfo.isXmlParallel() && share > 1){
+            converter.setXmlParallelPool(new ForkJoinPool(share));
+        }
+
+        converter.setOutGzip(this.optInfo.isOutGzip());
+        converter.setGzipThreads(share);
+
+        return converter;
+    }
+
+    /**
+     * 1ジョブを変換する。
+     *
+     * <p>出力ファイルは変換に成功した場合のみ作成もしくは置き換えられる。
+     * 上書き指示がなければ既存ファイルへの出力は失敗する。
+     *
+     * <p>全ての例外はジョブの失敗として扱われ、
+     * ワーカーは後続のジョブの変換を続ける。
+     * {@link Error}は捕捉されない。
+     *
+     * @param converter コンバータ
+     * @param job ジョブ
+     * @return 終了コード
+     */
+    private int runJob(Pmd2XmlConv converter, BatchJob job){
+        Path inFile = job.getInFile();
+        Path outFile = job.getOutFile();
+
+        if(job.getInType() == ModelFileType.NONE){
+            String msg = MessageFormat.format(MSG_UNKTYPE, inFile);
+            jobError(job, msg);
+            return Pmd2Xml.EXIT_OPTERR;
+        }
+
+        int result;
+        try{
+            converter.setInType(job.getInType());
+            converter.setInGzip(OptInfo.isGzipName(inFile.toString()));
+
+            Path parent = outFile.toAbsolutePath().getParent();
+            if(parent != null) Files.createDirectories(parent);
+
+            if( ! this.optInfo.overwriteMode() && Files.exists(outFile) ){
+                throw new FileAlreadyExistsException(outFile.toString());
+            }
+
+            InputSource source = XmlInputUtil.fileToSource(inFile.toFile());
+            converter.convert(source, outFile);
+
+            result = Pmd2Xml.EXIT_OK;
+        }catch(IOException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_IOERR;
+        }catch(MmdFormatException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_PMDERR;
+        }catch(TogaXmlException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_XMLERR;
+        }catch(SAXException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_XMLERR;
+        }catch(IllegalPmdDataException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_INTERR;
+        }catch(RuntimeException e){
+            jobError(job, e.toString());
+            result = Pmd2Xml.EXIT_INTERR;
+        }
+
+        return result;
+    }
+
+    /**
+     * ジョブ単位のエラーメッセージを出力する。
+     *
+     * @param job ジョブ
+     * @param text 個別メッセージ
+     */
+    private static void jobError(BatchJob job, String text){
+        String msg = MessageFormat.format(MSG_JOBERR, job.getInFile(), text);
+        ERROUT.println(msg);
+        return;
+    }
+
+}
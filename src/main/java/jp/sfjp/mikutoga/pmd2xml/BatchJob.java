@@ -0,0 +1,70 @@
+/*
+ * batch conversion job
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.nio.file.Path;
+
+/**
+ * 一括変換における1ファイル分の変換ジョブ。
+ */
+final class BatchJob {
+
+    private final Path inFile;
+    private final Path outFile;
+    private final ModelFileType inType;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param inFile 入力ファイル
+     * @param outFile 出力ファイル
+     * @param inType 入力ファイル種別。不明ならNONE
+     * @throws NullPointerException 引数がnull
+     */
+    BatchJob(Path inFile, Path outFile, ModelFileType inType)
+            throws NullPointerException{
+        super();
+        if(inFile == null || outFile == null || inType == null){
+            throw new NullPointerException();
+        }
+        this.inFile = inFile;
+        this.outFile = outFile;
+        this.inType = inType;
+        return;
+    }
+
+
+    /**
+     * 入力ファイルを返す。
+     *
+     * @return 入力ファイル
+     */
+    Path getInFile(){
+        return this.inFile;
+    }
+
+    /**
+     * 出力ファイルを返す。
+     *
+     * @return 出力ファイル
+     */
+    Path getOutFile(){
+        return this.outFile;
+    }
+
+    /**
+     * 入力ファイル種別を返す。
+     *
+     * @return 入力ファイル種別。不明ならNONE
+     */
+    ModelFileType getInType(){
+        return this.inType;
+    }
+
+}
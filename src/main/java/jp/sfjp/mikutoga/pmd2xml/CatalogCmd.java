@@ -0,0 +1,150 @@
+/*
+ * model catalog command
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import org.xml.sax.SAXException;
+
+/**
+ * モデルカタログの更新と検索を行う。
+ *
+ * <p>-catalogで指定された索引ファイルが存在すれば読み込まれる。
+ * -idirが指定されればディレクトリを再走査し索引ファイルを更新する。
+ *
+ * <p>-minbonesもしくは-usesが指定されれば条件に合うモデルを、
+ * いずれも指定されなければ全モデルを、
+ * パス表記とモデル名のタブ区切りで1行ずつ標準出力へ出力する。
+ * 両方が指定された場合は両条件に合うモデルが出力される。
+ */
+final class CatalogCmd {
+
+    private static final PrintStream STDOUT = System.out;
+    private static final PrintStream ERROUT = System.err;
+
+    private static final String SEP = "\t";
+
+    private static final String MSG_SCANERR = "FAILED: {0}\n{1}";
+    private static final String MSG_SUMMARY =
+            "{0} files cataloged, {1} read, {2} failed.";
+
+
+    private final OptInfo optInfo;
+    private final ModelCatalog catalog = new ModelCatalog();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param optInfo オプション情報
+     */
+    CatalogCmd(OptInfo optInfo){
+        super();
+        this.optInfo = optInfo;
+        return;
+    }
+
+
+    /**
+     * 索引ファイルを読み込み、必要ならディレクトリを再走査し保存する。
+     *
+     * <p>読み込みに失敗したファイルがあれば、
+     * パス表記順で最初に失敗したファイルの終了コードを返す。
+     *
+     * @return 終了コード
+     * @throws IOException 索引ファイルの入出力もしくは走査に失敗
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    int update() throws IOException, InterruptedException{
+        Path indexFile = Paths.get(this.optInfo.getCatalogFilename());
+        if(Files.exists(indexFile)){
+            this.catalog.load(indexFile);
+        }
+
+        String inDirName = this.optInfo.getInDirname();
+        if(inDirName == null) return Pmd2Xml.EXIT_OK;
+
+        int workers = this.optInfo.getWorkers();
+        int read = this.catalog.rescan(Paths.get(inDirName), workers);
+        this.catalog.save(indexFile);
+
+        int exitCode = Pmd2Xml.EXIT_OK;
+        Map<String, Throwable> failMap = this.catalog.getScanFailures();
+        for(Map.Entry<String, Throwable> fail : failMap.entrySet()){
+            Throwable cause = fail.getValue();
+            if(exitCode == Pmd2Xml.EXIT_OK) exitCode = toExitCode(cause);
+            String msg = MessageFormat.format(MSG_SCANERR,
+                                              fail.getKey(), cause);
+            ERROUT.println(msg);
+        }
+
+        int cataloged = this.catalog.getEntryList().size();
+        String summary = MessageFormat.format(MSG_SUMMARY,
+                cataloged, read - failMap.size(), failMap.size());
+        ERROUT.println(summary);
+
+        return exitCode;
+    }
+
+    /**
+     * 読み込み失敗原因に対応する終了コードを返す。
+     *
+     * @param cause 失敗原因
+     * @return 終了コード
+     */
+    private static int toExitCode(Throwable cause){
+        int result;
+        if(cause instanceof IOException){
+            result = Pmd2Xml.EXIT_IOERR;
+        }else if(cause instanceof MmdFormatException){
+            result = Pmd2Xml.EXIT_PMDERR;
+        }else if(cause instanceof SAXException){
+            result = Pmd2Xml.EXIT_XMLERR;
+        }else{
+            result = Pmd2Xml.EXIT_INTERR;
+        }
+        return result;
+    }
+
+    /**
+     * 検索条件に合うモデルを出力する。
+     */
+    void query(){
+        List<ModelCatalog.Entry> found;
+
+        String usesName = this.optInfo.getUsesFilename();
+        if(usesName != null){
+            found = this.catalog.findByReference(usesName);
+        }else{
+            found = this.catalog.getEntryList();
+        }
+
+        int minBones = this.optInfo.getMinBones();
+        for(ModelCatalog.Entry entry : found){
+            if(entry.getCount(ModelCatalog.Count.BONE) < minBones) continue;
+
+            StringBuilder line = new StringBuilder();
+            line.append(entry.getPath());
+            String modelName = entry.getModelName();
+            if(modelName != null) line.append(SEP).append(modelName);
+            STDOUT.println(line);
+        }
+
+        STDOUT.flush();
+
+        return;
+    }
+
+}
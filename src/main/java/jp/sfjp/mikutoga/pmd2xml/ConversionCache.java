@@ -0,0 +1,404 @@
+/*
+ * content-hash conversion cache
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ディスク上の変換結果キャッシュ。
+ *
+ * <p>変換結果は入力ファイル内容と変換条件のSHA-256ハッシュ値を
+ * キーとして、キャッシュディレクトリ上に1ファイルずつ保存される。
+ * 同一キーの変換要求には保存済みの結果が複写される。
+ *
+ * <p>保存済みファイルの合計サイズが上限を超えると、
+ * 最も長く参照されていないものから削除される。
+ * 参照順はファイルの最終更新日時として記録され、
+ * 次回起動時に引き継がれる。
+ *
+ * <p>各メソッドは複数スレッドから同時に呼び出せる。
+ */
+public final class ConversionCache {
+
+    /**
+     * キャッシュ形式の版数。
+     *
+     * <p>保存済みファイルの形式が変わる際に更新し、キーへ反映させる。
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final String DIGEST_ALG = "SHA-256";
+    private static final String SFX_ENTRY = ".out";
+    private static final int KEY_LEN = 64;
+
+    private static final int NULL_LEN = -1;
+    private static final String HEXDIGITS = "0123456789abcdef";
+
+
+    private final Path cacheDir;
+    private final long maxSize;
+
+    private final Map<String, Long> lruMap =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize = 0L;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>キャッシュディレクトリが無ければ作成される。
+     * 既存の保存済みファイルは最終更新日時の順に参照順へ登録される。
+     *
+     * @param cacheDir キャッシュディレクトリ
+     * @param maxSize 保存済みファイルの合計サイズ上限(バイト)
+     * @throws IOException ディレクトリの作成もしくは走査に失敗
+     * @throws IllegalArgumentException 上限が負
+     */
+    public ConversionCache(Path cacheDir, long maxSize)
+            throws IOException, IllegalArgumentException{
+        super();
+
+        if(maxSize < 0L) throw new IllegalArgumentException();
+
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(cacheDir);
+        scanEntries();
+        evict();
+
+        return;
+    }
+
+
+    /**
+     * キーが保存済みファイル名として妥当か判定する。
+     *
+     * @param key キー
+     * @return 妥当ならtrue
+     */
+    private static boolean isValidKey(String key){
+        if(key.length() != KEY_LEN) return false;
+        for(int idx = 0; idx < KEY_LEN; idx++){
+            if(HEXDIGITS.indexOf(key.charAt(idx)) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 文字列をハッシュ値計算に加える。
+     *
+     * <p>文字列の区切りが曖昧にならないよう長さが前置される。
+     *
+     * @param md ハッシュ値計算
+     * @param text 文字列。nullも可
+     */
+    private static void updateText(MessageDigest md, String text){
+        ByteBuffer len = ByteBuffer.allocate(Integer.BYTES);
+        if(text == null){
+            len.putInt(NULL_LEN);
+            md.update(len.array());
+            return;
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        len.putInt(bytes.length);
+        md.update(len.array());
+        md.update(bytes);
+
+        return;
+    }
+
+    /**
+     * 入力ファイル内容と変換条件からキーを求める。
+     *
+     * <p>入力ファイルはメモリマップを介して読まれる。
+     *
+     * @param inFile 入力ファイル
+     * @param params 変換条件。nullの要素も可
+     * @return キー
+     * @throws IOException 入力エラー
+     */
+    public static String buildKey(Path inFile, String... params)
+            throws IOException{
+        MessageDigest md;
+        try{
+            md = MessageDigest.getInstance(DIGEST_ALG);
+        }catch(NoSuchAlgorithmException e){
+            assert false;
+            throw new AssertionError(e);
+        }
+
+        for(String param : params){
+            updateText(md, param);
+        }
+
+        FileChannel channel = FileChannel.open(inFile,
+                                               StandardOpenOption.READ);
+        try{
+            long size = channel.size();
+            if(size > 0L){
+                md.update(channel.map(FileChannel.MapMode.READ_ONLY,
+                                      0L, size));
+            }
+        }finally{
+            channel.close();
+        }
+
+        byte[] digest = md.digest();
+        StringBuilder result = new StringBuilder(KEY_LEN);
+        for(byte bVal : digest){
+            result.append(HEXDIGITS.charAt((bVal >> 4) & 0x0f));
+            result.append(HEXDIGITS.charAt(bVal & 0x0f));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * ファイルチャネル間で先頭から指定サイズを転送する。
+     *
+     * @param src 転送元
+     * @param size 転送サイズ
+     * @param dst 転送先
+     * @throws IOException 入出力エラーもしくは転送元が途中で尽きた
+     */
+    private static void transfer(FileChannel src, long size, FileChannel dst)
+            throws IOException{
+        long pos = 0L;
+        while(pos < size){
+            long done = src.transferTo(pos, size - pos, dst);
+            if(done <= 0L) throw new EOFException();
+            pos += done;
+        }
+        return;
+    }
+
+    /**
+     * キャッシュディレクトリを走査し保存済みファイルを登録する。
+     *
+     * @throws IOException 走査に失敗
+     */
+    private void scanEntries() throws IOException{
+        final Map<Path, BasicFileAttributes> attrMap = new LinkedHashMap<>();
+
+        DirectoryStream<Path> stream =
+                Files.newDirectoryStream(this.cacheDir, "*" + SFX_ENTRY);
+        try{
+            for(Path file : stream){
+                BasicFileAttributes attrs =
+                        Files.readAttributes(file, BasicFileAttributes.class);
+                if( ! attrs.isRegularFile() ) continue;
+                attrMap.put(file, attrs);
+            }
+        }finally{
+            stream.close();
+        }
+
+        List<Path> fileList = new ArrayList<>(attrMap.keySet());
+        Collections.sort(fileList, new Comparator<Path>(){
+            @Override
+            public int compare(Path file1, Path file2){
+                FileTime time1 = attrMap.get(file1).lastModifiedTime();
+                FileTime time2 = attrMap.get(file2).lastModifiedTime();
+                return time1.compareTo(time2);
+            }
+        });
+
+        for(Path file : fileList){
+            String name = file.getFileName().toString();
+            int keyLen = name.length() - SFX_ENTRY.length();
+            String key = name.substring(0, keyLen);
+            if( ! isValidKey(key) ) continue;
+            long size = attrMap.get(file).size();
+            this.lruMap.put(key, size);
+            this.totalSize += size;
+        }
+
+        return;
+    }
+
+    /**
+     * キーに対応する保存済みファイルを返す。
+     *
+     * @param key キー
+     * @return 保存済みファイル
+     */
+    private Path entryFile(String key){
+        return this.cacheDir.resolve(key + SFX_ENTRY);
+    }
+
+    /**
+     * 合計サイズが上限以下になるまで古いものから削除する。
+     *
+     * <p>削除できなかったファイルも登録からは外される。
+     */
+    private synchronized void evict(){
+        Iterator<Map.Entry<String, Long>> it =
+                this.lruMap.entrySet().iterator();
+        while(this.totalSize > this.maxSize && it.hasNext()){
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            this.totalSize -= eldest.getValue();
+            try{
+                Files.deleteIfExists(entryFile(eldest.getKey()));
+            }catch(IOException e){
+                continue;
+            }
+        }
+        return;
+    }
+
+    /**
+     * キーに対応する変換結果が保存済みなら出力先へ複写する。
+     *
+     * <p>複写には{@link FileChannel#transferTo}が用いられる。
+     * 複写された結果は最も新しく参照されたものとなる。
+     *
+     * @param key キー
+     * @param dst 出力先。既存の内容は置き換えられる
+     * @return 複写したならtrue。保存されていなければfalse
+     * @throws IOException 入出力エラー
+     */
+    public boolean copyOut(String key, Path dst) throws IOException{
+        Path entry = entryFile(key);
+
+        synchronized(this){
+            if(this.lruMap.get(key) == null) return false;
+        }
+
+        FileChannel src;
+        try{
+            src = FileChannel.open(entry, StandardOpenOption.READ);
+        }catch(NoSuchFileException e){
+            forget(key);
+            return false;
+        }
+
+        try{
+            FileChannel out = FileChannel.open(dst,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING );
+            try{
+                transfer(src, src.size(), out);
+            }finally{
+                out.close();
+            }
+        }finally{
+            src.close();
+        }
+
+        try{
+            FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+            Files.setLastModifiedTime(entry, now);
+        }catch(IOException e){
+            // 参照順が次回起動時に引き継がれないだけ
+        }
+
+        return true;
+    }
+
+    /**
+     * 消失した保存済みファイルを登録から外す。
+     *
+     * @param key キー
+     */
+    private synchronized void forget(String key){
+        Long size = this.lruMap.remove(key);
+        if(size != null) this.totalSize -= size;
+        return;
+    }
+
+    /**
+     * 変換結果をキーに対応付けて保存する。
+     *
+     * <p>変換結果は一時ファイルを経てアトミックに保存される。
+     * 上限を超える大きさの変換結果は保存されない。
+     *
+     * @param key キー
+     * @param outFile 変換結果ファイル
+     * @throws IOException 入出力エラー
+     */
+    public void store(String key, Path outFile) throws IOException{
+        long size = Files.size(outFile);
+        if(size > this.maxSize) return;
+
+        Path entry = entryFile(key);
+        Path tmpFile = OutFileUtil.createTempSibling(entry);
+        boolean done = false;
+        try{
+            FileChannel src = FileChannel.open(outFile,
+                                               StandardOpenOption.READ);
+            try{
+                FileChannel out = FileChannel.open(tmpFile,
+                        StandardOpenOption.WRITE);
+                try{
+                    transfer(src, size, out);
+                }finally{
+                    out.close();
+                }
+            }finally{
+                src.close();
+            }
+            OutFileUtil.replace(tmpFile, entry);
+            done = true;
+        }finally{
+            if( ! done ) Files.deleteIfExists(tmpFile);
+        }
+
+        synchronized(this){
+            Long old = this.lruMap.put(key, size);
+            if(old != null) this.totalSize -= old;
+            this.totalSize += size;
+        }
+
+        evict();
+
+        return;
+    }
+
+    /**
+     * 保存済みの変換結果の数を返す。
+     *
+     * @return 変換結果の数
+     */
+    public synchronized int size(){
+        return this.lruMap.size();
+    }
+
+    /**
+     * 保存済みファイルの合計サイズを返す。
+     *
+     * @return 合計サイズ(バイト)
+     */
+    public synchronized long getTotalSize(){
+        return this.totalSize;
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * gzip input stream decompressed by a separate thread
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 別スレッドで展開したgzipデータを読み出す入力ストリーム。
+ *
+ * <p>展開スレッドは圧縮データを一定長のチャンク単位で展開し、
+ * 有限長のキューを介して読み出し側へ渡す。
+ * 読み出し側の処理と展開処理は並行して進む。
+ *
+ * <p>連結された複数のgzipメンバは1つのデータとして展開される。
+ * 展開時のエラーは読み出し側へ{@link IOException}として伝えられる。
+ */
+final class GzipPipeInputStream extends InputStream {
+
+    /** チャンク長。 */
+    static final int CHUNK_SZ = 64 * 1024;
+
+    private static final int QUEUE_LEN = 8;
+
+    private static final ByteBuffer EOD = ByteBuffer.allocate(0);
+
+    private static final String ERRMSG_CLOSED = "stream closed";
+
+
+    private final InputStream source;
+    private final BlockingQueue<ByteBuffer> queue =
+            new ArrayBlockingQueue<>(QUEUE_LEN);
+    private final Thread inflater;
+
+    private volatile Throwable failure = null;
+
+    private ByteBuffer current = null;
+    private boolean closed = false;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>展開スレッドが開始される。
+     *
+     * @param source gzip圧縮されたデータの入力元
+     * @throws NullPointerException 引数がnull
+     */
+    GzipPipeInputStream(InputStream source) throws NullPointerException{
+        super();
+
+        if(source == null) throw new NullPointerException();
+        this.source = source;
+
+        this.inflater = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                inflateAll();
+                return;
+            }
+        });
+        this.inflater.setDaemon(true);
+        this.inflater.start();
+
+        return;
+    }
+
+
+    /**
+     * 展開スレッド本体。
+     *
+     * <p>終了時には必ずデータ終端をキューに置く。
+     * {@link Error}を含む展開中の例外は記録され、読み出し側で再送出される。
+     */
+    private void inflateAll(){
+        boolean aborted = false;
+        try{
+            GZIPInputStream gzip = new GZIPInputStream(this.source, CHUNK_SZ);
+            for(;;){
+                ByteBuffer chunk = readChunk(gzip);
+                if( ! chunk.hasRemaining() ) break;
+                this.queue.put(chunk);
+            }
+        }catch(InterruptedException e){
+            aborted = true;
+        }catch(Throwable e){
+            this.failure = e;
+        }finally{
+            putEod(aborted);
+        }
+
+        return;
+    }
+
+    /**
+     * データ終端をキューに置く。
+     *
+     * <p>中断された場合は読み出し側が既に閉じられているため、
+     * 未読のチャンクを破棄して待機せずに置く。
+     *
+     * @param aborted 展開が中断されていればtrue
+     */
+    private void putEod(boolean aborted){
+        if( ! aborted ){
+            try{
+                this.queue.put(EOD);
+                return;
+            }catch(InterruptedException e){
+                // NOTHING
+            }
+        }
+
+        this.queue.clear();
+        this.queue.offer(EOD);
+
+        return;
+    }
+
+    /**
+     * 展開データを1チャンク分読む。
+     *
+     * @param gzip 展開元
+     * @return チャンク。データ終端に達していれば空
+     * @throws IOException 入力エラーもしくは展開エラー
+     */
+    private static ByteBuffer readChunk(InputStream gzip) throws IOException{
+        byte[] buf = new byte[CHUNK_SZ];
+        int fill = 0;
+        while(fill < CHUNK_SZ){
+            int size = gzip.read(buf, fill, CHUNK_SZ - fill);
+            if(size < 0) break;
+            fill += size;
+        }
+        ByteBuffer result = ByteBuffer.wrap(buf, 0, fill);
+        return result;
+    }
+
+    /**
+     * 読み出し可能なチャンクを用意する。
+     *
+     * @return 読み出し可能ならtrue。データ終端ならfalse
+     * @throws IOException 展開エラー
+     */
+    private boolean fillCurrent() throws IOException{
+        if(this.closed) throw new IOException(ERRMSG_CLOSED);
+
+        if(this.current != null && this.current.hasRemaining()) return true;
+        if(this.current == EOD) return false;
+
+        try{
+            this.current = this.queue.take();
+        }catch(InterruptedException e){
+            InterruptedIOException ex = new InterruptedIOException();
+            ex.initCause(e);
+            throw ex;
+        }
+
+        if(this.current == EOD){
+            Throwable ex = this.failure;
+            if(ex != null) throw new IOException(ex);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException{
+        if( ! fillCurrent() ) return -1;
+        int result = this.current.get() & 0xff;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException{
+        if(off < 0 || len < 0 || buf.length - off < len){
+            throw new IndexOutOfBoundsException();
+        }
+        if(len == 0) return 0;
+
+        if( ! fillCurrent() ) return -1;
+
+        int size = Math.min(len, this.current.remaining());
+        this.current.get(buf, off, size);
+
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int available() throws IOException{
+        if(this.closed) throw new IOException(ERRMSG_CLOSED);
+        if(this.current == null) return 0;
+        return this.current.remaining();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>展開スレッドは中断され、入力元は閉じられる。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException{
+        if(this.closed) return;
+        this.closed = true;
+
+        this.inflater.interrupt();
+        this.source.close();
+
+        return;
+    }
+
+}
@@ -0,0 +1,906 @@
+/*
+ * model catalog index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.corelib.I18nText;
+import jp.sfjp.mikutoga.pmd.model.BoneGroup;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.MorphPart;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.ShadeInfo;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdLoadOptions;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdLoader;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSection;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionIndex;
+import jp.sfjp.mikutoga.pmd.model.xml.XmlPmdLoader;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * ディレクトリ以下のPMDファイルおよびXMLファイルのカタログ。
+ *
+ * <p>ファイルごとにモデル名、説明文、各部位の要素数、
+ * 材質が参照するテクスチャ・スフィアマップ・トゥーンのファイル名、
+ * およびファイル内容のSHA-256ハッシュ値を記録する。
+ * カタログはコンパクトなバイナリ形式の索引ファイルとして保存できる。
+ *
+ * <p>再走査ではファイルサイズと更新時刻が記録と一致するファイルは
+ * 読み直されない。
+ * PMDファイルは材質のみを選択した部分読み込みで読まれ、
+ * 要素数はセクション索引から得られる。
+ * XMLファイルは全体が読み込まれる。
+ *
+ * <p>ファイルはディレクトリからの相対パスで識別される。
+ * 区切り文字には常に「/」が用いられる。
+ *
+ * <p>このクラスはスレッドセーフではない。
+ */
+public final class ModelCatalog {
+
+    /**
+     * 記録される要素数の種別。
+     *
+     * <p>要素数はモデルデータ上の数であり、
+     * PMDファイル上のレコード数とは異なる場合がある。
+     */
+    public enum Count {
+        /** 頂点数。 */
+        VERTEX,
+        /** 三角形面数。 */
+        SURFACE,
+        /** 材質数。 */
+        MATERIAL,
+        /** ボーン数。 */
+        BONE,
+        /** IKチェーン数。 */
+        IK_CHAIN,
+        /** baseを除くモーフ数。 */
+        MORPH,
+        /** デフォルトボーングループを除くボーングループ数。 */
+        BONE_GROUP,
+        /** 剛体数。 */
+        RIGID,
+        /** ジョイント数。 */
+        JOINT,
+        ;
+    }
+
+
+    private static final int MAGIC = 0x504d4443;  // "PMDC"
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALG = "SHA-256";
+    private static final Charset CS_UTF8 = Charset.forName("UTF-8");
+
+    private static final char SEP = '/';
+    private static final String SFX_TMP = ".tmp";
+
+    private static final int COUNTS = Count.values().length;
+
+    private static final String ERR_MAGIC = "not a catalog file : {0}";
+    private static final String ERR_VERSION =
+            "unsupported catalog version {1} : {0}";
+    private static final String ERR_NODIR = "{0} is not directory.";
+
+
+    private final Map<String, Entry> entryMap = new TreeMap<>();
+    private final Map<String, Throwable> failMap = new TreeMap<>();
+    private Map<String, List<Entry>> refIndex = null;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>空のカタログが生成される。
+     */
+    public ModelCatalog(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 索引ファイルからカタログを読み込む。
+     *
+     * <p>既存の記録は全て置き換えられる。
+     *
+     * @param indexFile 索引ファイル
+     * @throws IOException 入力エラーもしくは不正な索引ファイル
+     */
+    public void load(Path indexFile) throws IOException{
+        InputStream is = Files.newInputStream(indexFile);
+        DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(is));
+        try{
+            if(dis.readInt() != MAGIC){
+                String msg = MessageFormat.format(ERR_MAGIC, indexFile);
+                throw new IOException(msg);
+            }
+            int version = dis.readInt();
+            if(version != VERSION){
+                String msg =
+                        MessageFormat.format(ERR_VERSION, indexFile, version);
+                throw new IOException(msg);
+            }
+
+            Map<String, Entry> loaded = new TreeMap<>();
+            int entries = dis.readInt();
+            for(int ct = 0; ct < entries; ct++){
+                Entry entry = Entry.read(dis);
+                loaded.put(entry.path, entry);
+            }
+
+            this.entryMap.clear();
+            this.entryMap.putAll(loaded);
+            this.refIndex = null;
+        }finally{
+            dis.close();
+        }
+
+        return;
+    }
+
+    /**
+     * カタログを索引ファイルに保存する。
+     *
+     * <p>一時ファイルへ書き出した後に索引ファイルを置き換える。
+     *
+     * @param indexFile 索引ファイル
+     * @throws IOException 出力エラー
+     */
+    public void save(Path indexFile) throws IOException{
+        Path absFile = indexFile.toAbsolutePath();
+        Path tmpFile = absFile.resolveSibling(
+                absFile.getFileName().toString() + SFX_TMP);
+
+        OutputStream os = Files.newOutputStream(tmpFile);
+        DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(os));
+        try{
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(this.entryMap.size());
+            for(Entry entry : this.entryMap.values()){
+                entry.write(dos);
+            }
+        }finally{
+            dos.close();
+        }
+
+        Files.move(tmpFile, absFile, StandardCopyOption.REPLACE_EXISTING);
+
+        return;
+    }
+
+    /**
+     * ディレクトリ以下を走査しカタログを更新する。
+     *
+     * <p>接尾辞が.pmdもしくは.xmlのファイルが対象となる。
+     * サイズと更新時刻が記録と一致するファイルは読み直されない。
+     * 消滅したファイルと読み込みに失敗したファイルの記録は削除される。
+     *
+     * <p>ファイルの読み込みは固定数のワーカースレッドで並行処理される。
+     * 読み込みに失敗したファイルは{@link #getScanFailures()}で得られる。
+     * {@link Error}を含むどの例外で失敗したファイルも記録から漏れない。
+     *
+     * @param rootDir 走査するディレクトリ
+     * @param workers ワーカー数。0以下なら利用可能なプロセッサ数
+     * @return 読み直したファイル数
+     * @throws IOException ディレクトリの走査に失敗
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    public int rescan(Path rootDir, int workers)
+            throws IOException, InterruptedException{
+        if( ! Files.isDirectory(rootDir) ){
+            String msg = MessageFormat.format(ERR_NODIR, rootDir);
+            throw new IOException(msg);
+        }
+
+        final Path dir = rootDir;
+        final List<Path> found = new ArrayList<>();
+        final Map<Path, BasicFileAttributes> attrMap = new HashMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>(){
+            @Override
+            public FileVisitResult visitFile(Path file,
+                                             BasicFileAttributes attrs){
+                if(attrs.isRegularFile() && isTarget(file)){
+                    found.add(file);
+                    attrMap.put(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Map<String, Entry> newMap = new TreeMap<>();
+        final List<Path> staleFiles = new ArrayList<>();
+        final List<String> stalePaths = new ArrayList<>();
+        for(Path file : found){
+            String relPath = toCatalogPath(dir.relativize(file));
+            BasicFileAttributes attrs = attrMap.get(file);
+            long size = attrs.size();
+            long mtime = attrs.lastModifiedTime().toMillis();
+
+            Entry old = this.entryMap.get(relPath);
+            if(old != null && old.size == size && old.lastModified == mtime){
+                newMap.put(relPath, old);
+                continue;
+            }
+
+            staleFiles.add(file);
+            stalePaths.add(relPath);
+        }
+
+        final int jobs = staleFiles.size();
+        final Entry[] results = new Entry[jobs];
+        final Throwable[] failures = new Throwable[jobs];
+        final AtomicInteger nextJob = new AtomicInteger(0);
+
+        int poolSize = workers;
+        if(poolSize <= 0){
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        poolSize = Math.max(Math.min(poolSize, jobs), 1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try{
+            for(int ct = 0; ct < poolSize; ct++){
+                pool.execute(new Runnable(){
+                    @Override
+                    public void run(){
+                        for(;;){
+                            int idx = nextJob.getAndIncrement();
+                            if(idx >= jobs) break;
+                            try{
+                                results[idx] = readEntry(staleFiles.get(idx),
+                                                         stalePaths.get(idx));
+                            }catch(Throwable e){
+                                failures[idx] = e;
+                            }
+                        }
+                        return;
+                    }
+                });
+            }
+        }finally{
+            pool.shutdown();
+        }
+
+        while( ! pool.awaitTermination(1L, TimeUnit.SECONDS) ){
+            continue;
+        }
+
+        this.failMap.clear();
+        for(int idx = 0; idx < jobs; idx++){
+            if(results[idx] != null){
+                newMap.put(stalePaths.get(idx), results[idx]);
+            }else{
+                this.failMap.put(stalePaths.get(idx), failures[idx]);
+            }
+        }
+
+        this.entryMap.clear();
+        this.entryMap.putAll(newMap);
+        this.refIndex = null;
+
+        return jobs;
+    }
+
+    /**
+     * 走査対象のファイルか判定する。
+     *
+     * <p>PMDファイルとXMLファイルが対象。
+     *
+     * @param file ファイル
+     * @return 対象ならtrue
+     */
+    private static boolean isTarget(Path file){
+        Path fileName = file.getFileName();
+        if(fileName == null) return false;
+        ModelFileType type = OptInfo.getFileType(fileName.toString());
+        return type.isPmd() || type.isXml();
+    }
+
+    /**
+     * 相対パスをカタログ上のパス表記に変換する。
+     *
+     * @param relPath 相対パス
+     * @return パス表記
+     */
+    private static String toCatalogPath(Path relPath){
+        String result = relPath.toString().replace(File.separatorChar, SEP);
+        return result;
+    }
+
+    /**
+     * ファイルを読み込み記録を生成する。
+     *
+     * <p>ファイル内容は一度だけ読まれ、
+     * ハッシュ値の計算とモデルの読み込みに共用される。
+     *
+     * @param file ファイル
+     * @param relPath カタログ上のパス表記
+     * @return 記録
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException 不正なPMDファイルフォーマット
+     * @throws SAXException XML構文エラー
+     * @throws TogaXmlException 不正なXMLデータ
+     */
+    private static Entry readEntry(Path file, String relPath)
+            throws IOException,
+                   MmdFormatException,
+                   SAXException,
+                   TogaXmlException {
+        BasicFileAttributes attrs =
+                Files.readAttributes(file, BasicFileAttributes.class);
+        byte[] content = Files.readAllBytes(file);
+
+        Entry entry = new Entry(relPath);
+        entry.size = attrs.size();
+        entry.lastModified = attrs.lastModifiedTime().toMillis();
+        entry.hash = digest(content);
+
+        ModelFileType type = OptInfo.getFileType(relPath);
+        entry.pmd = type.isPmd();
+
+        PmdModel model;
+        if(entry.pmd){
+            PmdLoadOptions options = PmdLoadOptions.headerOnly();
+            options.setLoaded(PmdLoadOptions.Part.MATERIAL, true);
+            PmdLoader loader = new PmdLoader();
+            loader.setLoadOptions(options);
+            model = loader.load(ByteBuffer.wrap(content));
+            putPmdCounts(entry, loader.getSectionIndex());
+        }else{
+            InputSource source =
+                    new InputSource(new ByteArrayInputStream(content));
+            source.setSystemId(file.toUri().toString());
+
+            XmlReaderPool pool = XmlReaderPool.SHARED;
+            XMLReader reader = pool.borrow(type);
+            XmlPmdLoader loader = new XmlPmdLoader(reader);
+            model = loader.parse(source);
+            pool.release(type, reader);
+
+            putModelCounts(entry, model);
+        }
+
+        putModelInfo(entry, model);
+
+        return entry;
+    }
+
+    /**
+     * ファイル内容のハッシュ値を求める。
+     *
+     * @param content ファイル内容
+     * @return ハッシュ値
+     */
+    private static byte[] digest(byte[] content){
+        MessageDigest md;
+        try{
+            md = MessageDigest.getInstance(DIGEST_ALG);
+        }catch(NoSuchAlgorithmException e){
+            assert false;
+            throw new AssertionError(e);
+        }
+        byte[] result = md.digest(content);
+        return result;
+    }
+
+    /**
+     * PMDファイルのセクション索引から要素数を記録する。
+     *
+     * @param entry 記録
+     * @param index セクション索引
+     */
+    private static void putPmdCounts(Entry entry, PmdSectionIndex index){
+        int[] counts = entry.counts;
+
+        counts[Count.VERTEX.ordinal()] = index.getCount(PmdSection.VERTEX);
+        counts[Count.SURFACE.ordinal()] =
+                index.getCount(PmdSection.SURFACE) / 3;
+        counts[Count.MATERIAL.ordinal()] =
+                index.getCount(PmdSection.MATERIAL);
+        counts[Count.BONE.ordinal()] = index.getCount(PmdSection.BONE);
+        counts[Count.IK_CHAIN.ordinal()] = index.getCount(PmdSection.IK);
+        counts[Count.MORPH.ordinal()] =
+                Math.max(index.getCount(PmdSection.MORPH) - 1, 0);
+        counts[Count.BONE_GROUP.ordinal()] =
+                index.getCount(PmdSection.BONE_GROUP);
+        counts[Count.RIGID.ordinal()] = index.getCount(PmdSection.RIGID);
+        counts[Count.JOINT.ordinal()] = index.getCount(PmdSection.JOINT);
+
+        return;
+    }
+
+    /**
+     * モデルデータから要素数を記録する。
+     *
+     * @param entry 記録
+     * @param model モデルデータ
+     */
+    private static void putModelCounts(Entry entry, PmdModel model){
+        int[] counts = entry.counts;
+
+        int morphs = 0;
+        for(List<MorphPart> partList : model.getMorphMap().values()){
+            morphs += partList.size();
+        }
+
+        int groups = 0;
+        for(BoneGroup group : model.getBoneGroupList()){
+            if( ! group.isDefaultBoneGroup() ) groups++;
+        }
+
+        counts[Count.VERTEX.ordinal()] = model.getVertexList().size();
+        counts[Count.SURFACE.ordinal()] = model.getSurfaceList().size();
+        counts[Count.MATERIAL.ordinal()] = model.getMaterialList().size();
+        counts[Count.BONE.ordinal()] = model.getBoneList().size();
+        counts[Count.IK_CHAIN.ordinal()] = model.getIKChainList().size();
+        counts[Count.MORPH.ordinal()] = morphs;
+        counts[Count.BONE_GROUP.ordinal()] = groups;
+        counts[Count.RIGID.ordinal()] = model.getRigidList().size();
+        counts[Count.JOINT.ordinal()] = model.getJointList().size();
+
+        return;
+    }
+
+    /**
+     * モデルデータから名前と参照ファイル名を記録する。
+     *
+     * @param entry 記録
+     * @param model モデルデータ
+     */
+    private static void putModelInfo(Entry entry, PmdModel model){
+        I18nText name = model.getModelName();
+        I18nText desc = model.getDescription();
+        entry.modelName = name.getPrimaryText();
+        entry.description = desc.getPrimaryText();
+        entry.globalModelName = name.getGlobalText();
+        entry.globalDescription = desc.getGlobalText();
+
+        Set<String> textures = new LinkedHashSet<>();
+        Set<String> toons = new LinkedHashSet<>();
+        for(Material material : model.getMaterialList()){
+            ShadeInfo shade = material.getShadeInfo();
+            addFileName(textures, shade.getTextureFileName());
+            addFileName(textures, shade.getSpheremapFileName());
+            if(shade.isValidToonIndex()){
+                String toon =
+                        model.getToonMap().getIndexedToon(
+                                shade.getToonIndex());
+                addFileName(toons, toon);
+            }
+        }
+        entry.textures = textures.toArray(new String[textures.size()]);
+        entry.toons = toons.toArray(new String[toons.size()]);
+
+        return;
+    }
+
+    /**
+     * 空でないファイル名を集合に加える。
+     *
+     * @param set 集合
+     * @param fileName ファイル名
+     */
+    private static void addFileName(Set<String> set, String fileName){
+        if(fileName == null || fileName.isEmpty()) return;
+        set.add(fileName);
+        return;
+    }
+
+    /**
+     * 前回の走査で読み込みに失敗したファイルを返す。
+     *
+     * @return カタログ上のパス表記から失敗原因へのマップ
+     */
+    public Map<String, Throwable> getScanFailures(){
+        return Collections.unmodifiableMap(this.failMap);
+    }
+
+    /**
+     * 全記録をパス表記順に返す。
+     *
+     * @return 記録のリスト
+     */
+    public List<Entry> getEntryList(){
+        List<Entry> result = new ArrayList<>(this.entryMap.values());
+        return result;
+    }
+
+    /**
+     * パス表記に対応する記録を返す。
+     *
+     * @param path カタログ上のパス表記
+     * @return 記録。無ければnull
+     */
+    public Entry getEntry(String path){
+        return this.entryMap.get(path);
+    }
+
+    /**
+     * 要素数が指定値以上のモデルの記録を返す。
+     *
+     * @param count 要素数の種別
+     * @param min 最小値
+     * @return 記録のリスト。パス表記順に並ぶ
+     */
+    public List<Entry> findByCount(Count count, int min){
+        int idx = count.ordinal();
+        List<Entry> result = new ArrayList<>();
+        for(Entry entry : this.entryMap.values()){
+            if(entry.counts[idx] >= min) result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * テクスチャ、スフィアマップ、トゥーンのいずれかとして
+     * ファイルを参照するモデルの記録を返す。
+     *
+     * <p>ファイル名の英字の大小は区別されない。
+     * 初回の検索時に参照ファイル名の索引が作成される。
+     *
+     * @param fileName ファイル名
+     * @return 記録のリスト。パス表記順に並ぶ
+     */
+    public List<Entry> findByReference(String fileName){
+        if(this.refIndex == null) buildRefIndex();
+        List<Entry> found = this.refIndex.get(toRefKey(fileName));
+        if(found == null) return Collections.emptyList();
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * 参照ファイル名の索引を作成する。
+     */
+    private void buildRefIndex(){
+        Map<String, List<Entry>> index = new HashMap<>();
+        for(Entry entry : this.entryMap.values()){
+            Set<String> keys = new LinkedHashSet<>();
+            for(String texture : entry.textures) keys.add(toRefKey(texture));
+            for(String toon : entry.toons)       keys.add(toRefKey(toon));
+            for(String key : keys){
+                List<Entry> list = index.get(key);
+                if(list == null){
+                    list = new ArrayList<>();
+                    index.put(key, list);
+                }
+                list.add(entry);
+            }
+        }
+        this.refIndex = index;
+        return;
+    }
+
+    /**
+     * 参照ファイル名の索引キーを返す。
+     *
+     * @param fileName ファイル名
+     * @return キー
+     */
+    private static String toRefKey(String fileName){
+        return fileName.toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * カタログ上の1ファイルの記録。
+     */
+    public static final class Entry {
+
+        private final String path;
+        private boolean pmd;
+        private long size;
+        private long lastModified;
+        private byte[] hash;
+
+        private String modelName;
+        private String description;
+        private String globalModelName;
+        private String globalDescription;
+
+        private final int[] counts = new int[COUNTS];
+        private String[] textures;
+        private String[] toons;
+
+
+        /**
+         * コンストラクタ。
+         *
+         * @param path カタログ上のパス表記
+         */
+        private Entry(String path){
+            super();
+            this.path = path;
+            return;
+        }
+
+
+        /**
+         * 索引ファイルから記録を読み込む。
+         *
+         * @param dis 入力
+         * @return 記録
+         * @throws IOException 入力エラー
+         */
+        private static Entry read(DataInputStream dis) throws IOException{
+            Entry entry = new Entry(readText(dis));
+
+            entry.pmd = dis.readBoolean();
+            entry.size = dis.readLong();
+            entry.lastModified = dis.readLong();
+            entry.hash = new byte[dis.readUnsignedByte()];
+            dis.readFully(entry.hash);
+
+            entry.modelName = readText(dis);
+            entry.description = readText(dis);
+            entry.globalModelName = readText(dis);
+            entry.globalDescription = readText(dis);
+
+            for(int idx = 0; idx < COUNTS; idx++){
+                entry.counts[idx] = dis.readInt();
+            }
+
+            entry.textures = readTextArray(dis);
+            entry.toons = readTextArray(dis);
+
+            return entry;
+        }
+
+        /**
+         * 索引ファイルへ記録を書き出す。
+         *
+         * @param dos 出力
+         * @throws IOException 出力エラー
+         */
+        private void write(DataOutputStream dos) throws IOException{
+            writeText(dos, this.path);
+
+            dos.writeBoolean(this.pmd);
+            dos.writeLong(this.size);
+            dos.writeLong(this.lastModified);
+            dos.writeByte(this.hash.length);
+            dos.write(this.hash);
+
+            writeText(dos, this.modelName);
+            writeText(dos, this.description);
+            writeText(dos, this.globalModelName);
+            writeText(dos, this.globalDescription);
+
+            for(int count : this.counts){
+                dos.writeInt(count);
+            }
+
+            writeTextArray(dos, this.textures);
+            writeTextArray(dos, this.toons);
+
+            return;
+        }
+
+        /**
+         * 文字列を読み込む。
+         *
+         * <p>UTF-8のバイト長が負ならnull。
+         *
+         * @param dis 入力
+         * @return 文字列
+         * @throws IOException 入力エラー
+         */
+        private static String readText(DataInputStream dis)
+                throws IOException{
+            int length = dis.readInt();
+            if(length < 0) return null;
+            byte[] bytes = new byte[length];
+            dis.readFully(bytes);
+            return new String(bytes, CS_UTF8);
+        }
+
+        /**
+         * 文字列を書き出す。
+         *
+         * @param dos 出力
+         * @param text 文字列。nullも可
+         * @throws IOException 出力エラー
+         */
+        private static void writeText(DataOutputStream dos, String text)
+                throws IOException{
+            if(text == null){
+                dos.writeInt(-1);
+                return;
+            }
+            byte[] bytes = text.getBytes(CS_UTF8);
+            dos.writeInt(bytes.length);
+            dos.write(bytes);
+            return;
+        }
+
+        /**
+         * 文字列の配列を読み込む。
+         *
+         * @param dis 入力
+         * @return 配列
+         * @throws IOException 入力エラー
+         */
+        private static String[] readTextArray(DataInputStream dis)
+                throws IOException{
+            String[] result = new String[dis.readInt()];
+            for(int idx = 0; idx < result.length; idx++){
+                result[idx] = readText(dis);
+            }
+            return result;
+        }
+
+        /**
+         * 文字列の配列を書き出す。
+         *
+         * @param dos 出力
+         * @param array 配列
+         * @throws IOException 出力エラー
+         */
+        private static void writeTextArray(DataOutputStream dos,
+                                           String[] array )
+                throws IOException{
+            dos.writeInt(array.length);
+            for(String text : array){
+                writeText(dos, text);
+            }
+            return;
+        }
+
+        /**
+         * カタログ上のパス表記を返す。
+         *
+         * @return パス表記
+         */
+        public String getPath(){
+            return this.path;
+        }
+
+        /**
+         * PMDファイルか判定する。
+         *
+         * @return PMDファイルならtrue。XMLファイルならfalse
+         */
+        public boolean isPmd(){
+            return this.pmd;
+        }
+
+        /**
+         * 記録時のファイルサイズを返す。
+         *
+         * @return バイト長
+         */
+        public long getSize(){
+            return this.size;
+        }
+
+        /**
+         * 記録時のファイル更新時刻を返す。
+         *
+         * @return エポックからのミリ秒
+         */
+        public long getLastModified(){
+            return this.lastModified;
+        }
+
+        /**
+         * ファイル内容のSHA-256ハッシュ値を返す。
+         *
+         * @return ハッシュ値
+         */
+        public byte[] getHash(){
+            return this.hash.clone();
+        }
+
+        /**
+         * モデル名を返す。
+         *
+         * @return モデル名。無ければnull
+         */
+        public String getModelName(){
+            return this.modelName;
+        }
+
+        /**
+         * モデル説明文を返す。
+         *
+         * @return 説明文。無ければnull
+         */
+        public String getDescription(){
+            return this.description;
+        }
+
+        /**
+         * 英語のモデル名を返す。
+         *
+         * @return モデル名。無ければnull
+         */
+        public String getGlobalModelName(){
+            return this.globalModelName;
+        }
+
+        /**
+         * 英語のモデル説明文を返す。
+         *
+         * @return 説明文。無ければnull
+         */
+        public String getGlobalDescription(){
+            return this.globalDescription;
+        }
+
+        /**
+         * 要素数を返す。
+         *
+         * @param count 要素数の種別
+         * @return 要素数
+         */
+        public int getCount(Count count){
+            return this.counts[count.ordinal()];
+        }
+
+        /**
+         * 材質が参照するテクスチャおよびスフィアマップの
+         * ファイル名を返す。
+         *
+         * @return ファイル名のリスト。初出順に並ぶ
+         */
+        public List<String> getTextureList(){
+            return Collections.unmodifiableList(Arrays.asList(this.textures));
+        }
+
+        /**
+         * 材質が参照するトゥーンのファイル名を返す。
+         *
+         * @return ファイル名のリスト。初出順に並ぶ
+         */
+        public List<String> getToonList(){
+            return Collections.unmodifiableList(Arrays.asList(this.toons));
+        }
+
+    }
+
+}
@@ -47,6 +47,14 @@ public enum ModelFileType {
      */
     XML_130128,
 
+    /**
+     * 本ツール独自のPMDキャッシュファイル。
+     *
+     * <p>変換済みモデルの高速な再読み込みを目的とした
+     * バイナリスナップショット。
+     */
+    PMD_CACHE,
+
     ;
 
 
@@ -127,4 +135,24 @@ public boolean isPmd(){
         return result;
     }
 
+    /**
+     * ファイル種別がPMDキャッシュか判定する。
+     *
+     * @return PMDキャッシュならtrue
+     */
+    public boolean isCache(){
+        boolean result;
+
+        switch(this){
+        case PMD_CACHE:
+            result = true;
+            break;
+        default:
+            result = false;
+            break;
+        }
+
+        return result;
+    }
+
 }
@@ -8,6 +8,8 @@
 package jp.sfjp.mikutoga.pmd2xml;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -24,13 +26,19 @@ final class OptInfo {
     private static final String FORMAT_XML       = "xml";
     private static final String FORMAT_XML101009 = "xml101009";
     private static final String FORMAT_XML130128 = "xml130128";
+    private static final String FORMAT_CACHE     = "cache";
 
     private static final String SFX_PMD = ".pmd";
     private static final String SFX_XML = ".xml";
+    private static final String SFX_CACHE = ".pmdc";
+    private static final String SFX_GZIP = ".gz";
 
     private static final String NL_LF   =   "lf";
     private static final String NL_CRLF = "crlf";
 
+    private static final long DEF_CACHESIZE = 256L;
+    private static final long MIB = 1024L * 1024L;
+
     private static final String ERRMSG_UNKNOWN =
             "Unknown option : {0}";
     private static final String ERRMSG_MOREARG =
@@ -45,11 +53,28 @@ final class OptInfo {
             "You must specify output file with -o.";
     private static final String ERRMSG_INVFORM =
             "Unknown format : \"{0}\" must be \"pmd\" or \"xml\" "
-            + "or \"xml101009\" or \"xml130128\"";
+            + "or \"xml101009\" or \"xml130128\" or \"cache\"";
     private static final String ERRMSG_INVNL =
             "Unknown newline : \"{0}\" must be \"lf\" or \"crlf\"";
     private static final String ERRMSG_INVBOOL =
             "Unknown switch : \"{0}\" must be \"on\" or \"off\"";
+    private static final String ERRMSG_INVWORKERS =
+            "Invalid worker number : \"{0}\"";
+    private static final String ERRMSG_NOOUTDIR =
+            "You must specify output directory with -odir"
+            + " in batch mode.";
+    private static final String ERRMSG_BATCHOUT =
+            "You can't specify -o in batch mode.";
+    private static final String ERRMSG_NOBATCHIN =
+            "You must specify input with -i, -idir or -joblist.";
+    private static final String ERRMSG_INVCOUNT =
+            "Invalid number : \"{0}\"";
+    private static final String ERRMSG_CATALOGOUT =
+            "You can't specify -o, -odir or -joblist in catalog mode.";
+    private static final String ERRMSG_NOCATALOG =
+            "You must specify index file with -catalog.";
+    private static final String ERRMSG_NOCACHEDIR =
+            "You must specify cache directory with -cachedir.";
 
 
     private boolean needHelp = false;
@@ -57,6 +82,20 @@ final class OptInfo {
     private ModelFileType outTypes = ModelFileType.NONE;
     private String inFilename = null;
     private String outFilename = null;
+    private final List<String> inFilenames = new ArrayList<>();
+    private String inDirname = null;
+    private String outDirname = null;
+    private String jobListFilename = null;
+    private int workers = 0;
+    private String catalogFilename = null;
+    private int minBones = -1;
+    private String usesFilename = null;
+    private String cacheDirname = null;
+    private int cacheSize = -1;
+    private Boolean gzipOut = null;
+    private boolean xmlPull = false;
+    private boolean xmlTrust = false;
+    private boolean xmlParallel = false;
     private boolean overwrite = false;
     private String newline = EOL_DEFAULT;
     private String generator = Pmd2Xml.GENERATOR;
@@ -90,6 +129,8 @@ private static ModelFileType decodeFormatType(String arg)
             result = ModelFileType.XML_101009;
         }else if(FORMAT_XML130128.equals(arg)){
             result = ModelFileType.XML_130128;
+        }else if(FORMAT_CACHE.equals(arg)){
+            result = ModelFileType.PMD_CACHE;
         }else{
             String errMsg = MessageFormat.format(ERRMSG_INVFORM, arg);
             throw new CmdLineException(errMsg);
@@ -148,25 +189,94 @@ private static boolean decodeBoolean(String arg)
         return result;
     }
 
+    /**
+     * ワーカー数指定子をデコードする。
+     *
+     * @param arg 文字列
+     * @return デコード結果。
+     * @throws CmdLineException 不正なワーカー数
+     */
+    private static int decodeWorkers(String arg)
+            throws CmdLineException{
+        int result;
+
+        try{
+            result = Integer.parseInt(arg);
+        }catch(NumberFormatException e){
+            result = -1;
+        }
+
+        if(result <= 0){
+            String errMsg = MessageFormat.format(ERRMSG_INVWORKERS, arg);
+            throw new CmdLineException(errMsg);
+        }
+
+        return result;
+    }
+
+    /**
+     * 要素数指定子をデコードする。
+     *
+     * @param arg 文字列
+     * @return デコード結果。
+     * @throws CmdLineException 不正な要素数
+     */
+    private static int decodeCount(String arg)
+            throws CmdLineException{
+        int result;
+
+        try{
+            result = Integer.parseInt(arg);
+        }catch(NumberFormatException e){
+            result = -1;
+        }
+
+        if(result < 0){
+            String errMsg = MessageFormat.format(ERRMSG_INVCOUNT, arg);
+            throw new CmdLineException(errMsg);
+        }
+
+        return result;
+    }
+
     /**
      * ファイル名からファイル種別を類推する。
      *
-     * <p>拡張子が「pmd」ならPMDファイル、「xml」ならXMLファイル。
+     * <p>拡張子が「pmd」ならPMDファイル、「xml」ならXMLファイル、
+     * 「pmdc」ならPMDキャッシュファイル。
+     * 末尾の拡張子「gz」は無視される。
      *
      * @param fileName ファイル名
      * @return ファイル種別
      */
-    private static ModelFileType getFileType(String fileName){
+    static ModelFileType getFileType(String fileName){
         ModelFileType result = ModelFileType.NONE;
         if(fileName == null) return result;
 
         String lower = fileName.toLowerCase(Locale.ROOT);
+        if(lower.endsWith(SFX_GZIP)){
+            lower = lower.substring(0, lower.length() - SFX_GZIP.length());
+        }
         if     (lower.endsWith(SFX_PMD)) result = ModelFileType.PMD;
         else if(lower.endsWith(SFX_XML)) result = ModelFileType.XML_AUTO;
+        else if(lower.endsWith(SFX_CACHE)) result = ModelFileType.PMD_CACHE;
 
         return result;
     }
 
+    /**
+     * ファイル名からgzip圧縮されたファイルか類推する。
+     *
+     * @param fileName ファイル名
+     * @return 拡張子が「gz」ならtrue
+     */
+    static boolean isGzipName(String fileName){
+        if(fileName == null) return false;
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        boolean result = lower.endsWith(SFX_GZIP);
+        return result;
+    }
+
     /**
      * コマンドラインを解析する。
      *
@@ -204,6 +314,7 @@ static OptInfo parseOption(String... args) throws CmdLineException{
                 break;
             case OPT_INFILE:
                 result.inFilename = exArg1;
+                result.inFilenames.add(exArg1);
                 break;
             case OPT_OUTFILE:
                 result.outFilename = exArg1;
@@ -224,6 +335,45 @@ static OptInfo parseOption(String... args) throws CmdLineException{
                 ModelFileType otype = decodeFormatType(exArg1);
                 result.outTypes  = otype;
                 break;
+            case OPT_INDIR:
+                result.inDirname = exArg1;
+                break;
+            case OPT_OUTDIR:
+                result.outDirname = exArg1;
+                break;
+            case OPT_JOBLIST:
+                result.jobListFilename = exArg1;
+                break;
+            case OPT_WORKERS:
+                result.workers = decodeWorkers(exArg1);
+                break;
+            case OPT_CATALOG:
+                result.catalogFilename = exArg1;
+                break;
+            case OPT_MINBONES:
+                result.minBones = decodeCount(exArg1);
+                break;
+            case OPT_USES:
+                result.usesFilename = exArg1;
+                break;
+            case OPT_CACHEDIR:
+                result.cacheDirname = exArg1;
+                break;
+            case OPT_CACHESIZE:
+                result.cacheSize = decodeCount(exArg1);
+                break;
+            case OPT_GZOUT:
+                result.gzipOut = decodeBoolean(exArg1);
+                break;
+            case OPT_XMLPULL:
+                result.xmlPull = decodeBoolean(exArg1);
+                break;
+            case OPT_XMLTRUST:
+                result.xmlTrust = decodeBoolean(exArg1);
+                break;
+            case OPT_XMLPAR:
+                result.xmlParallel = decodeBoolean(exArg1);
+                break;
             default:
                 assert false;
                 throw new AssertionError();
@@ -275,9 +425,13 @@ private static void checkCmdLineList(List<CmdLine> cmdLines)
     /**
      * ファイルフォーマット情報の推測を行う。
      *
+     * <p>バッチモードでの入力ファイル種別は推測しない。
+     *
      * @param result オプション情報
      */
     private static void fixFormat(OptInfo result){
+        if(result.isBatchMode()) return;
+
         if(result.inTypes == ModelFileType.NONE){
             result.inTypes = getFileType(result.inFilename);
         }
@@ -297,6 +451,24 @@ private static void fixFormat(OptInfo result){
      */
     private static void checkResult(OptInfo result)
             throws CmdLineException{
+        if(result.cacheSize >= 0 && result.cacheDirname == null){
+            throw new CmdLineException(ERRMSG_NOCACHEDIR);
+        }
+
+        if(result.isCatalogMode()){
+            checkCatalogResult(result);
+            return;
+        }
+
+        if(result.minBones >= 0 || result.usesFilename != null){
+            throw new CmdLineException(ERRMSG_NOCATALOG);
+        }
+
+        if(result.isBatchMode()){
+            checkBatchResult(result);
+            return;
+        }
+
         if(result.getInFilename() == null){
             throw new CmdLineException(ERRMSG_NOINFILE);
         }
@@ -317,6 +489,57 @@ private static void checkResult(OptInfo result)
     }
 
 
+    /**
+     * バッチモードでのオプション整合性の事後検査。
+     *
+     * <p>入力ファイル種別は個々のファイル名から類推されうるため
+     * 検査しない。
+     *
+     * @param result オプション情報
+     * @throws CmdLineException 不正なオプション設定
+     */
+    private static void checkBatchResult(OptInfo result)
+            throws CmdLineException{
+        if(result.outDirname == null){
+            throw new CmdLineException(ERRMSG_NOOUTDIR);
+        }
+
+        if(result.outFilename != null){
+            throw new CmdLineException(ERRMSG_BATCHOUT);
+        }
+
+        if(    result.inFilenames.isEmpty()
+            && result.inDirname == null
+            && result.jobListFilename == null ){
+            throw new CmdLineException(ERRMSG_NOBATCHIN);
+        }
+
+        if(result.getOutFileType()  == ModelFileType.NONE){
+            throw new CmdLineException(ERRMSG_OUTTYPE);
+        }
+
+        return;
+    }
+
+
+    /**
+     * カタログモードでのオプション整合性の事後検査。
+     *
+     * @param result オプション情報
+     * @throws CmdLineException 不正なオプション設定
+     */
+    private static void checkCatalogResult(OptInfo result)
+            throws CmdLineException{
+        if(    result.outFilename != null
+            || result.outDirname != null
+            || result.jobListFilename != null ){
+            throw new CmdLineException(ERRMSG_CATALOGOUT);
+        }
+
+        return;
+    }
+
+
     /**
      * ヘルプ表示が必要か否か判定する。
      *
@@ -389,4 +612,173 @@ String getGenerator(){
         return this.generator;
     }
 
+    /**
+     * バッチモードか否か判定する。
+     *
+     * <p>カタログモードでなく、
+     * -odir、-idir、-joblistのいずれかが指定されればバッチモード。
+     *
+     * @return バッチモードならtrue
+     */
+    boolean isBatchMode(){
+        if(isCatalogMode()) return false;
+        boolean result =
+                   this.outDirname != null
+                || this.inDirname != null
+                || this.jobListFilename != null;
+        return result;
+    }
+
+    /**
+     * カタログモードか否か判定する。
+     *
+     * <p>-catalogが指定されればカタログモード。
+     *
+     * @return カタログモードならtrue
+     */
+    boolean isCatalogMode(){
+        return this.catalogFilename != null;
+    }
+
+    /**
+     * 指定された全入力ファイル名を指定順に返す。
+     *
+     * @return 入力ファイル名リスト
+     */
+    List<String> getInFilenames(){
+        return Collections.unmodifiableList(this.inFilenames);
+    }
+
+    /**
+     * バッチ入力ディレクトリ名を返す。
+     *
+     * @return ディレクトリ名。未指定ならnull
+     */
+    String getInDirname(){
+        return this.inDirname;
+    }
+
+    /**
+     * バッチ出力ディレクトリ名を返す。
+     *
+     * @return ディレクトリ名。未指定ならnull
+     */
+    String getOutDirname(){
+        return this.outDirname;
+    }
+
+    /**
+     * ジョブリストファイル名を返す。
+     *
+     * @return ファイル名。未指定ならnull
+     */
+    String getJobListFilename(){
+        return this.jobListFilename;
+    }
+
+    /**
+     * バッチワーカー数を返す。
+     *
+     * @return ワーカー数。未指定なら0
+     */
+    int getWorkers(){
+        return this.workers;
+    }
+
+    /**
+     * カタログ索引ファイル名を返す。
+     *
+     * @return ファイル名。未指定ならnull
+     */
+    String getCatalogFilename(){
+        return this.catalogFilename;
+    }
+
+    /**
+     * カタログ検索での最小ボーン数を返す。
+     *
+     * @return ボーン数。未指定なら負の値
+     */
+    int getMinBones(){
+        return this.minBones;
+    }
+
+    /**
+     * カタログ検索での参照ファイル名を返す。
+     *
+     * @return ファイル名。未指定ならnull
+     */
+    String getUsesFilename(){
+        return this.usesFilename;
+    }
+
+    /**
+     * 変換結果キャッシュのディレクトリ名を返す。
+     *
+     * @return ディレクトリ名。未指定ならnull
+     */
+    String getCacheDirname(){
+        return this.cacheDirname;
+    }
+
+    /**
+     * 変換結果キャッシュのサイズ上限を返す。
+     *
+     * @return サイズ上限(バイト)。未指定なら256MiB
+     */
+    long getCacheSize(){
+        long mib;
+        if(this.cacheSize < 0) mib = DEF_CACHESIZE;
+        else                   mib = this.cacheSize;
+        return mib * MIB;
+    }
+
+    /**
+     * 入力ファイルがgzip圧縮されているか否かを返す。
+     *
+     * @return 入力ファイル名の拡張子が「gz」ならtrue
+     */
+    boolean isInGzip(){
+        return isGzipName(this.inFilename);
+    }
+
+    /**
+     * 出力をgzip圧縮するか否かを返す。
+     *
+     * @return 圧縮するならtrue。未指定なら、一括変換では圧縮しない。
+     *     それ以外では出力ファイル名の拡張子が「gz」なら圧縮する
+     */
+    boolean isOutGzip(){
+        if(this.gzipOut != null) return this.gzipOut;
+        if(isBatchMode()) return false;
+        return isGzipName(this.outFilename);
+    }
+
+    /**
+     * XML入力にプル型パーサを用いるか否かを返す。
+     *
+     * @return プル型パーサを用いるならtrue。未指定ならfalse
+     */
+    boolean isXmlPullParser(){
+        return this.xmlPull;
+    }
+
+    /**
+     * XML入力のスキーマ検証を省くか否かを返す。
+     *
+     * @return スキーマ検証を省くならtrue。未指定ならfalse
+     */
+    boolean isXmlTrusted(){
+        return this.xmlTrust;
+    }
+
+    /**
+     * XML出力の各セクションを並列に生成するか否かを返す。
+     *
+     * @return 並列に生成するならtrue。未指定ならfalse
+     */
+    boolean isXmlParallel(){
+        return this.xmlParallel;
+    }
+
 }
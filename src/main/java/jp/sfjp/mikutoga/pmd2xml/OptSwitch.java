@@ -26,6 +26,19 @@ enum OptSwitch {
     OPT_GENOUT(  1, "-genout"),
     OPT_IFORM(   1, "-iform"),
     OPT_OFORM(   1, "-oform"),
+    OPT_INDIR(   1, "-idir"),
+    OPT_OUTDIR(  1, "-odir"),
+    OPT_JOBLIST( 1, "-joblist"),
+    OPT_WORKERS( 1, "-j"),
+    OPT_CATALOG( 1, "-catalog"),
+    OPT_MINBONES(1, "-minbones"),
+    OPT_USES(    1, "-uses"),
+    OPT_CACHEDIR(1, "-cachedir"),
+    OPT_CACHESIZE(1, "-cachesize"),
+    OPT_GZOUT(   1, "-gzout"),
+    OPT_XMLPULL( 1, "-xmlpull"),
+    OPT_XMLTRUST(1, "-xmltrust"),
+    OPT_XMLPAR(  1, "-xmlpar"),
     ;
 
     private static final String HELP_CONSOLE =
@@ -38,12 +51,39 @@ enum OptSwitch {
             + "-genout <bool>   : mark generator-name to XML"
             +                     " (default:on)\n\n"
             + "-iform <format>  : specify input format explicitly\n"
-            + "-oform <format>  : specify output format explicitly\n\n"
+            + "-oform <format>  : specify output format explicitly\n"
+            + "-gzout <bool>    : compress output with gzip"
+            +                     " (default:by .gz suffix)\n"
+            + "-xmlpull <bool>  : read XML with pull parser"
+            +                     " (default:off)\n"
+            + "                   (skips schema validation)\n"
+            + "-xmltrust <bool> : skip schema validation of XML input"
+            +                     " (default:off)\n"
+            + "-xmlpar <bool>   : render XML output sections in parallel"
+            +                     " (default:off)\n\n"
+            + "-odir <dir>      : batch mode. specify output directory\n"
+            + "                   (-i may be repeated)\n"
+            + "-idir <dir>      : batch mode. convert all files"
+            +                     " under directory\n"
+            + "-joblist <file>  : batch mode. convert files listed"
+            +                     " in text file\n"
+            + "                   (one \"input[TAB output]\" per line)\n"
+            + "-j <num>         : number of batch workers"
+            +                     " (default:all processors)\n\n"
+            + "-catalog <file>  : catalog mode. specify index file\n"
+            + "                   (-idir rescans directory into index)\n"
+            + "-minbones <num>  : list cataloged models"
+            +                     " with at least num bones\n"
+            + "-uses <file>     : list cataloged models"
+            +                     " referring texture or toon file\n\n"
+            + "-cachedir <dir>  : reuse conversion results"
+            +                     " cached in directory\n"
+            + "-cachesize <MiB> : cache size limit (default:256)\n\n"
             + "   bool : \"on\" or \"off\""
             +     " or \"true\" or \"false\""
             +      " or \"yes\" or \"no\"\n"
             + "   format : \"pmd\" or \"xml\" or"
-            +            " \"xml101009\" or \"xml130128\"\n"
+            +            " \"xml101009\" or \"xml130128\" or \"cache\"\n"
             + "   newline : \"lf\" or \"crlf\"\n"
             ;
 
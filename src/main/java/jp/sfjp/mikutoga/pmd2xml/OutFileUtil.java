@@ -0,0 +1,97 @@
+/*
+ * output file utility
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 出力ファイルに関する各種ユーティリティ。
+ *
+ * <p>出力は同じディレクトリ上の一時ファイルに対して行われ、
+ * 完了後に出力ファイルへと置き換えられる。
+ * 書きかけの出力ファイルが残ることはない。
+ */
+final class OutFileUtil {
+
+    private static final String TMP_PREFIX = ".";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final int MAX_RETRY = 100;
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private OutFileUtil(){
+        assert false;
+        throw new AssertionError();
+    }
+
+
+    /**
+     * 出力ファイルと同じディレクトリに空の一時ファイルを作成する。
+     *
+     * <p>一時ファイルのパーミッションは通常のファイル作成時と同じ。
+     *
+     * @param outFile 出力ファイル
+     * @return 一時ファイル
+     * @throws IOException 一時ファイルを作成できない
+     */
+    static Path createTempSibling(Path outFile) throws IOException{
+        Path absFile = outFile.toAbsolutePath();
+        Path dir = absFile.getParent();
+        String baseName = absFile.getFileName().toString();
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        FileAlreadyExistsException lastEx = null;
+        for(int ct = 0; ct < MAX_RETRY; ct++){
+            String tmpName = TMP_PREFIX + baseName
+                    + "." + Integer.toHexString(rnd.nextInt())
+                    + TMP_SUFFIX;
+            Path tmpFile = dir.resolve(tmpName);
+            try{
+                Files.createFile(tmpFile);
+            }catch(FileAlreadyExistsException e){
+                lastEx = e;
+                continue;
+            }
+            return tmpFile;
+        }
+
+        throw lastEx;
+    }
+
+    /**
+     * 一時ファイルで出力ファイルを置き換える。
+     *
+     * <p>可能ならアトミックに置き換えられる。
+     *
+     * @param tmpFile 一時ファイル
+     * @param outFile 出力ファイル
+     * @throws IOException 置き換えに失敗
+     */
+    static void replace(Path tmpFile, Path outFile) throws IOException{
+        try{
+            Files.move(tmpFile, outFile,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING );
+        }catch(AtomicMoveNotSupportedException e){
+            Files.move(tmpFile, outFile,
+                    StandardCopyOption.REPLACE_EXISTING );
+        }
+        return;
+    }
+
+}
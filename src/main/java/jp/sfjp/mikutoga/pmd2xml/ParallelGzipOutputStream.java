@@ -0,0 +1,268 @@
+/*
+ * block-parallel gzip output stream
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 複数スレッドでブロック単位に並列圧縮するgzip出力ストリーム。
+ *
+ * <p>出力データは固定長のブロックに区切られ、
+ * 各ブロックは独立したgzipメンバとして圧縮される。
+ * 圧縮結果は元の順序で連結され、
+ * 全体は複数メンバからなる1つのgzipファイルとなる。
+ *
+ * <p>ブロック間で辞書は共有されないため、
+ * 単一スレッドでの圧縮に比べ圧縮率はわずかに劣る。
+ *
+ * <p>{@link #flush()}は圧縮を終えたブロックのみを出力する。
+ * 全データは{@link #close()}で出力される。
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+    /** ブロック長。 */
+    static final int BLOCK_SZ = 128 * 1024;
+
+    private static final int PENDING_PER_THREAD = 2;
+    private static final int GZBUF_SZ = 8 * 1024;
+
+    private static final String ERRMSG_CLOSED = "stream closed";
+
+
+    private final OutputStream out;
+    private final ExecutorService pool;
+    private final int maxPending;
+
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] block = new byte[BLOCK_SZ];
+    private int fill = 0;
+    private boolean written = false;
+    private boolean closed = false;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param out 出力先
+     * @param threads 圧縮スレッド数
+     * @throws NullPointerException 出力先がnull
+     * @throws IllegalArgumentException スレッド数が1未満
+     */
+    ParallelGzipOutputStream(OutputStream out, int threads)
+            throws NullPointerException, IllegalArgumentException{
+        super();
+
+        if(out == null) throw new NullPointerException();
+        if(threads < 1) throw new IllegalArgumentException();
+
+        this.out = out;
+        this.maxPending = threads * PENDING_PER_THREAD;
+        this.pool = Executors.newFixedThreadPool(threads, new ThreadFactory(){
+            @Override
+            public Thread newThread(Runnable task){
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        return;
+    }
+
+
+    /**
+     * バイト列を1つのgzipメンバとして圧縮する。
+     *
+     * @param data バイト列
+     * @param length バイト長
+     * @return gzipメンバ
+     * @throws IOException 圧縮エラー
+     */
+    private static byte[] compress(byte[] data, int length)
+            throws IOException{
+        ByteArrayOutputStream result =
+                new ByteArrayOutputStream(length / 2 + GZBUF_SZ);
+
+        GZIPOutputStream gzip = new GZIPOutputStream(result, GZBUF_SZ);
+        try{
+            gzip.write(data, 0, length);
+        }finally{
+            gzip.close();
+        }
+
+        return result.toByteArray();
+    }
+
+    /**
+     * ストリームが閉じられていないか検査する。
+     *
+     * @throws IOException 閉じられている
+     */
+    private void checkOpen() throws IOException{
+        if(this.closed) throw new IOException(ERRMSG_CLOSED);
+        return;
+    }
+
+    /**
+     * 書き込み途中のブロックを圧縮に回す。
+     *
+     * <p>未出力の圧縮結果が上限に達していれば、
+     * 先頭のものから出力して空きを作る。
+     *
+     * @throws IOException 出力エラー
+     */
+    private void submitBlock() throws IOException{
+        final byte[] data = this.block;
+        final int length = this.fill;
+
+        Future<byte[]> future = this.pool.submit(new Callable<byte[]>(){
+            @Override
+            public byte[] call() throws IOException{
+                return compress(data, length);
+            }
+        });
+        this.pending.addLast(future);
+
+        this.block = new byte[BLOCK_SZ];
+        this.fill = 0;
+        this.written = true;
+
+        while(this.pending.size() >= this.maxPending){
+            writeHead();
+        }
+
+        return;
+    }
+
+    /**
+     * 先頭の圧縮結果の完了を待って出力する。
+     *
+     * @throws IOException 出力エラーもしくは圧縮エラー
+     */
+    private void writeHead() throws IOException{
+        Future<byte[]> future = this.pending.removeFirst();
+
+        byte[] member;
+        try{
+            member = future.get();
+        }catch(InterruptedException e){
+            InterruptedIOException ex = new InterruptedIOException();
+            ex.initCause(e);
+            throw ex;
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+
+        this.out.write(member);
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param bVal {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(int bVal) throws IOException{
+        checkOpen();
+        this.block[this.fill++] = (byte) bVal;
+        if(this.fill >= BLOCK_SZ) submitBlock();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException{
+        if(off < 0 || len < 0 || buf.length - off < len){
+            throw new IndexOutOfBoundsException();
+        }
+        checkOpen();
+
+        int pos = off;
+        int rest = len;
+        while(rest > 0){
+            int size = Math.min(rest, BLOCK_SZ - this.fill);
+            System.arraycopy(buf, pos, this.block, this.fill, size);
+            this.fill += size;
+            pos += size;
+            rest -= size;
+            if(this.fill >= BLOCK_SZ) submitBlock();
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>圧縮を終えたブロックのみが出力される。
+     * 書き込み途中のブロックは出力されない。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException{
+        checkOpen();
+        while( ! this.pending.isEmpty() && this.pending.peekFirst().isDone() ){
+            writeHead();
+        }
+        this.out.flush();
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>残りのブロックを全て圧縮して出力し、出力先を閉じる。
+     * 何も書き込まれていなければ空のgzipメンバが出力される。
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException{
+        if(this.closed) return;
+        this.closed = true;
+
+        try{
+            if(this.fill > 0 || ! this.written) submitBlock();
+            while( ! this.pending.isEmpty() ){
+                writeHead();
+            }
+        }finally{
+            this.pool.shutdownNow();
+            this.out.close();
+        }
+
+        return;
+    }
+
+}
@@ -7,17 +7,15 @@
 
 package jp.sfjp.mikutoga.pmd2xml;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
 import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
 import jp.sfjp.mikutoga.xml.TogaXmlException;
@@ -211,37 +209,6 @@ private static void putHelp(){
         return;
     }
 
-    /**
-     * ファイルサイズを0に切り詰める。
-     *
-     * <p>ファイルが存在しなければなにもしない。
-     *
-     * <p>通常ファイルでなければなにもしない。
-     *
-     * @param file ファイル
-     * @throws IOException 入出力エラー
-     */
-    private static void trunc(File file) throws IOException{
-        if( ! file.exists() ) return;
-        if( ! file.isFile() ) return;
-
-        if(file.length() <= 0L) return;
-
-        FileOutputStream foStream = new FileOutputStream(file);
-        try{
-            FileChannel channnel = foStream.getChannel();
-            try{
-                channnel.truncate(0L);
-            }finally{
-                channnel.close();
-            }
-        }finally{
-            foStream.close();
-        }
-
-        return;
-    }
-
     /**
      * 入力ソースを準備する。
      *
@@ -267,16 +234,19 @@ private static InputSource openInfile(OptInfo optInfo){
     }
 
     /**
-     * 出力ストリームを準備する。
+     * 出力ファイルを確認する。
      *
      * <p>出力ファイルが通常ファイルでない場合はエラー終了。
      *
      * <p>既存の出力ファイルに上書き指示が伴っていなければエラー終了。
      *
+     * <p>出力ファイルへの書き込みは変換の完了後に一括して行われるため、
+     * ここでは作成も切り詰めもしない。
+     *
      * @param optInfo オプション情報
-     * @return 出力ストリーム
+     * @return 出力ファイル
      */
-    private static OutputStream openOutfile(OptInfo optInfo){
+    private static Path checkOutfile(OptInfo optInfo){
         String outputFile = optInfo.getOutFilename();
         boolean overwrite = optInfo.overwriteMode();
 
@@ -295,24 +265,7 @@ private static OutputStream openOutfile(OptInfo optInfo){
             }
         }
 
-        try{
-            trunc(outFile);
-        }catch(IOException e){
-            ioError(e);
-        }
-
-        OutputStream os;
-        try{
-            os = new FileOutputStream(outFile);
-        }catch(FileNotFoundException e){
-            ioError(e);
-            assert false;
-            throw new AssertionError(e);
-        }
-
-        os = new BufferedOutputStream(os);
-
-        return os;
+        return outFile.toPath();
     }
 
     /**
@@ -330,9 +283,42 @@ private static Pmd2XmlConv buildConverter(OptInfo optInfo){
         converter.setNewline(optInfo.getNewline());
         converter.setGenerator(optInfo.getGenerator());
 
+        converter.setInGzip( optInfo.isInGzip());
+        converter.setOutGzip(optInfo.isOutGzip());
+
+        converter.setXmlPullParser(optInfo.isXmlPullParser());
+        converter.setXmlTrusted(optInfo.isXmlTrusted());
+        if(optInfo.isXmlParallel()){
+            int procs = Runtime.getRuntime().availableProcessors();
+            converter.setXmlParallelPool(new ForkJoinPool(procs));
+        }
+
         return converter;
     }
 
+    /**
+     * オプション情報に従い変換結果キャッシュを開く。
+     *
+     * <p>異常系が起きた場合、このメソッドは制御を戻さない。
+     *
+     * @param optInfo オプション情報
+     * @return 変換結果キャッシュ。キャッシュディレクトリが未指定ならnull
+     */
+    private static ConversionCache openCache(OptInfo optInfo){
+        String dirName = optInfo.getCacheDirname();
+        if(dirName == null) return null;
+
+        ConversionCache cache = null;
+        try{
+            cache = new ConversionCache(Paths.get(dirName),
+                                        optInfo.getCacheSize());
+        }catch(IOException e){
+            ioError(e);
+        }
+
+        return cache;
+    }
+
     /**
      * 実際のコンバート作業と異常系処理を行う。
      *
@@ -340,13 +326,13 @@ private static Pmd2XmlConv buildConverter(OptInfo optInfo){
      *
      * @param converter コンバータ
      * @param source 入力ソース
-     * @param ostream 出力ストリーム
+     * @param outFile 出力ファイル
      */
     private static void doConvert(Pmd2XmlConv converter,
                                    InputSource source,
-                                   OutputStream ostream ){
+                                   Path outFile ){
         try{
-            converter.convert(source, ostream);
+            converter.convert(source, outFile);
         }catch(IOException e){
             ioError(e);
         }catch(IllegalPmdDataException e){
@@ -387,6 +373,57 @@ private static OptInfo parseOption(String... args){
         return optInfo;
     }
 
+    /**
+     * 一括変換を行う。
+     *
+     * <p>このメソッドは制御を戻さない。
+     *
+     * @param optInfo オプション情報
+     */
+    private static void doBatch(OptInfo optInfo){
+        BatchConv batch = new BatchConv(optInfo);
+
+        try{
+            batch.buildJobs();
+            batch.openCache();
+        }catch(IOException e){
+            ioError(e);
+        }
+
+        int exitCode = EXIT_INTERR;
+        try{
+            exitCode = batch.runJobs();
+        }catch(InterruptedException e){
+            internalError(e);
+        }
+
+        exit(exitCode);
+    }
+
+    /**
+     * モデルカタログの更新と検索を行う。
+     *
+     * <p>このメソッドは制御を戻さない。
+     *
+     * @param optInfo オプション情報
+     */
+    private static void doCatalog(OptInfo optInfo){
+        CatalogCmd catalog = new CatalogCmd(optInfo);
+
+        int exitCode = EXIT_INTERR;
+        try{
+            exitCode = catalog.update();
+        }catch(IOException e){
+            ioError(e);
+        }catch(InterruptedException e){
+            internalError(e);
+        }
+
+        catalog.query();
+
+        exit(exitCode);
+    }
+
     /**
      * Mainエントリ。
      *
@@ -399,17 +436,23 @@ public static void main(String[] args){
             exit(EXIT_OK);
         }
 
+        if(optInfo.isCatalogMode()){
+            doCatalog(optInfo);
+        }
+
+        if(optInfo.isBatchMode()){
+            doBatch(optInfo);
+        }
+
         Pmd2XmlConv converter = buildConverter(optInfo);
+        converter.setConversionCache(openCache(optInfo));
         InputSource source = openInfile(optInfo);
-        OutputStream ostream = openOutfile(optInfo);
+        Path outFile = checkOutfile(optInfo);
 
-        doConvert(converter, source, ostream);
+        doConvert(converter, source, outFile);
 
-        try{
-            ostream.close();
-        }catch(IOException e){
-            ioError(e);
-        }
+        ForkJoinPool xmlPool = converter.getXmlParallelPool();
+        if(xmlPool != null) xmlPool.shutdown();
 
         exit(EXIT_OK);
 
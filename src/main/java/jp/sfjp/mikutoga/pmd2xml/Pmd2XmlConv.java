@@ -7,19 +7,35 @@
 
 package jp.sfjp.mikutoga.pmd2xml;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.concurrent.ForkJoinPool;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
 import jp.sfjp.mikutoga.pmd.IllegalPmdDataException;
 import jp.sfjp.mikutoga.pmd.model.PmdModel;
 import jp.sfjp.mikutoga.pmd.model.binio.PmdExporter;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdFileSize;
 import jp.sfjp.mikutoga.pmd.model.binio.PmdLoader;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionIndex;
+import jp.sfjp.mikutoga.pmd.model.binio.PmdSectionReader;
+import jp.sfjp.mikutoga.pmd.model.cache.PmdCacheExporter;
+import jp.sfjp.mikutoga.pmd.model.cache.PmdCacheLoader;
 import jp.sfjp.mikutoga.pmd.model.xml.PmdXmlExporter;
+import jp.sfjp.mikutoga.pmd.model.xml.StaxPmdLoader;
 import jp.sfjp.mikutoga.pmd.model.xml.XmlModelFileType;
 import jp.sfjp.mikutoga.pmd.model.xml.XmlPmdLoader;
 import jp.sfjp.mikutoga.xml.TogaXmlException;
@@ -35,11 +51,33 @@ public class Pmd2XmlConv {
     /** デフォルトエンコーディング。 */
     private static final Charset CS_UTF8 = Charset.forName("UTF-8");
 
+    private static final String ERRMSG_TOOLARGE = "too large PMD data";
+    private static final String ERRMSG_SIZE =
+            "PMD output size mismatch : expected {0}, written {1}";
+
+    private static final String DEF_IMPLVER = "unknown";
+    private static final String IMPLVER;
+
+    static{
+        Package pkg = Pmd2XmlConv.class.getPackage();
+        String ver = null;
+        if(pkg != null) ver = pkg.getImplementationVersion();
+        if(ver == null) ver = DEF_IMPLVER;
+        IMPLVER = ver;
+    }
+
 
     private ModelFileType inTypes  = ModelFileType.NONE;
     private ModelFileType outTypes = ModelFileType.NONE;
     private String newLine = "\r\n";
     private String generator = null;
+    private ConversionCache cache = null;
+    private boolean inGzip = false;
+    private boolean outGzip = false;
+    private int gzipThreads = Runtime.getRuntime().availableProcessors();
+    private boolean xmlPull = false;
+    private boolean xmlTrust = false;
+    private ForkJoinPool xmlPool = null;
 
 
     /**
@@ -137,12 +175,214 @@ public String getGenerator(){
         return this.generator;
     }
 
+    /**
+     * 変換結果キャッシュを設定する。
+     *
+     * @param cache 変換結果キャッシュ。使わない場合はnull
+     */
+    public void setConversionCache(ConversionCache cache){
+        this.cache = cache;
+        return;
+    }
+
+    /**
+     * 変換結果キャッシュを返す。
+     *
+     * @return 変換結果キャッシュ。使わない場合はnull
+     */
+    public ConversionCache getConversionCache(){
+        return this.cache;
+    }
+
+    /**
+     * 入力がgzip圧縮されているか否かを設定する。
+     *
+     * <p>圧縮された入力は別スレッドで展開されつつ読み込まれる。
+     *
+     * @param gzip 圧縮されていればtrue
+     */
+    public void setInGzip(boolean gzip){
+        this.inGzip = gzip;
+        return;
+    }
+
+    /**
+     * 入力がgzip圧縮されているか否かを返す。
+     *
+     * @return 圧縮されていればtrue
+     */
+    public boolean isInGzip(){
+        return this.inGzip;
+    }
+
+    /**
+     * 出力をgzip圧縮するか否かを設定する。
+     *
+     * <p>出力はブロック単位で並列に圧縮され、
+     * 複数のgzipメンバを連結した形式となる。
+     *
+     * @param gzip 圧縮するならtrue
+     */
+    public void setOutGzip(boolean gzip){
+        this.outGzip = gzip;
+        return;
+    }
+
+    /**
+     * 出力をgzip圧縮するか否かを返す。
+     *
+     * @return 圧縮するならtrue
+     */
+    public boolean isOutGzip(){
+        return this.outGzip;
+    }
+
+    /**
+     * 出力のgzip圧縮に用いるスレッド数を設定する。
+     *
+     * @param threads スレッド数
+     * @throws IllegalArgumentException スレッド数が1未満
+     */
+    public void setGzipThreads(int threads) throws IllegalArgumentException{
+        if(threads < 1) throw new IllegalArgumentException();
+        this.gzipThreads = threads;
+        return;
+    }
+
+    /**
+     * 出力のgzip圧縮に用いるスレッド数を返す。
+     *
+     * @return スレッド数。デフォルトは利用可能なプロセッサ数
+     */
+    public int getGzipThreads(){
+        return this.gzipThreads;
+    }
+
+    /**
+     * XML入力にプル型パーサを用いるか否かを設定する。
+     *
+     * <p>プル型パーサはStAXを用いて要素構造に沿った読み込みを行い、
+     * スキーマ検証は行わない。
+     * デフォルトではスキーマ検証を伴うSAXパーサが用いられる。
+     *
+     * @param pull プル型パーサを用いるならtrue
+     * @see StaxPmdLoader
+     */
+    public void setXmlPullParser(boolean pull){
+        this.xmlPull = pull;
+        return;
+    }
+
+    /**
+     * XML入力にプル型パーサを用いるか否かを返す。
+     *
+     * @return プル型パーサを用いるならtrue
+     */
+    public boolean isXmlPullParser(){
+        return this.xmlPull;
+    }
+
+    /**
+     * XML入力を信頼しスキーマ検証を省くか否かを設定する。
+     *
+     * <p>自身が出力したXMLのように妥当性が明らかな入力に対し、
+     * スキーマ検証の負荷を省くことができる。
+     * スキーマ検証を省いた場合でも、
+     * ID参照の解決やIDの重複、ウェイト値の範囲といった
+     * モデル構築に必要な整合性は検査される。
+     * デフォルトではスキーマ検証が行われる。
+     *
+     * @param trusted スキーマ検証を省くならtrue
+     */
+    public void setXmlTrusted(boolean trusted){
+        this.xmlTrust = trusted;
+        return;
+    }
+
+    /**
+     * XML入力を信頼しスキーマ検証を省くか否かを返す。
+     *
+     * @return スキーマ検証を省くならtrue
+     */
+    public boolean isXmlTrusted(){
+        return this.xmlTrust;
+    }
+
+    /**
+     * XML出力の各セクションを並列に生成するスレッドプールを設定する。
+     *
+     * <p>並列に生成した場合でも出力内容は逐次生成と同一となる。
+     * デフォルトでは逐次生成が行われる。
+     *
+     * @param pool スレッドプール。nullなら逐次生成
+     * @see PmdXmlExporter#setParallelPool(ForkJoinPool)
+     */
+    public void setXmlParallelPool(ForkJoinPool pool){
+        this.xmlPool = pool;
+        return;
+    }
+
+    /**
+     * XML出力の各セクションを並列に生成するスレッドプールを返す。
+     *
+     * @return スレッドプール。逐次生成ならnull
+     */
+    public ForkJoinPool getXmlParallelPool(){
+        return this.xmlPool;
+    }
+
+    /**
+     * コンバータの実装版数を返す。
+     *
+     * <p>jarファイルのマニフェストに記載された実装版数を返す。
+     * 記載が無ければ"unknown"を返す。
+     *
+     * @return 実装版数
+     */
+    static String getImplementationVersion(){
+        return IMPLVER;
+    }
+
+    /**
+     * 入力ソースに対応するキャッシュのキーを求める。
+     *
+     * <p>キーには入力ファイル内容の他、キャッシュ形式の版数、
+     * コンバータの実装版数、入出力ファイル種別、
+     * XML出力用改行文字列、ジェネレータ名、
+     * 入出力のgzip圧縮の有無が反映される。
+     *
+     * @param source 入力ソース
+     * @return キー。キャッシュ未設定もしくは
+     *     入力ソースがローカルファイルでなければnull
+     * @throws IOException 入力エラー
+     */
+    private String buildCacheKey(InputSource source) throws IOException{
+        if(this.cache == null) return null;
+
+        Path path = XmlInputUtil.toLocalPath(source);
+        if(path == null) return null;
+
+        String result = ConversionCache.buildKey(path,
+                String.valueOf(ConversionCache.FORMAT_VERSION),
+                IMPLVER,
+                this.inTypes.name(),
+                this.outTypes.name(),
+                this.newLine,
+                this.generator,
+                String.valueOf(this.inGzip),
+                String.valueOf(this.outGzip) );
+
+        return result;
+    }
+
     /**
      * ファイル変換を行う。
      *
      * <p>XML入力の場合は{@link #convert(InputSource, OutputStream)}を
      * 推奨する。
      *
+     * <p>出力をgzip圧縮する場合、出力ストリームは閉じられる。
+     *
      * @param is 入力ストリーム
      * @param os 出力ストリーム
      * @throws IOException 入力エラー
@@ -171,6 +411,14 @@ public void convert(InputStream is, OutputStream os)
      * <p>XML入力の場合は{@link InputStream}に
      * URL(systemId)のみの設定を推奨する。
      *
+     * <p>ローカルのPMDファイルからXMLへの変換では、
+     * モデルデータを構築せずPMDデータ上から直接出力する。
+     *
+     * <p>ローカルのPMDファイルからPMDへの変換では、
+     * 未変更のセクションは入力ファイルから複写される。
+     *
+     * <p>出力をgzip圧縮する場合、出力ストリームは閉じられる。
+     *
      * @param source 入力ソース
      * @param os 出力ストリーム
      * @throws IOException 入力エラー
@@ -185,8 +433,117 @@ public void convert(InputSource source, OutputStream os)
                    SAXException,
                    TogaXmlException,
                    IllegalPmdDataException {
+        if( ! this.outGzip ){
+            convertPlain(source, os);
+            return;
+        }
+
+        OutputStream gzos = new ParallelGzipOutputStream(os, this.gzipThreads);
+        try{
+            convertPlain(source, gzos);
+        }finally{
+            gzos.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 出力を圧縮せずにファイル変換を行う。
+     *
+     * @param source 入力ソース
+     * @param os 出力ストリーム
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットエラー
+     * @throws SAXException XMLエラー
+     * @throws TogaXmlException XMLエラー
+     * @throws IllegalPmdDataException 内部エラー
+     */
+    private void convertPlain(InputSource source, OutputStream os)
+            throws IOException,
+                   MmdFormatException,
+                   SAXException,
+                   TogaXmlException,
+                   IllegalPmdDataException {
+        if(this.inTypes.isPmd() && ! this.inGzip){
+            Path path = XmlInputUtil.toLocalPath(source);
+            if(path != null && this.outTypes.isXml()){
+                PmdSectionReader reader = PmdSectionReader.open(path);
+                xmlOut(reader, os);
+                return;
+            }
+            if(path != null && this.outTypes.isPmd()){
+                pmdRewrite(path, os);
+                return;
+            }
+        }
+
         PmdModel model = readModel(source);
-        writeModel(model, os);
+        writePlain(model, os);
+        return;
+    }
+
+    /**
+     * ファイル変換を行い、結果をファイルに出力する。
+     *
+     * <p>出力は同じディレクトリ上の一時ファイルに対して行われ、
+     * 変換に成功した場合のみ出力ファイルへと置き換えられる。
+     * 既存の出力ファイルは上書きされる。
+     *
+     * <p>圧縮しないPMD出力の場合は、事前に算出したファイルサイズで
+     * 一時ファイルをメモリマップし、直接書き込む。
+     * 入力が圧縮されていないローカルのPMDファイルであれば、
+     * 未変更のセクションは入力ファイルから複写される。
+     *
+     * <p>変換結果キャッシュが設定されており入力ソースが
+     * ローカルファイルの場合、保存済みの変換結果があれば
+     * 変換を行わずにそれを複写する。
+     * 無ければ変換結果がキャッシュに保存される。
+     *
+     * @param source 入力ソース
+     * @param outFile 出力ファイル
+     * @throws IOException 入出力エラー
+     * @throws MmdFormatException フォーマットエラー
+     * @throws SAXException XMLエラー
+     * @throws TogaXmlException XMLエラー
+     * @throws IllegalPmdDataException 内部エラー
+     * @see #convert(InputSource, OutputStream)
+     */
+    public void convert(InputSource source, Path outFile)
+            throws IOException,
+                   MmdFormatException,
+                   SAXException,
+                   TogaXmlException,
+                   IllegalPmdDataException {
+        String cacheKey = buildCacheKey(source);
+        Path tmpFile = OutFileUtil.createTempSibling(outFile);
+
+        boolean hit = false;
+        boolean done = false;
+        try{
+            if(cacheKey != null && this.cache.copyOut(cacheKey, tmpFile)){
+                hit = true;
+            }else if(this.outTypes.isPmd() && ! this.outGzip){
+                convertPmd(source, tmpFile);
+            }else{
+                OutputStream os = Files.newOutputStream(tmpFile);
+                os = new BufferedOutputStream(os);
+                try{
+                    convert(source, os);
+                }finally{
+                    os.close();
+                }
+            }
+            OutFileUtil.replace(tmpFile, outFile);
+            done = true;
+        }finally{
+            if( ! done ) Files.deleteIfExists(tmpFile);
+        }
+
+        if(cacheKey != null && ! hit){
+            this.cache.store(cacheKey, outFile);
+        }
+
         return;
     }
 
@@ -224,6 +581,12 @@ public PmdModel readModel(InputStream is)
     /**
      * モデルファイルを読み込む。
      *
+     * <p>PMD入力もしくはPMDキャッシュ入力で
+     * 入力ソースがローカルファイルのURLのみを持つ場合、
+     * ファイルはメモリマップを介して読み込まれる。
+     *
+     * <p>gzip圧縮された入力は別スレッドで展開されつつ読み込まれる。
+     *
      * @param source 入力ソース
      * @return モデルデータ
      * @throws IOException 入力エラー
@@ -236,17 +599,70 @@ public PmdModel readModel(InputSource source)
                    MmdFormatException,
                    SAXException,
                    TogaXmlException {
+        if( ! this.inGzip ){
+            PmdModel model = readPlain(source);
+            return model;
+        }
+
+        PmdModel model;
+
+        InputStream is = XmlInputUtil.openInputSource(source);
+        is = new GzipPipeInputStream(is);
+        try{
+            InputSource plainSource = new InputSource(is);
+            plainSource.setSystemId(source.getSystemId());
+            model = readPlain(plainSource);
+        }finally{
+            is.close();
+        }
+
+        return model;
+    }
+
+    /**
+     * 圧縮されていないモデルファイルを読み込む。
+     *
+     * @param source 入力ソース
+     * @return モデルデータ
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException フォーマットエラー
+     * @throws SAXException XMLエラー
+     * @throws TogaXmlException XMLエラー
+     */
+    private PmdModel readPlain(InputSource source)
+            throws IOException,
+                   MmdFormatException,
+                   SAXException,
+                   TogaXmlException {
         PmdModel model = null;
 
         if(this.inTypes.isPmd()){
-            InputStream is = XmlInputUtil.openInputSource(source);
-            try{
-                model = pmdRead(is);
-            }finally{
-                is.close();
+            Path path = XmlInputUtil.toLocalPath(source);
+            if(path != null){
+                model = pmdRead(path);
+            }else{
+                InputStream is = XmlInputUtil.openInputSource(source);
+                try{
+                    model = pmdRead(is);
+                }finally{
+                    is.close();
+                }
             }
         }else if(this.inTypes.isXml()){
             model = xmlRead(source);
+        }else if(this.inTypes.isCache()){
+            Path path = XmlInputUtil.toLocalPath(source);
+            PmdCacheLoader loader = new PmdCacheLoader();
+            if(path != null){
+                model = loader.load(path);
+            }else{
+                InputStream is = XmlInputUtil.openInputSource(source);
+                try{
+                    model = loader.load(is);
+                }finally{
+                    is.close();
+                }
+            }
         }else{
             throw new IllegalStateException();
         }
@@ -257,6 +673,8 @@ public PmdModel readModel(InputSource source)
     /**
      * モデルファイルを出力する。
      *
+     * <p>出力をgzip圧縮する場合、出力ストリームは閉じられる。
+     *
      * @param model モデルデータ
      * @param os 出力ストリーム
      * @throws IOException 出力エラー
@@ -265,10 +683,39 @@ public PmdModel readModel(InputSource source)
     public void writeModel(PmdModel model, OutputStream os)
             throws IOException,
                    IllegalPmdDataException {
+        if( ! this.outGzip ){
+            writePlain(model, os);
+            return;
+        }
+
+        OutputStream gzos = new ParallelGzipOutputStream(os, this.gzipThreads);
+        try{
+            writePlain(model, gzos);
+        }finally{
+            gzos.close();
+        }
+
+        return;
+    }
+
+    /**
+     * モデルファイルを圧縮せずに出力する。
+     *
+     * @param model モデルデータ
+     * @param os 出力ストリーム
+     * @throws IOException 出力エラー
+     * @throws IllegalPmdDataException データの不備
+     */
+    private void writePlain(PmdModel model, OutputStream os)
+            throws IOException,
+                   IllegalPmdDataException {
         if(this.outTypes.isPmd()){
-            pmdOut(model, os);
+            pmdOut(model, os, null, null);
         }else if(this.outTypes.isXml()){
             xmlOut(model, os);
+        }else if(this.outTypes.isCache()){
+            PmdCacheExporter exporter = new PmdCacheExporter(os);
+            exporter.dumpPmdModel(model);
         }else{
             throw new IllegalStateException();
         }
@@ -291,9 +738,28 @@ private PmdModel pmdRead(InputStream is)
         return model;
     }
 
+    /**
+     * ローカルのPMDファイルをメモリマップしモデルデータを読み込む。
+     *
+     * @param path PMDファイル
+     * @return モデルデータ
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException 不正なPMDファイルフォーマット
+     */
+    private PmdModel pmdRead(Path path)
+            throws IOException, MmdFormatException{
+        PmdLoader loader = new PmdLoader();
+        PmdModel model = loader.load(path);
+        return model;
+    }
+
     /**
      * XMLファイルからモデルデータを読み込む。
      *
+     * <p>XMLリーダは共有プールから借用され、
+     * 正常に読み込めた場合のみ返却される。
+     * 信頼されたXML入力ではスキーマ検証を行わないプールが用いられる。
+     *
      * @param source 入力ソース
      * @return モデルデータ
      * @throws IOException 入力エラー
@@ -304,48 +770,259 @@ private PmdModel xmlRead(InputSource source)
             throws IOException,
                    SAXException,
                    TogaXmlException {
-        XMLReader reader = XmlInputUtil.buildReader(this.inTypes);
+        if(this.xmlPull) return xmlPullRead(source);
+
+        XmlReaderPool pool;
+        if(this.xmlTrust) pool = XmlReaderPool.TRUSTED;
+        else              pool = XmlReaderPool.SHARED;
+        XMLReader reader = pool.borrow(this.inTypes);
+
         XmlPmdLoader loader = new XmlPmdLoader(reader);
         PmdModel model = loader.parse(source);
+
+        pool.release(this.inTypes, reader);
+
+        return model;
+    }
+
+    /**
+     * XMLファイルからプル型パーサでモデルデータを読み込む。
+     *
+     * <p>スキーマ検証は行われない。
+     *
+     * @param source 入力ソース
+     * @return モデルデータ
+     * @throws IOException 入力エラー
+     * @throws TogaXmlException XML構文エラーもしくは不正なXMLデータ
+     */
+    private PmdModel xmlPullRead(InputSource source)
+            throws IOException, TogaXmlException {
+        StaxPmdLoader loader = new StaxPmdLoader();
+        PmdModel model;
+
+        InputStream is = XmlInputUtil.openInputSource(source);
+        try{
+            XMLStreamReader reader =
+                    XmlInputUtil.buildStreamReader(source, is);
+            model = loader.parse(reader);
+            reader.close();
+        }catch(XMLStreamException e){
+            throw new TogaXmlException(e.getMessage(), e);
+        }finally{
+            is.close();
+        }
+
         return model;
     }
 
     /**
      * モデルデータをPMDファイルに出力する。
      *
+     * <p>出力ストリームのバッファリングは呼び出し側に委ねられる。
+     * ファイルへ直接書き込む場合は{@link #convert(InputSource, Path)}を
+     * 用いる。
+     *
      * @param model モデルデータ
      * @param ostream 出力ストリーム
+     * @param original 差分出力の原本PMDファイル。nullなら全て再エンコード
+     * @param index 原本のセクション索引
      * @throws IOException 出力エラー
      * @throws IllegalPmdDataException 不正なモデルデータ
      */
-    private void pmdOut(PmdModel model, OutputStream ostream)
+    private void pmdOut(PmdModel model, OutputStream ostream,
+                         FileChannel original, PmdSectionIndex index)
             throws IOException, IllegalPmdDataException{
         PmdExporter exporter = new PmdExporter(ostream);
+        exporter.setOriginal(original, index);
         exporter.dumpPmdModel(model);
         ostream.close();
         return;
     }
 
     /**
-     * モデルデータをXMLファイルに出力する。
+     * モデルデータをメモリマップしたPMDファイルに出力する。
+     *
+     * <p>ファイルは出力サイズで確保され、
+     * 全データはマップされたバッファへ直接書き込まれる。
+     * 原本から複写されるセクションは原本上のバイト長で見積もられる。
      *
      * @param model モデルデータ
-     * @param ostream 出力ストリーム
+     * @param file 出力ファイル
+     * @param original 差分出力の原本PMDファイル。nullなら全て再エンコード
+     * @param index 原本のセクション索引
      * @throws IOException 出力エラー
      * @throws IllegalPmdDataException 不正なモデルデータ
      */
-    private void xmlOut(PmdModel model, OutputStream ostream)
+    private void pmdOut(PmdModel model, Path file,
+                         FileChannel original, PmdSectionIndex index)
             throws IOException, IllegalPmdDataException{
+        long size;
+        if(original == null) size = PmdFileSize.sizeOf(model);
+        else                 size = PmdFileSize.sizeOf(model, index);
+        if(size > Integer.MAX_VALUE) throw new IOException(ERRMSG_TOOLARGE);
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE );
+        try{
+            MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+
+            PmdExporter exporter = new PmdExporter(buffer);
+            exporter.setOriginal(original, index);
+            exporter.dumpPmdModel(model);
+
+            if(buffer.hasRemaining()){
+                String msg = MessageFormat.format(ERRMSG_SIZE,
+                                                  size, buffer.position());
+                throw new IOException(msg);
+            }
+
+            buffer.force();
+        }finally{
+            channel.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 原本PMDファイルのセクション索引を作成する。
+     *
+     * @param original 原本PMDファイル
+     * @return セクション索引
+     * @throws IOException 入力エラー
+     * @throws MmdFormatException 不正なPMDファイルフォーマット
+     */
+    private static PmdSectionIndex scanOriginal(FileChannel original)
+            throws IOException, MmdFormatException{
+        long size = original.size();
+        if(size > Integer.MAX_VALUE) throw new IOException(ERRMSG_TOOLARGE);
+
+        MappedByteBuffer buffer =
+                original.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        PmdSectionIndex index = PmdSectionIndex.scan(buffer);
+
+        return index;
+    }
+
+    /**
+     * ローカルのPMDファイルをPMDファイルへ差分出力する。
+     *
+     * <p>読み込んだモデルは編集されないため全部位が未変更と宣言され、
+     * 全セクションが入力ファイルから複写される。
+     *
+     * @param srcFile 入力PMDファイル
+     * @param ostream 出力ストリーム
+     * @throws IOException 入出力エラー
+     * @throws MmdFormatException 不正なPMDファイルフォーマット
+     * @throws IllegalPmdDataException 不正なモデルデータ
+     */
+    private void pmdRewrite(Path srcFile, OutputStream ostream)
+            throws IOException,
+                   MmdFormatException,
+                   IllegalPmdDataException {
+        FileChannel original =
+                FileChannel.open(srcFile, StandardOpenOption.READ);
+        try{
+            PmdSectionIndex index = scanOriginal(original);
+            PmdModel model = pmdRead(srcFile);
+            model.markClean();
+            pmdOut(model, ostream, original, index);
+        }finally{
+            original.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 圧縮しないPMDファイルへの変換を行う。
+     *
+     * <p>入力が圧縮されていないローカルのPMDファイルであれば
+     * 差分出力が行われる。
+     *
+     * @param source 入力ソース
+     * @param file 出力ファイル
+     * @throws IOException 入出力エラー
+     * @throws MmdFormatException フォーマットエラー
+     * @throws SAXException XMLエラー
+     * @throws TogaXmlException XMLエラー
+     * @throws IllegalPmdDataException 不正なモデルデータ
+     */
+    private void convertPmd(InputSource source, Path file)
+            throws IOException,
+                   MmdFormatException,
+                   SAXException,
+                   TogaXmlException,
+                   IllegalPmdDataException {
+        Path srcFile = null;
+        if(this.inTypes.isPmd() && ! this.inGzip){
+            srcFile = XmlInputUtil.toLocalPath(source);
+        }
+
+        if(srcFile == null){
+            PmdModel model = readModel(source);
+            pmdOut(model, file, null, null);
+            return;
+        }
+
+        FileChannel original =
+                FileChannel.open(srcFile, StandardOpenOption.READ);
+        try{
+            PmdSectionIndex index = scanOriginal(original);
+            PmdModel model = pmdRead(srcFile);
+            model.markClean();
+            pmdOut(model, file, original, index);
+        }finally{
+            original.close();
+        }
+
+        return;
+    }
+
+    /**
+     * XMLエクスポータを生成する。
+     *
+     * @return XMLエクスポータ
+     */
+    private PmdXmlExporter buildXmlExporter(){
         PmdXmlExporter exporter = new PmdXmlExporter();
 
         XmlModelFileType xmlType = this.outTypes.toXmlType();
         exporter.setXmlFileType(xmlType);
         exporter.setNewLine(this.newLine);
         exporter.setGenerator(this.generator);
+        exporter.setParallelPool(this.xmlPool);
 
+        return exporter;
+    }
+
+    /**
+     * XML出力用のWriterを生成する。
+     *
+     * @param ostream 出力ストリーム
+     * @return Writer
+     */
+    private static Writer buildXmlWriter(OutputStream ostream){
         Writer writer;
         writer = new OutputStreamWriter(ostream, CS_UTF8);
         writer = new BufferedWriter(writer);
+        return writer;
+    }
+
+    /**
+     * モデルデータをXMLファイルに出力する。
+     *
+     * @param model モデルデータ
+     * @param ostream 出力ストリーム
+     * @throws IOException 出力エラー
+     * @throws IllegalPmdDataException 不正なモデルデータ
+     */
+    private void xmlOut(PmdModel model, OutputStream ostream)
+            throws IOException, IllegalPmdDataException{
+        PmdXmlExporter exporter = buildXmlExporter();
+        Writer writer = buildXmlWriter(ostream);
 
         exporter.putPmdXml(model, writer);
 
@@ -354,4 +1031,26 @@ private void xmlOut(PmdModel model, OutputStream ostream)
         return;
     }
 
+    /**
+     * PMDデータをモデルデータを構築せずにXMLファイルに出力する。
+     *
+     * <p>頂点、面、モーフ頂点はPMDデータ上から出力順に直接読み出される。
+     *
+     * @param reader PMDデータ
+     * @param ostream 出力ストリーム
+     * @throws IOException 入出力エラー
+     * @throws MmdFormatException 不正なPMDファイルフォーマット
+     */
+    private void xmlOut(PmdSectionReader reader, OutputStream ostream)
+            throws IOException, MmdFormatException{
+        PmdXmlExporter exporter = buildXmlExporter();
+        Writer writer = buildXmlWriter(ostream);
+
+        exporter.putPmdXml(reader, writer);
+
+        exporter.close();
+
+        return;
+    }
+
 }
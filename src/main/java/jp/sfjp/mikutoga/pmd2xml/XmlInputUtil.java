@@ -13,11 +13,20 @@
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.validation.Schema;
 import jp.sfjp.mikutoga.pmd.model.xml.Schema101009;
 import jp.sfjp.mikutoga.pmd.model.xml.Schema130128;
@@ -29,6 +38,7 @@
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * XML入力に関する各種ユーティリティ。
@@ -44,6 +54,11 @@ final class XmlInputUtil {
     private static final String F_LOAD_EXTERNAL_DTD =
             "http://apache.org/xml/features/nonvalidating/load-external-dtd";
 
+    private static final Map<ModelFileType, Schema> SCHEMA_CACHE =
+            new EnumMap<>(ModelFileType.class);
+
+    private static final XMLInputFactory STAX_FACTORY = buildStaxFactory();
+
 
     /**
      * 隠しコンストラクタ。
@@ -111,6 +126,40 @@ static InputStream openInputSource(InputSource source)
         return is;
     }
 
+    /**
+     * InputSourceがローカルファイルを指すならそのパスを得る。
+     *
+     * <p>バイトストリームが設定済みの入力ソースや、
+     * file以外のスキームのURLを持つ入力ソースは対象外となる。
+     *
+     * @param source 入力ソース
+     * @return ローカルファイルのパス。該当しなければnull
+     */
+    static Path toLocalPath(InputSource source){
+        if(source.getByteStream() != null) return null;
+
+        String systemId = source.getSystemId();
+        if(systemId == null) return null;
+
+        URI uri;
+        try{
+            uri = new URI(systemId);
+        }catch(URISyntaxException e){
+            return null;
+        }
+
+        if( ! "file".equalsIgnoreCase(uri.getScheme()) ) return null;
+
+        Path path;
+        try{
+            path = Paths.get(uri);
+        }catch(IllegalArgumentException | FileSystemNotFoundException e){
+            return null;
+        }
+
+        return path;
+    }
+
     /**
      * SAXパーサファクトリを生成する。
      *
@@ -120,7 +169,7 @@ static InputStream openInputSource(InputSource source)
      * <li>XIncludeによる差し込み機能は無効となる。
      * </ul>
      *
-     * @param schema スキーマ
+     * @param schema スキーマ。nullならスキーマ検証は行われない
      * @return ファクトリ
      */
     private static SAXParserFactory buildFactory(Schema schema){
@@ -148,6 +197,56 @@ private static SAXParserFactory buildFactory(Schema schema){
         return factory;
     }
 
+    /**
+     * StAXパーサファクトリを生成する。
+     *
+     * <ul>
+     * <li>XML名前空間機能は有効になる。
+     * <li>DTDのサポートは無効となる。
+     * <li>外部エンティティは解決されない。
+     * </ul>
+     *
+     * @return ファクトリ
+     */
+    private static XMLInputFactory buildStaxFactory(){
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE,
+                            Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING,
+                            Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD,
+                            Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                            Boolean.FALSE);
+
+        return factory;
+    }
+
+    /**
+     * StAXストリームリーダを生成する。
+     *
+     * <p>ファクトリはスレッドセーフであることが保証されないため、
+     * 生成は排他的に行われる。
+     *
+     * @param source 入力ソース。SystemIdのみが参照される
+     * @param is 入力ストリーム
+     * @return ストリームリーダ
+     * @throws XMLStreamException 生成に失敗
+     */
+    static XMLStreamReader buildStreamReader(InputSource source,
+                                             InputStream is )
+            throws XMLStreamException{
+        XMLStreamReader reader;
+
+        synchronized(STAX_FACTORY){
+            reader = STAX_FACTORY.createXMLStreamReader(source.getSystemId(),
+                                                        is );
+        }
+
+        return reader;
+    }
+
     /**
      * SAXパーサを生成する。
      *
@@ -217,7 +316,46 @@ private static Schema buildSchema(ModelFileType xmlInType ){
     }
 
     /**
-     * XMLリーダを生成する。
+     * コンパイル済みスキーマを返す。
+     *
+     * <p>スキーマは入力XML種別ごとに一度だけコンパイルされ、
+     * 以降は使い回される。
+     * Schemaはスレッドセーフである。
+     *
+     * @param xmlInType 入力XML種別
+     * @return スキーマ
+     */
+    static Schema getSchema(ModelFileType xmlInType){
+        Schema schema;
+
+        synchronized(SCHEMA_CACHE){
+            schema = SCHEMA_CACHE.get(xmlInType);
+            if(schema == null){
+                schema = buildSchema(xmlInType);
+                SCHEMA_CACHE.put(xmlInType, schema);
+            }
+        }
+
+        return schema;
+    }
+
+    /**
+     * XMLリーダの各種ハンドラを初期状態に戻す。
+     *
+     * <p>エラーハンドラには{@link BotherHandler}が指定される。
+     *
+     * @param reader XMLリーダ
+     */
+    static void resetReader(XMLReader reader){
+        reader.setContentHandler(NoopHandler.HANDLER);
+        reader.setDTDHandler(NoopHandler.HANDLER);
+        reader.setEntityResolver(NoopEntityResolver.NOOP_RESOLVER);
+        reader.setErrorHandler(BotherHandler.HANDLER);
+        return;
+    }
+
+    /**
+     * スキーマ検証を行うXMLリーダを生成する。
      *
      * <p>エラーハンドラには{@link BotherHandler}が指定される。
      *
@@ -225,7 +363,24 @@ private static Schema buildSchema(ModelFileType xmlInType ){
      * @return XMLリーダ
      */
     static XMLReader buildReader(ModelFileType xmlInType){
-        Schema schema = buildSchema(xmlInType);
+        return buildReader(xmlInType, true);
+    }
+
+    /**
+     * XMLリーダを生成する。
+     *
+     * <p>スキーマ検証を行わない場合、スキーマは読み込まれない。
+     * エラーハンドラには{@link BotherHandler}が指定される。
+     *
+     * @param xmlInType 入力XML種別
+     * @param validating スキーマ検証を行うならtrue
+     * @return XMLリーダ
+     */
+    static XMLReader buildReader(ModelFileType xmlInType,
+                                 boolean validating ){
+        Schema schema;
+        if(validating) schema = getSchema(xmlInType);
+        else           schema = null;
 
         SAXParser parser = buildParser(schema);
 
@@ -237,10 +392,31 @@ static XMLReader buildReader(ModelFileType xmlInType){
             throw new AssertionError(e);
         }
 
-        reader.setEntityResolver(NoopEntityResolver.NOOP_RESOLVER);
-        reader.setErrorHandler(BotherHandler.HANDLER);
+        resetReader(reader);
 
         return reader;
     }
 
+
+    /**
+     * 何もしないSAXハンドラ。
+     *
+     * <p>プールに戻されたXMLリーダが直前の利用者の
+     * ハンドラを参照し続けないよう用いられる。
+     */
+    private static final class NoopHandler extends DefaultHandler {
+
+        /** 唯一のインスタンス。 */
+        static final NoopHandler HANDLER = new NoopHandler();
+
+        /**
+         * コンストラクタ。
+         */
+        private NoopHandler(){
+            super();
+            return;
+        }
+
+    }
+
 }
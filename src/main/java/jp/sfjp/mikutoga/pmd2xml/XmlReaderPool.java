@@ -0,0 +1,182 @@
+/*
+ * xml reader pool
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 MikuToga Partners
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.xml.sax.XMLReader;
+
+/**
+ * 設定済みXMLリーダのプール。
+ *
+ * <p>XMLリーダは入力XML種別ごとにプールされ、
+ * 貸し出しと返却はスレッドセーフに行われる。
+ * プールが空なら新たなXMLリーダが生成される。
+ *
+ * <p>XMLリーダ自体はスレッドセーフではないため、
+ * 貸し出し中のXMLリーダを複数スレッドで共有してはならない。
+ */
+final class XmlReaderPool {
+
+    /** 共有プール。 */
+    static final XmlReaderPool SHARED = new XmlReaderPool(
+            Runtime.getRuntime().availableProcessors());
+
+    /** スキーマ検証を行わない共有プール。 */
+    static final XmlReaderPool TRUSTED = new XmlReaderPool(
+            Runtime.getRuntime().availableProcessors(), false);
+
+
+    private final int maxIdle;
+    private final boolean validating;
+    private final Map<ModelFileType, Slot> slotMap =
+            new EnumMap<>(ModelFileType.class);
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>スキーマ検証を行うXMLリーダがプールされる。
+     *
+     * @param maxIdle XML種別ごとに保持する返却済みリーダの上限数
+     * @throws IllegalArgumentException 上限数が負
+     */
+    XmlReaderPool(int maxIdle) throws IllegalArgumentException{
+        this(maxIdle, true);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxIdle XML種別ごとに保持する返却済みリーダの上限数
+     * @param validating スキーマ検証を行うXMLリーダをプールするならtrue
+     * @throws IllegalArgumentException 上限数が負
+     */
+    XmlReaderPool(int maxIdle, boolean validating)
+            throws IllegalArgumentException{
+        super();
+
+        if(maxIdle < 0) throw new IllegalArgumentException();
+        this.maxIdle = maxIdle;
+        this.validating = validating;
+
+        for(ModelFileType type : ModelFileType.values()){
+            if( ! type.isXml() ) continue;
+            this.slotMap.put(type, new Slot());
+        }
+
+        return;
+    }
+
+
+    /**
+     * XML種別ごとのプール区画を返す。
+     *
+     * @param xmlInType 入力XML種別
+     * @return プール区画
+     * @throws IllegalArgumentException XML種別ではない
+     */
+    private Slot getSlot(ModelFileType xmlInType)
+            throws IllegalArgumentException{
+        Slot slot = this.slotMap.get(xmlInType);
+        if(slot == null) throw new IllegalArgumentException();
+        return slot;
+    }
+
+    /**
+     * XMLリーダを借りる。
+     *
+     * @param xmlInType 入力XML種別
+     * @return XMLリーダ
+     * @throws IllegalArgumentException XML種別ではない
+     */
+    XMLReader borrow(ModelFileType xmlInType)
+            throws IllegalArgumentException{
+        Slot slot = getSlot(xmlInType);
+
+        XMLReader reader = slot.idle.poll();
+        if(reader == null){
+            reader = XmlInputUtil.buildReader(xmlInType, this.validating);
+        }else{
+            slot.idleCount.decrementAndGet();
+        }
+
+        return reader;
+    }
+
+    /**
+     * 借りたXMLリーダを返却する。
+     *
+     * <p>返却されたXMLリーダの各種ハンドラは初期状態に戻される。
+     * 保持上限を超える分は破棄される。
+     *
+     * @param xmlInType 借りた時の入力XML種別
+     * @param reader XMLリーダ
+     * @throws IllegalArgumentException XML種別ではない
+     */
+    void release(ModelFileType xmlInType, XMLReader reader)
+            throws IllegalArgumentException{
+        Slot slot = getSlot(xmlInType);
+
+        XmlInputUtil.resetReader(reader);
+
+        if(slot.idleCount.incrementAndGet() > this.maxIdle){
+            slot.idleCount.decrementAndGet();
+            return;
+        }
+
+        slot.idle.offer(reader);
+
+        return;
+    }
+
+    /**
+     * 返却済みで保持されているXMLリーダ数を返す。
+     *
+     * @param xmlInType 入力XML種別
+     * @return リーダ数
+     * @throws IllegalArgumentException XML種別ではない
+     */
+    int idleSize(ModelFileType xmlInType) throws IllegalArgumentException{
+        Slot slot = getSlot(xmlInType);
+        return slot.idleCount.get();
+    }
+
+    /**
+     * プールされるXMLリーダがスキーマ検証を行うか判定する。
+     *
+     * @return スキーマ検証を行うならtrue
+     */
+    boolean isValidating(){
+        return this.validating;
+    }
+
+
+    /**
+     * XML種別ごとのプール区画。
+     */
+    private static final class Slot {
+
+        final ConcurrentLinkedQueue<XMLReader> idle =
+                new ConcurrentLinkedQueue<>();
+        final AtomicInteger idleCount = new AtomicInteger(0);
+
+        /**
+         * コンストラクタ。
+         */
+        Slot(){
+            super();
+            return;
+        }
+
+    }
+
+}
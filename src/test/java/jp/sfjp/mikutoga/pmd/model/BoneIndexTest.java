@@ -0,0 +1,271 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class BoneIndexTest {
+
+    public BoneIndexTest() {
+    }
+
+    private static BoneInfo newBone(String name, BoneInfo prev){
+        BoneInfo result = new BoneInfo();
+        result.getBoneName().setPrimaryText(name);
+        result.setPrevBone(prev);
+        return result;
+    }
+
+    private static BoneGroup newGroup(BoneInfo... members){
+        BoneGroup result = new BoneGroup();
+        result.getBoneList().addAll(Arrays.asList(members));
+        return result;
+    }
+
+    private static void assertTopological(BoneIndex index){
+        int boneNum = index.getBoneCount();
+        int[] position = new int[boneNum];
+        Arrays.fill(position, -1);
+        for(int nth = 0; nth < boneNum; nth++){
+            int boneIdx = index.getTopologicalOrder(nth);
+            assertEquals(-1, position[boneIdx]);
+            position[boneIdx] = nth;
+        }
+        return;
+    }
+
+    /**
+     * Test of hierarchy adjacency, of class BoneIndex.
+     */
+    @Test
+    public void testHierarchy() {
+        System.out.println("hierarchy");
+
+        BoneInfo root = newBone("root", null);
+        BoneInfo armR = newBone("armR", root);
+        BoneInfo armL = newBone("armL", root);
+        BoneInfo handR = newBone("handR", armR);
+        BoneInfo stray = newBone("stray", newBone("outside", null));
+
+        List<BoneInfo> boneList =
+                Arrays.asList(handR, armR, null, root, armL, stray);
+        BoneIndex index =
+                new BoneIndex(boneList, Collections.<BoneGroup>emptyList());
+
+        assertEquals(5, index.getBoneCount());
+        assertSame(handR, index.getBone(0));
+        assertSame(root, index.getBone(2));
+        assertEquals(2, index.indexOf(root));
+        assertTrue(index.indexOf(newBone("x", null)) < 0);
+
+        assertEquals(1, index.getParentIndex(0));
+        assertEquals(2, index.getParentIndex(1));
+        assertTrue(index.getParentIndex(2) < 0);
+        assertEquals(2, index.getParentIndex(3));
+        assertTrue(index.getParentIndex(4) < 0);
+
+        assertEquals(2, index.getChildCount(2));
+        assertEquals(1, index.getChild(2, 0));
+        assertEquals(3, index.getChild(2, 1));
+        assertEquals(1, index.getChildCount(1));
+        assertEquals(0, index.getChild(1, 0));
+        assertEquals(0, index.getChildCount(0));
+        assertEquals(0, index.getChildCount(4));
+
+        assertTopological(index);
+        assertEquals(2, index.getTopologicalOrder(0));
+        assertEquals(4, index.getTopologicalOrder(1));
+        for(int nth = 0; nth < index.getBoneCount(); nth++){
+            int boneIdx = index.getTopologicalOrder(nth);
+            int parent = index.getParentIndex(boneIdx);
+            if(parent < 0) continue;
+            boolean parentFirst = false;
+            for(int prev = 0; prev < nth; prev++){
+                if(index.getTopologicalOrder(prev) == parent){
+                    parentFirst = true;
+                }
+            }
+            assertTrue(parentFirst);
+        }
+
+        try{
+            index.getChild(2, 2);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of cyclic hierarchy, of class BoneIndex.
+     */
+    @Test
+    public void testCycle() {
+        System.out.println("cycle");
+
+        BoneInfo root = newBone("root", null);
+        BoneInfo cycA = newBone("cycA", null);
+        BoneInfo cycB = newBone("cycB", cycA);
+        BoneInfo cycTail = newBone("cycTail", cycB);
+        cycA.setPrevBone(cycB);
+        BoneInfo self = newBone("self", null);
+        self.setPrevBone(self);
+        BoneInfo child = newBone("child", root);
+
+        List<BoneInfo> boneList =
+                Arrays.asList(cycTail, cycA, root, self, cycB, child);
+        BoneIndex index =
+                new BoneIndex(boneList, Collections.<BoneGroup>emptyList());
+
+        assertTopological(index);
+        assertEquals(2, index.getTopologicalOrder(0));
+        assertEquals(5, index.getTopologicalOrder(1));
+        assertEquals(0, index.getTopologicalOrder(2));
+        assertEquals(1, index.getTopologicalOrder(3));
+        assertEquals(3, index.getTopologicalOrder(4));
+        assertEquals(4, index.getTopologicalOrder(5));
+
+        assertEquals(3, index.getParentIndex(3));
+        assertEquals(1, index.getChildCount(3));
+        assertEquals(3, index.getChild(3, 0));
+
+        return;
+    }
+
+    /**
+     * Test of group membership, of class BoneIndex.
+     */
+    @Test
+    public void testMembership() {
+        System.out.println("membership");
+
+        List<BoneInfo> boneList = new ArrayList<>();
+        for(int idx = 0; idx < 130; idx++){
+            boneList.add(newBone("bone" + idx, null));
+        }
+
+        BoneGroup defaultGroup = newGroup();
+        BoneGroup group1 = newGroup(boneList.get(0),
+                                    boneList.get(63),
+                                    boneList.get(64) );
+        BoneGroup group2 = newGroup(boneList.get(64),
+                                    boneList.get(129),
+                                    newBone("outside", null) );
+        List<BoneGroup> groupList =
+                Arrays.asList(defaultGroup, group1, group2);
+
+        BoneIndex index = new BoneIndex(boneList, groupList);
+        assertEquals(3, index.getGroupCount());
+
+        assertTrue(index.isMember(1, 0));
+        assertTrue(index.isMember(1, 63));
+        assertTrue(index.isMember(1, 64));
+        assertFalse(index.isMember(1, 65));
+        assertFalse(index.isMember(2, 63));
+        assertTrue(index.isMember(2, 64));
+        assertTrue(index.isMember(2, 129));
+        assertFalse(index.isMember(0, 0));
+
+        Set<Integer> grouped = new HashSet<>(Arrays.asList(0, 63, 64, 129));
+        List<BoneInfo> expected = new ArrayList<>();
+        for(int idx = 0; idx < 130; idx++){
+            assertEquals(grouped.contains(idx), index.isGrouped(idx));
+            if( ! grouped.contains(idx) ) expected.add(boneList.get(idx));
+        }
+        assertEquals(expected, index.getUngroupedBones());
+
+        try{
+            index.isMember(3, 0);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+        try{
+            index.isGrouped(130);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of findBone method, of class BoneIndex.
+     */
+    @Test
+    public void testFindBone() {
+        System.out.println("findBone");
+
+        BoneInfo first = newBone("same", null);
+        BoneInfo second = newBone("same", null);
+        BoneInfo other = newBone("other", null);
+
+        BoneIndex index = new BoneIndex(Arrays.asList(first, second, other),
+                                        Collections.<BoneGroup>emptyList());
+
+        assertSame(first, index.findBone("same"));
+        assertSame(other, index.findBone("other"));
+        assertNull(index.findBone("none"));
+
+        return;
+    }
+
+    /**
+     * Test of default group filling in XML loaders, of class BoneIndex.
+     */
+    @Test
+    public void testDefaultGroup() throws Exception {
+        System.out.println("defaultGroup");
+
+        for(boolean pull : new boolean[]{false, true}){
+            InputStream is = BoneIndexTest.class.getResourceAsStream(
+                    "/testdata/pmd130128/group/boneGroup.xml");
+            assertNotNull(is);
+
+            Pmd2XmlConv converter = new Pmd2XmlConv();
+            converter.setInType(ModelFileType.XML_AUTO);
+            converter.setXmlPullParser(pull);
+            PmdModel model = converter.readModel(is);
+
+            List<BoneInfo> boneList = model.getBoneList();
+            List<BoneGroup> groupList = model.getBoneGroupList();
+            assertTrue(groupList.size() > 1);
+            BoneGroup defaultGroup = groupList.get(0);
+            assertTrue(defaultGroup.isDefaultBoneGroup());
+
+            Set<BoneInfo> grouped = new HashSet<>();
+            for(BoneGroup group : groupList.subList(1, groupList.size())){
+                grouped.addAll(group.getBoneList());
+            }
+
+            List<BoneInfo> expected = new ArrayList<>();
+            for(BoneInfo bone : boneList){
+                if( ! grouped.contains(bone) ) expected.add(bone);
+            }
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, defaultGroup.getBoneList());
+        }
+
+        return;
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PackedMorphStoreTest {
+
+    public PackedMorphStoreTest() {
+    }
+
+    private static Vertex newVertex(VertexStore store, int serial){
+        Vertex result = new Vertex(store);
+        result.setSerialNumber(serial);
+        return result;
+    }
+
+    private static MorphPart newMorph(MorphType type, Vertex... vertices){
+        MorphPart result = new MorphPart();
+        result.setMorphType(type);
+        float offset = 0.0f;
+        for(Vertex vertex : vertices){
+            MorphVertex morphVertex = new MorphVertex();
+            morphVertex.setBaseVertex(vertex);
+            offset += 0.5f;
+            morphVertex.getOffset().setPosition(offset, -offset, 2 * offset);
+            result.getMorphVertexList().add(morphVertex);
+        }
+        return result;
+    }
+
+    /**
+     * Test of rank lookup across words, of class PackedMorphStore.
+     */
+    @Test
+    public void testRankAcrossWords() {
+        System.out.println("rankAcrossWords");
+
+        VertexStore store = new VertexStore(8);
+        int[] ids = {1000, 64, 0, 63, 65, 127, 128};
+        Vertex[] vertices = new Vertex[ids.length];
+        for(int idx = 0; idx < ids.length; idx++){
+            vertices[idx] = newVertex(store, ids[idx]);
+        }
+
+        PackedMorphStore packed = new PackedMorphStore();
+        int morphIdx = packed.addMorph(newMorph(MorphType.EYE, vertices));
+        assertEquals(0, morphIdx);
+
+        assertEquals(ids.length, packed.getBaseVertexCount());
+        assertEquals(ids.length, packed.getTotalMorphVertexCount());
+
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        for(int baseIdx = 0; baseIdx < sorted.length; baseIdx++){
+            assertEquals(sorted[baseIdx], packed.getBaseVertexId(baseIdx));
+            Vertex vertex = packed.getBaseVertex(baseIdx);
+            assertEquals(sorted[baseIdx], vertex.getSerialNumber());
+        }
+
+        for(int idx = 0; idx < ids.length; idx++){
+            assertEquals(ids[idx], packed.getVertexId(0, idx));
+            int expected = Arrays.binarySearch(sorted, ids[idx]);
+            assertEquals(expected, packed.getBaseIndex(0, idx));
+        }
+
+        assertEquals(0.5f, packed.getOffset(0, 0, 0));
+        assertEquals(-0.5f, packed.getOffset(0, 0, 1));
+        assertEquals(1.0f, packed.getOffset(0, 0, 2));
+
+        return;
+    }
+
+    /**
+     * Test of shared vertices, of class PackedMorphStore.
+     */
+    @Test
+    public void testSharedVertex() {
+        System.out.println("sharedVertex");
+
+        VertexStore store = new VertexStore(4);
+        Vertex v3 = newVertex(store, 3);
+        Vertex v5 = newVertex(store, 5);
+        Vertex v9 = newVertex(store, 9);
+        Vertex v5dup = newVertex(store, 5);
+
+        PackedMorphStore packed = new PackedMorphStore();
+        packed.addMorph(newMorph(MorphType.EYE, v9, v5, v9));
+        packed.addMorph(newMorph(MorphType.LIP, v3));
+        packed.addMorph(newMorph(MorphType.LIP, v5dup, v3));
+
+        assertEquals(3, packed.getMorphCount());
+        assertEquals(6, packed.getTotalMorphVertexCount());
+        assertEquals(3, packed.getBaseVertexCount());
+
+        assertEquals(3, packed.getBaseVertexId(0));
+        assertEquals(5, packed.getBaseVertexId(1));
+        assertEquals(9, packed.getBaseVertexId(2));
+        assertSame(v5, packed.getBaseVertex(1));
+
+        assertEquals(2, packed.getBaseIndex(0, 0));
+        assertEquals(1, packed.getBaseIndex(0, 1));
+        assertEquals(2, packed.getBaseIndex(0, 2));
+        assertEquals(1, packed.getBaseIndex(2, 0));
+        assertEquals(0, packed.getBaseIndex(2, 1));
+
+        assertEquals(2, packed.getTouchingMorphCount(0));
+        assertEquals(1, packed.getTouchingMorph(0, 0));
+        assertEquals(2, packed.getTouchingMorph(0, 1));
+        assertEquals(2, packed.getTouchingMorphCount(1));
+        assertEquals(0, packed.getTouchingMorph(1, 0));
+        assertEquals(2, packed.getTouchingMorph(1, 1));
+        assertEquals(1, packed.getTouchingMorphCount(2));
+        assertEquals(0, packed.getTouchingMorph(2, 0));
+
+        return;
+    }
+
+    /**
+     * Test of adding morphs after lookup, of class PackedMorphStore.
+     */
+    @Test
+    public void testAddAfterLookup() {
+        System.out.println("addAfterLookup");
+
+        VertexStore store = new VertexStore(3);
+        Vertex v10 = newVertex(store, 10);
+        Vertex v200 = newVertex(store, 200);
+        Vertex v4 = newVertex(store, 4);
+
+        PackedMorphStore packed = new PackedMorphStore();
+        packed.addMorph(newMorph(MorphType.EYE, v10));
+        assertEquals(0, packed.getBaseIndex(0, 0));
+        assertEquals(1, packed.getTouchingMorphCount(0));
+
+        packed.addMorph(newMorph(MorphType.EXTRA, v200, v4, v10));
+        assertEquals(3, packed.getBaseVertexCount());
+        assertEquals(1, packed.getBaseIndex(0, 0));
+        assertEquals(2, packed.getBaseIndex(1, 0));
+        assertEquals(0, packed.getBaseIndex(1, 1));
+        assertEquals(2, packed.getTouchingMorphCount(1));
+
+        return;
+    }
+
+    /**
+     * Test of random vertex IDs, of class PackedMorphStore.
+     */
+    @Test
+    public void testRandom() {
+        System.out.println("random");
+
+        Random random = new Random(1234L);
+        VertexStore store = new VertexStore(16);
+        PackedMorphStore packed = new PackedMorphStore();
+        TreeSet<Integer> union = new TreeSet<>();
+        List<int[]> morphIds = new ArrayList<>();
+
+        for(int morphIdx = 0; morphIdx < 20; morphIdx++){
+            int size = random.nextInt(50);
+            int[] ids = new int[size];
+            Vertex[] vertices = new Vertex[size];
+            for(int idx = 0; idx < size; idx++){
+                ids[idx] = random.nextInt(5000);
+                vertices[idx] = newVertex(store, ids[idx]);
+                union.add(ids[idx]);
+            }
+            packed.addMorph(newMorph(MorphType.EXTRA, vertices));
+            morphIds.add(ids);
+        }
+
+        List<Integer> sorted = new ArrayList<>(union);
+        assertEquals(sorted.size(), packed.getBaseVertexCount());
+        for(int baseIdx = 0; baseIdx < sorted.size(); baseIdx++){
+            int vertexId = sorted.get(baseIdx);
+            assertEquals(vertexId, packed.getBaseVertexId(baseIdx));
+        }
+
+        for(int morphIdx = 0; morphIdx < morphIds.size(); morphIdx++){
+            int[] ids = morphIds.get(morphIdx);
+            assertEquals(ids.length, packed.getMorphVertexCount(morphIdx));
+            for(int idx = 0; idx < ids.length; idx++){
+                int expected = sorted.indexOf(ids[idx]);
+                assertEquals(expected, packed.getBaseIndex(morphIdx, idx));
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of build method, of class PackedMorphStore.
+     */
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+
+        PmdModel model = new PmdModel();
+        VertexStore store = model.getVertexStore();
+        Vertex v0 = newVertex(store, 0);
+        Vertex v1 = newVertex(store, 1);
+        Vertex v2 = newVertex(store, 2);
+
+        MorphPart base = newMorph(MorphType.BASE, v0, v1, v2);
+        MorphPart lip = newMorph(MorphType.LIP, v2);
+        MorphPart eye = newMorph(MorphType.EYE, v1);
+        model.getMorphMap().put(MorphType.BASE, Arrays.asList(base));
+        model.getMorphMap().get(MorphType.LIP).add(lip);
+        model.getMorphMap().get(MorphType.EYE).add(eye);
+
+        PackedMorphStore packed = PackedMorphStore.build(model);
+        assertEquals(2, packed.getMorphCount());
+        assertSame(eye, packed.getMorphPart(0));
+        assertSame(lip, packed.getMorphPart(1));
+        assertEquals(2, packed.getBaseVertexCount());
+        assertEquals(0, packed.getBaseIndex(0, 0));
+        assertEquals(1, packed.getBaseIndex(1, 0));
+
+        return;
+    }
+
+    /**
+     * Test of invalid arguments, of class PackedMorphStore.
+     */
+    @Test
+    public void testInvalid() {
+        System.out.println("invalid");
+
+        VertexStore store = new VertexStore(2);
+        PackedMorphStore packed = new PackedMorphStore();
+
+        try{
+            packed.addMorph(newMorph(MorphType.EYE, newVertex(store, -1)));
+            fail();
+        }catch(IllegalArgumentException e){
+            // GOOD
+        }
+        assertEquals(0, packed.getMorphCount());
+        assertEquals(0, packed.getBaseVertexCount());
+
+        packed.addMorph(newMorph(MorphType.EYE, newVertex(store, 7)));
+
+        try{
+            packed.getBaseVertexId(1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+        try{
+            packed.getVertexId(0, 1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+        try{
+            packed.getMorphPart(1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+        try{
+            packed.getOffset(0, 0, 3);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+        try{
+            packed.getTouchingMorph(0, 1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+}
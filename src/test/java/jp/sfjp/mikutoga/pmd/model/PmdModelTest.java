@@ -0,0 +1,179 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.Arrays;
+import java.util.List;
+import jp.sfjp.mikutoga.pmd.MorphType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdModelTest {
+
+    public PmdModelTest() {
+    }
+
+    private static Vertex addVertex(PmdModel model){
+        List<Vertex> vertexList = model.getVertexList();
+        Vertex result = new Vertex(model.getVertexStore());
+        result.setSerialNumber(vertexList.size());
+        vertexList.add(result);
+        return result;
+    }
+
+    private static Surface addSurface(PmdModel model,
+                                      Vertex vtx1, Vertex vtx2, Vertex vtx3){
+        List<Surface> surfaceList = model.getSurfaceList();
+        Surface result = new Surface();
+        result.setTriangle(vtx1, vtx2, vtx3);
+        result.setSerialNumber(surfaceList.size());
+        surfaceList.add(result);
+        return result;
+    }
+
+    private static MorphVertex addMorphVertex(MorphPart part, Vertex base){
+        MorphVertex result = new MorphVertex();
+        result.setBaseVertex(base);
+        part.getMorphVertexList().add(result);
+        return result;
+    }
+
+    /**
+     * Test of trimming method with intact model, of class PmdModel.
+     */
+    @Test
+    public void testTrimmingIntact() {
+        System.out.println("trimmingIntact");
+
+        PmdModel model = new PmdModel();
+        Vertex v0 = addVertex(model);
+        Vertex v1 = addVertex(model);
+        Vertex v2 = addVertex(model);
+        addSurface(model, v0, v1, v2);
+
+        model.markClean();
+        model.trimming();
+
+        assertEquals(Arrays.asList(v0, v1, v2), model.getVertexList());
+        assertEquals(1, model.getSurfaceList().size());
+        for(ModelSection section : ModelSection.values()){
+            assertFalse(model.isDirty(section));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of trimming method with removed vertices, of class PmdModel.
+     */
+    @Test
+    public void testTrimmingRemoved() {
+        System.out.println("trimmingRemoved");
+
+        PmdModel model = new PmdModel();
+        Vertex v0 = addVertex(model);
+        Vertex v1 = addVertex(model);
+        Vertex v2 = addVertex(model);
+        Vertex v3 = addVertex(model);
+        Vertex v4 = addVertex(model);
+        addSurface(model, v0, v2, v4);
+
+        MorphPart base = new MorphPart();
+        base.setMorphType(MorphType.BASE);
+        MorphVertex mv2 = addMorphVertex(base, v2);
+        MorphVertex mv4 = addMorphVertex(base, v4);
+        model.getMorphMap().put(MorphType.BASE, Arrays.asList(base));
+
+        List<Vertex> vertexList = model.getVertexList();
+        vertexList.set(1, null);
+        vertexList.set(3, null);
+        assertEquals(3, v3.getSerialNumber());
+
+        model.markClean();
+        model.trimming();
+
+        assertEquals(Arrays.asList(v0, v2, v4), vertexList);
+        assertEquals(0, v0.getSerialNumber());
+        assertEquals(1, v2.getSerialNumber());
+        assertEquals(2, v4.getSerialNumber());
+
+        assertSame(v2, mv2.getBaseVertex());
+        assertSame(v4, mv4.getBaseVertex());
+        assertEquals(1, mv2.getBaseVertex().getSerialNumber());
+        assertEquals(2, mv4.getBaseVertex().getSerialNumber());
+
+        assertTrue(model.isDirty(ModelSection.VERTEX));
+        assertTrue(model.isDirty(ModelSection.SURFACE));
+        assertTrue(model.isDirty(ModelSection.MORPH));
+        assertFalse(model.isDirty(ModelSection.BONE));
+
+        assertFalse(vertexList.contains(v1));
+        assertFalse(vertexList.contains(v3));
+
+        return;
+    }
+
+    /**
+     * Test of trimming method with unlisted vertices, of class PmdModel.
+     */
+    @Test
+    public void testTrimmingUnlisted() {
+        System.out.println("trimmingUnlisted");
+
+        PmdModel model = new PmdModel();
+        Vertex v0 = addVertex(model);
+        Vertex v1 = addVertex(model);
+        Vertex v2 = addVertex(model);
+
+        VertexStore store = model.getVertexStore();
+        Vertex surfaceOnly = new Vertex(store);
+        surfaceOnly.setSerialNumber(1);
+        Vertex morphOnly = new Vertex(store);
+        morphOnly.setSerialNumber(0);
+
+        Surface listed = addSurface(model, v0, v1, v2);
+
+        Material material = new Material();
+        Surface unlisted = new Surface();
+        unlisted.setTriangle(v0, surfaceOnly, v2);
+        material.getSurfaceList().add(listed);
+        material.getSurfaceList().add(unlisted);
+        model.getMaterialList().add(material);
+
+        MorphPart base = new MorphPart();
+        base.setMorphType(MorphType.BASE);
+        addMorphVertex(base, v1);
+        addMorphVertex(base, morphOnly);
+        addMorphVertex(base, surfaceOnly);
+        model.getMorphMap().put(MorphType.BASE, Arrays.asList(base));
+
+        model.markClean();
+        model.trimming();
+
+        assertEquals(Arrays.asList(listed, unlisted), model.getSurfaceList());
+        assertEquals(1, unlisted.getSerialNumber());
+
+        assertEquals(Arrays.asList(v0, v1, v2, surfaceOnly, morphOnly),
+                     model.getVertexList() );
+        assertEquals(3, surfaceOnly.getSerialNumber());
+        assertEquals(4, morphOnly.getSerialNumber());
+
+        assertTrue(model.isDirty(ModelSection.VERTEX));
+        assertTrue(model.isDirty(ModelSection.SURFACE));
+        assertTrue(model.isDirty(ModelSection.MORPH));
+
+        model.markClean();
+        model.trimming();
+        assertFalse(model.isDirty(ModelSection.VERTEX));
+        assertFalse(model.isDirty(ModelSection.SURFACE));
+
+        return;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class SerialCompactorTest {
+
+    public SerialCompactorTest() {
+    }
+
+    private static Vertex newVertex(VertexStore store, int serial){
+        Vertex result = new Vertex(store);
+        result.setSerialNumber(serial);
+        return result;
+    }
+
+    /**
+     * Test of unchanged list, of class SerialCompactor.
+     */
+    @Test
+    public void testUnchanged() {
+        System.out.println("unchanged");
+
+        VertexStore store = new VertexStore(3);
+        Vertex v0 = newVertex(store, 0);
+        Vertex v1 = newVertex(store, 1);
+        List<Vertex> list = new ArrayList<>(Arrays.asList(v0, v1));
+
+        SerialCompactor<Vertex> compactor = new SerialCompactor<>(list);
+        compactor.add(v1);
+        compactor.add(null);
+        compactor.add(v0);
+        assertFalse(compactor.isChanged());
+
+        compactor.applyTo(list);
+        assertEquals(Arrays.asList(v0, v1), list);
+
+        return;
+    }
+
+    /**
+     * Test of null removal, of class SerialCompactor.
+     */
+    @Test
+    public void testRemoveNull() {
+        System.out.println("removeNull");
+
+        VertexStore store = new VertexStore(3);
+        Vertex v0 = newVertex(store, 0);
+        Vertex v2 = newVertex(store, 2);
+        List<Vertex> list = new ArrayList<>(Arrays.asList(v0, null, v2));
+
+        SerialCompactor<Vertex> compactor = new SerialCompactor<>(list);
+        assertTrue(compactor.isChanged());
+        assertEquals(3, list.size());
+
+        compactor.applyTo(list);
+        assertEquals(Arrays.asList(v0, v2), list);
+        assertEquals(0, v0.getSerialNumber());
+        assertEquals(1, v2.getSerialNumber());
+
+        return;
+    }
+
+    /**
+     * Test of renumbering, of class SerialCompactor.
+     */
+    @Test
+    public void testRenumber() {
+        System.out.println("renumber");
+
+        VertexStore store = new VertexStore(2);
+        Vertex va = newVertex(store, 5);
+        Vertex vb = newVertex(store, 0);
+        List<Vertex> list = new ArrayList<>(Arrays.asList(va, vb));
+
+        SerialCompactor<Vertex> compactor = new SerialCompactor<>(list);
+        assertTrue(compactor.isChanged());
+        assertEquals(0, va.getSerialNumber());
+        assertEquals(1, vb.getSerialNumber());
+
+        return;
+    }
+
+    /**
+     * Test of add method, of class SerialCompactor.
+     */
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+
+        VertexStore store = new VertexStore(4);
+        Vertex v0 = newVertex(store, 0);
+        Vertex v1 = newVertex(store, 1);
+        Vertex extra1 = newVertex(store, 1);
+        Vertex extra2 = newVertex(store, 99);
+        List<Vertex> list = new ArrayList<>(Arrays.asList(v0, v1));
+
+        SerialCompactor<Vertex> compactor = new SerialCompactor<>(list);
+        assertFalse(compactor.isChanged());
+
+        compactor.add(extra1);
+        assertTrue(compactor.isChanged());
+        compactor.add(extra2);
+        compactor.add(extra1);
+        compactor.add(v0);
+
+        compactor.applyTo(list);
+        assertEquals(Arrays.asList(v0, v1, extra1, extra2), list);
+        for(int idx = 0; idx < list.size(); idx++){
+            assertEquals(idx, list.get(idx).getSerialNumber());
+        }
+
+        return;
+    }
+
+}
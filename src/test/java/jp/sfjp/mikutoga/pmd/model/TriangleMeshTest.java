@@ -0,0 +1,163 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class TriangleMeshTest {
+
+    public TriangleMeshTest() {
+    }
+
+    private static PmdModel buildModel(){
+        PmdModel model = new PmdModel();
+
+        List<Vertex> vertexList = model.getVertexList();
+        for(int ct = 0; ct < 4; ct++){
+            Vertex vertex = model.getVertexStore().newVertex();
+            vertex.setSerialNumber(ct);
+            vertexList.add(vertex);
+        }
+
+        Material mat1 = new Material();
+        Material mat2 = new Material();
+        model.getMaterialList().add(mat1);
+        model.getMaterialList().add(mat2);
+
+        mat1.getSurfaceList().add(newSurface(vertexList, 0, 1, 2));
+        mat2.getSurfaceList().add(newSurface(vertexList, 1, 2, 3));
+        mat2.getSurfaceList().add(newSurface(vertexList, 3, 2, 0));
+
+        return model;
+    }
+
+    private static Surface newSurface(List<Vertex> vertexList,
+                                      int id1, int id2, int id3){
+        Surface result = new Surface();
+        result.setTriangle(vertexList.get(id1),
+                           vertexList.get(id2),
+                           vertexList.get(id3) );
+        return result;
+    }
+
+    /**
+     * Test of build method, of class TriangleMesh.
+     */
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+
+        PmdModel model = buildModel();
+        TriangleMesh mesh = TriangleMesh.build(model);
+
+        assertEquals(2, mesh.getMaterialCount());
+        assertEquals(3, mesh.getSurfaceCount());
+        assertEquals(0, mesh.getMaterialSurfaceStart(0));
+        assertEquals(1, mesh.getMaterialSurfaceCount(0));
+        assertEquals(1, mesh.getMaterialSurfaceStart(1));
+        assertEquals(2, mesh.getMaterialSurfaceCount(1));
+
+        assertEquals(1, mesh.getSurfaceVertexId(1, 0));
+        assertEquals(3, mesh.getSurfaceVertexId(2, 0));
+        assertEquals(0, mesh.getSurfaceVertexId(2, 2));
+
+        try{
+            mesh.getSurfaceVertexId(0, 3);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        try{
+            mesh.getMaterialSurfaceStart(2);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            // GOOD
+        }
+
+        assertTrue(mesh.matches(model));
+
+        return;
+    }
+
+    /**
+     * Test of constructor, of class TriangleMesh.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("constructor");
+
+        int[] start = {0, 1, 3};
+        int[] ids = {0, 1, 2,  1, 2, 3,  3, 2, 0};
+        TriangleMesh mesh = new TriangleMesh(start, ids, 4);
+        assertEquals(3, mesh.getSurfaceCount());
+        assertTrue(mesh.matches(buildModel()));
+
+        try{
+            new TriangleMesh(start, new int[6], 4);
+            fail();
+        }catch(IllegalArgumentException e){
+            // GOOD
+        }
+
+        try{
+            new TriangleMesh(new int[0], new int[0], 0);
+            fail();
+        }catch(IllegalArgumentException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of getTriangleMesh method, of class PmdModel.
+     */
+    @Test
+    public void testModelMesh() {
+        System.out.println("getTriangleMesh");
+
+        PmdModel model = buildModel();
+
+        TriangleMesh mesh = model.getTriangleMesh();
+        assertSame(mesh, model.getTriangleMesh());
+
+        model.markDirty(ModelSection.BONE);
+        assertSame(mesh, model.getTriangleMesh());
+
+        model.markDirty(ModelSection.SURFACE);
+        TriangleMesh rebuilt = model.getTriangleMesh();
+        assertNotSame(mesh, rebuilt);
+        assertEquals(3, rebuilt.getSurfaceCount());
+
+        List<Vertex> vertexList = model.getVertexList();
+        Material mat1 = model.getMaterialList().get(0);
+        mat1.getSurfaceList().add(newSurface(vertexList, 0, 3, 1));
+        mesh = model.getTriangleMesh();
+        assertNotSame(rebuilt, mesh);
+        assertEquals(4, mesh.getSurfaceCount());
+        assertEquals(2, mesh.getMaterialSurfaceCount(0));
+        assertEquals(2, mesh.getMaterialSurfaceStart(1));
+
+        int[] start = {0, 1, 3};
+        int[] ids = {0, 1, 2,  1, 2, 3,  3, 2, 0};
+        model.setTriangleMesh(new TriangleMesh(start, ids, 4));
+        assertNotSame(mesh, model.getTriangleMesh());
+        assertEquals(4, model.getTriangleMesh().getSurfaceCount());
+
+        model.setTriangleMesh(mesh);
+        model.markAllDirty();
+        assertNotSame(mesh, model.getTriangleMesh());
+
+        return;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import jp.sfjp.mikutoga.math.MkPos2D;
+import jp.sfjp.mikutoga.math.MkPos3D;
+import jp.sfjp.mikutoga.math.MkVec3D;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VertexTest {
+
+    public VertexTest() {
+    }
+
+    /**
+     * Test of getPosition method, of class Vertex.
+     */
+    @Test
+    public void testGetPosition() {
+        System.out.println("getPosition");
+
+        VertexStore store = new VertexStore();
+        Vertex vertex = store.newVertex();
+        vertex.setPosition(1.0f, 2.0f, 3.0f);
+
+        MkPos3D pos = vertex.getPosition();
+        assertEquals(1.0, pos.getXpos());
+        assertEquals(2.0, pos.getYpos());
+        assertEquals(3.0, pos.getZpos());
+
+        pos.setXpos(4.0);
+        pos.setYpos(5.0);
+        pos.setZpos(6.0);
+        assertEquals(4.0f, store.getXpos(0));
+        assertEquals(5.0f, store.getYpos(0));
+        assertEquals(6.0f, store.getZpos(0));
+
+        vertex.setPosition(7.0f, 8.0f, 9.0f);
+        assertEquals(7.0, pos.getXpos());
+        assertEquals(8.0, pos.getYpos());
+        assertEquals(9.0, pos.getZpos());
+
+        return;
+    }
+
+    /**
+     * Test of getNormal method, of class Vertex.
+     */
+    @Test
+    public void testGetNormal() {
+        System.out.println("getNormal");
+
+        VertexStore store = new VertexStore();
+        Vertex vertex = store.newVertex();
+        vertex.setNormal(0.0f, 1.0f, 0.0f);
+
+        MkVec3D normal = vertex.getNormal();
+        assertEquals(1.0, normal.getYVal());
+
+        normal.setXVal(1.0);
+        normal.setYVal(0.0);
+        assertEquals(1.0f, store.getXNormal(0));
+        assertEquals(0.0f, store.getYNormal(0));
+
+        normal.setVector(0.0, 0.0, 1.0);
+        assertEquals(0.0f, store.getXNormal(0));
+        assertEquals(1.0f, store.getZNormal(0));
+
+        return;
+    }
+
+    /**
+     * Test of getUVPosition method, of class Vertex.
+     */
+    @Test
+    public void testGetUVPosition() {
+        System.out.println("getUVPosition");
+
+        VertexStore store = new VertexStore();
+        store.newVertex();
+        Vertex vertex = store.newVertex();
+        vertex.setUVPosition(0.25f, 0.5f);
+
+        MkPos2D uv = vertex.getUVPosition();
+        assertEquals(0.25, uv.getXpos());
+        assertEquals(0.5, uv.getYpos());
+
+        uv.setXpos(0.75);
+        assertEquals(0.75f, store.getUVal(1));
+        assertEquals(0.5f, store.getVVal(1));
+        assertEquals(0.0f, store.getUVal(0));
+
+        uv.setPosition(0.125, 1.0);
+        assertEquals(0.125f, store.getUVal(1));
+        assertEquals(1.0f, store.getVVal(1));
+
+        return;
+    }
+
+    /**
+     * Test of addVertices method, of class VertexStore.
+     */
+    @Test
+    public void testAddVertices() {
+        System.out.println("addVertices");
+
+        VertexStore store = new VertexStore(1);
+        Vertex first = store.newVertex();
+
+        List<Vertex> list = new ArrayList<>();
+        int fromSlot = store.addVertices(list, 3);
+        assertEquals(1, fromSlot);
+        assertEquals(3, list.size());
+        assertEquals(4, store.size());
+
+        for(Vertex vertex : list){
+            assertSame(store, vertex.getVertexStore());
+        }
+
+        list.get(2).getPosition().setZpos(2.0);
+        assertEquals(2.0f, store.getZpos(3));
+        assertEquals(0.0, first.getPosition().getZpos());
+
+        return;
+    }
+
+    /**
+     * Test of standalone Vertex.
+     */
+    @Test
+    public void testStandalone() {
+        System.out.println("standalone");
+
+        Vertex vertex = new Vertex();
+        assertNull(vertex.getBoneA());
+        assertNull(vertex.getBoneB());
+
+        vertex.getPosition().setYpos(3.0);
+        assertEquals(3.0, vertex.getPosition().getYpos());
+
+        BoneInfo bone = new BoneInfo();
+        vertex.setBonePair(bone, bone);
+        assertSame(bone, vertex.getBoneA());
+        assertSame(bone, vertex.getBoneB());
+
+        return;
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import jp.sfjp.mikutoga.pmd.model.ModelSection;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdExporterBaseTest {
+
+    private static final String[] MODELS = {
+        "/testdata/pmd130128/minimum/minimum.pmd",
+        "/testdata/pmd130128/bone/allbone.pmd",
+        "/testdata/pmd130128/group/boneGroup.pmd",
+        "/testdata/pmd130128/i18n/i18n.pmd",
+        "/testdata/pmd130128/ik/ikBone.pmd",
+        "/testdata/pmd130128/material/material.pmd",
+        "/testdata/pmd130128/morph/allmorph.pmd",
+        "/testdata/pmd130128/rigid/allrigid.pmd",
+        "/testdata/pmd101009/minimum/minimum.pmd",
+    };
+
+    public PmdExporterBaseTest() {
+    }
+
+    private static Path resourcePath(String resource) throws Exception{
+        URL url = PmdExporterBaseTest.class.getResource(resource);
+        assertNotNull(url, resource);
+        Path path = Paths.get(url.toURI());
+        return path;
+    }
+
+    private static PmdModel load(Path path) throws Exception{
+        PmdLoader loader = new PmdLoader();
+        PmdModel model = loader.load(path);
+        return model;
+    }
+
+    private static PmdSectionIndex scan(Path path) throws Exception{
+        byte[] bin = Files.readAllBytes(path);
+        PmdSectionIndex index = PmdSectionIndex.scan(ByteBuffer.wrap(bin));
+        return index;
+    }
+
+    private static byte[] export(PmdModel model,
+                                 FileChannel original,
+                                 PmdSectionIndex index )
+            throws Exception{
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        PmdExporter exporter = new PmdExporter(bos);
+        exporter.setOriginal(original, index);
+        exporter.dumpPmdModel(model);
+        exporter.close();
+
+        return bos.toByteArray();
+    }
+
+    private static byte[] exportBuffer(PmdModel model,
+                                       FileChannel original,
+                                       PmdSectionIndex index )
+            throws Exception{
+        long size = PmdFileSize.sizeOf(model, index);
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+        PmdExporter exporter = new PmdExporter(buffer);
+        exporter.setOriginal(original, index);
+        exporter.dumpPmdModel(model);
+
+        assertFalse(buffer.hasRemaining());
+
+        return buffer.array();
+    }
+
+    /**
+     * Test of setOriginal method, of class PmdExporterBase.
+     * @throws Exception
+     */
+    @Test
+    public void testRewriteClean() throws Exception {
+        System.out.println("setOriginal clean");
+
+        for(String resource : MODELS){
+            Path path = resourcePath(resource);
+            PmdSectionIndex index = scan(path);
+            PmdModel model = load(path);
+
+            byte[] full = export(model, null, null);
+
+            FileChannel original =
+                    FileChannel.open(path, StandardOpenOption.READ);
+            try{
+                model.markClean();
+                assertArrayEquals(full, export(model, original, index),
+                                  resource);
+                assertArrayEquals(full, exportBuffer(model, original, index),
+                                  resource);
+            }finally{
+                original.close();
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setOriginal method, of class PmdExporterBase.
+     * @throws Exception
+     */
+    @Test
+    public void testRewriteDirty() throws Exception {
+        System.out.println("setOriginal dirty");
+
+        for(String resource : MODELS){
+            Path path = resourcePath(resource);
+            PmdSectionIndex index = scan(path);
+            PmdModel model = load(path);
+
+            byte[] full = export(model, null, null);
+
+            FileChannel original =
+                    FileChannel.open(path, StandardOpenOption.READ);
+            try{
+                for(ModelSection section : ModelSection.values()){
+                    model.markClean();
+                    model.markDirty(section);
+
+                    String msg = resource + " " + section;
+                    assertArrayEquals(full,
+                                      export(model, original, index),
+                                      msg);
+                    assertArrayEquals(full,
+                                      exportBuffer(model, original, index),
+                                      msg);
+                }
+
+                for(ModelSection section : ModelSection.values()){
+                    model.markDirty(section);
+                }
+                assertArrayEquals(full, export(model, original, index),
+                                  resource);
+            }finally{
+                original.close();
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of setOriginal method with modified model,
+     * of class PmdExporterBase.
+     * @throws Exception
+     */
+    @Test
+    public void testRewriteModified() throws Exception {
+        System.out.println("setOriginal modified");
+
+        Path path = resourcePath("/testdata/pmd130128/bone/allbone.pmd");
+        PmdSectionIndex index = scan(path);
+        PmdModel model = load(path);
+        model.markClean();
+        byte[] before = export(model, null, null);
+
+        model.getModelName().setPrimaryText("renamed");
+        model.getVertexList().clear();
+        model.getSurfaceList().clear();
+        model.trimming();
+        model.markDirty(ModelSection.BASIC);
+
+        byte[] full = export(model, null, null);
+        assertFalse(Arrays.equals(before, full));
+        assertFalse(model.isDirty(ModelSection.BONE));
+
+        FileChannel original =
+                FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            assertArrayEquals(full, export(model, original, index));
+        }finally{
+            original.close();
+        }
+
+        return;
+    }
+
+    /**
+     * 原本のBASEモーフの末尾に、どのモーフからも使われない頂点を加える。
+     */
+    private static byte[] addUnusedBaseVertex(byte[] bin) throws Exception{
+        PmdSectionIndex index = PmdSectionIndex.scan(ByteBuffer.wrap(bin));
+        assertTrue(index.getCount(PmdSection.MORPH) > 0);
+
+        int basePos = index.getMorphOffset(0);
+        ByteBuffer buf = ByteBuffer.wrap(bin);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        int countPos = basePos + 20;
+        int baseCount = buf.getInt(countPos);
+        int insertPos = basePos + PmdSectionIndex.MORPH_HEAD_SIZE
+                + baseCount * PmdSectionIndex.MORPH_VERTEX_SIZE;
+
+        ByteBuffer result = ByteBuffer.allocate(
+                bin.length + PmdSectionIndex.MORPH_VERTEX_SIZE);
+        result.order(ByteOrder.LITTLE_ENDIAN);
+        result.put(bin, 0, insertPos);
+        result.putInt(index.getCount(PmdSection.VERTEX) - 1);
+        result.putFloat(0.0f).putFloat(0.0f).putFloat(0.0f);
+        result.put(bin, insertPos, bin.length - insertPos);
+        result.putInt(countPos, baseCount + 1);
+
+        return result.array();
+    }
+
+    /**
+     * Test of setOriginal method with unused base morph vertices,
+     * of class PmdExporterBase.
+     * @throws Exception
+     */
+    @Test
+    public void testRewriteUnusedBase() throws Exception {
+        System.out.println("setOriginal unusedBase");
+
+        Path src = resourcePath("/testdata/pmd130128/morph/allmorph.pmd");
+        byte[] bin = addUnusedBaseVertex(Files.readAllBytes(src));
+
+        File file = File.createTempFile("pmd2xml", ".pmd");
+        file.deleteOnExit();
+        Path path = file.toPath();
+        Files.write(path, bin);
+
+        PmdSectionIndex index = scan(path);
+        PmdModel model = load(path);
+        model.markClean();
+
+        byte[] full = export(model, null, null);
+        assertTrue(full.length < bin.length);
+        assertEquals(bin.length, PmdFileSize.sizeOf(model, index));
+
+        FileChannel original =
+                FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            assertArrayEquals(bin, export(model, original, index));
+            assertArrayEquals(bin, exportBuffer(model, original, index));
+
+            model.markDirty(ModelSection.BONE);
+            assertArrayEquals(bin, export(model, original, index));
+            assertArrayEquals(bin, exportBuffer(model, original, index));
+
+            model.markDirty(ModelSection.MORPH);
+            assertArrayEquals(full, exportBuffer(model, original, index));
+        }finally{
+            original.close();
+        }
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.PMD);
+        converter.setOutType(ModelFileType.PMD);
+
+        File destFile = File.createTempFile("pmd2xml", null);
+        destFile.deleteOnExit();
+        InputSource source = new InputSource(path.toUri().toString());
+        converter.convert(source, destFile.toPath());
+        assertArrayEquals(bin, Files.readAllBytes(destFile.toPath()));
+
+        return;
+    }
+
+    /**
+     * Test of PMD to PMD conversion rewriting the original file.
+     * @throws Exception
+     */
+    @Test
+    public void testRewriteConvert() throws Exception {
+        System.out.println("convert pmd2pmd");
+
+        for(String resource : MODELS){
+            Path path = resourcePath(resource);
+            byte[] full = export(load(path), null, null);
+
+            Pmd2XmlConv converter = new Pmd2XmlConv();
+            converter.setInType(ModelFileType.PMD);
+            converter.setOutType(ModelFileType.PMD);
+
+            File destFile = File.createTempFile("pmd2xml", null);
+            destFile.deleteOnExit();
+
+            InputSource source = new InputSource(path.toUri().toString());
+            converter.convert(source, destFile.toPath());
+            assertArrayEquals(full, Files.readAllBytes(destFile.toPath()),
+                              resource);
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            source = new InputSource(path.toUri().toString());
+            converter.convert(source, bos);
+            assertArrayEquals(full, bos.toByteArray(), resource);
+        }
+
+        return;
+    }
+
+}
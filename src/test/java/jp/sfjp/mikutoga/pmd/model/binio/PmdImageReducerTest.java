@@ -0,0 +1,422 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdImageReducerTest {
+
+    private static final String[] MODELS = {
+        "/testdata/pmd130128/minimum/minimum.pmd",
+        "/testdata/pmd130128/bone/allbone.pmd",
+        "/testdata/pmd130128/group/boneGroup.pmd",
+        "/testdata/pmd130128/i18n/i18n.pmd",
+        "/testdata/pmd130128/ik/ikBone.pmd",
+        "/testdata/pmd130128/material/material.pmd",
+        "/testdata/pmd130128/morph/allmorph.pmd",
+        "/testdata/pmd130128/rigid/allrigid.pmd",
+        "/testdata/pmd130128/small/onlyjoint.pmd",
+        "/testdata/pmd130128/small/onlytriangle.pmd",
+    };
+
+    private static final PmdSection[] SHAPE = {
+        PmdSection.VERTEX,
+        PmdSection.SURFACE,
+    };
+
+    private static final PmdSection[] BONE = {
+        PmdSection.BONE,
+        PmdSection.IK,
+        PmdSection.BONE_GROUP,
+        PmdSection.BONE_GROUP_MEMBER,
+    };
+
+    private static final PmdSection[] MORPH = {
+        PmdSection.MORPH,
+        PmdSection.MORPH_ORDER,
+    };
+
+    private static final PmdSection[] DYNAMICS = {
+        PmdSection.RIGID,
+        PmdSection.JOINT,
+    };
+
+    public PmdImageReducerTest() {
+    }
+
+    private static ByteBuffer readPmd(String resource) throws Exception{
+        InputStream is =
+                PmdImageReducerTest.class.getResourceAsStream(resource);
+        assertNotNull(is, resource);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try{
+            byte[] buf = new byte[4096];
+            for(;;){
+                int size = is.read(buf);
+                if(size < 0) break;
+                bos.write(buf, 0, size);
+            }
+        }finally{
+            is.close();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bos.toByteArray());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        return buffer;
+    }
+
+    private static PmdSectionIndex reduceScan(ByteBuffer src,
+                                              PmdSectionIndex index,
+                                              PmdLoadOptions options)
+            throws Exception{
+        ByteBuffer image = PmdImageReducer.reduce(src, index, options);
+        assertTrue(image.remaining() <= index.getEndPosition());
+
+        PmdSectionIndex reduced = PmdSectionIndex.scan(image);
+        assertEquals(image.remaining(), reduced.getEndPosition());
+
+        for(PmdSection section : PmdSection.values()){
+            assertEquals(index.hasSection(section),
+                         reduced.hasSection(section), section.name());
+        }
+
+        return reduced;
+    }
+
+    private static void assertKept(PmdSectionIndex expected,
+                                   PmdSectionIndex actual,
+                                   PmdSection... sections){
+        for(PmdSection section : sections){
+            assertEquals(expected.getCount(section),
+                         actual.getCount(section), section.name());
+            assertEquals(expected.getLength(section),
+                         actual.getLength(section), section.name());
+        }
+        return;
+    }
+
+    private static void assertSkipped(PmdSectionIndex actual,
+                                      PmdSection... sections){
+        for(PmdSection section : sections){
+            assertEquals(0, actual.getCount(section), section.name());
+        }
+        return;
+    }
+
+    private static int englishTail(PmdSectionIndex index,
+                                   boolean bone, boolean morph){
+        int bones  = index.getCount(PmdSection.BONE);
+        int morphs = Math.max(index.getCount(PmdSection.MORPH) - 1, 0);
+        int groups = index.getCount(PmdSection.BONE_GROUP);
+
+        int result = 0;
+        if(bone){
+            result += bones  * PmdSectionIndex.ENGLISH_BONE_SIZE;
+            result += groups * PmdSectionIndex.ENGLISH_BONE_GROUP_SIZE;
+        }
+        if(morph){
+            result += morphs * PmdSectionIndex.ENGLISH_MORPH_SIZE;
+        }
+
+        return result;
+    }
+
+    private static void assertEnglish(PmdSectionIndex index,
+                                      PmdSectionIndex reduced,
+                                      boolean bone, boolean morph){
+        if( ! index.hasSection(PmdSection.ENGLISH) ) return;
+
+        assertEquals(index.getCount(PmdSection.ENGLISH),
+                     reduced.getCount(PmdSection.ENGLISH));
+        if(index.getCount(PmdSection.ENGLISH) == 0){
+            assertEquals(index.getLength(PmdSection.ENGLISH),
+                         reduced.getLength(PmdSection.ENGLISH));
+            return;
+        }
+
+        int head = 1 + PmdSectionIndex.ENGLISH_HEAD_SIZE;
+        assertEquals(index.getLength(PmdSection.ENGLISH),
+                     head + englishTail(index, true, true));
+        assertEquals(reduced.getLength(PmdSection.ENGLISH),
+                     head + englishTail(index, bone, morph));
+
+        return;
+    }
+
+    /**
+     * Test of headerOnly method, of class PmdLoadOptions.
+     */
+    @Test
+    public void testOptionsHeaderOnly() {
+        System.out.println("headerOnly");
+
+        PmdLoadOptions options;
+
+        options = new PmdLoadOptions();
+        assertTrue(options.isFull());
+        for(PmdLoadOptions.Part part : PmdLoadOptions.Part.values()){
+            assertTrue(options.isLoaded(part));
+        }
+
+        options = PmdLoadOptions.headerOnly();
+        assertFalse(options.isFull());
+        for(PmdLoadOptions.Part part : PmdLoadOptions.Part.values()){
+            assertFalse(options.isLoaded(part));
+        }
+        assertFalse(options.loadsShape());
+        assertFalse(options.loadsMaterial());
+        assertFalse(options.loadsBone());
+        assertFalse(options.loadsMorph());
+        assertFalse(options.loadsDynamics());
+
+        try{
+            options.setLoaded(null, true);
+            fail();
+        }catch(NullPointerException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of loadsBone method, of class PmdLoadOptions.
+     */
+    @Test
+    public void testOptionsDynamics() {
+        System.out.println("loadsBone");
+
+        PmdLoadOptions options = PmdLoadOptions.headerOnly();
+        options.setLoaded(PmdLoadOptions.Part.DYNAMICS, true);
+
+        assertFalse(options.isLoaded(PmdLoadOptions.Part.BONE));
+        assertTrue(options.loadsBone());
+        assertTrue(options.loadsDynamics());
+        assertFalse(options.isFull());
+
+        options.setLoaded(PmdLoadOptions.Part.DYNAMICS, false);
+        assertFalse(options.loadsBone());
+
+        options = new PmdLoadOptions();
+        options.setLoaded(PmdLoadOptions.Part.BONE, false);
+        assertTrue(options.loadsBone());
+
+        return;
+    }
+
+    /**
+     * Test of reduce method, of class PmdImageReducer.
+     * @throws Exception
+     */
+    @Test
+    public void testReduceHeaderOnly() throws Exception {
+        System.out.println("reduce headerOnly");
+
+        PmdLoadOptions options = PmdLoadOptions.headerOnly();
+
+        for(String model : MODELS){
+            ByteBuffer src = readPmd(model);
+            PmdSectionIndex index = PmdSectionIndex.scan(src);
+            PmdSectionIndex reduced = reduceScan(src, index, options);
+
+            assertKept(index, reduced, PmdSection.HEADER, PmdSection.TOON);
+            assertSkipped(reduced, SHAPE);
+            assertSkipped(reduced, PmdSection.MATERIAL);
+            assertSkipped(reduced, BONE);
+            assertSkipped(reduced, MORPH);
+            assertSkipped(reduced, DYNAMICS);
+            assertEnglish(index, reduced, false, false);
+
+            ByteBuffer image = PmdImageReducer.reduce(src, index, options);
+            for(int pos = 0; pos < PmdSectionIndex.HEADER_SIZE; pos++){
+                assertEquals(src.get(pos), image.get(pos), model);
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of reduce method, of class PmdImageReducer.
+     * @throws Exception
+     */
+    @Test
+    public void testReduceDynamics() throws Exception {
+        System.out.println("reduce dynamics");
+
+        PmdLoadOptions options = PmdLoadOptions.headerOnly();
+        options.setLoaded(PmdLoadOptions.Part.DYNAMICS, true);
+
+        for(String model : MODELS){
+            ByteBuffer src = readPmd(model);
+            PmdSectionIndex index = PmdSectionIndex.scan(src);
+            PmdSectionIndex reduced = reduceScan(src, index, options);
+
+            assertKept(index, reduced, BONE);
+            assertKept(index, reduced, DYNAMICS);
+            assertSkipped(reduced, SHAPE);
+            assertSkipped(reduced, PmdSection.MATERIAL);
+            assertSkipped(reduced, MORPH);
+            assertEnglish(index, reduced, true, false);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of reduce method, of class PmdImageReducer.
+     * @throws Exception
+     */
+    @Test
+    public void testReduceEnglish() throws Exception {
+        System.out.println("reduce english");
+
+        PmdLoadOptions noBone = new PmdLoadOptions();
+        noBone.setLoaded(PmdLoadOptions.Part.BONE, false);
+        noBone.setLoaded(PmdLoadOptions.Part.DYNAMICS, false);
+
+        PmdLoadOptions noMorph = new PmdLoadOptions();
+        noMorph.setLoaded(PmdLoadOptions.Part.MORPH, false);
+
+        for(String model : MODELS){
+            ByteBuffer src = readPmd(model);
+            PmdSectionIndex index = PmdSectionIndex.scan(src);
+            PmdSectionIndex reduced;
+
+            reduced = reduceScan(src, index, noBone);
+            assertKept(index, reduced, SHAPE);
+            assertKept(index, reduced, MORPH);
+            assertKept(index, reduced, PmdSection.MATERIAL);
+            assertSkipped(reduced, BONE);
+            assertSkipped(reduced, DYNAMICS);
+            assertEnglish(index, reduced, false, true);
+
+            reduced = reduceScan(src, index, noMorph);
+            assertKept(index, reduced, SHAPE);
+            assertKept(index, reduced, BONE);
+            assertKept(index, reduced, DYNAMICS);
+            assertSkipped(reduced, MORPH);
+            assertEnglish(index, reduced, true, false);
+        }
+
+        ByteBuffer src = readPmd("/testdata/pmd130128/i18n/i18n.pmd");
+        PmdSectionIndex index = PmdSectionIndex.scan(src);
+        assertEquals(1, index.getCount(PmdSection.ENGLISH));
+        assertTrue(englishTail(index, true, true) > 0);
+
+        return;
+    }
+
+    /**
+     * Test of reduce method, of class PmdImageReducer.
+     * @throws Exception
+     */
+    @Test
+    public void testReduceMaterial() throws Exception {
+        System.out.println("reduce material");
+
+        PmdLoadOptions options = PmdLoadOptions.headerOnly();
+        options.setLoaded(PmdLoadOptions.Part.MATERIAL, true);
+        options.setLoaded(PmdLoadOptions.Part.MORPH, true);
+
+        ByteBuffer src = readPmd("/testdata/pmd130128/material/material.pmd");
+        PmdSectionIndex index = PmdSectionIndex.scan(src);
+        assertTrue(index.getCount(PmdSection.MATERIAL) > 0);
+
+        ByteBuffer image = PmdImageReducer.reduce(src, index, options);
+        PmdSectionIndex reduced = PmdSectionIndex.scan(image);
+
+        assertSkipped(reduced, SHAPE);
+        assertKept(index, reduced, PmdSection.MATERIAL);
+        assertEquals(index.getCount(PmdSection.MORPH),
+                     reduced.getCount(PmdSection.MORPH));
+
+        int materialPos = reduced.getOffset(PmdSection.MATERIAL) + 4;
+        int materials = reduced.getCount(PmdSection.MATERIAL);
+        for(int ct = 0; ct < materials; ct++){
+            int fieldPos = materialPos
+                         + ct * PmdSectionIndex.MATERIAL_SIZE
+                         + PmdSectionIndex.MATERIAL_SURFACE_POS;
+            assertEquals(0, image.getInt(fieldPos));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of load method, of class PmdLoader.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadHeaderOnly() throws Exception {
+        System.out.println("load headerOnly");
+
+        ByteBuffer src = readPmd("/testdata/pmd130128/rigid/allrigid.pmd");
+        PmdSectionIndex index = PmdSectionIndex.scan(src);
+
+        PmdLoader loader = new PmdLoader();
+        loader.setLoadOptions(PmdLoadOptions.headerOnly());
+        PmdModel model = loader.load(src);
+
+        assertFalse(loader.hasMoreData());
+        PmdSectionIndex loaded = loader.getSectionIndex();
+        for(PmdSection section : PmdSection.values()){
+            assertEquals(index.getCount(section),
+                         loaded.getCount(section), section.name());
+        }
+
+        assertTrue(model.getVertexList().isEmpty());
+        assertTrue(model.getSurfaceList().isEmpty());
+        assertTrue(model.getMaterialList().isEmpty());
+        assertTrue(model.getBoneList().isEmpty());
+        assertTrue(model.getRigidList().isEmpty());
+        assertTrue(model.getJointList().isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of load method, of class PmdLoader.
+     * @throws Exception
+     */
+    @Test
+    public void testLoadDynamics() throws Exception {
+        System.out.println("load dynamics");
+
+        ByteBuffer src = readPmd("/testdata/pmd130128/rigid/allrigid.pmd");
+        PmdSectionIndex index = PmdSectionIndex.scan(src);
+        assertTrue(index.getCount(PmdSection.RIGID) > 0);
+
+        PmdLoadOptions options = PmdLoadOptions.headerOnly();
+        options.setLoaded(PmdLoadOptions.Part.DYNAMICS, true);
+
+        PmdLoader loader = new PmdLoader();
+        loader.setLoadOptions(options);
+        PmdModel model = loader.load(src);
+
+        assertTrue(model.getVertexList().isEmpty());
+        assertEquals(index.getCount(PmdSection.BONE),
+                     model.getBoneList().size());
+        assertEquals(index.getCount(PmdSection.RIGID),
+                     model.getRigidList().size());
+        assertEquals(index.getCount(PmdSection.JOINT),
+                     model.getJointList().size());
+
+        return;
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.binio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import testdata.TestModels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdLoaderTest {
+
+    public PmdLoaderTest() {
+    }
+
+    private static byte[] toXml(PmdModel model, ModelFileType type)
+            throws Exception{
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setOutType(type);
+        converter.setNewline("\n");
+        converter.setGenerator(null);
+        converter.writeModel(model, bos);
+
+        return bos.toByteArray();
+    }
+
+    /**
+     * Test of load method with mapped file and byte buffer,
+     * of class PmdLoader.
+     * @param pmdResource PMDリソース名
+     * @param xmlResource XMLリソース名
+     * @param type XML種別
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#pmd2xml")
+    public void testLoadMapped(String pmdResource,
+                               String xmlResource,
+                               ModelFileType type ) throws Exception {
+        System.out.println("load mapped " + pmdResource);
+
+        byte[] expected = TestModels.readResource(xmlResource);
+        Path pmdPath = TestModels.resourcePath(pmdResource);
+
+        PmdModel model;
+
+        model = new PmdLoader().load(pmdPath);
+        assertArrayEquals(expected, toXml(model, type));
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(pmdPath));
+        model = new PmdLoader().load(buffer);
+        assertEquals(0, buffer.position());
+        assertArrayEquals(expected, toXml(model, type));
+
+        return;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import jp.sfjp.mikutoga.bin.parser.MmdFormatException;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.xml.sax.InputSource;
+import testdata.TestModels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdCacheLoaderTest {
+
+    private static final String[] MODELS = {
+        "/testdata/pmd130128/bone/allbone.xml",
+        "/testdata/pmd130128/material/material.xml",
+        "/testdata/pmd130128/morph/allmorph.xml",
+        "/testdata/pmd130128/rigid/allrigid.xml",
+        "/testdata/pmd130128/small/onlyjoint.xml",
+        "/testdata/pmd130128/i18n/i18n.xml",
+    };
+
+    public PmdCacheLoaderTest() {
+    }
+
+    private static PmdModel readXml(String resource) throws Exception{
+        InputStream is = PmdCacheLoaderTest.class.getResourceAsStream(resource);
+        assertNotNull(is);
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+
+        PmdModel model = converter.readModel(is);
+
+        return model;
+    }
+
+    private static byte[] dump(PmdModel model) throws Exception{
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PmdCacheExporter exporter = new PmdCacheExporter(bos);
+        exporter.dumpPmdModel(model);
+        bos.close();
+        return bos.toByteArray();
+    }
+
+    private static void assertBroken(byte[] image){
+        PmdCacheLoader loader = new PmdCacheLoader();
+        try{
+            loader.load(ByteBuffer.wrap(image));
+            fail();
+        }catch(MmdFormatException e){
+            // GOOD
+        }
+        return;
+    }
+
+    /**
+     * Test of round trip, of class PmdCacheLoader.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        System.out.println("roundTrip");
+
+        for(String resource : MODELS){
+            byte[] image = dump(readXml(resource));
+
+            PmdModel model;
+
+            model = new PmdCacheLoader().load(ByteBuffer.wrap(image));
+            assertArrayEquals(image, dump(model), resource);
+
+            InputStream is = new ByteArrayInputStream(image);
+            model = new PmdCacheLoader().load(is);
+            assertArrayEquals(image, dump(model), resource);
+
+            ByteBuffer buffer = ByteBuffer.allocate(image.length + 3);
+            buffer.position(3);
+            buffer.put(image);
+            buffer.position(3);
+            model = new PmdCacheLoader().load(buffer);
+            assertEquals(3, buffer.position());
+            assertArrayEquals(image, dump(model), resource);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of truncated data, of class PmdCacheLoader.
+     */
+    @Test
+    public void testTruncated() throws Exception {
+        System.out.println("truncated");
+
+        byte[] image = dump(readXml(MODELS[0]));
+
+        for(int len = 0; len < image.length; len++){
+            byte[] truncated = new byte[len];
+            System.arraycopy(image, 0, truncated, 0, len);
+            assertBroken(truncated);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of corrupt header, of class PmdCacheLoader.
+     */
+    @Test
+    public void testCorruptHeader() throws Exception {
+        System.out.println("corruptHeader");
+
+        byte[] image = dump(readXml(MODELS[0]));
+        byte[] corrupt;
+
+        corrupt = image.clone();
+        corrupt[0] = (byte) 'X';
+        assertBroken(corrupt);
+
+        corrupt = image.clone();
+        corrupt[CacheFormat.MAGIC.length]++;
+        assertBroken(corrupt);
+
+        return;
+    }
+
+    /**
+     * Test of corrupt blocks, of class PmdCacheLoader.
+     */
+    @Test
+    public void testCorruptBlock() throws Exception {
+        System.out.println("corruptBlock");
+
+        int[] patterns = {-1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x10000};
+
+        for(String resource : MODELS){
+            byte[] image = dump(readXml(resource));
+
+            for(int pos = CacheFormat.HEADER_SIZE;
+                pos < image.length;
+                pos += 4 ){
+                for(int pattern : patterns){
+                    byte[] corrupt = image.clone();
+                    ByteBuffer buffer = ByteBuffer.wrap(corrupt);
+                    buffer.order(ByteOrder.LITTLE_ENDIAN);
+                    buffer.putInt(pos, pattern);
+
+                    try{
+                        new PmdCacheLoader().load(buffer);
+                    }catch(MmdFormatException e){
+                        // GOOD
+                    }
+                }
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * Test of XML to PMD conversion via cache file,
+     * of class PmdCacheLoader.
+     * @param xmlResource XMLリソース名
+     * @param pmdResource PMDリソース名
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#xml2pmd")
+    public void testConvertViaCache(String xmlResource, String pmdResource)
+            throws Exception {
+        System.out.println("convert via cache " + xmlResource);
+
+        InputStream xmlis =
+                PmdCacheLoaderTest.class.getResourceAsStream(xmlResource);
+        assertNotNull(xmlis);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD_CACHE);
+        converter.setNewline("\n");
+
+        try{
+            converter.convert(xmlis, bos);
+        }finally{
+            xmlis.close();
+        }
+
+        File cacheFile = File.createTempFile("pmd2xml", null);
+        cacheFile.deleteOnExit();
+        Files.write(cacheFile.toPath(), bos.toByteArray());
+
+        File destFile = File.createTempFile("pmd2xml", null);
+        destFile.deleteOnExit();
+
+        converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.PMD_CACHE);
+        converter.setOutType(ModelFileType.PMD);
+
+        InputSource source = new InputSource(cacheFile.toURI().toString());
+        converter.convert(source, destFile.toPath());
+
+        assertArrayEquals(TestModels.readResource(pmdResource),
+                          Files.readAllBytes(destFile.toPath()) );
+
+        return;
+    }
+
+}
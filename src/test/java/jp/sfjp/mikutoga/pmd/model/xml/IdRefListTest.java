@@ -0,0 +1,212 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class IdRefListTest {
+
+    private static final String BONE_XML =
+            "/testdata/pmd130128/bone/allbone.xml";
+
+    public IdRefListTest() {
+    }
+
+    private static String readResource(String resource) throws Exception{
+        InputStream is = IdRefListTest.class.getResourceAsStream(resource);
+        assertNotNull(is);
+        Scanner scanner = new Scanner(is, "UTF-8");
+        String result;
+        try{
+            result = scanner.useDelimiter("\\A").next();
+        }finally{
+            scanner.close();
+        }
+        return result;
+    }
+
+    private static void assertBrokenXml(String xml, boolean pull)
+            throws Exception{
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setXmlTrusted(true);
+        converter.setXmlPullParser(pull);
+
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        InputSource source = new InputSource(new ByteArrayInputStream(bytes));
+        try{
+            converter.readModel(source);
+            fail();
+        }catch(TogaXmlException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of add and getTarget method, of class IdRefList.
+     */
+    @Test
+    public void testResolve() {
+        System.out.println("resolve");
+
+        IdTable<String> table = new IdTable<>("bn");
+        table.put("bn0", "zero");
+        table.put("bn2", "two");
+        table.put("bone", "odd");
+
+        IdRefList<String, String> list = new IdRefList<>(table, 2);
+        list.add("a", "bn0", "bn2");
+        list.add("b", null, "bone");
+        list.add("c", "bn1", "nobone");
+
+        assertEquals(3, list.size());
+        assertEquals(2, list.getMaxIndex());
+
+        assertEquals("a", list.getBody(0));
+        assertEquals("zero", list.getTarget(0, 0));
+        assertEquals("two", list.getTarget(0, 1));
+        assertEquals("bn2", list.getIdRef(0, 1));
+
+        assertTrue(list.isNullRef(1, 0));
+        assertNull(list.getTarget(1, 0));
+        assertNull(list.getIdRef(1, 0));
+        assertEquals("odd", list.getTarget(1, 1));
+        assertEquals("bone", list.getIdRef(1, 1));
+
+        assertFalse(list.isNullRef(2, 0));
+        assertNull(list.getTarget(2, 0));
+        assertEquals("bn1", list.getIdRef(2, 0));
+        assertNull(list.getTarget(2, 1));
+        assertEquals("nobone", list.getIdRef(2, 1));
+
+        try{
+            list.add("d", "bn0");
+            fail();
+        }catch(IllegalArgumentException e){
+            // GOOD
+        }
+        assertEquals(3, list.size());
+
+        list.release();
+        assertEquals(0, list.size());
+        assertTrue(list.getMaxIndex() < 0);
+
+        return;
+    }
+
+    /**
+     * Test of many references, of class IdRefList.
+     */
+    @Test
+    public void testGrow() {
+        System.out.println("grow");
+
+        IdTable<Integer> table = new IdTable<>("vtx");
+        IdRefList<Integer, Integer> list = new IdRefList<>(table, 3);
+
+        int count = 1000;
+        for(int idx = 0; idx < count; idx++){
+            table.put(table.toId(idx), idx);
+            list.add(idx,
+                     table.toId(idx),
+                     table.toId(count - 1 - idx),
+                     "x" + idx );
+        }
+
+        assertEquals(count, list.size());
+        assertEquals(count - 1, list.getMaxIndex());
+        for(int idx = 0; idx < count; idx++){
+            assertEquals(idx, list.getBody(idx).intValue());
+            assertEquals(idx, list.getTarget(idx, 0).intValue());
+            assertEquals(count - 1 - idx, list.getTarget(idx, 1).intValue());
+            assertNull(list.getTarget(idx, 2));
+            assertEquals("x" + idx, list.getIdRef(idx, 2));
+        }
+
+        return;
+    }
+
+    /**
+     * Test of sparse reference, of class IdRefList.
+     */
+    @Test
+    public void testSparseRef() {
+        System.out.println("sparseRef");
+
+        IdTable<String> table = new IdTable<>("bn");
+        IdRefList<String, String> list = new IdRefList<>(table, 1);
+
+        list.add("a", "bn5000000");
+        assertEquals(5000000, list.getMaxIndex());
+        assertNull(list.getTarget(0, 0));
+
+        table.put("bn5000000", "far");
+        assertEquals("far", list.getTarget(0, 0));
+        assertEquals("bn5000000", list.getIdRef(0, 0));
+
+        return;
+    }
+
+    /**
+     * Test of duplicated ID in XML, of class IdRefList.
+     */
+    @Test
+    public void testDuplicateXml() throws Exception {
+        System.out.println("duplicateXml");
+
+        String xml = readResource(BONE_XML);
+        String dup = xml.replace("boneId=\"bn1\"", "boneId=\"bn0\"");
+        assertNotEquals(xml, dup);
+
+        assertBrokenXml(dup, false);
+        assertBrokenXml(dup, true);
+
+        return;
+    }
+
+    /**
+     * Test of unresolved reference in XML, of class IdRefList.
+     */
+    @Test
+    public void testUnresolvedXml() throws Exception {
+        System.out.println("unresolvedXml");
+
+        String xml = readResource(BONE_XML);
+
+        String dense = xml.replace("nextBoneIdRef=\"bn1\"",
+                                   "nextBoneIdRef=\"bn99\"");
+        assertNotEquals(xml, dense);
+        assertBrokenXml(dense, false);
+        assertBrokenXml(dense, true);
+
+        String sparse = xml.replace("nextBoneIdRef=\"bn1\"",
+                                    "nextBoneIdRef=\"bn99999999\"");
+        assertBrokenXml(sparse, false);
+        assertBrokenXml(sparse, true);
+
+        String odd = xml.replace("nextBoneIdRef=\"bn1\"",
+                                 "nextBoneIdRef=\"bone1\"");
+        assertBrokenXml(odd, false);
+        assertBrokenXml(odd, true);
+
+        return;
+    }
+
+}
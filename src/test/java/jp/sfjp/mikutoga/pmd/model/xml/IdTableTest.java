@@ -0,0 +1,146 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class IdTableTest {
+
+    public IdTableTest() {
+    }
+
+    /**
+     * Test of parseIndex method, of class IdTable.
+     */
+    @Test
+    public void testParseIndex() {
+        System.out.println("parseIndex");
+
+        IdTable<String> table = new IdTable<>("bn");
+
+        assertEquals(0, table.parseIndex("bn0"));
+        assertEquals(12, table.parseIndex("bn12"));
+        assertEquals(Integer.MAX_VALUE, table.parseIndex("bn2147483647"));
+
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex(null));
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex("bn"));
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex("bn01"));
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex("bn-1"));
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex("bn1x"));
+        assertEquals(IdTable.NOT_CANONICAL, table.parseIndex("vtx1"));
+        assertEquals(IdTable.NOT_CANONICAL,
+                     table.parseIndex("bn2147483648"));
+
+        return;
+    }
+
+    /**
+     * Test of put and get method, of class IdTable.
+     */
+    @Test
+    public void testPutGet() {
+        System.out.println("putGet");
+
+        IdTable<String> table = new IdTable<>("bn");
+
+        assertNull(table.put("bn0", "a"));
+        assertNull(table.put("bn100", "b"));
+        assertNull(table.put("bone", "c"));
+        assertNull(table.put("bn007", "d"));
+
+        assertEquals("a", table.get("bn0"));
+        assertEquals("a", table.get(0));
+        assertEquals("b", table.get("bn100"));
+        assertEquals("b", table.get(100));
+        assertEquals("c", table.get("bone"));
+        assertEquals("d", table.get("bn007"));
+        assertNull(table.get("bn7"));
+        assertNull(table.get(7));
+        assertNull(table.get("bn1"));
+        assertNull(table.get("xyz"));
+
+        return;
+    }
+
+    /**
+     * Test of duplicated ID, of class IdTable.
+     */
+    @Test
+    public void testDuplicate() {
+        System.out.println("duplicate");
+
+        IdTable<String> table = new IdTable<>("bn");
+
+        assertNull(table.put("bn3", "a"));
+        assertEquals("a", table.put("bn3", "b"));
+        assertEquals("b", table.get("bn3"));
+
+        assertNull(table.put("bone", "c"));
+        assertEquals("c", table.put("bone", "d"));
+        assertEquals("d", table.get("bone"));
+
+        assertNull(table.put("bn1000000", "e"));
+        assertEquals("e", table.put("bn1000000", "f"));
+        assertEquals("f", table.get(1000000));
+
+        return;
+    }
+
+    /**
+     * Test of sparse ID beyond dense range, of class IdTable.
+     */
+    @Test
+    public void testSparse() {
+        System.out.println("sparse");
+
+        IdTable<String> table = new IdTable<>("bn");
+
+        int far = 1000000;
+        assertNull(table.put("bn" + far, "far"));
+        assertEquals("far", table.get("bn" + far));
+        assertEquals("far", table.get(far));
+        assertNull(table.get(far - 1));
+        assertNull(table.get(Integer.MAX_VALUE));
+
+        // 添え字配列を遠方IDの位置まで伸長する
+        for(int idx = 0; idx < far; idx += 1000){
+            table.put(table.toId(idx), "dense");
+        }
+        assertEquals("far", table.get(far));
+
+        // 伸長後の重複は疎な領域に登録済みの値を返す
+        assertEquals("far", table.put("bn" + far, "near"));
+        assertEquals("near", table.get(far));
+        assertEquals("near", table.get("bn" + far));
+
+        table.release();
+        assertNull(table.get(0));
+        assertNull(table.get(far));
+        assertNull(table.get("bn" + far));
+
+        return;
+    }
+
+    /**
+     * Test of toId method, of class IdTable.
+     */
+    @Test
+    public void testToId() {
+        System.out.println("toId");
+
+        IdTable<String> table = new IdTable<>("vtx");
+        assertEquals("vtx0", table.toId(0));
+        assertEquals("vtx65535", table.toId(65535));
+        assertEquals(65535, table.parseIndex(table.toId(65535)));
+
+        return;
+    }
+
+}
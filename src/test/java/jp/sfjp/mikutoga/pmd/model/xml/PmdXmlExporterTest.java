@@ -0,0 +1,206 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import jp.sfjp.mikutoga.pmd.model.Material;
+import jp.sfjp.mikutoga.pmd.model.PmdModel;
+import jp.sfjp.mikutoga.pmd.model.Surface;
+import jp.sfjp.mikutoga.pmd.model.Vertex;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import testdata.TestModels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PmdXmlExporterTest {
+
+    private static final String MATERIAL_XML =
+            "/testdata/pmd130128/material/material.xml";
+
+    public PmdXmlExporterTest() {
+    }
+
+    private static PmdModel readXml(String resource) throws Exception{
+        InputStream is =
+                PmdXmlExporterTest.class.getResourceAsStream(resource);
+        assertNotNull(is);
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_130128);
+
+        PmdModel model;
+        try{
+            model = converter.readModel(is);
+        }finally{
+            is.close();
+        }
+
+        return model;
+    }
+
+    private static void grow(PmdModel model, int vertices, int surfaces){
+        List<Vertex> vertexList = model.getVertexList();
+        Vertex proto = vertexList.get(0);
+
+        while(vertexList.size() < vertices){
+            int serial = vertexList.size();
+            Vertex vertex = new Vertex(model.getVertexStore());
+            vertex.setPosition(serial, -serial, serial * 0.5f);
+            vertex.setNormal(0.0f, 1.0f, 0.0f);
+            vertex.setUVPosition(serial % 7, serial % 11);
+            vertex.setBonePair(proto.getBoneA(), proto.getBoneB());
+            vertex.setWeightA(serial % 101);
+            vertex.setEdgeAppearance(serial % 3 != 0);
+            vertex.setSerialNumber(serial);
+            vertexList.add(vertex);
+        }
+
+        List<Surface> surfaceList = model.getSurfaceList();
+        List<Material> materialList = model.getMaterialList();
+        int size = vertexList.size();
+        int ct = 0;
+        while(surfaceList.size() < surfaces){
+            Surface surface = new Surface();
+            surface.setTriangle(vertexList.get(ct % size),
+                                vertexList.get((ct + 1) % size),
+                                vertexList.get((ct + 2) % size) );
+            surface.setSerialNumber(surfaceList.size());
+            surfaceList.add(surface);
+
+            Material material = materialList.get(ct % materialList.size());
+            material.getSurfaceList().add(surface);
+
+            ct++;
+        }
+
+        return;
+    }
+
+    private static String export(PmdModel model, ForkJoinPool pool)
+            throws Exception{
+        PmdXmlExporter exporter = new PmdXmlExporter();
+        exporter.setXmlFileType(XmlModelFileType.XML_130128);
+        exporter.setNewLine("\n");
+        exporter.setParallelPool(pool);
+
+        StringBuilder buf = new StringBuilder();
+        exporter.putPmdXml(model, buf);
+
+        return buf.toString();
+    }
+
+    /**
+     * Test of setParallelPool method, of class PmdXmlExporter.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelPool() throws Exception {
+        System.out.println("setParallelPool");
+
+        PmdXmlExporter exporter = new PmdXmlExporter();
+        assertNull(exporter.getParallelPool());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try{
+            exporter.setParallelPool(pool);
+            assertSame(pool, exporter.getParallelPool());
+        }finally{
+            pool.shutdown();
+        }
+
+        exporter.setParallelPool(null);
+        assertNull(exporter.getParallelPool());
+
+        return;
+    }
+
+    /**
+     * Test of putPmdXml method with chunked sections,
+     * of class PmdXmlExporter.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelChunks() throws Exception {
+        System.out.println("putPmdXml parallel");
+
+        PmdModel model = readXml(MATERIAL_XML);
+        assertTrue(model.getMaterialList().size() > 1);
+
+        String expected = export(model, null);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            assertEquals(expected, export(model, pool));
+
+            grow(model, 2048 * 3 + 5, 8192 * 2 + 3);
+            expected = export(model, null);
+            assertEquals(expected, export(model, pool));
+        }finally{
+            pool.shutdown();
+        }
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try{
+            assertEquals(expected, export(model, single));
+        }finally{
+            single.shutdown();
+        }
+
+        return;
+    }
+
+    /**
+     * Test of putPmdXml method with parallel pool on test data,
+     * of class PmdXmlExporter.
+     * @param pmdResource PMDリソース名
+     * @param xmlResource XMLリソース名
+     * @param type XML種別
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#pmd2xml")
+    public void testParallelTestData(String pmdResource,
+                                     String xmlResource,
+                                     ModelFileType type ) throws Exception {
+        System.out.println("putPmdXml parallel " + pmdResource);
+
+        InputStream is =
+                PmdXmlExporterTest.class.getResourceAsStream(pmdResource);
+        assertNotNull(is);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            Pmd2XmlConv converter = new Pmd2XmlConv();
+            converter.setInType(ModelFileType.PMD);
+            converter.setOutType(type);
+            converter.setNewline("\n");
+            converter.setGenerator(null);
+            converter.setXmlParallelPool(pool);
+
+            converter.convert(is, bos);
+        }finally{
+            pool.shutdown();
+            is.close();
+        }
+
+        assertArrayEquals(TestModels.readResource(xmlResource),
+                          bos.toByteArray() );
+
+        return;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd.model.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import jp.sfjp.mikutoga.pmd2xml.Pmd2XmlConv;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import testdata.TestModels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class StaxPmdLoaderTest {
+
+    public StaxPmdLoaderTest() {
+    }
+
+    private static byte[] toPmd(String xmlResource, boolean pull)
+            throws Exception{
+        InputStream xmlis =
+                StaxPmdLoaderTest.class.getResourceAsStream(xmlResource);
+        assertNotNull(xmlis);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+        converter.setNewline("\n");
+        converter.setXmlPullParser(pull);
+
+        try{
+            converter.convert(xmlis, bos);
+        }finally{
+            xmlis.close();
+        }
+
+        return bos.toByteArray();
+    }
+
+    /**
+     * Test of pull parser loading against SAX loading,
+     * of class StaxPmdLoader.
+     * @param xmlResource XMLリソース名
+     * @param pmdResource PMDリソース名
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#xml2pmd")
+    public void testPullMatchesSax(String xmlResource, String pmdResource)
+            throws Exception {
+        System.out.println("pull " + xmlResource);
+
+        byte[] sax  = toPmd(xmlResource, false);
+        byte[] pull = toPmd(xmlResource, true);
+
+        assertArrayEquals(sax, pull);
+        assertArrayEquals(TestModels.readResource(pmdResource), pull);
+
+        return;
+    }
+
+}
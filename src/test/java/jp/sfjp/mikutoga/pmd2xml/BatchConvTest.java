@@ -0,0 +1,198 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class BatchConvTest {
+
+    @TempDir
+    Path tempDir;
+
+    public BatchConvTest() {
+    }
+
+    /**
+     * Test of replaceSuffix method, of class BatchConv.
+     */
+    @Test
+    public void testReplaceSuffix() {
+        System.out.println("replaceSuffix");
+
+        assertEquals("a.xml", BatchConv.replaceSuffix("a.pmd", ".xml"));
+        assertEquals("a.b.xml", BatchConv.replaceSuffix("a.b.pmd", ".xml"));
+        assertEquals("a.xml", BatchConv.replaceSuffix("a", ".xml"));
+        assertEquals(".pmd.xml", BatchConv.replaceSuffix(".pmd", ".xml"));
+        assertEquals("a.pmd", BatchConv.replaceSuffix("a.xml.gz", ".pmd"));
+        assertEquals("a.xml.gz",
+                BatchConv.replaceSuffix("a.pmd", ".xml.gz"));
+
+        return;
+    }
+
+    /**
+     * Test of buildJobs method, of class BatchConv.
+     */
+    @Test
+    public void testBuildJobs() throws Exception {
+        System.out.println("buildJobs");
+
+        Path inDir = this.tempDir.resolve("in");
+        Path outDir = this.tempDir.resolve("out");
+        Files.createDirectories(inDir.resolve("sub"));
+        Files.createFile(inDir.resolve("b.pmd"));
+        Files.createFile(inDir.resolve("a.xml"));
+        Files.createFile(inDir.resolve("sub").resolve("c.pmd"));
+        Files.createFile(inDir.resolve("readme.txt"));
+
+        OptInfo info = OptInfo.parseOption(
+                "-idir", inDir.toString(),
+                "-odir", outDir.toString(),
+                "-oform", "pmd");
+        BatchConv batch = new BatchConv(info);
+        batch.buildJobs();
+
+        List<BatchJob> jobs = batch.getJobList();
+        assertEquals(3, jobs.size());
+
+        assertEquals(inDir.resolve("a.xml"), jobs.get(0).getInFile());
+        assertEquals(outDir.resolve("a.pmd"), jobs.get(0).getOutFile());
+        assertSame(ModelFileType.XML_AUTO, jobs.get(0).getInType());
+        assertEquals(inDir.resolve("b.pmd"), jobs.get(1).getInFile());
+        assertSame(ModelFileType.PMD, jobs.get(1).getInType());
+
+        info = OptInfo.parseOption(
+                "-idir", inDir.toString(),
+                "-odir", outDir.toString(),
+                "-iform", "pmd",
+                "-oform", "xml");
+        batch = new BatchConv(info);
+        batch.buildJobs();
+
+        jobs = batch.getJobList();
+        assertEquals(2, jobs.size());
+        assertEquals(outDir.resolve("b.xml"), jobs.get(0).getOutFile());
+        assertEquals(outDir.resolve("sub").resolve("c.xml"),
+                     jobs.get(1).getOutFile());
+
+        Path jobList = this.tempDir.resolve("jobs.txt");
+        Files.write(jobList, Arrays.asList(
+                "# comment",
+                "",
+                "x.pmd",
+                "y.pmd\tsub/y2.xml",
+                "z/x.pmd"));
+
+        info = OptInfo.parseOption(
+                "-joblist", jobList.toString(),
+                "-odir", outDir.toString(),
+                "-oform", "xml");
+        batch = new BatchConv(info);
+        batch.buildJobs();
+
+        jobs = batch.getJobList();
+        assertEquals(2, jobs.size());
+        // z/x.pmd duplicates output of x.pmd
+        assertEquals(outDir.resolve("x.xml"), jobs.get(0).getOutFile());
+        assertEquals(outDir.resolve("sub/y2.xml"), jobs.get(1).getOutFile());
+        assertEquals(1, batch.getRejectedCount());
+
+        return;
+    }
+
+    /**
+     * Test of runJobs method, of class BatchConv.
+     */
+    @Test
+    public void testRunJobs() throws Exception {
+        System.out.println("runJobs");
+
+        Path inDir = this.tempDir.resolve("in");
+        Path outDir = this.tempDir.resolve("out");
+        Files.createDirectories(inDir);
+
+        Path good = inDir.resolve("a.xml");
+        InputStream is = BatchConvTest.class.getResourceAsStream(
+                "/testdata/pmd130128/minimum/minimum.xml");
+        try{
+            Files.copy(is, good);
+        }finally{
+            is.close();
+        }
+        Files.createFile(inDir.resolve("b.xml"));
+
+        OptInfo info = OptInfo.parseOption(
+                "-idir", inDir.toString(),
+                "-odir", outDir.toString(),
+                "-oform", "pmd",
+                "-xmltrust", "on",
+                "-j", "2");
+        BatchConv batch = new BatchConv(info);
+        batch.buildJobs();
+        assertEquals(2, batch.getJobList().size());
+
+        int exitCode = batch.runJobs();
+        assertEquals(Pmd2Xml.EXIT_XMLERR, exitCode);
+        assertTrue(Files.exists(outDir.resolve("a.pmd")));
+        assertFalse(Files.exists(outDir.resolve("b.pmd")));
+
+        return;
+    }
+
+    /**
+     * Test of runJobs method with duplicated output, of class BatchConv.
+     */
+    @Test
+    public void testRunJobsDupOutput() throws Exception {
+        System.out.println("runJobs dupOutput");
+
+        Path inDir = this.tempDir.resolve("in");
+        Path outDir = this.tempDir.resolve("out");
+        Files.createDirectories(inDir.resolve("sub"));
+
+        Path good = inDir.resolve("a.xml");
+        InputStream is = BatchConvTest.class.getResourceAsStream(
+                "/testdata/pmd130128/minimum/minimum.xml");
+        try{
+            Files.copy(is, good);
+        }finally{
+            is.close();
+        }
+        Files.copy(good, inDir.resolve("sub").resolve("b.xml"));
+
+        Path jobList = this.tempDir.resolve("jobs.txt");
+        Files.write(jobList, Arrays.asList(
+                good.toString(),
+                inDir.resolve("sub").resolve("b.xml") + "\ta.pmd"));
+
+        OptInfo info = OptInfo.parseOption(
+                "-joblist", jobList.toString(),
+                "-odir", outDir.toString(),
+                "-oform", "pmd",
+                "-xmltrust", "on");
+        BatchConv batch = new BatchConv(info);
+        batch.buildJobs();
+        assertEquals(1, batch.getJobList().size());
+        assertEquals(1, batch.getRejectedCount());
+
+        int exitCode = batch.runJobs();
+        assertEquals(Pmd2Xml.EXIT_OPTERR, exitCode);
+        assertTrue(Files.exists(outDir.resolve("a.pmd")));
+
+        return;
+    }
+
+}
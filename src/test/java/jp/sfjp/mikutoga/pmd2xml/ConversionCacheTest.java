@@ -0,0 +1,243 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class ConversionCacheTest {
+
+    private static final String XML_RESOURCE =
+            "/testdata/pmd130128/minimum/minimum.xml";
+    private static final String PMD_RESOURCE =
+            "/testdata/pmd130128/minimum/minimum.pmd";
+
+    @TempDir
+    Path tempDir;
+
+    public ConversionCacheTest() {
+    }
+
+    private Path copyResource(String resource, String fileName)
+            throws Exception{
+        Path file = this.tempDir.resolve(fileName);
+        InputStream is = ConversionCacheTest.class.getResourceAsStream(
+                resource);
+        assertNotNull(is);
+        try{
+            Files.copy(is, file);
+        }finally{
+            is.close();
+        }
+        return file;
+    }
+
+    private Path writeFile(String fileName, int size) throws Exception{
+        Path file = this.tempDir.resolve(fileName);
+        byte[] data = new byte[size];
+        for(int idx = 0; idx < size; idx++){
+            data[idx] = (byte) (fileName.charAt(0) + idx);
+        }
+        Files.write(file, data);
+        return file;
+    }
+
+    private static void convert(Pmd2XmlConv converter, Path in, Path out)
+            throws Exception{
+        InputSource source = new InputSource(in.toUri().toString());
+        converter.convert(source, out);
+        return;
+    }
+
+    /**
+     * Test of buildKey method, of class ConversionCache.
+     */
+    @Test
+    public void testBuildKey() throws Exception {
+        System.out.println("buildKey");
+
+        Path file1 = writeFile("a.bin", 100);
+        Path file2 = this.tempDir.resolve("copy.bin");
+        Files.copy(file1, file2);
+        Path file3 = writeFile("b.bin", 100);
+
+        String key = ConversionCache.buildKey(file1, "PMD", "\n", null);
+        assertEquals(64, key.length());
+        assertTrue(key.matches("[0-9a-f]+"));
+
+        assertEquals(key,
+                ConversionCache.buildKey(file2, "PMD", "\n", null));
+        assertNotEquals(key,
+                ConversionCache.buildKey(file3, "PMD", "\n", null));
+        assertNotEquals(key,
+                ConversionCache.buildKey(file1, "PMD", "\r\n", null));
+        assertNotEquals(key,
+                ConversionCache.buildKey(file1, "PMD", "\n", ""));
+        assertNotEquals(
+                ConversionCache.buildKey(file1, "ab", "c"),
+                ConversionCache.buildKey(file1, "a", "bc"));
+
+        return;
+    }
+
+    /**
+     * Test of cache hit and miss, of class ConversionCache.
+     */
+    @Test
+    public void testHitMiss() throws Exception {
+        System.out.println("hitMiss");
+
+        Path xml1 = copyResource(XML_RESOURCE, "a.xml");
+        Path xml2 = copyResource(XML_RESOURCE, "b.xml");
+        Path expPmd = copyResource(PMD_RESOURCE, "exp.pmd");
+        byte[] expected = Files.readAllBytes(expPmd);
+
+        ConversionCache cache =
+                new ConversionCache(this.tempDir.resolve("cache"), 1L << 20);
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+        converter.setNewline("\n");
+        converter.setConversionCache(cache);
+
+        Path out1 = this.tempDir.resolve("out1.pmd");
+        convert(converter, xml1, out1);
+        assertArrayEquals(expected, Files.readAllBytes(out1));
+        assertEquals(1, cache.size());
+        assertEquals(expected.length, cache.getTotalSize());
+
+        String key = ConversionCache.buildKey(xml1,
+                String.valueOf(ConversionCache.FORMAT_VERSION),
+                Pmd2XmlConv.getImplementationVersion(),
+                ModelFileType.XML_AUTO.name(),
+                ModelFileType.PMD.name(),
+                "\n",
+                converter.getGenerator(),
+                "false",
+                "false" );
+        Path entry = this.tempDir.resolve("cache").resolve(key + ".out");
+        assertTrue(Files.exists(entry));
+
+        byte[] marker = {0x01, 0x02, 0x03};
+        Files.write(entry, marker);
+
+        Path out2 = this.tempDir.resolve("out2.pmd");
+        convert(converter, xml2, out2);
+        assertArrayEquals(marker, Files.readAllBytes(out2));
+        assertEquals(1, cache.size());
+
+        converter.setNewline("\r\n");
+        Path out3 = this.tempDir.resolve("out3.pmd");
+        convert(converter, xml1, out3);
+        assertArrayEquals(expected, Files.readAllBytes(out3));
+        assertEquals(2, cache.size());
+
+        return;
+    }
+
+    /**
+     * Test of versioned cache key, of class Pmd2XmlConv.
+     */
+    @Test
+    public void testVersionedKey() throws Exception {
+        System.out.println("versionedKey");
+
+        assertNotNull(Pmd2XmlConv.getImplementationVersion());
+
+        Path xml = copyResource(XML_RESOURCE, "a.xml");
+        Path expPmd = copyResource(PMD_RESOURCE, "exp.pmd");
+        byte[] expected = Files.readAllBytes(expPmd);
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+        converter.setNewline("\n");
+
+        String unversioned = ConversionCache.buildKey(xml,
+                ModelFileType.XML_AUTO.name(),
+                ModelFileType.PMD.name(),
+                "\n",
+                converter.getGenerator(),
+                "false",
+                "false" );
+        Path cacheDir = this.tempDir.resolve("cache");
+        Files.createDirectories(cacheDir);
+        byte[] marker = {0x01, 0x02, 0x03};
+        Files.write(cacheDir.resolve(unversioned + ".out"), marker);
+
+        ConversionCache cache = new ConversionCache(cacheDir, 1L << 20);
+        assertEquals(1, cache.size());
+        converter.setConversionCache(cache);
+
+        Path out = this.tempDir.resolve("out.pmd");
+        convert(converter, xml, out);
+        assertArrayEquals(expected, Files.readAllBytes(out));
+
+        return;
+    }
+
+    /**
+     * Test of LRU eviction, of class ConversionCache.
+     */
+    @Test
+    public void testEvict() throws Exception {
+        System.out.println("evict");
+
+        Path cacheDir = this.tempDir.resolve("cache");
+        ConversionCache cache = new ConversionCache(cacheDir, 250L);
+
+        Path fileA = writeFile("a.bin", 100);
+        Path fileB = writeFile("b.bin", 100);
+        Path fileC = writeFile("c.bin", 100);
+        Path fileD = writeFile("d.bin", 300);
+        String keyA = ConversionCache.buildKey(fileA);
+        String keyB = ConversionCache.buildKey(fileB);
+        String keyC = ConversionCache.buildKey(fileC);
+        String keyD = ConversionCache.buildKey(fileD);
+
+        Path dst = this.tempDir.resolve("dst.bin");
+
+        cache.store(keyA, fileA);
+        cache.store(keyB, fileB);
+        assertEquals(2, cache.size());
+        assertEquals(200L, cache.getTotalSize());
+
+        assertTrue(cache.copyOut(keyA, dst));
+        assertArrayEquals(Files.readAllBytes(fileA), Files.readAllBytes(dst));
+
+        cache.store(keyC, fileC);
+        assertEquals(2, cache.size());
+        assertEquals(200L, cache.getTotalSize());
+        assertTrue(cache.copyOut(keyA, dst));
+        assertFalse(cache.copyOut(keyB, dst));
+        assertTrue(cache.copyOut(keyC, dst));
+        assertFalse(Files.exists(cacheDir.resolve(keyB + ".out")));
+
+        cache.store(keyD, fileD);
+        assertEquals(2, cache.size());
+        assertFalse(cache.copyOut(keyD, dst));
+
+        ConversionCache reopened = new ConversionCache(cacheDir, 250L);
+        assertEquals(2, reopened.size());
+        assertEquals(200L, reopened.getTotalSize());
+        assertTrue(reopened.copyOut(keyC, dst));
+
+        ConversionCache shrunk = new ConversionCache(cacheDir, 150L);
+        assertEquals(1, shrunk.size());
+
+        return;
+    }
+
+}
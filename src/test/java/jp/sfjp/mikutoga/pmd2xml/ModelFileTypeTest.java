@@ -25,7 +25,7 @@ public ModelFileTypeTest() {
     public void testValues() {
         System.out.println("values");
 
-        assertEquals(5, ModelFileType.values().length);
+        assertEquals(6, ModelFileType.values().length);
 
         return;
     }
@@ -42,6 +42,7 @@ public void testToXmlType() {
         assertSame(XmlModelFileType.XML_AUTO, ModelFileType.XML_AUTO.toXmlType());
         assertSame(XmlModelFileType.XML_101009, ModelFileType.XML_101009.toXmlType());
         assertSame(XmlModelFileType.XML_130128, ModelFileType.XML_130128.toXmlType());
+        assertSame(XmlModelFileType.XML_AUTO, ModelFileType.PMD_CACHE.toXmlType());
 
         return;
     }
@@ -58,6 +59,7 @@ public void testIsXml() {
         assertTrue(ModelFileType.XML_AUTO.isXml());
         assertTrue(ModelFileType.XML_101009.isXml());
         assertTrue(ModelFileType.XML_130128.isXml());
+        assertFalse(ModelFileType.PMD_CACHE.isXml());
 
         return;
     }
@@ -74,6 +76,24 @@ public void testIsPmd() {
         assertFalse(ModelFileType.XML_AUTO.isPmd());
         assertFalse(ModelFileType.XML_101009.isPmd());
         assertFalse(ModelFileType.XML_130128.isPmd());
+        assertFalse(ModelFileType.PMD_CACHE.isPmd());
+
+        return;
+    }
+
+    /**
+     * Test of isCache method, of class ModelFileType.
+     */
+    @Test
+    public void testIsCache() {
+        System.out.println("isCache");
+
+        assertFalse(ModelFileType.NONE.isCache());
+        assertFalse(ModelFileType.PMD.isCache());
+        assertFalse(ModelFileType.XML_AUTO.isCache());
+        assertFalse(ModelFileType.XML_101009.isCache());
+        assertFalse(ModelFileType.XML_130128.isCache());
+        assertTrue(ModelFileType.PMD_CACHE.isCache());
 
         return;
     }
@@ -53,6 +53,268 @@ public void testParseOption() throws Exception {
         return;
     }
 
+    /**
+     * Test of parseOption method with batch options, of class OptInfo.
+     */
+    @Test
+    public void testParseBatchOption() throws Exception {
+        System.out.println("parseOption(batch)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "a.pmd", "-i", "b.pmd",
+                "-odir", "out", "-oform", "xml");
+        assertTrue(info.isBatchMode());
+        assertEquals(2, info.getInFilenames().size());
+        assertEquals("a.pmd", info.getInFilenames().get(0));
+        assertEquals("b.pmd", info.getInFilenames().get(1));
+        assertEquals("out", info.getOutDirname());
+        assertSame(ModelFileType.NONE, info.getInFileType());
+        assertSame(ModelFileType.XML_AUTO, info.getOutFileType());
+        assertEquals(0, info.getWorkers());
+
+        info = OptInfo.parseOption("-idir", "in", "-odir", "out",
+                "-oform", "pmd", "-j", "3");
+        assertEquals("in", info.getInDirname());
+        assertEquals(3, info.getWorkers());
+
+        info = OptInfo.parseOption("-joblist", "jobs.txt", "-odir", "out",
+                "-oform", "pmd");
+        assertEquals("jobs.txt", info.getJobListFilename());
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd");
+        assertFalse(info.isBatchMode());
+
+        try{
+            OptInfo.parseOption("-idir", "in", "-oform", "pmd");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-idir", "in", "-odir", "out");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-idir", "in", "-odir", "out",
+                    "-oform", "pmd", "-o", "ofile.pmd");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-idir", "in", "-odir", "out",
+                    "-oform", "pmd", "-j", "0");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method in catalog mode, of class OptInfo.
+     */
+    @Test
+    public void testParseCatalogOption() throws Exception {
+        System.out.println("parseOption(catalog)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-catalog", "lib.idx", "-idir", "lib",
+                "-j", "2");
+        assertTrue(info.isCatalogMode());
+        assertFalse(info.isBatchMode());
+        assertEquals("lib.idx", info.getCatalogFilename());
+        assertEquals("lib", info.getInDirname());
+        assertEquals(2, info.getWorkers());
+        assertTrue(info.getMinBones() < 0);
+        assertNull(info.getUsesFilename());
+
+        info = OptInfo.parseOption("-catalog", "lib.idx",
+                "-minbones", "200", "-uses", "toon05.bmp");
+        assertTrue(info.isCatalogMode());
+        assertNull(info.getInDirname());
+        assertEquals(200, info.getMinBones());
+        assertEquals("toon05.bmp", info.getUsesFilename());
+
+        try{
+            OptInfo.parseOption("-catalog", "lib.idx", "-odir", "out");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-catalog", "lib.idx", "-minbones", "-1");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd",
+                    "-uses", "toon05.bmp");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method with cache options, of class OptInfo.
+     */
+    @Test
+    public void testParseCacheOption() throws Exception {
+        System.out.println("parseOption(cache)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml");
+        assertNull(info.getCacheDirname());
+        assertEquals(256L * 1024L * 1024L, info.getCacheSize());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml",
+                "-cachedir", "cache", "-cachesize", "16");
+        assertEquals("cache", info.getCacheDirname());
+        assertEquals(16L * 1024L * 1024L, info.getCacheSize());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-odir", "out",
+                "-oform", "xml", "-cachedir", "cache");
+        assertTrue(info.isBatchMode());
+        assertEquals("cache", info.getCacheDirname());
+
+        try{
+            OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml",
+                    "-cachesize", "16");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        try{
+            OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml",
+                    "-cachedir", "cache", "-cachesize", "x");
+            fail();
+        }catch(CmdLineException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method with gzip files, of class OptInfo.
+     */
+    @Test
+    public void testParseGzipOption() throws Exception {
+        System.out.println("parseOption(gzip)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml.gz");
+        assertSame(ModelFileType.PMD, info.getInFileType());
+        assertSame(ModelFileType.XML_AUTO, info.getOutFileType());
+        assertFalse(info.isInGzip());
+        assertTrue(info.isOutGzip());
+
+        info = OptInfo.parseOption("-i", "ifile.XML.GZ", "-o", "ofile.pmd");
+        assertSame(ModelFileType.XML_AUTO, info.getInFileType());
+        assertTrue(info.isInGzip());
+        assertFalse(info.isOutGzip());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml.gz",
+                "-gzout", "off");
+        assertFalse(info.isOutGzip());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-odir", "out",
+                "-oform", "xml");
+        assertFalse(info.isOutGzip());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-odir", "out",
+                "-oform", "xml", "-gzout", "on");
+        assertTrue(info.isOutGzip());
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method, of class OptInfo.
+     */
+    @Test
+    public void testParseXmlPullOption() throws Exception {
+        System.out.println("parseOption(xmlpull)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd");
+        assertFalse(info.isXmlPullParser());
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd",
+                "-xmlpull", "on");
+        assertTrue(info.isXmlPullParser());
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd",
+                "-xmlpull", "no");
+        assertFalse(info.isXmlPullParser());
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method, of class OptInfo.
+     */
+    @Test
+    public void testParseXmlTrustOption() throws Exception {
+        System.out.println("parseOption(xmltrust)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd");
+        assertFalse(info.isXmlTrusted());
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd",
+                "-xmltrust", "on");
+        assertTrue(info.isXmlTrusted());
+
+        info = OptInfo.parseOption("-i", "ifile.xml", "-o", "ofile.pmd",
+                "-xmltrust", "off");
+        assertFalse(info.isXmlTrusted());
+
+        return;
+    }
+
+    /**
+     * Test of parseOption method, of class OptInfo.
+     */
+    @Test
+    public void testParseXmlParallelOption() throws Exception {
+        System.out.println("parseOption(xmlpar)");
+
+        OptInfo info;
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml");
+        assertFalse(info.isXmlParallel());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml",
+                "-xmlpar", "on");
+        assertTrue(info.isXmlParallel());
+
+        info = OptInfo.parseOption("-i", "ifile.pmd", "-o", "ofile.xml",
+                "-xmlpar", "off");
+        assertFalse(info.isXmlParallel());
+
+        return;
+    }
+
     /**
      * Test of needHelp method, of class OptInfo.
      */
@@ -23,7 +23,7 @@ public OptSwitchTest() {
     public void testValues() {
         System.out.println("values");
 
-        assertEquals(8, OptSwitch.values().length);
+        assertEquals(21, OptSwitch.values().length);
 
         return;
     }
@@ -94,6 +94,39 @@ public void testParse() {
         sw = OptSwitch.parse("-oform");
         assertSame(OptSwitch.OPT_OFORM, sw);
 
+        sw = OptSwitch.parse("-idir");
+        assertSame(OptSwitch.OPT_INDIR, sw);
+        sw = OptSwitch.parse("-odir");
+        assertSame(OptSwitch.OPT_OUTDIR, sw);
+        sw = OptSwitch.parse("-joblist");
+        assertSame(OptSwitch.OPT_JOBLIST, sw);
+        sw = OptSwitch.parse("-j");
+        assertSame(OptSwitch.OPT_WORKERS, sw);
+        sw = OptSwitch.parse("-catalog");
+        assertSame(OptSwitch.OPT_CATALOG, sw);
+        sw = OptSwitch.parse("-minbones");
+        assertSame(OptSwitch.OPT_MINBONES, sw);
+        sw = OptSwitch.parse("-uses");
+        assertSame(OptSwitch.OPT_USES, sw);
+
+        sw = OptSwitch.parse("-cachedir");
+        assertSame(OptSwitch.OPT_CACHEDIR, sw);
+
+        sw = OptSwitch.parse("-cachesize");
+        assertSame(OptSwitch.OPT_CACHESIZE, sw);
+
+        sw = OptSwitch.parse("-gzout");
+        assertSame(OptSwitch.OPT_GZOUT, sw);
+
+        sw = OptSwitch.parse("-xmlpull");
+        assertSame(OptSwitch.OPT_XMLPULL, sw);
+
+        sw = OptSwitch.parse("-xmltrust");
+        assertSame(OptSwitch.OPT_XMLTRUST, sw);
+
+        sw = OptSwitch.parse("-xmlpar");
+        assertSame(OptSwitch.OPT_XMLPAR, sw);
+
         return;
     }
 
@@ -112,6 +145,19 @@ public void testGetExArgNum() {
         assertEquals(1, OptSwitch.OPT_GENOUT.getExArgNum());
         assertEquals(1, OptSwitch.OPT_IFORM.getExArgNum());
         assertEquals(1, OptSwitch.OPT_OFORM.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_INDIR.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_OUTDIR.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_JOBLIST.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_WORKERS.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_CATALOG.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_MINBONES.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_USES.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_CACHEDIR.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_CACHESIZE.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_GZOUT.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_XMLPULL.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_XMLTRUST.getExArgNum());
+        assertEquals(1, OptSwitch.OPT_XMLPAR.getExArgNum());
 
         return;
     }
@@ -0,0 +1,185 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class ParallelGzipOutputStreamTest {
+
+    public ParallelGzipOutputStreamTest() {
+    }
+
+    private static byte[] sample(int size){
+        byte[] result = new byte[size];
+        for(int idx = 0; idx < size; idx++){
+            result[idx] = (byte) ("<vertex/>\n".charAt(idx % 10) + idx / 4099);
+        }
+        return result;
+    }
+
+    private static byte[] compress(byte[] data, int threads)
+            throws IOException{
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzos =
+                new ParallelGzipOutputStream(bos, threads);
+        gzos.write(data, 0, 7);
+        gzos.write(data[7]);
+        gzos.write(data, 8, data.length - 8);
+        gzos.close();
+        return bos.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException{
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        for(;;){
+            int size = is.read(buf);
+            if(size < 0) break;
+            result.write(buf, 0, size);
+        }
+        is.close();
+        return result.toByteArray();
+    }
+
+    /**
+     * Test of round trip, of class ParallelGzipOutputStream.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        System.out.println("roundTrip");
+
+        int size = ParallelGzipOutputStream.BLOCK_SZ * 5 + 123;
+        byte[] data = sample(size);
+
+        byte[] gz1 = compress(data, 1);
+        byte[] gz4 = compress(data, 4);
+        assertArrayEquals(gz1, gz4);
+        assertTrue(gz4.length < data.length);
+
+        InputStream is;
+
+        is = new GZIPInputStream(new ByteArrayInputStream(gz4));
+        assertArrayEquals(data, readAll(is));
+
+        is = new GzipPipeInputStream(new ByteArrayInputStream(gz4));
+        assertArrayEquals(data, readAll(is));
+
+        return;
+    }
+
+    /**
+     * Test of empty output, of class ParallelGzipOutputStream.
+     */
+    @Test
+    public void testEmpty() throws Exception {
+        System.out.println("empty");
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(bos, 2).close();
+        byte[] gz = bos.toByteArray();
+        assertTrue(gz.length > 0);
+
+        InputStream is;
+        is = new GZIPInputStream(new ByteArrayInputStream(gz));
+        assertEquals(0, readAll(is).length);
+
+        return;
+    }
+
+    /**
+     * Test of broken input, of class GzipPipeInputStream.
+     */
+    @Test
+    public void testBrokenInput() throws Exception {
+        System.out.println("brokenInput");
+
+        byte[] gz = compress(sample(1000), 1);
+        byte[] broken = new byte[gz.length - 4];
+        System.arraycopy(gz, 0, broken, 0, broken.length);
+
+        InputStream is = new GzipPipeInputStream(
+                new ByteArrayInputStream(broken));
+        try{
+            readAll(is);
+            fail();
+        }catch(IOException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of error in source, of class GzipPipeInputStream.
+     */
+    @Test
+    public void testSourceError() throws Exception {
+        System.out.println("sourceError");
+
+        InputStream source = new InputStream(){
+            @Override
+            public int read(){
+                throw new AssertionError("boom");
+            }
+        };
+
+        InputStream is = new GzipPipeInputStream(source);
+        try{
+            readAll(is);
+            fail();
+        }catch(IOException e){
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+
+        return;
+    }
+
+    /**
+     * Test of gzip output, of class Pmd2XmlConv.
+     */
+    @Test
+    public void testConvertGzip() throws Exception {
+        System.out.println("convertGzip");
+
+        String base = "/testdata/pmd130128/minimum/minimum";
+
+        InputStream expis =
+                ParallelGzipOutputStreamTest.class
+                .getResourceAsStream(base + ".pmd");
+        assertNotNull(expis);
+        byte[] expected = readAll(expis);
+
+        InputStream xmlis =
+                ParallelGzipOutputStreamTest.class
+                .getResourceAsStream(base + ".xml");
+        assertNotNull(xmlis);
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+        converter.setOutGzip(true);
+        converter.setGzipThreads(2);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        converter.convert(xmlis, bos);
+
+        InputStream is;
+        is = new GZIPInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        assertArrayEquals(expected, readAll(is));
+
+        return;
+    }
+
+}
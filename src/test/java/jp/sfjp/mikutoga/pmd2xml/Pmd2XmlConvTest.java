@@ -0,0 +1,91 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.xml.sax.InputSource;
+import testdata.TestModels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class Pmd2XmlConvTest {
+
+    public Pmd2XmlConvTest() {
+    }
+
+    /**
+     * Test of convert method with PMD section streaming,
+     * of class Pmd2XmlConv.
+     * @param pmdResource PMDリソース名
+     * @param xmlResource XMLリソース名
+     * @param type XML種別
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#pmd2xml")
+    public void testConvertSection(String pmdResource,
+                                   String xmlResource,
+                                   ModelFileType type ) throws Exception {
+        System.out.println("convert section " + pmdResource);
+
+        Path pmdPath = TestModels.resourcePath(pmdResource);
+        InputSource source = new InputSource(pmdPath.toUri().toString());
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.PMD);
+        converter.setOutType(type);
+        converter.setNewline("\n");
+        converter.setGenerator(null);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        converter.convert(source, bos);
+
+        assertArrayEquals(TestModels.readResource(xmlResource),
+                          bos.toByteArray() );
+
+        return;
+    }
+
+    /**
+     * Test of convert method with PMD file output,
+     * of class Pmd2XmlConv.
+     * @param xmlResource XMLリソース名
+     * @param pmdResource PMDリソース名
+     * @throws Exception
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("testdata.TestModels#xml2pmd")
+    public void testConvertFile(String xmlResource, String pmdResource)
+            throws Exception {
+        System.out.println("convert file " + xmlResource);
+
+        Path xmlPath = TestModels.resourcePath(xmlResource);
+        InputSource source = new InputSource(xmlPath.toUri().toString());
+
+        File destFile = File.createTempFile("pmd2xml", null);
+        destFile.deleteOnExit();
+
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setOutType(ModelFileType.PMD);
+        converter.setNewline("\n");
+
+        converter.convert(source, destFile.toPath());
+
+        assertArrayEquals(TestModels.readResource(pmdResource),
+                          Files.readAllBytes(destFile.toPath()) );
+
+        return;
+    }
+
+}
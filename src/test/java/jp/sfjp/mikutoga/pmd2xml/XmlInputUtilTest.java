@@ -0,0 +1,90 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.Schema;
+import org.xml.sax.InputSource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class XmlInputUtilTest {
+
+    public XmlInputUtilTest() {
+    }
+
+    /**
+     * Test of toLocalPath method, of class XmlInputUtil.
+     */
+    @Test
+    public void testToLocalPath() {
+        System.out.println("toLocalPath");
+
+        File file = new File("a.pmd").getAbsoluteFile();
+        InputSource source = new InputSource(file.toURI().toString());
+        Path path = XmlInputUtil.toLocalPath(source);
+        assertEquals(file.toPath(), path);
+
+        source = new InputSource("http://example.org/a.pmd");
+        assertNull(XmlInputUtil.toLocalPath(source));
+
+        source = new InputSource(new ByteArrayInputStream(new byte[0]));
+        source.setSystemId(file.toURI().toString());
+        assertNull(XmlInputUtil.toLocalPath(source));
+
+        source = new InputSource();
+        assertNull(XmlInputUtil.toLocalPath(source));
+
+        return;
+    }
+
+    /**
+     * Test of getSchema method, of class XmlInputUtil.
+     */
+    @Test
+    public void testGetSchema() {
+        System.out.println("getSchema");
+
+        Schema schema1 = XmlInputUtil.getSchema(ModelFileType.XML_AUTO);
+        Schema schema2 = XmlInputUtil.getSchema(ModelFileType.XML_AUTO);
+        assertNotNull(schema1);
+        assertSame(schema1, schema2);
+
+        return;
+    }
+
+    /**
+     * Test of buildStreamReader method, of class XmlInputUtil.
+     */
+    @Test
+    public void testBuildStreamReader() throws Exception {
+        System.out.println("buildStreamReader");
+
+        String xml = "<p:a xmlns:p=\"urn:x\" b=\"c\"/>";
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        InputSource source = new InputSource();
+
+        XMLStreamReader reader = XmlInputUtil.buildStreamReader(
+                source, new ByteArrayInputStream(bytes));
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+        assertEquals("urn:x", reader.getNamespaceURI());
+        assertEquals("a", reader.getLocalName());
+        assertEquals("c", reader.getAttributeValue(0));
+        reader.close();
+
+        return;
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ */
+
+package jp.sfjp.mikutoga.pmd2xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import jp.sfjp.mikutoga.xml.TogaXmlException;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class XmlReaderPoolTest {
+
+    public XmlReaderPoolTest() {
+    }
+
+    /**
+     * Test of borrow and release method, of class XmlReaderPool.
+     */
+    @Test
+    public void testBorrowRelease() {
+        System.out.println("borrow/release");
+
+        XmlReaderPool pool = new XmlReaderPool(1);
+        assertEquals(0, pool.idleSize(ModelFileType.XML_AUTO));
+
+        XMLReader reader1 = pool.borrow(ModelFileType.XML_AUTO);
+        XMLReader reader2 = pool.borrow(ModelFileType.XML_AUTO);
+        assertNotNull(reader1);
+        assertNotSame(reader1, reader2);
+
+        pool.release(ModelFileType.XML_AUTO, reader1);
+        pool.release(ModelFileType.XML_AUTO, reader2);
+        assertEquals(1, pool.idleSize(ModelFileType.XML_AUTO));
+        assertEquals(0, pool.idleSize(ModelFileType.XML_130128));
+
+        assertSame(reader1, pool.borrow(ModelFileType.XML_AUTO));
+        assertEquals(0, pool.idleSize(ModelFileType.XML_AUTO));
+
+        try{
+            pool.borrow(ModelFileType.PMD);
+            fail();
+        }catch(IllegalArgumentException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of isValidating method, of class XmlReaderPool.
+     */
+    @Test
+    public void testValidating() {
+        System.out.println("isValidating");
+
+        assertTrue(XmlReaderPool.SHARED.isValidating());
+        assertFalse(XmlReaderPool.TRUSTED.isValidating());
+        assertTrue(new XmlReaderPool(1).isValidating());
+
+        XmlReaderPool pool = new XmlReaderPool(1, false);
+        assertFalse(pool.isValidating());
+
+        XMLReader reader = pool.borrow(ModelFileType.XML_AUTO);
+        assertNotNull(reader);
+        pool.release(ModelFileType.XML_AUTO, reader);
+        assertEquals(1, pool.idleSize(ModelFileType.XML_AUTO));
+
+        return;
+    }
+
+    private static void assertBadAttr(String xml, boolean pull)
+            throws Exception{
+        Pmd2XmlConv converter = new Pmd2XmlConv();
+        converter.setInType(ModelFileType.XML_AUTO);
+        converter.setXmlTrusted(true);
+        converter.setXmlPullParser(pull);
+
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        InputSource source =
+                new InputSource(new ByteArrayInputStream(bytes));
+        try{
+            converter.readModel(source);
+            fail();
+        }catch(TogaXmlException e){
+            // GOOD
+        }
+
+        return;
+    }
+
+    /**
+     * Test of trusted input with broken attributes, of class XmlReaderPool.
+     */
+    @Test
+    public void testTrustedBadAttr() throws Exception {
+        System.out.println("trustedBadAttr");
+
+        InputStream is = XmlReaderPoolTest.class.getResourceAsStream(
+                "/testdata/pmd130128/minimum/minimum.xml");
+        assertNotNull(is);
+        Scanner scanner = new Scanner(is, "UTF-8");
+        String xml;
+        try{
+            xml = scanner.useDelimiter("\\A").next();
+        }finally{
+            scanner.close();
+        }
+
+        String noAttr = xml.replace(" index=\"3\"", "");
+        String badAttr = xml.replace(" index=\"3\"", " index=\"x\"");
+        assertNotEquals(xml, noAttr);
+
+        assertBadAttr(noAttr, false);
+        assertBadAttr(badAttr, false);
+        assertBadAttr(noAttr, true);
+        assertBadAttr(badAttr, true);
+
+        return;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ */
+
+package testdata;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import jp.sfjp.mikutoga.pmd2xml.ModelFileType;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.params.provider.Arguments;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * 変換テスト用のPMDリソースとXMLリソースの組。
+ *
+ * <p>各機能のパラメタ化テストへ引数を供給する。
+ */
+public final class TestModels {
+
+    /**
+     * 数値XML出力の期待値リソース名。
+     * Java19以降では浮動小数点数の最短表記が変わる。
+     */
+    private static final String NUMERIC_XML =
+            JRE.currentVersion().compareTo(JRE.JAVA_19) >= 0
+            ? "result19Later.xml"
+            : "result.xml";
+
+    /** ディレクトリ名、PMDリソース名、XML変換結果リソース名。 */
+    private static final String[][] PMD2XML = {
+        {"bone",     "allbone.pmd",      "allbone.xml"},
+        {"charset",  "charset.pmd",      "result.xml"},
+        {"group",    "boneGroup.pmd",    "boneGroup.xml"},
+        {"i18n",     "i18n.pmd",         "i18n.xml"},
+        {"ik",       "ikBone.pmd",       "ikBone.xml"},
+        {"material", "material.pmd",     "material.xml"},
+        {"minimum",  "minimum.pmd",      "minimum.xml"},
+        {"morph",    "allmorph.pmd",     "allmorph.xml"},
+        {"numeric",  "numeric.pmd",      NUMERIC_XML},
+        {"rigid",    "allrigid.pmd",     "allrigid.xml"},
+        {"small",    "onlybone.pmd",     "onlybone.xml"},
+        {"small",    "onlytriangle.pmd", "onlytriangle.xml"},
+        {"small",    "onlymorph.pmd",    "onlymorph.xml"},
+        {"small",    "onlyrigid.pmd",    "onlyrigid.xml"},
+        {"small",    "onlyjoint.pmd",    "onlyjoint.xml"},
+    };
+
+    /** ディレクトリ名、XMLリソース名、PMD変換結果リソース名。 */
+    private static final String[][] XML2PMD = {
+        {"bone",     "allbone.xml",      "allbone.pmd"},
+        {"charset",  "source.xml",       "charset.pmd"},
+        {"group",    "boneGroup.xml",    "boneGroup.pmd"},
+        {"i18n",     "i18n.xml",         "i18n.pmd"},
+        {"ik",       "ikBone.xml",       "ikBone.pmd"},
+        {"material", "material.xml",     "material.pmd"},
+        {"minimum",  "minimum.xml",      "minimum.pmd"},
+        {"morph",    "allmorph.xml",     "allmorph.pmd"},
+        {"numeric",  "source.xml",       "numeric.pmd"},
+        {"rigid",    "allrigid.xml",     "allrigid.pmd"},
+        {"small",    "onlybone.xml",     "onlybone.pmd"},
+        {"small",    "onlytriangle.xml", "onlytriangle.pmd"},
+        {"small",    "onlymorph.xml",    "onlymorph.pmd"},
+        {"small",    "onlyrigid.xml",    "onlyrigid.pmd"},
+        {"small",    "onlyjoint.xml",    "onlyjoint.pmd"},
+        {"xml",      "namespace.xml",    "minimum.pmd"},
+    };
+
+    private TestModels(){
+    }
+
+    /**
+     * PMDリソース、XML変換結果リソース、XML種別の組を返す。
+     * @return 引数の組
+     */
+    public static Stream<Arguments> pmd2xml(){
+        List<Arguments> result = new ArrayList<>();
+
+        for(String[] row : PMD2XML){
+            result.add(Arguments.of(
+                    resourceName("pmd101009", row[0], row[1]),
+                    resourceName("pmd101009", row[0], row[2]),
+                    ModelFileType.XML_101009 ));
+            result.add(Arguments.of(
+                    resourceName("pmd130128", row[0], row[1]),
+                    resourceName("pmd130128", row[0], row[2]),
+                    ModelFileType.XML_130128 ));
+        }
+
+        return result.stream();
+    }
+
+    /**
+     * XMLリソース、PMD変換結果リソースの組を返す。
+     * @return 引数の組
+     */
+    public static Stream<Arguments> xml2pmd(){
+        List<Arguments> result = new ArrayList<>();
+
+        for(String[] row : XML2PMD){
+            result.add(Arguments.of(
+                    resourceName("pmd101009", row[0], row[1]),
+                    resourceName("pmd101009", row[0], row[2]) ));
+            result.add(Arguments.of(
+                    resourceName("pmd130128", row[0], row[1]),
+                    resourceName("pmd130128", row[0], row[2]) ));
+        }
+
+        return result.stream();
+    }
+
+    /**
+     * リソース名を組み立てる。
+     * @param version 版ディレクトリ名
+     * @param dir ディレクトリ名
+     * @param file ファイル名
+     * @return リソース名
+     */
+    private static String resourceName(String version,
+                                         String dir,
+                                         String file ){
+        String result = "/testdata/" + version + "/" + dir + "/" + file;
+        return result;
+    }
+
+    /**
+     * リソースのファイルパスを得る。
+     * @param resourceName リソース名
+     * @return ファイルパス
+     * @throws Exception エラー
+     */
+    public static Path resourcePath(String resourceName) throws Exception{
+        URL url = TestModels.class.getResource(resourceName);
+        assertNotNull(url, resourceName);
+        Path path = Paths.get(url.toURI());
+        return path;
+    }
+
+    /**
+     * リソースの内容を得る。
+     * @param resourceName リソース名
+     * @return リソースの内容
+     * @throws Exception エラー
+     */
+    public static byte[] readResource(String resourceName) throws Exception{
+        byte[] result = Files.readAllBytes(resourcePath(resourceName));
+        return result;
+    }
+
+}